@@ -208,9 +208,7 @@ public interface Chat extends ChatMessageReceiver {
      */
     default Collection<UserAssociation> getUserAssociations() {
         return Collections.unmodifiableCollection(
-                getPlatformUserIds().stream()
-                        .map(platformUserId -> getPlatform().getUserAssocation(platformUserId))
-                        .filter(Objects::nonNull)
+                getPlatform().getUserAssociations(getPlatformUserIds()).stream()
                         .filter(association -> association.getUser() != null)
                         .collect(Collectors.toList())
         );
@@ -101,7 +101,7 @@ public interface ChatSender extends ChatMessageReceiver {
                         .virtual(result.getResults())
                         .responder(formatter)
                         .elementsPerPage(result.getPageSize())
-                        .totalElements(result.getTotalResults())
+                        .totalElements(result.getTotalResults(), result.isTotalExact())
                         .page(result.getPage())
         );
     }
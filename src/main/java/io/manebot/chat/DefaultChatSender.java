@@ -44,6 +44,7 @@ public class DefaultChatSender implements ChatSender {
                     return new DefaultRichCommandListResponse<>(
                             DefaultChatSender.this,
                             getTotalElements(),
+                            isTotalExact(),
                             getPage(),
                             getElementsPerPage(),
                             createListAccessor(),
@@ -58,6 +59,7 @@ public class DefaultChatSender implements ChatSender {
                     return new DefaultBasicCommandListResponse<>(
                             DefaultChatSender.this,
                             getTotalElements(),
+                            isTotalExact(),
                             getPage(),
                             getElementsPerPage(),
                             createListAccessor(),
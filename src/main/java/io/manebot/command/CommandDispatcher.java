@@ -3,6 +3,7 @@ package io.manebot.command;
 import io.manebot.command.exception.CommandExecutionException;
 import io.manebot.user.User;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
 
 public interface CommandDispatcher {
@@ -28,4 +29,14 @@ public interface CommandDispatcher {
      */
     Future<Boolean> executeAsync(CommandMessage commandMessage);
 
+    /**
+     * Dispatches a command asynchronously on a pipeline, in order with the other commands of its sender's shell.
+     * @param commandMessage Command message to execute.
+     * @param pipeline pipeline to execute the command on.
+     * @return CompletableFuture instance to track execution.
+     */
+    default CompletableFuture<Boolean> executeAsync(CommandMessage commandMessage, CommandPipeline pipeline) {
+        return pipeline.submit(this, commandMessage);
+    }
+
 }
\ No newline at end of file
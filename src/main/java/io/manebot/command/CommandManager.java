@@ -2,10 +2,15 @@ package io.manebot.command;
 
 import io.manebot.command.executor.AliasedCommandExecutor;
 import io.manebot.command.executor.CommandExecutor;
+import io.manebot.command.executor.RateLimitedCommandExecutor;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 public abstract class CommandManager {
+    private final LabelTrie<Registration> labels = new LabelTrie<>();
 
     /**
      * Registers a command executor to the system.
@@ -33,6 +38,62 @@ public abstract class CommandManager {
      */
     public abstract CommandExecutor getExecutor(String label);
 
+    /**
+     * Gets a command executor by its label, or by a prefix of exactly one registered label, such as "pl" for
+     * "plugin".
+     * @param label label or unique label prefix to find.
+     * @return CommandExecutor instance if one is found, null otherwise.
+     */
+    public CommandExecutor resolveExecutor(String label) {
+        CommandExecutor executor = getExecutor(label);
+        if (executor != null) return executor;
+
+        while (true) {
+            Registration registration = labels.resolve(label);
+            if (registration == null) {
+                // The prefix may only be ambiguous because of labels unregistered since they were indexed.
+                if (prune(label)) continue;
+                return null;
+            }
+
+            executor = getExecutor(registration.getLabel());
+            if (executor != null) return executor;
+
+            // The label was unregistered since it was indexed.
+            labels.remove(registration.getLabel(), registration);
+        }
+    }
+
+    /**
+     * Lists the registered labels beginning with a prefix, in any case.
+     * @param prefix label prefix.
+     * @return labels beginning with the prefix, in order.
+     */
+    public List<String> getCompletions(String prefix) {
+        List<String> completions = new ArrayList<>();
+
+        for (Map.Entry<String, Registration> entry : labels.entries(prefix).entrySet())
+            if (getExecutor(entry.getKey()) != null) completions.add(entry.getKey());
+            else labels.remove(entry.getKey(), entry.getValue());
+
+        return completions;
+    }
+
+    /**
+     * Removes the indexed labels beginning with a prefix which have been unregistered.
+     * @param prefix label prefix.
+     * @return true if any labels were removed, false otherwise.
+     */
+    private boolean prune(String prefix) {
+        boolean pruned = false;
+
+        for (Map.Entry<String, Registration> entry : labels.entries(prefix).entrySet())
+            if (getExecutor(entry.getKey()) == null && labels.remove(entry.getKey(), entry.getValue()) != null)
+                pruned = true;
+
+        return pruned;
+    }
+
     /**
      * Gets a collection of command registrations, essentially a tuple of executors to labels.
      * @return immutable collection of command registrations.
@@ -40,7 +101,8 @@ public abstract class CommandManager {
     public abstract Collection<Registration> getRegistrations();
 
     /**
-     * Command Registrations are a fluent way of aliasing commands.
+     * Command Registrations are a fluent way of aliasing commands.  Labels are indexed for <b>resolveExecutor</b> and
+     * <b>getCompletions</b> as registrations are created.
      */
     public class Registration {
         private final CommandExecutor executor;
@@ -49,6 +111,8 @@ public abstract class CommandManager {
         public Registration(CommandExecutor executor, String label) {
             this.executor = executor;
             this.label = label;
+
+            labels.put(label, this);
         }
 
         /**
@@ -75,5 +139,16 @@ public abstract class CommandManager {
         public Registration alias(String alias) {
             return registerExecutor(alias, new AliasedCommandExecutor(executor, label));
         }
+
+        /**
+         * Limits the rate at which the command described by this registration is accepted, re-registering its label.
+         * Aliases share the limit of the command they alias, so this should be called before any are created.
+         * @param rateLimiter rate limiter to acquire permits from.
+         * @return Registration instance of the rate limited command.
+         */
+        public Registration rateLimit(CommandRateLimiter rateLimiter) {
+            unregisterExecutor(label);
+            return registerExecutor(label, new RateLimitedCommandExecutor(executor, label, rateLimiter));
+        }
     }
 }
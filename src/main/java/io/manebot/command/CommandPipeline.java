@@ -0,0 +1,230 @@
+package io.manebot.command;
+
+import com.google.common.collect.MapMaker;
+import io.manebot.command.exception.CommandExecutionException;
+import io.manebot.virtual.Virtual;
+import io.manebot.virtual.VirtualProcess;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.*;
+
+/**
+ * Executes commands asynchronously on a shared pool of workers, one command at a time per command shell.
+ *
+ * Commands sent to the same shell are executed in the order they were submitted, and never concurrently; commands
+ * sent to different shells share the pool, which only ever holds the next command of each shell.  A shell may have at
+ * most <b>queueLimit</b> commands waiting behind the one it is executing; further commands are rejected until it
+ * catches up.
+ *
+ * Cancelling a command's future with interruption removes it from its shell's queue if it is still waiting, or
+ * interrupts the virtual process (or, failing that, the thread) executing it.
+ */
+public final class CommandPipeline implements AutoCloseable {
+    /**
+     * Default count of commands a shell may have waiting.
+     */
+    public static final int DEFAULT_QUEUE_LIMIT = 8;
+
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+    private final int queueLimit;
+    private final Map<CommandShell, Lane> lanes = new MapMaker().weakKeys().makeMap();
+
+    /**
+     * Creates a pipeline executing commands on a given executor.  The executor is not shut down when the pipeline is
+     * closed.
+     * @param executor executor to run commands on.
+     * @param queueLimit count of commands a shell may have waiting.
+     */
+    public CommandPipeline(Executor executor, int queueLimit) {
+        if (queueLimit < 0) throw new IllegalArgumentException("queueLimit cannot be < 0");
+
+        this.executor = executor;
+        this.ownedExecutor = null;
+        this.queueLimit = queueLimit;
+    }
+
+    /**
+     * Creates a pipeline executing commands on its own fixed pool of workers, which is shut down when the pipeline is
+     * closed.
+     * @param threadFactory factory creating worker threads; typically <b>Virtual.getInstance()</b>, so that commands
+     *                      execute in virtual processes.
+     * @param workers count of workers.
+     * @param queueLimit count of commands a shell may have waiting.
+     */
+    public CommandPipeline(ThreadFactory threadFactory, int workers, int queueLimit) {
+        if (workers <= 0) throw new IllegalArgumentException("workers cannot be <= 0");
+        if (queueLimit < 0) throw new IllegalArgumentException("queueLimit cannot be < 0");
+
+        this.ownedExecutor = Executors.newFixedThreadPool(workers, threadFactory);
+        this.executor = ownedExecutor;
+        this.queueLimit = queueLimit;
+    }
+
+    /**
+     * Submits a command to the shell of its sender.
+     * @param dispatcher dispatcher providing the sender's shell.
+     * @param message command message to execute.
+     * @return future completed with <b>true</b> once the command has executed, or exceptionally with the problem
+     *         executing it.
+     */
+    public CompletableFuture<Boolean> submit(CommandDispatcher dispatcher, CommandMessage message) {
+        return submit(dispatcher.getShell(message.getSender().getUser()), message);
+    }
+
+    /**
+     * Submits a command to a shell.
+     * @param shell shell to execute the command on.
+     * @param message command message to execute.
+     * @return future completed with <b>true</b> once the command has executed, or exceptionally with the problem
+     *         executing it; a CommandExecutionException if the shell has too many commands waiting.
+     */
+    public CompletableFuture<Boolean> submit(CommandShell shell, CommandMessage message) {
+        Task task = new Task(shell, message);
+        lanes.computeIfAbsent(shell, key -> new Lane()).offer(task);
+        return task;
+    }
+
+    /**
+     * Gets the count of commands waiting on a shell, not including the command it is executing.
+     * @param shell shell to count commands of.
+     * @return waiting command count.
+     */
+    public int getQueued(CommandShell shell) {
+        Lane lane = lanes.get(shell);
+        return lane == null ? 0 : lane.size();
+    }
+
+    @Override
+    public void close() {
+        if (ownedExecutor != null) ownedExecutor.shutdownNow();
+    }
+
+    /**
+     * Commands of a shell: the command executing, and those waiting behind it.
+     */
+    private final class Lane {
+        private final Queue<Task> waiting = new ArrayDeque<>();
+        private boolean running = false;
+
+        private synchronized int size() {
+            return waiting.size();
+        }
+
+        private void offer(Task task) {
+            synchronized (this) {
+                if (running) {
+                    if (waiting.size() >= queueLimit) {
+                        task.completeExceptionally(new CommandExecutionException(
+                                "Too many commands are waiting; try again shortly."
+                        ));
+                    } else {
+                        task.lane = this;
+                        waiting.add(task);
+                    }
+
+                    return;
+                }
+
+                running = true;
+            }
+
+            schedule(task);
+        }
+
+        private synchronized void remove(Task task) {
+            waiting.remove(task);
+        }
+
+        private void next() {
+            Task task;
+
+            synchronized (this) {
+                task = waiting.poll();
+                if (task == null) {
+                    running = false;
+                    return;
+                }
+            }
+
+            schedule(task);
+        }
+
+        private void schedule(Task task) {
+            task.lane = this;
+
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                task.completeExceptionally(new CommandExecutionException(e));
+                next();
+            }
+        }
+    }
+
+    /**
+     * Command waiting on, or executing on, a shell; its own future.
+     */
+    private static final class Task extends CompletableFuture<Boolean> implements Runnable {
+        private final CommandShell shell;
+        private final CommandMessage message;
+        private final Object threadLock = new Object();
+        private volatile Lane lane;
+        private Thread thread;
+
+        private Task(CommandShell shell, CommandMessage message) {
+            this.shell = shell;
+            this.message = message;
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (isDone()) return;
+
+                synchronized (threadLock) {
+                    thread = Thread.currentThread();
+                }
+
+                try {
+                    shell.execute(message);
+                    complete(true);
+                } catch (Throwable e) {
+                    completeExceptionally(e);
+                } finally {
+                    synchronized (threadLock) {
+                        thread = null;
+
+                        // Clear any interrupt aimed at this command, so that it does not reach the next one.
+                        Thread.interrupted();
+                    }
+                }
+            } finally {
+                lane.next();
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            if (!super.cancel(mayInterruptIfRunning)) return false;
+
+            Lane lane = this.lane;
+            if (lane != null) lane.remove(this);
+
+            if (mayInterruptIfRunning) {
+                synchronized (threadLock) {
+                    if (thread != null) {
+                        Virtual virtual = Virtual.getInstance();
+                        VirtualProcess process = virtual == null ? null : virtual.getProcess(thread);
+                        if (process != null) process.interrupt();
+                        else thread.interrupt();
+                    }
+                }
+            }
+
+            return true;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package io.manebot.command;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.manebot.chat.Chat;
+import io.manebot.command.exception.CommandRateLimitException;
+import io.manebot.platform.PlatformUser;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits the rate at which commands are accepted, per command label and per sender, chat, or platform user.
+ *
+ * Each key has a token bucket holding up to <b>burst</b> commands, refilled at <b>permits</b> commands per
+ * <b>period</b>.  Buckets are kept as the time at which they would next be full, and updated with a single
+ * compare-and-set, so acquiring never blocks.  Buckets which have refilled are forgotten.
+ */
+public final class CommandRateLimiter {
+    private final int permits;
+    private final long period;
+    private final int burst;
+    private final Scope scope;
+
+    private final long interval;
+    private final long tolerance;
+
+    private final Cache<Object, AtomicLong> buckets;
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Creates a rate limiter.
+     * @param permits count of commands accepted per period.
+     * @param period period length.
+     * @param unit unit of the period length.
+     * @param burst count of commands which may be accepted at once, after a key has been idle.
+     * @param scope scope of each bucket.
+     */
+    public CommandRateLimiter(int permits, long period, TimeUnit unit, int burst, Scope scope) {
+        if (permits <= 0) throw new IllegalArgumentException("permits cannot be <= 0");
+        if (period <= 0) throw new IllegalArgumentException("period cannot be <= 0");
+        if (burst <= 0) throw new IllegalArgumentException("burst cannot be <= 0");
+
+        this.permits = permits;
+        this.period = unit.toNanos(period);
+        this.burst = burst;
+        this.scope = scope;
+
+        this.interval = Math.max(1L, this.period / permits);
+        this.tolerance = interval * (burst - 1);
+
+        this.buckets = CacheBuilder.newBuilder()
+                .expireAfterAccess(interval + tolerance, TimeUnit.NANOSECONDS)
+                .build();
+    }
+
+    /**
+     * Creates a rate limiter whose burst is its count of permits.
+     * @param permits count of commands accepted per period.
+     * @param period period length.
+     * @param unit unit of the period length.
+     * @param scope scope of each bucket.
+     */
+    public CommandRateLimiter(int permits, long period, TimeUnit unit, Scope scope) {
+        this(permits, period, unit, permits, scope);
+    }
+
+    public int getPermits() {
+        return permits;
+    }
+
+    public long getPeriod(TimeUnit unit) {
+        return unit.convert(period, TimeUnit.NANOSECONDS);
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    public Scope getScope() {
+        return scope;
+    }
+
+    /**
+     * Gets the count of commands accepted by this limiter.
+     * @return accepted command count.
+     */
+    public long getAccepted() {
+        return accepted.sum();
+    }
+
+    /**
+     * Gets the count of commands rejected by this limiter.
+     * @return rejected command count.
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Acquires a permit to execute a command.
+     * @param sender sender executing the command.
+     * @param label label the command was executed with.
+     * @throws CommandRateLimitException if the sender has exceeded this limit.
+     */
+    public void acquire(CommandSender sender, String label) throws CommandRateLimitException {
+        long wait = tryAcquire(sender, label);
+        if (wait <= 0L) return;
+
+        long retryAfter = Math.max(1L, TimeUnit.NANOSECONDS.toMillis(wait));
+        throw new CommandRateLimitException(
+                "Too many commands; try again in " +
+                        ((retryAfter + 999L) / 1000L) + " second(s).",
+                retryAfter
+        );
+    }
+
+    /**
+     * Attempts to acquire a permit to execute a command.
+     * @param sender sender executing the command.
+     * @param label label the command was executed with.
+     * @return 0 if a permit was acquired, otherwise the nanoseconds until one would be.
+     */
+    public long tryAcquire(CommandSender sender, String label) {
+        AtomicLong bucket;
+
+        try {
+            bucket = buckets.get(
+                    Arrays.asList(scope.getKey(sender), label == null ? null : label.toLowerCase()),
+                    () -> new AtomicLong(System.nanoTime())
+            );
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+
+        while (true) {
+            long now = System.nanoTime();
+            long full = bucket.get();
+            long next = Math.max(full - now, 0L) + interval;
+
+            if (next > interval + tolerance) {
+                rejected.increment();
+                return next - interval - tolerance;
+            }
+
+            if (bucket.compareAndSet(full, now + next)) {
+                accepted.increment();
+                return 0L;
+            }
+        }
+    }
+
+    /**
+     * Scope of a rate limit's buckets, besides the command label.
+     */
+    public enum Scope {
+        /**
+         * One bucket per user, across every platform and chat.
+         */
+        USER {
+            @Override
+            Object getKey(CommandSender sender) {
+                return sender.getUsername();
+            }
+        },
+
+        /**
+         * One bucket per platform user.
+         */
+        PLATFORM_USER {
+            @Override
+            Object getKey(CommandSender sender) {
+                PlatformUser platformUser = sender.getPlatformUser();
+                return Arrays.asList(platformUser.getPlatform().getId(), platformUser.getId());
+            }
+        },
+
+        /**
+         * One bucket per chat, shared by its members.
+         */
+        CHAT {
+            @Override
+            Object getKey(CommandSender sender) {
+                Chat chat = sender.getChat();
+                return Arrays.asList(chat.getPlatform().getId(), chat.getId());
+            }
+        },
+
+        /**
+         * One bucket shared by every sender.
+         */
+        GLOBAL {
+            @Override
+            Object getKey(CommandSender sender) {
+                return GLOBAL;
+            }
+        };
+
+        abstract Object getKey(CommandSender sender);
+    }
+}
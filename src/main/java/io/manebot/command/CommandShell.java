@@ -3,6 +3,7 @@ package io.manebot.command;
 import io.manebot.command.exception.CommandExecutionException;
 import io.manebot.user.User;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
 
 public interface CommandShell {
@@ -13,6 +14,16 @@ public interface CommandShell {
 
     Future<Boolean> executeAsync(CommandMessage message);
 
+    /**
+     * Executes a command asynchronously on a pipeline, after any commands already waiting on this shell.
+     * @param message Command message to execute.
+     * @param pipeline pipeline to execute the command on.
+     * @return CompletableFuture instance to track execution.
+     */
+    default CompletableFuture<Boolean> executeAsync(CommandMessage message, CommandPipeline pipeline) {
+        return pipeline.submit(this, message);
+    }
+
     boolean isOpen();
 
     void ensureOpen();
@@ -0,0 +1,266 @@
+package io.manebot.command;
+
+import java.util.*;
+
+/**
+ * Case-insensitive map of labels, such as command labels or sub-command routes, to values.
+ *
+ * Labels are stored in a trie keyed by character, folded as <i>String.equalsIgnoreCase</i> compares them, so lookups
+ * walk the given label without allocating a lower-case copy of it.  Each node counts the labels beneath it, so a
+ * prefix shared by only one label resolves to that label, and labels beginning with a prefix are listed without
+ * visiting the rest of the trie.
+ *
+ * Changes are synchronized; lookups are not, and see each node's children and value as of their last change.
+ *
+ * @param <V> value type.
+ */
+public final class LabelTrie<V> {
+    private final Node<V> root = new Node<>();
+
+    /**
+     * Gets the count of labels in this trie.
+     * @return label count.
+     */
+    public int size() {
+        return root.count;
+    }
+
+    public boolean isEmpty() {
+        return size() <= 0;
+    }
+
+    /**
+     * Maps a label to a value, replacing any value mapped to a label equal to it ignoring case.
+     * @param label label to map.
+     * @param value value to map.
+     * @return previous value, or null if there was none.
+     */
+    public synchronized V put(String label, V value) {
+        if (value == null) throw new NullPointerException("value");
+
+        Node<V>[] path = path(label, true);
+        Node<V> node = path[label.length()];
+
+        V previous = node.value;
+        node.label = label;
+        node.value = value;
+
+        if (previous == null) for (Node<V> parent : path) parent.count ++;
+
+        return previous;
+    }
+
+    /**
+     * Removes a label.
+     * @param label label to remove, in any case.
+     * @return removed value, or null if the label was not mapped.
+     */
+    public synchronized V remove(String label) {
+        return remove(label, null);
+    }
+
+    /**
+     * Removes a label if it is mapped to a given value.
+     * @param label label to remove, in any case.
+     * @param value value the label must be mapped to, or null to remove it regardless.
+     * @return removed value, or null if the label was not removed.
+     */
+    public synchronized V remove(String label, V value) {
+        Node<V>[] path = path(label, false);
+        if (path == null) return null;
+
+        Node<V> node = path[label.length()];
+        V previous = node.value;
+        if (previous == null || (value != null && previous != value)) return null;
+
+        node.value = null;
+        node.label = null;
+        for (Node<V> parent : path) parent.count --;
+
+        // Prune nodes which no longer lead to any label.
+        for (int i = label.length(); i > 0; i --) {
+            if (path[i].count > 0) break;
+            path[i - 1].branches = path[i - 1].branches.without(fold(label.charAt(i - 1)));
+        }
+
+        return previous;
+    }
+
+    /**
+     * Gets the value mapped to a label.
+     * @param label label to find, in any case.
+     * @return value, or null if the label is not mapped.
+     */
+    public V get(String label) {
+        Node<V> node = find(label);
+        return node == null ? null : node.value;
+    }
+
+    /**
+     * Resolves a label or unique prefix of a label.
+     * @param prefix label, or prefix of exactly one label, in any case.
+     * @return value of the label, or null if no label or more than one label begins with the prefix.
+     */
+    public V resolve(String prefix) {
+        Node<V> node = resolveNode(prefix);
+        return node == null ? null : node.value;
+    }
+
+    /**
+     * Resolves a label or unique prefix of a label to the label as it was mapped.
+     * @param prefix label, or prefix of exactly one label, in any case.
+     * @return mapped label, or null if no label or more than one label begins with the prefix.
+     */
+    public String resolveLabel(String prefix) {
+        Node<V> node = resolveNode(prefix);
+        return node == null ? null : node.label;
+    }
+
+    /**
+     * Lists the labels beginning with a prefix.
+     * @param prefix prefix, in any case.
+     * @return labels as they were mapped, ordered by their folded characters.
+     */
+    public List<String> complete(String prefix) {
+        return new ArrayList<>(entries(prefix).keySet());
+    }
+
+    /**
+     * Lists the labels beginning with a prefix, and their values.
+     * @param prefix prefix, in any case.
+     * @return map of labels as they were mapped to their values, ordered by their folded characters.
+     */
+    public Map<String, V> entries(String prefix) {
+        Node<V> node = find(prefix);
+        if (node == null) return Collections.emptyMap();
+
+        Map<String, V> entries = new LinkedHashMap<>(Math.max(16, node.count * 2));
+        collect(node, entries);
+        return entries;
+    }
+
+    private Node<V> find(String label) {
+        Node<V> node = root;
+
+        for (int i = 0; i < label.length() && node != null; i ++)
+            node = node.branches.get(fold(label.charAt(i)));
+
+        return node;
+    }
+
+    private Node<V> resolveNode(String prefix) {
+        Node<V> node = find(prefix);
+        if (node == null || node.value != null) return node;
+        if (node.count != 1) return null;
+
+        // Exactly one label begins with the prefix; follow the only branch leading to it.
+        while (node != null && node.value == null) {
+            Node<V> next = null;
+            for (Node<V> child : node.branches.nodes)
+                if (child.count > 0) {
+                    next = child;
+                    break;
+                }
+
+            node = next;
+        }
+
+        return node;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Node<V>[] path(String label, boolean create) {
+        Node<V>[] path = (Node<V>[]) new Node[label.length() + 1];
+        Node<V> node = path[0] = root;
+
+        for (int i = 0; i < label.length(); i ++) {
+            char key = fold(label.charAt(i));
+            Node<V> child = node.branches.get(key);
+
+            if (child == null) {
+                if (!create) return null;
+                node.branches = node.branches.with(key, child = new Node<>());
+            }
+
+            path[i + 1] = node = child;
+        }
+
+        return path;
+    }
+
+    private void collect(Node<V> node, Map<String, V> entries) {
+        V value = node.value;
+        if (value != null) entries.put(node.label, value);
+        for (Node<V> child : node.branches.nodes) collect(child, entries);
+    }
+
+    private static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    private static final class Node<V> {
+        private volatile Branches<V> branches = Branches.empty();
+        private volatile String label;
+        private volatile V value;
+        private volatile int count;
+    }
+
+    /**
+     * Children of a node, sorted by folded character.  Branches are immutable, and replaced as children are added and
+     * removed.
+     */
+    private static final class Branches<V> {
+        private static final Branches<?> EMPTY = new Branches<>(new char[0], new Node<?>[0]);
+
+        private final char[] keys;
+        private final Node<V>[] nodes;
+
+        @SuppressWarnings("unchecked")
+        private Branches(char[] keys, Node<?>[] nodes) {
+            this.keys = keys;
+            this.nodes = (Node<V>[]) nodes;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <V> Branches<V> empty() {
+            return (Branches<V>) EMPTY;
+        }
+
+        private Node<V> get(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            return index < 0 ? null : nodes[index];
+        }
+
+        private Branches<V> with(char key, Node<V> node) {
+            int index = -(Arrays.binarySearch(keys, key) + 1);
+
+            char[] keys = new char[this.keys.length + 1];
+            Node<?>[] nodes = new Node<?>[this.nodes.length + 1];
+
+            System.arraycopy(this.keys, 0, keys, 0, index);
+            System.arraycopy(this.nodes, 0, nodes, 0, index);
+            keys[index] = key;
+            nodes[index] = node;
+            System.arraycopy(this.keys, index, keys, index + 1, this.keys.length - index);
+            System.arraycopy(this.nodes, index, nodes, index + 1, this.nodes.length - index);
+
+            return new Branches<>(keys, nodes);
+        }
+
+        private Branches<V> without(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            if (index < 0) return this;
+            if (keys.length == 1) return empty();
+
+            char[] keys = new char[this.keys.length - 1];
+            Node<?>[] nodes = new Node<?>[this.nodes.length - 1];
+
+            System.arraycopy(this.keys, 0, keys, 0, index);
+            System.arraycopy(this.nodes, 0, nodes, 0, index);
+            System.arraycopy(this.keys, index + 1, keys, index, keys.length - index);
+            System.arraycopy(this.nodes, index + 1, nodes, index, nodes.length - index);
+
+            return new Branches<>(keys, nodes);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package io.manebot.command.exception;
+
+/**
+ * Thrown when a command is rejected because its sender has exceeded the command's rate limit.
+ */
+public class CommandRateLimitException extends CommandExecutionException {
+    private final long retryAfter;
+
+    public CommandRateLimitException(String message, long retryAfter) {
+        super(false, "\u23F3" + ' ' + message);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Gets the time after which the command would be accepted.
+     * @return milliseconds until the command would be accepted.
+     */
+    public long getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,52 @@
+package io.manebot.command.executor;
+
+import io.manebot.command.CommandRateLimiter;
+import io.manebot.command.CommandSender;
+import io.manebot.command.exception.CommandExecutionException;
+
+import java.util.List;
+
+public class RateLimitedCommandExecutor implements CommandExecutor {
+    private final CommandExecutor executor;
+    private final String label;
+    private final CommandRateLimiter rateLimiter;
+
+    /**
+     * Creates a rate limited executor.
+     * @param executor executor to limit.
+     * @param label label the executor is registered with; commands are limited by this label, so that aliases share
+     *              its limit.
+     * @param rateLimiter rate limiter to acquire permits from.
+     */
+    public RateLimitedCommandExecutor(CommandExecutor executor, String label, CommandRateLimiter rateLimiter) {
+        this.executor = executor;
+        this.label = label;
+        this.rateLimiter = rateLimiter;
+    }
+
+    public CommandRateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    @Override
+    public String getDescription() {
+        return executor.getDescription();
+    }
+
+    @Override
+    public List<String> getHelp(CommandSender sender, String label, String[] args) throws CommandExecutionException {
+        return executor.getHelp(sender, label, args);
+    }
+
+    @Override
+    public void execute(CommandSender sender, String label, String[] args)
+            throws CommandExecutionException {
+        rateLimiter.acquire(sender, this.label);
+        executor.execute(sender, label, args);
+    }
+
+    @Override
+    public boolean isBuffered() {
+        return executor.isBuffered();
+    }
+}
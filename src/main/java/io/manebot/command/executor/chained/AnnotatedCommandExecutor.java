@@ -1,5 +1,6 @@
 package io.manebot.command.executor.chained;
 
+import io.manebot.command.CommandRateLimiter;
 import io.manebot.command.CommandSender;
 import io.manebot.command.exception.CommandExecutionException;
 import io.manebot.command.executor.chained.argument.CommandArgument;
@@ -9,14 +10,28 @@ import io.manebot.security.Permission;
 import io.manebot.virtual.Virtual;
 
 import java.lang.annotation.*;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.Parameter;
 import java.util.Collection;
 import java.util.LinkedList;
+import java.util.concurrent.TimeUnit;
 
 public abstract class AnnotatedCommandExecutor extends ChainedCommandExecutor {
+    /**
+     * Type every command method is adapted to: the sender, and the parsed arguments spread over the method's
+     * remaining parameters.
+     */
+    private static final MethodType COMMAND_TYPE = MethodType.methodType(
+            void.class,
+            CommandSender.class,
+            Object[].class
+    );
+
     public AnnotatedCommandExecutor() {
         try {
             register();
@@ -83,6 +98,11 @@ public abstract class AnnotatedCommandExecutor extends ChainedCommandExecutor {
                 arguments.add(instance);
             }
 
+            if (commandSenderParameter == null)
+                throw new ReflectiveOperationException(new IllegalArgumentException(
+                        "first parameter of type " + CommandSender.class.getName() + " not declared"
+                ));
+
             if (arguments.size() <= 0) arguments.add(new CommandArgumentNone());
 
             CommandChain chain = withArguments(arguments);
@@ -90,27 +110,53 @@ public abstract class AnnotatedCommandExecutor extends ChainedCommandExecutor {
             if (commandDefinition.description().length() > 0)
                 chain.withDescription(commandDefinition.description());
 
-            chain.setExecutor((sender, label, args) -> {
-                try {
-                    if (commandDefinition.permission().length() > 0) {
-                        Permission.checkPermission(commandDefinition.permission(), commandDefinition.defaultGrant());
-                    }
+            MethodHandle handle = bind(method);
+            String permission = commandDefinition.permission();
+            Grant defaultGrant = commandDefinition.defaultGrant();
+
+            RateLimit rateLimit = commandDefinition.rateLimit();
+            CommandRateLimiter rateLimiter = rateLimit.permits() <= 0 ? null : new CommandRateLimiter(
+                    rateLimit.permits(),
+                    rateLimit.period(),
+                    rateLimit.unit(),
+                    rateLimit.burst() <= 0 ? rateLimit.permits() : rateLimit.burst(),
+                    rateLimit.scope()
+            );
 
-                    Object[] invocationArgs = new Object[args.length + 1];
-                    System.arraycopy(args, 0, invocationArgs, 1, args.length);
-                    invocationArgs[0] = sender;
+            // Each method has its own limiter, so every label and alias it is executed by shares one bucket.
+            String rateLimitKey = method.getName();
+
+            chain.setExecutor((sender, label, args) -> {
+                if (permission.length() > 0) Permission.checkPermission(permission, defaultGrant);
+                if (rateLimiter != null) rateLimiter.acquire(sender, rateLimitKey);
 
-                    method.setAccessible(true);
-                    method.invoke(this, invocationArgs);
-                } catch (IllegalAccessException e) {
+                try {
+                    handle.invokeExact(sender, args);
+                } catch (Throwable e) {
                     throw new CommandExecutionException(e);
-                } catch (InvocationTargetException ite) {
-                    throw new CommandExecutionException(ite.getTargetException());
                 }
             });
         }
     }
 
+    /**
+     * Binds a command method to this executor, adapting it to <b>COMMAND_TYPE</b> so that it is invoked without
+     * reflection, or copying the parsed arguments.  Static command methods take no executor, and are not bound.
+     * @param method command method.
+     * @return bound method handle.
+     * @throws IllegalAccessException if the method cannot be accessed.
+     */
+    private MethodHandle bind(Method method) throws IllegalAccessException {
+        method.setAccessible(true);
+
+        MethodHandle handle = MethodHandles.lookup().unreflect(method);
+        if (!Modifier.isStatic(method.getModifiers())) handle = handle.bindTo(this);
+
+        return handle
+                .asSpreader(Object[].class, method.getParameterCount() - 1)
+                .asType(COMMAND_TYPE);
+    }
+
     @Retention(RetentionPolicy.RUNTIME)
     @Target(ElementType.METHOD)
     public @interface Command {
@@ -133,6 +179,47 @@ public abstract class AnnotatedCommandExecutor extends ChainedCommandExecutor {
          * @return default grant behavior.
          */
         Grant defaultGrant() default Grant.DENY;
+
+        /**
+         * Rate limit of this command, checked after <b>permission</b>.  The limit is shared by every label the
+         * command is executed with.
+         * @return rate limit; no limit when its permits are 0.
+         */
+        RateLimit rateLimit() default @RateLimit(permits = 0);
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({})
+    public @interface RateLimit {
+        /**
+         * Count of executions accepted per period.
+         * @return permits, or 0 for no limit.
+         */
+        int permits();
+
+        /**
+         * Length of the period <b>permits</b> are accepted in.
+         * @return period length.
+         */
+        long period() default 60;
+
+        /**
+         * Unit of <b>period</b>.
+         * @return period unit.
+         */
+        TimeUnit unit() default TimeUnit.SECONDS;
+
+        /**
+         * Count of executions which may be accepted at once.
+         * @return burst, or 0 to use <b>permits</b>.
+         */
+        int burst() default 0;
+
+        /**
+         * Scope the limit applies to, besides the command.
+         * @return scope.
+         */
+        CommandRateLimiter.Scope scope() default CommandRateLimiter.Scope.USER;
     }
 
     @Retention(RetentionPolicy.RUNTIME)
@@ -2,20 +2,35 @@ package io.manebot.command.executor.chained;
 
 import io.manebot.command.CommandSender;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.util.*;
 
+/**
+ * State of a command chain being cast: the arguments remaining, and the arguments parsed so far.
+ *
+ * States are copy-on-write.  Remaining arguments are a position in an array shared by every state cloned from the
+ * same command, and parsed arguments are a linked list whose nodes are shared with the states they were cloned from,
+ * so cloning a state and extending the clone copies neither.
+ */
 public class ChainState {
     private final CommandSender sender;
-    private final List<String> arguments;
-    private final List<Object> parsedArguments;
+    private final String[] arguments;
+    private int position;
+    private ParsedArgument parsed;
     private boolean completed = false;
 
     public ChainState(CommandSender sender, List<String> arguments, List<Object> parsedArguments) {
+        this.sender = sender;
+        this.arguments = arguments.toArray(new String[0]);
+        this.position = 0;
+
+        for (Object parsedArgument : parsedArguments) parsed = new ParsedArgument(parsed, parsedArgument);
+    }
+
+    private ChainState(CommandSender sender, String[] arguments, int position, ParsedArgument parsed) {
         this.sender = sender;
         this.arguments = arguments;
-        this.parsedArguments = parsedArguments;
+        this.position = position;
+        this.parsed = parsed;
     }
 
     public CommandSender getSender() {
@@ -23,35 +38,49 @@ public class ChainState {
     }
 
     public String next() {
-        return size() <= 0 ? null : arguments.get(0);
+        return size() <= 0 ? null : arguments[position];
     }
 
     public int size() {
-        return arguments.size();
+        return arguments.length - position;
     }
 
     public ChainState clone() {
-        return new ChainState(sender, new ArrayList<>(arguments), new ArrayList<>(parsedArguments));
+        return new ChainState(sender, arguments, position, parsed);
     }
 
+    /**
+     * Consumes arguments, and adds parsed arguments, to this state.
+     * @param argumentsUsed count of remaining arguments consumed; at most every remaining argument is consumed.
+     * @param argument parsed arguments to add.
+     * @return this state.
+     */
     public ChainState extend(int argumentsUsed, Object... argument) {
-        List<String> newArguments = arguments;
-        for (; newArguments.size() > 0 && argumentsUsed > 0; argumentsUsed --) {
-            newArguments.remove(0);
-        }
-
-        List<Object> newParsedArguments = parsedArguments;
-        newParsedArguments.addAll(Arrays.asList(argument));
+        position += Math.max(0, Math.min(argumentsUsed, size()));
+        for (Object parsedArgument : argument) parsed = new ParsedArgument(parsed, parsedArgument);
 
-        return new ChainState(sender, newArguments, newParsedArguments);
+        return this;
     }
 
+    /**
+     * Gets the arguments remaining to be cast.
+     * @return immutable list of remaining arguments.
+     */
     public List<String> getArguments() {
-        return arguments;
+        return Collections.unmodifiableList(Arrays.asList(arguments).subList(position, arguments.length));
     }
 
+    /**
+     * Gets the arguments parsed so far, in order.
+     * @return immutable list of parsed arguments.
+     */
     public List<Object> getParsedArguments() {
-        return parsedArguments;
+        if (parsed == null) return Collections.emptyList();
+
+        Object[] values = new Object[parsed.size];
+        for (ParsedArgument node = parsed; node != null; node = node.previous) values[node.size - 1] = node.value;
+
+        return Collections.unmodifiableList(Arrays.asList(values));
     }
 
     public boolean isCompleted() {
@@ -61,4 +90,19 @@ public class ChainState {
     public void setCompleted(boolean completed) {
         this.completed = completed;
     }
+
+    /**
+     * Parsed argument, linked to the arguments parsed before it.
+     */
+    private static final class ParsedArgument {
+        private final ParsedArgument previous;
+        private final Object value;
+        private final int size;
+
+        private ParsedArgument(ParsedArgument previous, Object value) {
+            this.previous = previous;
+            this.value = value;
+            this.size = previous == null ? 1 : previous.size + 1;
+        }
+    }
 }
@@ -31,7 +31,7 @@ public abstract class ChainedCommandExecutor implements CommandExecutor {
 
         // Get initial children of this chain
         Map<CommandChain, ChainState> chainMap = new HashMap<>();
-        chainMap.put(root, new ChainState(sender, new ArrayList<>(arguments), new ArrayList<>()));
+        chainMap.put(root, new ChainState(sender, arguments, Collections.emptyList()));
 
         List<CommandChain> completedChains = new ArrayList<>();
 
@@ -68,7 +68,7 @@ public abstract class ChainedCommandExecutor implements CommandExecutor {
                 }
 
                 // We could drill down farther with these arguments, so let's do that.
-                for (CommandChain childChild : child.getChildren()) {
+                for (CommandChain childChild : child.getCandidates(state.next())) {
                     ChainState childState = state.clone();
                     ChainPriority chainPriority = childChild.getArgument().cast(childState);
                     if (chainPriority.getOrdinal() < 0) continue; // NONE -- ignore this for help
@@ -94,69 +94,71 @@ public abstract class ChainedCommandExecutor implements CommandExecutor {
 
     @Override
     public void execute(CommandSender sender, String label, String[] args) throws CommandExecutionException {
-        List<String> arguments = Arrays.asList(args);
-
-        // Get initial children of this chain
-        Map<CommandChain, ChainState> chainMap = new HashMap<>();
-        chainMap.put(root, new ChainState(sender, new ArrayList<>(arguments), new ArrayList<>()));
+        List<PrioritizedChain> chains = new ArrayList<>();
+        chains.add(new PrioritizedChain(
+                root,
+                ChainPriority.NONE,
+                new ChainState(sender, Arrays.asList(args), Collections.emptyList())
+        ));
 
         List<PrioritizedChain> completedChains = new ArrayList<>(1);
+        ChainPriority bestCompletedPriority = ChainPriority.NONE;
 
-        // While we have more than 1 chain in the queue, try to whittle the chains down.
-        while (chainMap.size() > 0) {
-            List<PrioritizedChain> prioritizedChainList = new LinkedList<>();
+        // While we have chains in the queue, try to whittle the chains down.
+        while (chains.size() > 0) {
+            List<PrioritizedChain> prioritizedChainList = new ArrayList<>();
+            ChainPriority bestPriority = ChainPriority.NONE;
 
-            for (CommandChain child : chainMap.keySet()) {
-                ChainState state = chainMap.get(child);
+            for (PrioritizedChain chain : chains) {
+                ChainState state = chain.getChainState();
 
-                for (CommandChain childChild : child.getChildren()) {
+                // Literal children are only cast if the next argument is one of their labels.
+                for (CommandChain childChild : chain.getChain().getCandidates(state.next())) {
                     ChainState childState = state.clone();
                     ChainPriority chainPriority = childChild.getArgument().cast(childState);
                     if (chainPriority.getOrdinal() < 0) continue;
+                    if (chainPriority.compareTo(bestPriority) > 0) bestPriority = chainPriority;
                     prioritizedChainList.add(new PrioritizedChain(childChild, chainPriority, childState));
                 }
             }
 
-            // Find a chain to use
-            chainMap.clear();
-            ChainPriority bestPriority = prioritizedChainList
-                    .stream()
-                    .map(PrioritizedChain::getPriority)
-                    .max(Comparator.naturalOrder())
-                    .orElse(ChainPriority.NONE);
+            // Find chains to use
+            chains.clear();
 
             for (PrioritizedChain chain : prioritizedChainList) {
                 if (chain.getPriority().compareTo(bestPriority) >= 0) {
                     if (chain.getChain().getChildren().size() <= 0) {
                         // Mark it as completed if it has no state arguments left
-                        if (chain.getChainState().size() <= 0) completedChains.add(chain);
+                        if (chain.getChainState().size() <= 0) {
+                            completedChains.add(chain);
+                            if (chain.getPriority().compareTo(bestCompletedPriority) > 0)
+                                bestCompletedPriority = chain.getPriority();
+                        }
+
                         continue;
                     }
 
-                    chainMap.put(chain.getChain(), chain.chainState);
+                    chains.add(chain);
                 }
             }
         }
 
         // Final cleaning of argument chains
-        ChainPriority bestPriority = completedChains
-                .stream()
-                .map(PrioritizedChain::getPriority)
-                .max(Comparator.naturalOrder())
-                .orElse(ChainPriority.NONE);
-
-
-        if (completedChains.size() <= 0 || bestPriority.getOrdinal() < 0)
+        if (completedChains.size() <= 0 || bestCompletedPriority.getOrdinal() < 0)
             throw new CommandArgumentException("Arguments not acceptable; see command help for more information.");
 
-        completedChains = completedChains.stream()
-                .filter(chain -> chain.getPriority() == bestPriority)
-                .collect(Collectors.toList());
+        PrioritizedChain chain = null;
+        int matches = 0;
+        for (PrioritizedChain completedChain : completedChains) {
+            if (completedChain.getPriority() != bestCompletedPriority) continue;
+            if (chain == null) chain = completedChain;
+            matches ++;
+        }
 
-        if (completedChains.size() > 1)
-            throw new CommandArgumentException("Multiple argument chains: " + completedChains.size() + " matches.");
+        if (matches > 1)
+            throw new CommandArgumentException("Multiple argument chains: " + matches + " matches.");
 
-        PrioritizedChain chain = completedChains.stream().findFirst().orElseThrow(IllegalStateException::new);
+        if (chain == null) throw new IllegalStateException();
         if (chain.getChain().getExecutor() == null) throw new CommandExecutionException("No handler for command.");
         chain.getChain().getExecutor().execute(sender, label, chain.getChainState().getParsedArguments().toArray());
     }
@@ -1,13 +1,15 @@
 package io.manebot.command.executor.chained;
 
 import io.manebot.command.executor.chained.argument.CommandArgument;
+import io.manebot.command.executor.chained.argument.CommandArgumentLabel;
+import io.manebot.command.executor.chained.argument.CommandArgumentSwitch;
 
-import java.util.LinkedList;
-import java.util.List;
+import java.util.*;
 
 public class CommandChain {
     private final CommandArgument argument;
-    private final List<CommandChain> children = new LinkedList<>();
+    private final List<CommandChain> children = new ArrayList<>();
+    private volatile DispatchTable dispatchTable = DispatchTable.EMPTY;
 
     private String description = null;
     private CommandChain parent = null;
@@ -21,7 +23,7 @@ public class CommandChain {
         return argument;
     }
 
-    public void addChild(CommandChain chain) {
+    public synchronized void addChild(CommandChain chain) {
         if (argument != null && !argument.canExtend(chain.getArgument()))
             throw new IllegalArgumentException(
                     "cannot extend " + argument.getClass().getName() +
@@ -37,14 +39,32 @@ public class CommandChain {
 
         chain.parent = this;
         children.add(chain);
+        dispatchTable = new DispatchTable(children);
     }
 
-    public boolean removeChild(CommandChain chain) {
-        return children.remove(chain);
+    public synchronized boolean removeChild(CommandChain chain) {
+        if (!children.remove(chain)) return false;
+        dispatchTable = new DispatchTable(children);
+        return true;
     }
 
+    /**
+     * Gets the children of this chain.  Children are added and removed with <b>addChild</b> and <b>removeChild</b>.
+     * @return immutable list of children.
+     */
     public List<CommandChain> getChildren() {
-        return children;
+        return dispatchTable.children;
+    }
+
+    /**
+     * Gets the children of this chain which may cast from a state whose next argument is given.  Children whose
+     * arguments are literal labels or switches are only included if the argument is one of their labels; every other
+     * child is included.
+     * @param next next argument, or null if there are none.
+     * @return children which may cast.
+     */
+    List<CommandChain> getCandidates(String next) {
+        return dispatchTable.getCandidates(next);
     }
 
 
@@ -69,4 +89,58 @@ public class CommandChain {
     public CommandChain getParent() {
         return parent;
     }
+
+    /**
+     * Children of a chain, with those whose arguments are literal labels or switches indexed by their labels.
+     * Labels are folded as <i>String.equalsIgnoreCase</i> compares them, character by character, so that the index
+     * finds every child whose argument matches.
+     */
+    private static final class DispatchTable {
+        private static final DispatchTable EMPTY = new DispatchTable(Collections.emptyList());
+
+        private final List<CommandChain> children;
+        private final Map<String, List<CommandChain>> literals = new HashMap<>();
+        private final List<CommandChain> others = new ArrayList<>();
+
+        private DispatchTable(List<CommandChain> children) {
+            this.children = Collections.unmodifiableList(new ArrayList<>(children));
+
+            for (CommandChain child : this.children) {
+                CommandArgument argument = child.getArgument();
+
+                // Subclasses may cast differently, and are always cast.
+                if (argument != null && argument.getClass() == CommandArgumentLabel.class) {
+                    addLiteral(argument.getHelpString(), child);
+                } else if (argument != null && argument.getClass() == CommandArgumentSwitch.class) {
+                    for (String label : ((CommandArgumentSwitch) argument).getLabels()) addLiteral(label, child);
+                } else {
+                    others.add(child);
+                }
+            }
+        }
+
+        private void addLiteral(String label, CommandChain child) {
+            List<CommandChain> chains = literals.computeIfAbsent(fold(label), key -> new ArrayList<>(1));
+            if (!chains.contains(child)) chains.add(child);
+        }
+
+        private List<CommandChain> getCandidates(String next) {
+            if (literals.isEmpty()) return others;
+
+            List<CommandChain> matched = next == null ? null : literals.get(fold(next));
+            if (matched == null) return others;
+            if (others.isEmpty()) return matched;
+
+            List<CommandChain> candidates = new ArrayList<>(matched.size() + others.size());
+            candidates.addAll(matched);
+            candidates.addAll(others);
+            return candidates;
+        }
+
+        private static String fold(String label) {
+            StringBuilder builder = new StringBuilder(label.length());
+            label.codePoints().forEach(c -> builder.appendCodePoint(Character.toLowerCase(Character.toUpperCase(c))));
+            return builder.toString();
+        }
+    }
 }
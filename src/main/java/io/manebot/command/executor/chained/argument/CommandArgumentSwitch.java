@@ -9,6 +9,7 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 public class CommandArgumentSwitch extends CommandArgument {
@@ -29,6 +30,14 @@ public class CommandArgumentSwitch extends CommandArgument {
         this(Arrays.asList(argument.labels()));
     }
 
+    /**
+     * Gets the labels this switch accepts.
+     * @return immutable list of labels.
+     */
+    public List<String> getLabels() {
+        return Collections.unmodifiableList(Arrays.asList(labels));
+    }
+
     @Override
     public String getHelpString() {
         return "[" + String.join(", " , labels) + "]";
@@ -1,17 +1,17 @@
 package io.manebot.command.executor.routed;
 
 import io.manebot.command.CommandSender;
+import io.manebot.command.LabelTrie;
 import io.manebot.command.exception.CommandExecutionException;
 import io.manebot.command.executor.CommandExecutor;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
 public abstract class RoutedCommandExecutor implements CommandExecutor {
-    private final Map<String, CommandExecutor> commands = new HashMap<>();
+    private final LabelTrie<CommandExecutor> commands = new LabelTrie<>();
     private CommandExecutor defaultRoute, nullRoute = null;
 
     public RoutedCommandExecutor() {}
@@ -31,37 +31,50 @@ public abstract class RoutedCommandExecutor implements CommandExecutor {
         return new Route(executor);
     }
 
-    private Execution getExecution(String subLabel, String[] args) throws CommandExecutionException {
-        if (subLabel == null) {
+    /**
+     * Finds the route label matching a sub-label.  Unique prefixes of route labels are only resolved when there is no
+     * default route, since the default route is given any arguments which are not route labels.
+     * @param subLabel sub-label, in any case.
+     * @return route label, or null if no route matches.
+     */
+    private String getRouteLabel(String subLabel) {
+        String routeLabel = commands.resolveLabel(subLabel);
+        if (routeLabel == null) return null;
+
+        // Labels are only as long as the sub-label when they match it exactly.
+        if (defaultRoute != null && routeLabel.length() != subLabel.length()) return null;
+
+        return routeLabel;
+    }
+
+    private Execution getExecution(String routeLabel, String[] args) throws CommandExecutionException {
+        if (args.length <= 0) {
             if (nullRoute != null)
                 return new Execution(args, nullRoute);
             else
                 return new Execution(args, defaultRoute); // Last attempt
         }
 
-        Execution execution = new Execution(createSubArguments(args), commands.get(subLabel));
-
-        if (execution.getExecutor() == null)
-            execution = new Execution(args, defaultRoute);
+        if (routeLabel == null)
+            return new Execution(args, defaultRoute);
 
-        return execution;
+        return new Execution(createSubArguments(args), commands.get(routeLabel));
     }
 
     @Override
     public List<String> getHelp(CommandSender sender, String label, String[] args) throws CommandExecutionException {
-        String subLabel = args.length > 0 ? args[0].toLowerCase() : null;
-        if (subLabel == null) {
+        String subLabel = args.length > 0 ? args[0] : null;
+        if (subLabel == null || commands.get(subLabel) == null) {
+            // List every route, or every route beginning with the sub-label, in label order.
             List<String> allHelpLines = new ArrayList<>();
 
-            for (String subCommandLabel : this.commands.keySet()) {
+            for (Map.Entry<String, CommandExecutor> route : commands.entries(subLabel == null ? "" : subLabel)
+                    .entrySet()) {
+                String subCommandLabel = route.getKey();
+
                 try {
-                    allHelpLines.addAll(
-                            this.commands.get(subCommandLabel)
-                                    .getHelp(sender, subCommandLabel, createSubArguments(args))
-                                    .stream()
-                                    .map(x -> subCommandLabel + " " + x)
-                                    .collect(Collectors.toList())
-                    );
+                    for (String line : route.getValue().getHelp(sender, subCommandLabel, createSubArguments(args)))
+                        allHelpLines.add(subCommandLabel + " " + line);
                 } catch (CommandExecutionException ex) {
                     // Continue with faults
                     allHelpLines.add(subCommandLabel);
@@ -71,22 +84,24 @@ public abstract class RoutedCommandExecutor implements CommandExecutor {
             return allHelpLines;
         }
 
+        subLabel = commands.resolveLabel(subLabel);
         Execution execution = new Execution(createSubArguments(args), commands.get(subLabel));
-        if (execution.getExecutor() == null) return new ArrayList<>();
 
-        return execution.getExecutor().getHelp(sender, subLabel == null ? label : subLabel, createSubArguments(args))
+        String routeLabel = subLabel;
+        return execution.getExecutor().getHelp(sender, routeLabel, createSubArguments(args))
                 .stream()
-                .map(x -> subLabel != null ? (subLabel + " " + x) : x)
+                .map(x -> routeLabel + " " + x)
                 .collect(Collectors.toList());
     }
 
     @Override
     public final void execute(CommandSender sender, String label, String[] args) throws CommandExecutionException {
-        String subLabel = args.length > 0 ? args[0].toLowerCase() : null;
-        Execution execution = getExecution(subLabel, args);
+        String routeLabel = args.length > 0 ? getRouteLabel(args[0]) : null;
+        Execution execution = getExecution(routeLabel, args);
         if (execution.getExecutor() == null) throw new CommandExecutionException("Cannot process; no default route provided.");
 
         // Execute
+        String subLabel = routeLabel != null ? routeLabel : args.length > 0 ? args[0].toLowerCase() : null;
         execution.getExecutor().execute(sender, subLabel, execution.getArguments());
     }
 
@@ -3,12 +3,16 @@ package io.manebot.command.response;
 import io.manebot.chat.ChatSender;
 import io.manebot.chat.TextBuilder;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 public abstract class CommandListResponse<T> extends CommandResponse {
     private final long page;
     private final long totalElements;
+    private final boolean totalExact;
     private final int elementsPerPage;
 
     private final ListAccessor<T> accessor;
@@ -20,10 +24,21 @@ public abstract class CommandListResponse<T> extends CommandResponse {
                                int elementsPerPage,
                                ListAccessor<T> accessor,
                                ListElementFormatter<T> responder) {
+        this(sender, actualTotal, true, page, elementsPerPage, accessor, responder);
+    }
+
+    public CommandListResponse(ChatSender sender,
+                               long actualTotal,
+                               boolean totalExact,
+                               long page,
+                               int elementsPerPage,
+                               ListAccessor<T> accessor,
+                               ListElementFormatter<T> responder) {
         super(sender);
 
         this.page = page;
         this.totalElements = actualTotal;
+        this.totalExact = totalExact;
         this.elementsPerPage = elementsPerPage;
 
         this.accessor = accessor;
@@ -38,10 +53,36 @@ public abstract class CommandListResponse<T> extends CommandResponse {
         return totalElements;
     }
 
+    /**
+     * Finds if the total element count is exact.  Otherwise, it is a lower bound.
+     * @return true if the total element count is exact, false otherwise.
+     */
+    public boolean isTotalExact() {
+        return totalExact;
+    }
+
     public int getElementsPerPage() {
         return elementsPerPage;
     }
 
+    /**
+     * Gets the total page count, as it is described to users.
+     * @return page count: a number, or a lower bound such as "5+".
+     */
+    public String describeTotalPages() {
+        long totalPages = (long) Math.ceil((double) totalElements / (double) elementsPerPage);
+        return totalExact ? Long.toString(totalPages) : Math.max(totalPages, page) + "+";
+    }
+
+    /**
+     * Gets the total element count, as it is described to users.
+     * @return element count: a number, a lower bound such as "1000+", or "many" if no lower bound is known.
+     */
+    public String describeTotalElements() {
+        if (totalExact) return Long.toString(totalElements);
+        return totalElements > 0 ? totalElements + "+" : "many";
+    }
+
     public ListAccessor<T> getAccessor() {
         return accessor;
     }
@@ -104,9 +145,48 @@ public abstract class CommandListResponse<T> extends CommandResponse {
         }
     }
 
+    /**
+     * Accessor reading one window of elements from an iterator when it is first accessed.  Elements preceding the
+     * window are skipped as they are read, so only the window itself is held.
+     */
+    private static final class StreamListAccessor<T> implements ListAccessor<T> {
+        private final Iterator<T> iterator;
+        private final long offset;
+        private final int window;
+        private List<T> elements;
+
+        private StreamListAccessor(Iterator<T> iterator, long offset, int window) {
+            this.iterator = iterator;
+            this.offset = offset;
+            this.window = window;
+        }
+
+        private List<T> getElements() {
+            if (elements == null) {
+                for (long i = 0; i < offset && iterator.hasNext(); i ++) iterator.next();
+
+                elements = new ArrayList<>(window);
+                while (elements.size() < window && iterator.hasNext()) elements.add(iterator.next());
+            }
+
+            return elements;
+        }
+
+        @Override
+        public T get(int resultOffset) {
+            return getElements().get(resultOffset);
+        }
+
+        @Override
+        public long size() {
+            return getElements().size();
+        }
+    }
+
     public static abstract class Builder<T> {
         private long page = 1;
         private long totalElements;
+        private boolean totalExact = true;
         private int elementsPerPage = 6;
 
         private ListElementFormatter<T> responder = (sender, o) -> o.toString();
@@ -129,10 +209,25 @@ public abstract class CommandListResponse<T> extends CommandResponse {
         }
 
         public Builder<T> totalElements(long totalElements) {
+            return totalElements(totalElements, true);
+        }
+
+        /**
+         * Sets the total element count.
+         * @param totalElements total element count.
+         * @param exact true if the count is exact, false if it is a lower bound.
+         * @return Builder instance.
+         */
+        public Builder<T> totalElements(long totalElements, boolean exact) {
             this.totalElements = totalElements;
+            this.totalExact = exact;
             return this;
         }
 
+        public boolean isTotalExact() {
+            return totalExact;
+        }
+
         public int getElementsPerPage() {
             return elementsPerPage;
         }
@@ -145,6 +240,7 @@ public abstract class CommandListResponse<T> extends CommandResponse {
         public Builder<T> direct(List<T> list) {
             this.accessorSupplier = () -> new DirectListAccessor<>(list, (page-1L) * elementsPerPage);
             this.totalElements = list.size();
+            this.totalExact = true;
             return this;
         }
 
@@ -153,6 +249,22 @@ public abstract class CommandListResponse<T> extends CommandResponse {
             return this;
         }
 
+        /**
+         * Lists the current page of a stream of elements, such as a streamed search.  The stream is read lazily, and
+         * only the elements of the page are held; the total count of elements is not known, and should be set
+         * separately.  The stream is not closed.
+         * @param stream stream of elements, in order.
+         * @return Builder instance.
+         */
+        public Builder<T> stream(Stream<T> stream) {
+            this.accessorSupplier = () -> new StreamListAccessor<>(
+                    stream.iterator(),
+                    (page - 1L) * elementsPerPage,
+                    elementsPerPage
+            );
+            return this;
+        }
+
         public ListElementFormatter<T> getResponder() {
             return responder;
         }
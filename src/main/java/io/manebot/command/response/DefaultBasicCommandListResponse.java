@@ -17,16 +17,27 @@ public class DefaultBasicCommandListResponse<T> extends CommandListResponse<T> {
         super(sender, actualTotal, page, elementsPerPage, accessor, responder);
     }
 
+    public DefaultBasicCommandListResponse(ChatSender sender,
+                                           long actualTotal,
+                                           boolean totalExact,
+                                           long page,
+                                           int elementsPerPage,
+                                           ListAccessor<T> accessor,
+                                           ListElementFormatter<T> responder) {
+        super(sender, actualTotal, totalExact, page, elementsPerPage, accessor, responder);
+    }
+
     @Override
     public Collection<ChatMessage> send() throws CommandExecutionException {
-        long totalPages = (long) Math.ceil((double)getTotalElements() / (double)getElementsPerPage());
+        String totalPages = describeTotalPages();
         long elements = Math.min(getAccessor().size(), getElementsPerPage());
 
         if (elements < 0) throw new CommandExecutionException("Invalid page (" + totalPages + " pages).");
         else if (elements == 0) throw new CommandExecutionException("No results found.");
 
         getSender().sendMessage(
-                "Discovered " + getTotalElements() + " " + (getTotalElements() == 1 ? "item" : "items")
+                "Discovered " + describeTotalElements() + " "
+                        + (isTotalExact() && getTotalElements() == 1 ? "item" : "items")
                         + " (showing " + elements + ", page " + getPage() + " of " + totalPages + ")" + ":"
         );
 
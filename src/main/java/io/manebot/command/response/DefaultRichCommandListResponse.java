@@ -15,9 +15,15 @@ public class DefaultRichCommandListResponse<T> extends CommandListResponse<T> {
         super(sender, actualTotal, page, elementsPerPage, accessor, responder);
     }
 
+    public DefaultRichCommandListResponse(ChatSender sender, long actualTotal, boolean totalExact, long page,
+                                          int elementsPerPage, ListAccessor<T> accessor,
+                                          ListElementFormatter<T> responder) {
+        super(sender, actualTotal, totalExact, page, elementsPerPage, accessor, responder);
+    }
+
     @Override
     public Collection<ChatMessage> send() throws CommandExecutionException {
-        int totalPages = (int) Math.ceil((double)getTotalElements() / (double)getElementsPerPage());
+        String totalPages = describeTotalPages();
         long elements = Math.min(getAccessor().size(), getElementsPerPage());
 
         if (elements < 0) throw new CommandExecutionException("Invalid page (" + totalPages + " pages).");
@@ -31,8 +37,8 @@ public class DefaultRichCommandListResponse<T> extends CommandListResponse<T> {
                     builder.embed(embedBuilder -> {
                         embedBuilder.title(
                                 "Discovered " +
-                                        getTotalElements() + " " +
-                                        (getTotalElements() == 1 ? "item" : "items")
+                                        describeTotalElements() + " " +
+                                        (isTotalExact() && getTotalElements() == 1 ? "item" : "items")
                         );
 
                         embedBuilder.description(textBuilder -> {
@@ -1,6 +1,7 @@
 package io.manebot.database;
 
 import io.manebot.database.search.SearchHandler;
+import io.manebot.database.search.memory.MemorySearchHandler;
 import io.manebot.lambda.ThrowingConsumer;
 import io.manebot.lambda.ThrowingFunction;
 
@@ -148,6 +149,16 @@ public interface Database extends AutoCloseable {
      */
     EntityManager openSession();
 
+    /**
+     * Gets the read-through cache used by this database's models.  Caching is opt-in: databases which were not
+     * constructed with a cache return a disabled cache, which passes every lookup through.
+     *
+     * @return DatabaseCache instance.
+     */
+    default DatabaseCache getCache() {
+        return DatabaseCache.DISABLED;
+    }
+
     /**
      * Creates a search, which accepts certain arguments to construct results in queryable commands.
      * @param entityClass Search entity class.
@@ -158,7 +169,36 @@ public interface Database extends AutoCloseable {
     <T> SearchHandler.Builder<T> createSearchHandler(Class<T> entityClass) throws IllegalArgumentException;
 
     /**
-     * Creates a search, which accepts certain arguments to construct results in queryable commands.
+     * Creates a search evaluated with a specific strategy.  In-memory searches whose handlers cannot be evaluated in
+     * memory are executed by the database instead.
+     * @param entityClass Search entity class.
+     * @param strategy search strategy.
+     * @param <T> search entity type
+     * @return Search builder instance.
+     * @throws IllegalArgumentException if the entity is not registered to this database.
+     */
+    default <T> SearchHandler.Builder<T> createSearchHandler(Class<T> entityClass, SearchHandler.Strategy strategy)
+            throws IllegalArgumentException {
+        switch (strategy) {
+            case MEMORY:
+                return MemorySearchHandler.builder(this, entityClass);
+            default:
+                return createSearchHandler(entityClass);
+        }
+    }
+
+    /**
+     * Gets the strategy searches of an entity class are evaluated with by default.
+     * @param entityClass Search entity class.
+     * @return search strategy.
+     */
+    default SearchHandler.Strategy getSearchStrategy(Class<?> entityClass) {
+        return SearchHandler.Strategy.DATABASE;
+    }
+
+    /**
+     * Creates a search, which accepts certain arguments to construct results in queryable commands.  The search is
+     * evaluated with the entity class's default search strategy.
      * @param entityClass Search entity class.
      * @param function Search builder function.
      * @param <T> search entity type
@@ -170,7 +210,7 @@ public interface Database extends AutoCloseable {
             Function<SearchHandler.Builder<T>,
             SearchHandler<T>> function
     ) throws IllegalArgumentException {
-        return function.apply(createSearchHandler(entityClass));
+        return function.apply(createSearchHandler(entityClass, getSearchStrategy(entityClass)));
     }
 
     /**
@@ -243,6 +283,27 @@ public interface Database extends AutoCloseable {
          */
         ModelConstructor setUpdateSchema(boolean updateSchema);
 
+        /**
+         * Sets the read-through cache used by the models of this database.
+         * @param cache DatabaseCache instance.
+         * @return ModelConstructor instance.
+         * @throws UnsupportedOperationException if the database implementation does not support caching.
+         */
+        default ModelConstructor setCache(DatabaseCache cache) {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * Sets the strategy searches of an entity class are evaluated with by default.
+         * @param entityClass entity class.
+         * @param strategy search strategy.
+         * @return ModelConstructor instance.
+         * @throws UnsupportedOperationException if the database implementation does not support the strategy.
+         */
+        default ModelConstructor setSearchStrategy(Class<?> entityClass, SearchHandler.Strategy strategy) {
+            throw new UnsupportedOperationException();
+        }
+
     }
 
 }
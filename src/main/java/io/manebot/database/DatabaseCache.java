@@ -0,0 +1,370 @@
+package io.manebot.database;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache for database model lookups.  Cached values are partitioned into regions by entity class, each
+ * with its own size and expiration policy.  Entity classes without a policy, and disabled caches, pass every lookup
+ * straight through to the database.
+ *
+ * Mutators which change the results of a cached lookup must invalidate it after their transaction commits.
+ *
+ * Invalidating a key advances its generation.  A load which began before the generation of its key advanced may have
+ * read the database before the write which caused the invalidation, so its value is discarded from the cache once it
+ * completes, rather than being kept until it expires.  Generations are striped by key, so an invalidation may
+ * discard concurrent loads of other keys sharing its stripe; they are loaded again on their next lookup.
+ */
+public final class DatabaseCache {
+    /**
+     * A cache which does not cache anything; used by databases that have not opted in to caching.
+     */
+    public static final DatabaseCache DISABLED = new DatabaseCache(Collections.emptyMap(), null);
+
+    private static final Object NULL = new Object();
+
+    /**
+     * Count of generation stripes; a power of two.
+     */
+    private static final int GENERATION_STRIPES = 256;
+
+    private final Map<Class<?>, Policy> policies;
+    private final Policy defaultPolicy;
+    private final Map<Class<?>, Cache<Object, Object>> regions = new ConcurrentHashMap<>();
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    private DatabaseCache(Map<Class<?>, Policy> policies, Policy defaultPolicy) {
+        this.policies = policies;
+        this.defaultPolicy = defaultPolicy;
+    }
+
+    /**
+     * Creates a new cache builder.
+     * @return Builder instance.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Finds if this cache stores anything at all.
+     * @return true if caching is enabled, false otherwise.
+     */
+    public boolean isEnabled() {
+        return defaultPolicy != null || !policies.isEmpty();
+    }
+
+    /**
+     * Gets a cached value, loading it if it is not present.
+     * @param entityClass entity class region the value belongs to.
+     * @param key key of the value within the region.
+     * @param loader loader supplying the value from the database; may supply null.
+     * @param <V> value type.
+     * @return cached or loaded value.
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V get(Class<?> entityClass, Object key, Supplier<V> loader) {
+        Cache<Object, Object> region = getRegion(entityClass);
+        if (region == null) return loader.get();
+
+        long generation = getGeneration(entityClass, key);
+
+        Object value;
+        try {
+            value = region.get(key, () -> {
+                V loaded = loader.get();
+                return loaded == null ? NULL : loaded;
+            });
+        } catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new RuntimeException(cause);
+        }
+
+        discardIfInvalidated(region, entityClass, key, generation);
+
+        return value == NULL ? null : (V) value;
+    }
+
+    /**
+     * Gets several cached values at once, loading all of those which are not present with a single call to the loader.
+     * Keys the loader does not return a value for are cached as absent.
+     * @param entityClass entity class region the values belong to.
+     * @param keys keys of the values within the region.
+     * @param loader loader supplying the present values of the given missing keys from the database.
+     * @param <K> key type.
+     * @param <V> value type.
+     * @return immutable map of keys to their present values, in the iteration order of <b>keys</b>.
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> Map<K, V> getAll(Class<?> entityClass,
+                                   Collection<K> keys,
+                                   Function<Collection<K>, Map<K, V>> loader) {
+        Cache<Object, Object> region = getRegion(entityClass);
+        Map<K, V> values = new LinkedHashMap<>();
+
+        List<K> missing;
+        if (region == null) {
+            missing = new ArrayList<>(keys);
+        } else {
+            missing = new ArrayList<>();
+            for (K key : keys) {
+                Object value = region.getIfPresent(key);
+                if (value == null) missing.add(key);
+                else if (value != NULL) values.put(key, (V) value);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            long[] missingGenerations = new long[missing.size()];
+            for (int i = 0; i < missingGenerations.length; i ++)
+                missingGenerations[i] = getGeneration(entityClass, missing.get(i));
+
+            Map<K, V> loaded = loader.apply(missing);
+            for (int i = 0; i < missingGenerations.length; i ++) {
+                K key = missing.get(i);
+                V value = loaded.get(key);
+                if (value != null) values.put(key, value);
+                if (region != null) {
+                    region.put(key, value == null ? NULL : value);
+                    discardIfInvalidated(region, entityClass, key, missingGenerations[i]);
+                }
+            }
+        }
+
+        if (values.size() <= 1) return Collections.unmodifiableMap(values);
+
+        // Restore the order of the requested keys, as missing keys were loaded after those present.
+        Map<K, V> ordered = new LinkedHashMap<>(values.size());
+        for (K key : keys) {
+            V value = values.get(key);
+            if (value != null) ordered.put(key, value);
+        }
+
+        return Collections.unmodifiableMap(ordered);
+    }
+
+    /**
+     * Invalidates a cached value.
+     * @param entityClass entity class region the value belongs to.
+     * @param key key of the value within the region.
+     */
+    public void invalidate(Class<?> entityClass, Object key) {
+        generations.incrementAndGet(getStripe(entityClass, key));
+
+        Cache<Object, Object> region = regions.get(entityClass);
+        if (region != null) region.invalidate(key);
+    }
+
+    /**
+     * Invalidates all cached values in a region.
+     * @param entityClass entity class region to invalidate.
+     */
+    public void invalidateAll(Class<?> entityClass) {
+        advanceAllGenerations();
+
+        Cache<Object, Object> region = regions.get(entityClass);
+        if (region != null) region.invalidateAll();
+    }
+
+    /**
+     * Invalidates all cached values.
+     */
+    public void invalidateAll() {
+        advanceAllGenerations();
+        regions.values().forEach(Cache::invalidateAll);
+    }
+
+    /**
+     * Gets the statistics of a region.
+     * @param entityClass entity class region to get statistics for.
+     * @return region statistics; all zero if the region has not been used.
+     */
+    public Statistics getStatistics(Class<?> entityClass) {
+        Cache<Object, Object> region = regions.get(entityClass);
+        if (region == null) return new Statistics(0, 0, 0, 0);
+        return new Statistics(region.stats(), region.size());
+    }
+
+    /**
+     * Gets the statistics of all regions that have been used.
+     * @return immutable map of entity classes to region statistics.
+     */
+    public Map<Class<?>, Statistics> getStatistics() {
+        Map<Class<?>, Statistics> statistics = new HashMap<>();
+        regions.forEach((entityClass, region) ->
+                statistics.put(entityClass, new Statistics(region.stats(), region.size())));
+        return Collections.unmodifiableMap(statistics);
+    }
+
+    private long getGeneration(Class<?> entityClass, Object key) {
+        return generations.get(getStripe(entityClass, key));
+    }
+
+    private void advanceAllGenerations() {
+        for (int i = 0; i < GENERATION_STRIPES; i ++) generations.incrementAndGet(i);
+    }
+
+    /**
+     * Discards a value loaded into a region if its key was invalidated after the load began.  A value stored after
+     * the invalidation has been discarded here; a value stored before it is discarded by the invalidation itself.
+     */
+    private void discardIfInvalidated(Cache<Object, Object> region, Class<?> entityClass, Object key, long generation) {
+        if (getGeneration(entityClass, key) != generation) region.invalidate(key);
+    }
+
+    private static int getStripe(Class<?> entityClass, Object key) {
+        int hash = 31 * entityClass.hashCode() + Objects.hashCode(key);
+        return (hash ^ (hash >>> 16)) & (GENERATION_STRIPES - 1);
+    }
+
+    private Cache<Object, Object> getRegion(Class<?> entityClass) {
+        Cache<Object, Object> region = regions.get(entityClass);
+        if (region != null) return region;
+
+        Policy policy = policies.getOrDefault(entityClass, defaultPolicy);
+        if (policy == null) return null;
+
+        return regions.computeIfAbsent(entityClass, key -> policy.createCache());
+    }
+
+    /**
+     * Eviction and expiration policy for a cache region.  Regions evict the least recently used values once they
+     * exceed their maximum size.
+     */
+    public static final class Policy {
+        private long maximumSize = 1000L;
+        private long expireAfterWrite = -1L;
+        private long expireAfterAccess = -1L;
+
+        /**
+         * Sets the maximum count of values held by the region.
+         * @param maximumSize maximum size.
+         * @return Policy instance.
+         */
+        public Policy maximumSize(long maximumSize) {
+            if (maximumSize < 0) throw new IllegalArgumentException("maximumSize");
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        /**
+         * Sets the time after which values expire once they have been loaded.
+         * @param duration duration.
+         * @param unit duration unit.
+         * @return Policy instance.
+         */
+        public Policy expireAfterWrite(long duration, TimeUnit unit) {
+            this.expireAfterWrite = unit.toNanos(duration);
+            return this;
+        }
+
+        /**
+         * Sets the time after which values expire once they were last accessed.
+         * @param duration duration.
+         * @param unit duration unit.
+         * @return Policy instance.
+         */
+        public Policy expireAfterAccess(long duration, TimeUnit unit) {
+            this.expireAfterAccess = unit.toNanos(duration);
+            return this;
+        }
+
+        private Cache<Object, Object> createCache() {
+            CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats();
+            if (expireAfterWrite >= 0) builder.expireAfterWrite(expireAfterWrite, TimeUnit.NANOSECONDS);
+            if (expireAfterAccess >= 0) builder.expireAfterAccess(expireAfterAccess, TimeUnit.NANOSECONDS);
+            return builder.build();
+        }
+    }
+
+    /**
+     * Snapshot of the statistics of a cache region.
+     */
+    public static final class Statistics {
+        private final long hits, misses, evictions, size;
+
+        private Statistics(long hits, long misses, long evictions, long size) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.size = size;
+        }
+
+        private Statistics(CacheStats stats, long size) {
+            this(stats.hitCount(), stats.missCount(), stats.evictionCount(), size);
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public double getHitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 1D : (double) hits / (double) requests;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("hits=%d, misses=%d, evictions=%d, size=%d", hits, misses, evictions, size);
+        }
+    }
+
+    public static final class Builder {
+        private final Map<Class<?>, Policy> policies = new HashMap<>();
+        private Policy defaultPolicy;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the policy of an entity class region.
+         * @param entityClass entity class.
+         * @param policy region policy.
+         * @return Builder instance.
+         */
+        public Builder policy(Class<?> entityClass, Policy policy) {
+            policies.put(entityClass, policy);
+            return this;
+        }
+
+        /**
+         * Sets the policy applied to entity classes without their own policy.  By default, such classes are not
+         * cached.
+         * @param policy default region policy.
+         * @return Builder instance.
+         */
+        public Builder defaultPolicy(Policy policy) {
+            this.defaultPolicy = policy;
+            return this;
+        }
+
+        public DatabaseCache build() {
+            return new DatabaseCache(new HashMap<>(policies), defaultPolicy);
+        }
+    }
+}
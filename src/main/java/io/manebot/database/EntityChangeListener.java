@@ -0,0 +1,26 @@
+package io.manebot.database;
+
+/**
+ * Listens for changes to database model entities, as they are flushed to the database.  Listeners are registered for
+ * an entity class on <b>io.manebot.database.model.EntityChangeDispatcher</b>.
+ *
+ * Changes are reported when they are flushed, which is before the transaction making them commits; a change may still
+ * be rolled back after it is reported.  Bulk updates executed as queries bypass entities and are not reported.
+ *
+ * @param <T> entity type.
+ */
+public interface EntityChangeListener<T> {
+
+    /**
+     * Called when an entity is persisted or updated.
+     * @param entity saved entity.
+     */
+    void onSaved(T entity);
+
+    /**
+     * Called when an entity is removed.
+     * @param entity removed entity.
+     */
+    void onRemoved(T entity);
+
+}
@@ -15,6 +15,21 @@ public final class ExtendedExpressions {
         return criteriaBuilder.notLike(left, matchMode.toMatchString(escapeLike(right)), '!');
     }
 
+    /**
+     * Matches an expression against a pattern created by <b>toLikePattern</b>.
+     */
+    public static Predicate escapedLike(CriteriaBuilder criteriaBuilder, Expression<String> left,
+                                        Expression<String> pattern) {
+        return criteriaBuilder.like(left, pattern, '!');
+    }
+
+    /**
+     * Creates a pattern matching a value literally, for use with the escaped like expressions.
+     */
+    public static String toLikePattern(String value, MatchMode matchMode) {
+        return matchMode.toMatchString(escapeLike(value));
+    }
+
     private static String escapeLike(String value) {
         return value
                 .replace("!", "!!")
@@ -4,13 +4,26 @@ import io.manebot.property.Property;
 
 import java.io.UnsupportedEncodingException;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.TimeZone;
 
+/**
+ * Property whose values are stored as big-endian binary.
+ *
+ * Strings are written as UTF-8 behind a leading format marker byte.  Strings written before the marker was introduced
+ * are UTF-16, and always begin with a byte order mark (or are empty), so they remain readable.
+ */
 public abstract class BinaryProperty implements Property {
     private final String ENCODING = "UTF-16";
 
+    /**
+     * Format marker preceding UTF-8 encoded strings.
+     */
+    private static final byte UTF8_STRING_FORMAT = 0x1;
+
     public abstract int size();
     public int write(byte[] bytes) {
         return write(bytes, 0, bytes.length);
@@ -19,16 +32,33 @@ public abstract class BinaryProperty implements Property {
     public abstract int read(byte[] bytes, int offs, int len);
 
     public ByteBuffer read() {
-        byte[] b = new byte[size()];
+        return ByteBuffer.wrap(value());
+    }
+
+    /**
+     * Gets the current value for decoding.  The returned array must not be modified; implementations which hold their
+     * value in memory should return it directly, rather than copying it.
+     * @return value, or null if the property is null.
+     */
+    protected byte[] value() {
+        int size = size();
+        if (size < 0) return null;
+
+        byte[] b = new byte[size];
         read(b, 0, b.length);
-        return ByteBuffer.wrap(b);
+        return b;
     }
 
     @Override
     public String getString() {
+        byte[] b = value();
+        if (b == null) return null;
+
+        if (b.length > 0 && b[0] == UTF8_STRING_FORMAT)
+            return new String(b, 1, b.length - 1, StandardCharsets.UTF_8);
+
         try {
-            if (isNull()) return null;
-            return new String(read().array(), ENCODING);
+            return new String(b, ENCODING);
         } catch (UnsupportedEncodingException e) {
             return null;
         }
@@ -36,68 +66,77 @@ public abstract class BinaryProperty implements Property {
 
     @Override
     public boolean getBoolean() {
-        if (isNull()) return false;
-        return read().get() == 0x1;
+        byte[] b = value();
+        if (b == null) return false;
+        return b[0] == 0x1;
     }
 
     @Override
     public byte[] getBytes() {
-        if (isNull()) return new byte[0];
-        return read().array();
+        byte[] b = value();
+        if (b == null) return new byte[0];
+        return Arrays.copyOf(b, b.length);
     }
 
     @Override
     public byte getByte() {
-        if (isNull()) return 0x0;
-        return read().get();
+        byte[] b = value();
+        if (b == null) return 0x0;
+        return b[0];
     }
 
     @Override
     public short getShort()
     {
-        if (isNull()) return 0x0;
-        return read().getShort();
+        byte[] b = value();
+        if (b == null) return 0x0;
+        return (short) decode(b, 2);
     }
 
     @Override
     public int getInteger() {
-        if (isNull()) return 0x0;
-        return read().getInt();
+        byte[] b = value();
+        if (b == null) return 0x0;
+        return (int) decode(b, 4);
     }
 
     @Override
     public long getLong() {
-        if (isNull()) return 0x0;
-        return read().getLong();
+        byte[] b = value();
+        if (b == null) return 0x0;
+        return decode(b, 8);
     }
 
     @Override
     public float getFloat() {
-        if (isNull()) return 0x0;
-        return read().getFloat();
+        byte[] b = value();
+        if (b == null) return 0x0;
+        return Float.intBitsToFloat((int) decode(b, 4));
     }
 
     @Override
     public double getDouble() {
-        if (isNull()) return 0x0;
-        return read().getDouble();
+        byte[] b = value();
+        if (b == null) return 0x0;
+        return Double.longBitsToDouble(decode(b, 8));
     }
 
 
     @Override
     public Date getDate() {
         Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("GMT"));
-        calendar.setTimeInMillis(getInteger() * 1000);
+        calendar.setTimeInMillis(getInteger() * 1000L);
         calendar.setTimeZone(TimeZone.getDefault());
         return calendar.getTime();
     }
 
     @Override
     public void set(String s) {
-        try {
-            set(s.getBytes(ENCODING));
-        } catch (UnsupportedEncodingException e) {
-        }
+        byte[] encoded = s.getBytes(StandardCharsets.UTF_8);
+        byte[] b = new byte[encoded.length + 1];
+        b[0] = UTF8_STRING_FORMAT;
+        System.arraycopy(encoded, 0, b, 1, encoded.length);
+        set(b);
     }
 
     @Override
@@ -112,37 +151,27 @@ public abstract class BinaryProperty implements Property {
 
     @Override
     public void set(short s) {
-        ByteBuffer byteBuffer = ByteBuffer.allocate(2);
-        byteBuffer.putShort(s);
-        set(byteBuffer.array());
+        set(encode(s, 2));
     }
 
     @Override
     public void set(int i) {
-        ByteBuffer byteBuffer = ByteBuffer.allocate(4);
-        byteBuffer.putInt(i);
-        set(byteBuffer.array());
+        set(encode(i, 4));
     }
 
     @Override
     public void set(long l) {
-        ByteBuffer byteBuffer = ByteBuffer.allocate(8);
-        byteBuffer.putLong(l);
-        set(byteBuffer.array());
+        set(encode(l, 8));
     }
 
     @Override
     public void set(float f) {
-        ByteBuffer byteBuffer = ByteBuffer.allocate(4);
-        byteBuffer.putFloat(f);
-        set(byteBuffer.array());
+        set(encode(Float.floatToRawIntBits(f), 4));
     }
 
     @Override
     public void set(double d) {
-        ByteBuffer byteBuffer = ByteBuffer.allocate(8);
-        byteBuffer.putDouble(d);
-        set(byteBuffer.array());
+        set(encode(Double.doubleToRawLongBits(d), 8));
     }
 
     @Override
@@ -155,19 +184,42 @@ public abstract class BinaryProperty implements Property {
 
     @Override
     public char getChar() {
-        if (isNull()) return 0x0;
-        return read().getChar();
+        byte[] b = value();
+        if (b == null) return 0x0;
+        return (char) decode(b, 2);
     }
 
     @Override
     public void set(char c) {
-        ByteBuffer byteBuffer = ByteBuffer.allocate(2);
-        byteBuffer.putChar(c);
-        set(byteBuffer.array());
+        set(encode(c, 2));
     }
 
     @Override
     public void set(byte[] data) {
         write(data);
     }
+
+    /**
+     * Decodes a big-endian value of <b>length</b> bytes from the start of an array.
+     * @throws java.nio.BufferUnderflowException if the array is too short, as ByteBuffer would.
+     */
+    private static long decode(byte[] b, int length) {
+        if (b.length < length) throw new java.nio.BufferUnderflowException();
+
+        long value = 0L;
+        for (int i = 0; i < length; i++) value = (value << 8) | (b[i] & 0xFFL);
+        return value;
+    }
+
+    /**
+     * Encodes the low <b>length</b> bytes of a value as big-endian.
+     */
+    private static byte[] encode(long value, int length) {
+        byte[] b = new byte[length];
+        for (int i = length - 1; i >= 0; i--) {
+            b[i] = (byte) value;
+            value >>>= 8;
+        }
+        return b;
+    }
 }
@@ -2,12 +2,15 @@ package io.manebot.database.model;
 
 import io.manebot.security.Grant;
 import io.manebot.security.GrantedPermission;
+import io.manebot.security.PermissionTree;
 import io.manebot.virtual.Virtual;
 import com.google.common.collect.MapMaker;
 
 import javax.persistence.*;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @javax.persistence.Entity
@@ -22,6 +25,12 @@ public class Entity extends TimedRow implements io.manebot.entity.Entity {
     @Transient
     private final Map<String, io.manebot.property.Property> propertyMap = new MapMaker().weakValues().makeMap();
 
+    @Transient
+    private final Object propertyLock = new Object();
+
+    @Transient
+    private volatile Map<String, io.manebot.database.model.Property> propertySnapshot;
+
     @Transient
     private final io.manebot.database.Database database;
     public Entity(io.manebot.database.Database database) {
@@ -54,17 +63,11 @@ public class Entity extends TimedRow implements io.manebot.entity.Entity {
 
     @Override
     public Collection<io.manebot.property.Property> getProperties() {
-        return Collections.unmodifiableCollection(database.execute(s -> {
-            return s.createQuery(
-                    "SELECT p FROM " + io.manebot.database.model.Property.class.getName() + " p " +
-                            "inner join p.entity e " +
-                            "where e.entityId = :entityId",
-                    io.manebot.database.model.Property.class
-            ).setParameter("entityId", entityId).getResultList()
-                    .stream()
-                    .map(databaseType -> getProperty(databaseType.getName()))
-                    .collect(Collectors.toCollection(ArrayList::new));
-        }));
+        return Collections.unmodifiableCollection(
+                getPropertySnapshot().keySet().stream()
+                        .map(this::getProperty)
+                        .collect(Collectors.toCollection(ArrayList::new))
+        );
     }
 
     @Override
@@ -72,46 +75,116 @@ public class Entity extends TimedRow implements io.manebot.entity.Entity {
         return propertyMap.computeIfAbsent(node, VirtualProperty::new);
     }
 
+    @Override
+    public void editProperties(Consumer<io.manebot.property.Property.Batch> editor) {
+        Map<String, byte[]> changes = new LinkedHashMap<>();
+        editor.accept(name -> new StagedProperty(name, changes));
+        editProperties(changes);
+    }
+
+    /**
+     * Gets all properties of this entity by name, loading them with a single query when first needed.  The snapshot
+     * is kept up to date by property writes made through this entity.
+     * @return property snapshot.
+     */
+    private Map<String, io.manebot.database.model.Property> getPropertySnapshot() {
+        Map<String, io.manebot.database.model.Property> snapshot = this.propertySnapshot;
+        if (snapshot != null) return snapshot;
+
+        synchronized (propertyLock) {
+            if (this.propertySnapshot == null) {
+                Map<String, io.manebot.database.model.Property> properties = new ConcurrentHashMap<>();
+                database.execute(s -> {
+                    s.createQuery(
+                            "SELECT p FROM " + io.manebot.database.model.Property.class.getName() + " p " +
+                                    "inner join p.entity e " +
+                                    "where e.entityId = :entityId",
+                            io.manebot.database.model.Property.class
+                    ).setParameter("entityId", entityId).getResultList()
+                            .forEach(property -> properties.put(property.getName(), property));
+                });
+
+                this.propertySnapshot = properties;
+            }
+
+            return this.propertySnapshot;
+        }
+    }
+
+    /**
+     * Applies property changes in a single transaction.
+     * @param changes property values by name; null values unset their property.
+     */
+    private void editProperties(Map<String, byte[]> changes) {
+        if (changes.isEmpty()) return;
+
+        synchronized (propertyLock) {
+            Map<String, io.manebot.database.model.Property> snapshot = getPropertySnapshot();
+            Map<String, io.manebot.database.model.Property> created = new HashMap<>();
+
+            try {
+                database.executeTransaction(s -> {
+                    Entity entity = null;
+
+                    for (Map.Entry<String, byte[]> change : changes.entrySet()) {
+                        io.manebot.database.model.Property existing = snapshot.get(change.getKey());
+                        byte[] value = change.getValue();
+
+                        if (existing != null) {
+                            if (Arrays.equals(existing.getValue(), value)) continue;
+
+                            io.manebot.database.model.Property attachedProperty =
+                                    s.find(io.manebot.database.model.Property.class, existing.getPropertyId());
+
+                            if (attachedProperty == null) continue;
+                            else if (value == null) s.remove(attachedProperty);
+                            else attachedProperty.assign(value);
+                        } else if (value != null) {
+                            if (entity == null) entity = s.find(Entity.class, getEntityId());
+
+                            io.manebot.database.model.Property newProperty =
+                                    new io.manebot.database.model.Property(database, entity, change.getKey());
+
+                            newProperty.assign(value);
+                            s.persist(newProperty);
+                            created.put(change.getKey(), newProperty);
+                        }
+                    }
+                });
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+
+            for (Map.Entry<String, byte[]> change : changes.entrySet()) {
+                io.manebot.database.model.Property existing = snapshot.get(change.getKey());
+
+                if (change.getValue() == null)
+                    snapshot.remove(change.getKey());
+                else if (existing != null)
+                    existing.assign(change.getValue());
+                else if (created.containsKey(change.getKey()))
+                    snapshot.put(change.getKey(), created.get(change.getKey()));
+            }
+        }
+    }
+
     @Override
     public Permission getPermission(String node) {
         Objects.requireNonNull(node);
         if (node.length() <= 0) return null;
 
-        String[] nodeComponents = node.split("\\.");
-        List<String> testNodes = new ArrayList<>(nodeComponents.length + 1);
-        List<String> buffer = new ArrayList<>();
-        testNodes.add("*");
-        for (String component : nodeComponents) {
-            buffer.add(component);
+        return getPermissionTree().resolve(node);
+    }
 
-            if (buffer.size() < nodeComponents.length)
-                testNodes.add(String.join(".", buffer) + ".*");
-        }
-        testNodes.add(node);
-
-        return database.execute(s -> {
-            return s.createQuery(
-                    "SELECT p FROM " + Permission.class.getName() + " p " +
-                            "inner join p.entity e " +
-                            "where e.entityId = :entityId and p.node IN :nodes " +
-                            "order by length(p.node) desc", /* most specific */
-                    Permission.class
-            )
-                    .setMaxResults(1)
-                    .setParameter("entityId", entityId)
-                    .setParameter("nodes", testNodes)
-                    .getResultList()
-                    .stream()
-                    .findFirst()
-                    .orElse(null);
-        });
+    private PermissionTree<Permission> getPermissionTree() {
+        return PermissionCache.getInstance(database).getTree(this);
     }
 
     @Override
     public GrantedPermission setPermission(String node, Grant grant) throws SecurityException {
         io.manebot.security.Permission.checkPermission(node);
 
-        Permission permission = getPermission(node);
+        Permission permission = getPermissionTree().get(node);
 
         if (permission == null) {
             try {
@@ -131,6 +204,8 @@ public class Entity extends TimedRow implements io.manebot.entity.Entity {
             } catch (SQLException e) {
                 throw new RuntimeException(e);
             }
+
+            PermissionCache.getInstance(database).put(permission);
         } else if (permission.getGrant() != grant) {
             permission.setGrant(grant);
         }
@@ -140,26 +215,14 @@ public class Entity extends TimedRow implements io.manebot.entity.Entity {
 
     @Override
     public void removePermission(String s) {
-        Permission permission = getPermission(s);
+        Permission permission = getPermissionTree().get(s);
         if (permission == null) throw new IllegalArgumentException("Permission not found");
         permission.remove();
     }
 
     @Override
     public Collection<GrantedPermission> getPermissions() {
-        return database.execute(s -> {
-            return s.createQuery(
-                    "SELECT p FROM " + Permission.class.getName() + " p " +
-                            "inner join p.entity e " +
-                            "where e.entityId = :entityId",
-                    Permission.class
-            )
-                    .setParameter("entityId", entityId)
-                    .getResultList()
-                    .stream()
-                    .map(x -> (GrantedPermission) x)
-                    .collect(Collectors.toList());
-        });
+        return Collections.unmodifiableCollection(getPermissionTree().getAll());
     }
 
     @Override
@@ -168,45 +231,24 @@ public class Entity extends TimedRow implements io.manebot.entity.Entity {
     }
 
     private class VirtualProperty extends BinaryProperty implements io.manebot.property.Property {
-        private static final String ENCODING = "UTF-16";
         private final String name;
-        private final Object accessLock = new Object();
-
-        private io.manebot.database.model.Property property;
 
         private VirtualProperty(String name) {
             this.name = name;
-            this.property = getProperty();
         }
 
         private io.manebot.database.model.Property getProperty() {
-            if (property == null)
-                property = database.execute(s -> {
-                    return s.createQuery(
-                            "SELECT p FROM " + io.manebot.database.model.Property.class.getName() + " p " +
-                                    "inner join p.entity e " +
-                                    "where e.entityId = :entityId and p.name = :name",
-                            io.manebot.database.model.Property.class
-                    )
-                            .setMaxResults(1)
-                            .setParameter("entityId", entityId)
-                            .setParameter("name", name)
-                            .getResultList()
-                            .stream()
-                            .findFirst()
-                            .orElse(null);
-                });
-
-            return property;
+            return getPropertySnapshot().get(name);
         }
 
         private byte[] getValue() {
-            synchronized (accessLock) {
-                if (property == null) {
-                    return null;
-                } else
-                    return property.getValue();
-            }
+            io.manebot.database.model.Property property = getProperty();
+            return property == null ? null : property.getValue();
+        }
+
+        @Override
+        protected byte[] value() {
+            return getValue();
         }
 
         @Override
@@ -216,24 +258,7 @@ public class Entity extends TimedRow implements io.manebot.entity.Entity {
 
         @Override
         public void unset() {
-            synchronized (accessLock) {
-                if (property == null) return;
-
-                try {
-                    this.property = database.executeTransaction(s -> {
-                        io.manebot.database.model.Property attachedProperty =
-                                s.find(io.manebot.database.model.Property.class,
-                                        property.getPropertyId());
-
-                        if (attachedProperty != null)
-                            s.remove(attachedProperty);
-
-                        return null;
-                    });
-                } catch (SQLException e) {
-                    throw new RuntimeException(e);
-                }
-            }
+            editProperties(Collections.singletonMap(name, null));
         }
 
         @Override
@@ -250,50 +275,69 @@ public class Entity extends TimedRow implements io.manebot.entity.Entity {
 
         @Override
         public int write(byte[] bytes, int offs, int len) {
-            byte[] b;
+            editProperties(Collections.singletonMap(name, Arrays.copyOfRange(bytes, offs, offs + len)));
+            return len;
+        }
 
-            if (offs == 0 && len == bytes.length)
-                b = bytes;
-            else {
-                b = new byte[len];
-                System.arraycopy(bytes, 0, b, offs, len);
-            }
+        @Override
+        public int read(byte[] bytes, int offs, int len) {
+            byte[] b = getValue();
+            if (b == null) return 0;
+            System.arraycopy(b, 0, bytes, offs, len);
+            return len;
+        }
+    }
 
-            synchronized (accessLock) {
-                if (property == null) {
-                    try {
-                        this.property = property = database.executeTransaction(s -> {
-                            Entity entity = s.find(Entity.class, getEntityId());
+    /**
+     * Property staged within a batch; reads reflect the staged value, or the current value if none is staged.
+     */
+    private class StagedProperty extends BinaryProperty implements io.manebot.property.Property {
+        private final String name;
+        private final Map<String, byte[]> changes;
 
-                            io.manebot.database.model.Property newProperty =
-                                    new io.manebot.database.model.Property(
-                                            database,
-                                            entity,
-                                            name
-                                    );
+        private StagedProperty(String name, Map<String, byte[]> changes) {
+            this.name = name;
+            this.changes = changes;
+        }
 
-                            s.persist(newProperty);
+        @Override
+        protected byte[] value() {
+            if (changes.containsKey(name)) return changes.get(name);
+            io.manebot.database.model.Property property = getPropertySnapshot().get(name);
+            return property == null ? null : property.getValue();
+        }
 
-                            return newProperty;
-                        });
-                    } catch (SQLException e) {
-                        throw new RuntimeException(e);
-                    }
-                }
+        @Override
+        public String getName() {
+            return name;
+        }
 
-                try {
-                    property.setValue(b);
-                } catch (SQLException e) {
-                    throw new RuntimeException(e);
-                }
-            }
+        @Override
+        public void unset() {
+            changes.put(name, null);
+        }
 
+        @Override
+        public boolean isNull() {
+            return value() == null;
+        }
+
+        @Override
+        public int size() {
+            byte[] value = value();
+            if (value == null) return -1;
+            return value.length;
+        }
+
+        @Override
+        public int write(byte[] bytes, int offs, int len) {
+            changes.put(name, Arrays.copyOfRange(bytes, offs, offs + len));
             return len;
         }
 
         @Override
         public int read(byte[] bytes, int offs, int len) {
-            byte[] b = getValue();
+            byte[] b = value();
             if (b == null) return 0;
             System.arraycopy(b, 0, bytes, offs, len);
             return len;
@@ -0,0 +1,74 @@
+package io.manebot.database.model;
+
+import io.manebot.database.EntityChangeListener;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * JPA entity listener dispatching entity changes to the listeners registered for the entity's class or its
+ * superclasses.  All models extending <b>TimedRow</b> are dispatched; other entity classes may opt in with
+ * <i>@EntityListeners(EntityChangeDispatcher.class)</i>.
+ */
+public class EntityChangeDispatcher {
+    private static final Map<Class<?>, List<EntityChangeListener<?>>> listeners = new ConcurrentHashMap<>();
+
+    /**
+     * Registers a listener for changes to entities of a given class, including its subclasses.
+     * @param entityClass entity class.
+     * @param listener listener to register.
+     * @param <T> entity type.
+     */
+    public static <T> void register(Class<T> entityClass, EntityChangeListener<? super T> listener) {
+        listeners.computeIfAbsent(entityClass, key -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    /**
+     * Unregisters a listener.
+     * @param entityClass entity class the listener was registered for.
+     * @param listener listener to unregister.
+     * @param <T> entity type.
+     */
+    public static <T> void unregister(Class<T> entityClass, EntityChangeListener<? super T> listener) {
+        List<EntityChangeListener<?>> classListeners = listeners.get(entityClass);
+        if (classListeners != null) classListeners.remove(listener);
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(Object entity) {
+        dispatch(entity, true);
+    }
+
+    @PostRemove
+    public void onRemoved(Object entity) {
+        dispatch(entity, false);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void dispatch(Object entity, boolean saved) {
+        if (listeners.isEmpty()) return;
+
+        // Walk superclasses as well, which also finds the entity class of a provider's proxy.
+        for (Class<?> c = entity.getClass(); c != null && c != Object.class; c = c.getSuperclass()) {
+            List<EntityChangeListener<?>> classListeners = listeners.get(c);
+            if (classListeners == null) continue;
+
+            for (EntityChangeListener<?> listener : classListeners) {
+                try {
+                    if (saved) ((EntityChangeListener<Object>) listener).onSaved(entity);
+                    else ((EntityChangeListener<Object>) listener).onRemoved(entity);
+                } catch (RuntimeException e) {
+                    Logger.getGlobal().log(Level.WARNING, "Problem dispatching entity change", e);
+                }
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package io.manebot.database.model;
 
+import io.manebot.tuple.Pair;
 import io.manebot.user.UserGroup;
 import io.manebot.user.UserGroupMembership;
 import io.manebot.user.UserType;
@@ -71,14 +72,18 @@ public class Group extends TimedRow implements UserGroup {
 
     @Override
     public Collection<UserGroupMembership> getMembership() {
-        return Collections.unmodifiableCollection(database.execute(s -> {
-            return s.createQuery(
-                    "SELECT x FROM " + io.manebot.database.model.UserGroup.class.getName() + " x " +
-                            "inner join x.group g "+
-                            "where g.groupId = :groupId",
-                    io.manebot.database.model.UserGroup.class
-            ).setParameter("groupId", getGroupId()).getResultList();
-        }));
+        return database.getCache().get(
+                io.manebot.database.model.UserGroup.class,
+                new Pair<>("group", getGroupId()),
+                () -> Collections.unmodifiableCollection(database.execute(s -> {
+                    return s.createQuery(
+                            "SELECT x FROM " + io.manebot.database.model.UserGroup.class.getName() + " x " +
+                                    "inner join x.group g "+
+                                    "where g.groupId = :groupId",
+                            io.manebot.database.model.UserGroup.class
+                    ).setParameter("groupId", getGroupId()).getResultList();
+                }))
+        );
     }
 
     @Override
@@ -107,8 +112,10 @@ public class Group extends TimedRow implements UserGroup {
         if (addingUser.getType() != UserType.SYSTEM && getOwner() != addingUser)
             throw new SecurityException("Cannot control group");
 
+        io.manebot.database.model.UserGroup membership;
+
         try {
-            database.executeTransaction(s -> {
+            membership = database.executeTransaction(s -> {
                 io.manebot.database.model.UserGroup userGroup =
                         new io.manebot.database.model.UserGroup(
                                 database,
@@ -124,6 +131,8 @@ public class Group extends TimedRow implements UserGroup {
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
+
+        membership.invalidateCache();
     }
 
     public void setName(String name) {
@@ -143,12 +152,15 @@ public class Group extends TimedRow implements UserGroup {
         try {
             database.executeTransaction(s -> {
                 Group group = s.find(Group.class, getGroupId());
-                group.owningUser = owningUser;
+                group.owningUser = (User) user;
                 group.setUpdated(System.currentTimeMillis());
             });
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
+
+        this.owningUser = (User) user;
+        PermissionCache.getInstance(database).invalidateDependents(getEntity());
     }
 
     @Override
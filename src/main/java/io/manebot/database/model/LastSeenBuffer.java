@@ -0,0 +1,124 @@
+package io.manebot.database.model;
+
+import com.google.common.collect.MapMaker;
+import io.manebot.Bot;
+import io.manebot.BotState;
+import io.manebot.database.DatabaseManager;
+
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Buffers user last-seen updates for a database, coalescing them per user and writing them behind in periodic
+ * batched updates.  Each update is written within the flush interval of being buffered, and all pending updates are
+ * flushed when the bot stops.
+ */
+public final class LastSeenBuffer {
+    /**
+     * Maximum time, in milliseconds, an update is buffered before it is written.
+     */
+    private static final long FLUSH_INTERVAL = 5_000L;
+
+    /**
+     * Maximum count of user IDs bound to a single update statement.
+     */
+    private static final int MAXIMUM_BATCH_SIZE = 500;
+
+    private static final Map<io.manebot.database.Database, LastSeenBuffer> buffers =
+            new MapMaker().weakKeys().makeMap();
+
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "LastSeenBuffer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final io.manebot.database.Database database;
+    private final ConcurrentMap<Integer, Integer> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    private final Object flushLock = new Object();
+
+    private final Consumer<BotState> stateListener = state -> {
+        if (state == BotState.STOPPING || state == BotState.STOPPED) flush();
+    };
+
+    private LastSeenBuffer(io.manebot.database.Database database) {
+        this.database = database;
+
+        DatabaseManager databaseManager = database.getDatabaseManager();
+        Bot bot = databaseManager == null ? null : databaseManager.getBot();
+        if (bot != null) bot.registerStateListener(stateListener);
+    }
+
+    /**
+     * Gets the last-seen buffer for a given database.
+     * @param database database to get the buffer for.
+     * @return buffer instance.
+     */
+    public static LastSeenBuffer getInstance(io.manebot.database.Database database) {
+        return buffers.computeIfAbsent(database, LastSeenBuffer::new);
+    }
+
+    /**
+     * Buffers a last-seen update, replacing any update still pending for the same user.
+     * @param userId user ID to update.
+     * @param lastSeen last seen time, in seconds since the epoch.
+     */
+    void put(int userId, int lastSeen) {
+        pending.put(userId, lastSeen);
+
+        if (scheduled.compareAndSet(false, true))
+            scheduler.schedule(this::flush, FLUSH_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Writes all pending updates immediately.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            scheduled.set(false);
+            if (pending.isEmpty()) return;
+
+            // Take a snapshot of the pending updates, leaving behind any that are replaced while flushing.
+            Map<Integer, Integer> updates = new HashMap<>(pending);
+            updates.forEach(pending::remove);
+
+            Map<Integer, List<Integer>> usersByLastSeen = new HashMap<>();
+            updates.forEach((userId, lastSeen) ->
+                    usersByLastSeen.computeIfAbsent(lastSeen, key -> new ArrayList<>()).add(userId));
+
+            try {
+                database.executeTransaction(s -> {
+                    for (Map.Entry<Integer, List<Integer>> entry : usersByLastSeen.entrySet()) {
+                        List<Integer> userIds = entry.getValue();
+
+                        for (int offset = 0; offset < userIds.size(); offset += MAXIMUM_BATCH_SIZE)
+                            s.createQuery(
+                                    "UPDATE " + User.class.getName() + " u " +
+                                            "SET u.lastSeen = :lastSeen " +
+                                            "WHERE u.userId IN :userIds"
+                            )
+                                    .setParameter("lastSeen", entry.getKey())
+                                    .setParameter("userIds", userIds.subList(
+                                            offset,
+                                            Math.min(userIds.size(), offset + MAXIMUM_BATCH_SIZE)
+                                    ))
+                                    .executeUpdate();
+                    }
+                });
+            } catch (SQLException e) {
+                // Return the updates to the buffer so they are retried, unless they have since been replaced.
+                updates.forEach(pending::putIfAbsent);
+                if (scheduled.compareAndSet(false, true))
+                    scheduler.schedule(this::flush, FLUSH_INTERVAL, TimeUnit.MILLISECONDS);
+
+                Logger.getGlobal().log(Level.WARNING, "Problem flushing user last-seen updates", e);
+            }
+        }
+    }
+}
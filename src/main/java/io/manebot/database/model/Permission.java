@@ -62,6 +62,10 @@ public class Permission extends TimedRow implements GrantedPermission {
         return entity;
     }
 
+    public String getNode() {
+        return node;
+    }
+
     @Override
     public io.manebot.security.Permission getPermission() {
         return io.manebot.security.Permission.get(node);
@@ -81,6 +85,9 @@ public class Permission extends TimedRow implements GrantedPermission {
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
+
+        this.allow = grant == Grant.ALLOW;
+        PermissionCache.getInstance(database).put(this);
     }
 
     @Override
@@ -103,6 +110,8 @@ public class Permission extends TimedRow implements GrantedPermission {
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
+
+        PermissionCache.getInstance(database).remove(this);
     }
 
     @Override
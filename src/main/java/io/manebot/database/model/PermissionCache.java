@@ -0,0 +1,302 @@
+package io.manebot.database.model;
+
+import com.google.common.collect.MapMaker;
+import io.manebot.security.Grant;
+import io.manebot.security.PermissionTree;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches the explicit permission grants of entities in a permission tree per entity, so that permission checks are
+ * resolved in memory once an entity's grants have been loaded.
+ *
+ * On top of the trees, the effective permissions of each user (their own grants merged with those of their groups)
+ * are materialized per node as they are checked.  These are invalidated whenever a grant changes on any entity the
+ * user depends on, or the user's group membership changes.
+ *
+ * Trees are kept in sync by the permission mutators on Entity and Permission.
+ */
+public final class PermissionCache {
+    private static final Map<io.manebot.database.Database, PermissionCache> caches =
+            new MapMaker().weakKeys().makeMap();
+
+    private final io.manebot.database.Database database;
+    private final ConcurrentMap<Integer, PermissionTree<Permission>> trees = new ConcurrentHashMap<>();
+
+    /**
+     * Incremented whenever a grant changes for an entity whose tree is not loaded.  A load that observes a change
+     * while it was querying does not cache its tree, since the change may have been missed by the query.
+     */
+    private final AtomicLong unloadedModifications = new AtomicLong();
+
+    private final ConcurrentMap<Integer, EffectivePermissions> effectivePermissions = new ConcurrentHashMap<>();
+
+    /**
+     * Users whose effective permissions depend on the grants of an entity, keyed by entity ID.
+     */
+    private final ConcurrentMap<Integer, Set<Integer>> dependentUsers = new ConcurrentHashMap<>();
+
+    /**
+     * Incremented whenever effective permissions are invalidated.  Effective permissions built while an invalidation
+     * took place are not cached, since they may have been built from stale membership or grants.
+     */
+    private final AtomicLong effectiveGeneration = new AtomicLong();
+
+    private PermissionCache(io.manebot.database.Database database) {
+        this.database = database;
+    }
+
+    /**
+     * Gets the permission cache for a given database.
+     * @param database database to get the permission cache for.
+     * @return permission cache instance.
+     */
+    public static PermissionCache getInstance(io.manebot.database.Database database) {
+        return caches.computeIfAbsent(database, PermissionCache::new);
+    }
+
+    /**
+     * Gets the permission tree of an entity, loading its grants from the database if necessary.
+     * @param entity entity to get the permission tree of.
+     * @return permission tree.
+     */
+    public PermissionTree<Permission> getTree(Entity entity) {
+        int entityId = entity.getEntityId();
+
+        PermissionTree<Permission> tree = trees.get(entityId);
+        if (tree != null) return tree;
+
+        long modifications = unloadedModifications.get();
+        tree = createTree(query(Collections.singleton(entityId)));
+
+        if (unloadedModifications.get() != modifications)
+            return tree;
+
+        PermissionTree<Permission> existing = trees.putIfAbsent(entityId, tree);
+        return existing != null ? existing : tree;
+    }
+
+    /**
+     * Loads the permission trees of several entities at once, using a single query.
+     * @param entities entities to load permission trees for.
+     */
+    public void preload(Collection<? extends Entity> entities) {
+        Set<Integer> entityIds = new HashSet<>();
+        for (Entity entity : entities)
+            if (!trees.containsKey(entity.getEntityId()))
+                entityIds.add(entity.getEntityId());
+
+        if (entityIds.isEmpty()) return;
+
+        long modifications = unloadedModifications.get();
+        Map<Integer, List<Permission>> permissions = new HashMap<>();
+        for (Permission permission : query(entityIds))
+            permissions.computeIfAbsent(permission.getEntity().getEntityId(), key -> new ArrayList<>())
+                    .add(permission);
+
+        if (unloadedModifications.get() != modifications)
+            return;
+
+        for (Integer entityId : entityIds)
+            trees.putIfAbsent(entityId, createTree(permissions.getOrDefault(entityId, Collections.emptyList())));
+    }
+
+    /**
+     * Gets the effective permissions of a user, building them from the user's grants and the grants of all groups
+     * they are a member of if necessary.
+     * @param user user to get effective permissions for.
+     * @return effective permissions.
+     */
+    public EffectivePermissions getEffectivePermissions(User user) {
+        int userId = user.getUserId();
+
+        EffectivePermissions permissions = effectivePermissions.get(userId);
+        if (permissions != null) return permissions;
+
+        long generation = effectiveGeneration.get();
+
+        Entity userEntity = (Entity) user.getEntity();
+        List<Entity> groupEntities = new ArrayList<>();
+        for (io.manebot.user.UserGroupMembership membership : user.getMembership())
+            groupEntities.add(((Group) membership.getGroup()).getEntity());
+
+        List<Entity> entities = new ArrayList<>(groupEntities.size() + 1);
+        entities.add(userEntity);
+        entities.addAll(groupEntities);
+        preload(entities);
+
+        List<PermissionTree<Permission>> groupTrees = new ArrayList<>(groupEntities.size());
+        for (Entity groupEntity : groupEntities) groupTrees.add(getTree(groupEntity));
+        permissions = new EffectivePermissions(getTree(userEntity), groupTrees);
+
+        for (Entity entity : entities)
+            dependentUsers.computeIfAbsent(entity.getEntityId(), key -> ConcurrentHashMap.newKeySet()).add(userId);
+
+        if (effectiveGeneration.get() != generation)
+            return permissions;
+
+        EffectivePermissions existing = effectivePermissions.putIfAbsent(userId, permissions);
+        return existing != null ? existing : permissions;
+    }
+
+    /**
+     * Discards the effective permissions of a user, such as when their group membership changes.
+     * @param user user to invalidate.
+     */
+    public void invalidateEffectivePermissions(User user) {
+        effectiveGeneration.incrementAndGet();
+        effectivePermissions.remove(user.getUserId());
+    }
+
+    /**
+     * Discards the effective permissions of all users which depend on the grants of an entity, such as the members of
+     * a group whose entity has changed.
+     * @param entity entity which has changed.
+     */
+    public void invalidateDependents(Entity entity) {
+        invalidateDependents(entity.getEntityId());
+    }
+
+    private void invalidateDependents(int entityId) {
+        effectiveGeneration.incrementAndGet();
+
+        Set<Integer> userIds = dependentUsers.get(entityId);
+        if (userIds != null)
+            for (Integer userId : userIds) effectivePermissions.remove(userId);
+    }
+
+    /**
+     * Stores a new or changed grant in its entity's tree.
+     * @param permission permission grant to store.
+     */
+    void put(Permission permission) {
+        int entityId = permission.getEntity().getEntityId();
+        if (trees.computeIfPresent(entityId, (key, tree) -> {
+            tree.put(permission.getNode(), permission);
+            return tree;
+        }) == null) unloadedModifications.incrementAndGet();
+
+        invalidateDependents(entityId);
+    }
+
+    /**
+     * Removes a grant from its entity's tree.
+     * @param permission permission grant to remove.
+     */
+    void remove(Permission permission) {
+        int entityId = permission.getEntity().getEntityId();
+        if (trees.computeIfPresent(entityId, (key, tree) -> {
+            tree.remove(permission.getNode());
+            return tree;
+        }) == null) unloadedModifications.incrementAndGet();
+
+        invalidateDependents(entityId);
+    }
+
+    /**
+     * Discards the cached permission tree of an entity, causing it to be reloaded when next needed.
+     * @param entity entity to invalidate.
+     */
+    public void invalidate(Entity entity) {
+        unloadedModifications.incrementAndGet();
+        trees.remove(entity.getEntityId());
+        invalidateDependents(entity.getEntityId());
+    }
+
+    /**
+     * Discards all cached permission trees.
+     */
+    public void invalidateAll() {
+        unloadedModifications.incrementAndGet();
+        trees.clear();
+
+        effectiveGeneration.incrementAndGet();
+        effectivePermissions.clear();
+    }
+
+    private List<Permission> query(Collection<Integer> entityIds) {
+        return database.execute(s -> {
+            return s.createQuery(
+                    "SELECT p FROM " + Permission.class.getName() + " p " +
+                            "inner join p.entity e " +
+                            "where e.entityId IN :entityIds",
+                    Permission.class
+            )
+                    .setParameter("entityIds", entityIds)
+                    .getResultList();
+        });
+    }
+
+    private static PermissionTree<Permission> createTree(Collection<Permission> permissions) {
+        PermissionTree<Permission> tree = new PermissionTree<>();
+        for (Permission permission : permissions) tree.put(permission.getNode(), permission);
+        return tree;
+    }
+
+    /**
+     * The effective permissions of a single user.  A user's own grant for a node always takes precedence; otherwise,
+     * a DENY from any of their groups takes precedence over an ALLOW.  Each entity's grant is resolved from its most
+     * specific node or wildcard.
+     */
+    public static final class EffectivePermissions {
+        private final PermissionTree<Permission> userTree;
+        private final List<PermissionTree<Permission>> groupTrees;
+        private final ConcurrentMap<String, Resolution> resolutions = new ConcurrentHashMap<>();
+
+        private EffectivePermissions(PermissionTree<Permission> userTree, List<PermissionTree<Permission>> groupTrees) {
+            this.userTree = userTree;
+            this.groupTrees = groupTrees;
+        }
+
+        /**
+         * Gets the effective grant of a permission node.
+         * @param node permission node to resolve.
+         * @return effective grant, or null if no user or group grant applies to the node.
+         */
+        public Grant getGrant(String node) {
+            Resolution resolution = resolutions.get(node);
+            if (resolution == null) {
+                resolution = resolve(node);
+                resolutions.putIfAbsent(node, resolution);
+            }
+
+            return resolution.grant;
+        }
+
+        private Resolution resolve(String node) {
+            Permission existing = userTree.resolve(node);
+            if (existing != null) return Resolution.fromGrant(existing.getGrant());
+
+            Grant grant = null;
+            for (PermissionTree<Permission> groupTree : groupTrees) {
+                Permission groupPermission = groupTree.resolve(node);
+                if (groupPermission == null) continue;
+
+                grant = groupPermission.getGrant();
+                if (grant == Grant.DENY) break;
+            }
+
+            return Resolution.fromGrant(grant);
+        }
+    }
+
+    private enum Resolution {
+        ALLOW(Grant.ALLOW),
+        DENY(Grant.DENY),
+        UNDEFINED(null);
+
+        private final Grant grant;
+
+        Resolution(Grant grant) {
+            this.grant = grant;
+        }
+
+        private static Resolution fromGrant(Grant grant) {
+            if (grant == null) return UNDEFINED;
+            return grant == Grant.ALLOW ? ALLOW : DENY;
+        }
+    }
+}
@@ -1,13 +1,15 @@
 package io.manebot.database.model;
 
 import io.manebot.platform.PlatformRegistration;
+import io.manebot.tuple.Pair;
 import io.manebot.user.User;
 import io.manebot.user.UserAssociation;
 import io.manebot.user.UserGroup;
 
 import javax.persistence.*;
 import java.sql.SQLException;
-import java.util.Collection;
+import java.util.*;
+import java.util.stream.Collectors;
 
 @javax.persistence.Entity
 @Table(
@@ -17,6 +19,11 @@ import java.util.Collection;
         uniqueConstraints = {@UniqueConstraint(columnNames ={"id"})}
 )
 public class Platform extends TimedRow implements io.manebot.platform.Platform {
+    /**
+     * Maximum count of IDs bound to a single batched association query.
+     */
+    private static final int MAXIMUM_BATCH_SIZE = 500;
+
     /**
      * Platform connection
      */
@@ -84,31 +91,83 @@ public class Platform extends TimedRow implements io.manebot.platform.Platform {
 
     @Override
     public UserAssociation getUserAssocation(String id) {
-        return database.execute(s -> {
-            return s.createQuery(
-                    "SELECT x FROM " + io.manebot.database.model.UserAssociation.class.getName() + " x " +
-                            "inner join x.platform p " +
-                            "where p.id = :platformId and x.id = :userId",
-                    io.manebot.database.model.UserAssociation.class
-            )
-                    .setMaxResults(1)
-                    .setParameter("platformId", getId())
-                    .setParameter("userId", id)
-                    .getResultList()
-                    .stream()
-                    .findFirst()
-                    .orElse(null);
-        });
+        return database.getCache().get(
+                io.manebot.database.model.UserAssociation.class,
+                new Pair<>(getPlatformId(), id),
+                () -> database.execute(s -> {
+                    return s.createQuery(
+                            "SELECT x FROM " + io.manebot.database.model.UserAssociation.class.getName() + " x " +
+                                    "where x.platform.platformId = :platformId and x.id = :userId",
+                            io.manebot.database.model.UserAssociation.class
+                    )
+                            .setMaxResults(1)
+                            .setParameter("platformId", getPlatformId())
+                            .setParameter("userId", id)
+                            .getResultList()
+                            .stream()
+                            .findFirst()
+                            .orElse(null);
+                })
+        );
+    }
+
+    @Override
+    public Collection<UserAssociation> getUserAssociations(Collection<String> ids) {
+        List<Pair<Integer, String>> keys = new ArrayList<>(ids.size());
+        for (String id : ids) keys.add(new Pair<>(getPlatformId(), id));
+
+        return Collections.unmodifiableCollection(database.getCache().getAll(
+                io.manebot.database.model.UserAssociation.class,
+                keys,
+                this::findUserAssociations
+        ).values());
+    }
+
+    private Map<Pair<Integer, String>, UserAssociation> findUserAssociations(Collection<Pair<Integer, String>> keys) {
+        List<String> ids = keys.stream().map(Pair::getRight).distinct().collect(Collectors.toList());
+        Map<Pair<Integer, String>, UserAssociation> associations = new HashMap<>();
+
+        for (int offset = 0; offset < ids.size(); offset += MAXIMUM_BATCH_SIZE) {
+            List<String> batch = ids.subList(offset, Math.min(ids.size(), offset + MAXIMUM_BATCH_SIZE));
+
+            database.execute(s -> {
+                s.createQuery(
+                        "SELECT x FROM " + io.manebot.database.model.UserAssociation.class.getName() + " x " +
+                                "where x.platform.platformId = :platformId and x.id IN :userIds",
+                        io.manebot.database.model.UserAssociation.class
+                )
+                        .setParameter("platformId", getPlatformId())
+                        .setParameter("userIds", batch)
+                        .getResultList()
+                        .forEach(association ->
+                                associations.put(new Pair<>(getPlatformId(), association.getId()), association));
+            });
+        }
+
+        return associations;
     }
 
     @Override
     public Collection<UserAssociation> getUserAssociations(User user) {
-        throw new UnsupportedOperationException(); // TODO
+        return Collections.unmodifiableCollection(user.getAssociations().stream()
+                .filter(association -> association.getPlatform().getId().equals(getId()))
+                .collect(Collectors.toList()));
     }
 
     @Override
     public Collection<UserAssociation> getUserAssociations() {
-        throw new UnsupportedOperationException(); // TODO
+        return database.getCache().get(
+                io.manebot.database.model.UserAssociation.class,
+                new Pair<>("platform", getPlatformId()),
+                () -> Collections.unmodifiableCollection(database.execute(s -> {
+                    return s.createQuery(
+                            "SELECT x FROM " + io.manebot.database.model.UserAssociation.class.getName() + " x " +
+                                    "inner join x.platform p " +
+                                    "where p.platformId = :platformId",
+                            io.manebot.database.model.UserAssociation.class
+                    ).setParameter("platformId", getPlatformId()).getResultList();
+                }))
+        );
     }
 
     public io.manebot.plugin.Plugin getPlugin() {
@@ -56,15 +56,24 @@ public class Property extends TimedRow {
 
     public void setValue(byte[] value) throws SQLException {
         if (!Arrays.equals(this.value, value)) {
-            this.value = database.executeTransaction(s -> {
+            database.executeTransaction(s -> {
                 Property property = s.find(Property.class, getPropertyId());
-                property.value = value;
-                property.setUpdated(System.currentTimeMillis());
-                return value;
+                property.assign(value);
             });
+
+            assign(value);
         }
     }
 
+    /**
+     * Assigns the value of this property instance, without persisting it.
+     * @param value value to assign.
+     */
+    void assign(byte[] value) {
+        this.value = value;
+        setUpdated(System.currentTimeMillis());
+    }
+
     @Override
     public int hashCode() {
         return Integer.hashCode(propertyId);
@@ -1,11 +1,13 @@
 package io.manebot.database.model;
 
 import javax.persistence.Column;
+import javax.persistence.EntityListeners;
 import javax.persistence.MappedSuperclass;
 import java.util.Calendar;
 import java.util.Date;
 
 @MappedSuperclass
+@EntityListeners(EntityChangeDispatcher.class)
 public abstract class TimedRow {
     public TimedRow() {
         setCreatedDate(Calendar.getInstance().getTime());
@@ -9,6 +9,7 @@ import io.manebot.platform.PlatformUser;
 import io.manebot.security.Grant;
 import io.manebot.security.GrantedPermission;
 import io.manebot.security.Permission;
+import io.manebot.tuple.Pair;
 import io.manebot.user.UserGroupMembership;
 import io.manebot.user.UserPrompt;
 import io.manebot.user.UserType;
@@ -123,14 +124,16 @@ public class User extends TimedRow implements io.manebot.user.User {
 
     @Override
     public Collection<UserGroupMembership> getMembership() {
-        return Collections.unmodifiableCollection(database.execute(s -> {
-            return s.createQuery(
-                    "SELECT x FROM " + UserGroup.class.getName() + " x " +
-                            "inner join x.user u " +
-                            "where u.userId = :userId",
-                    UserGroup.class
-            ).setParameter("userId", getUserId()).getResultList();
-        }));
+        return database.getCache().get(UserGroup.class, new Pair<>("user", getUserId()), () ->
+                Collections.unmodifiableCollection(database.execute(s -> {
+                    return s.createQuery(
+                            "SELECT x FROM " + UserGroup.class.getName() + " x " +
+                                    "inner join x.user u " +
+                                    "where u.userId = :userId",
+                            UserGroup.class
+                    ).setParameter("userId", getUserId()).getResultList();
+                }))
+        );
     }
 
     @Override
@@ -155,15 +158,14 @@ public class User extends TimedRow implements io.manebot.user.User {
         return userId;
     }
 
+    /**
+     * Sets the last time this user was seen.  The update is written behind by the database's LastSeenBuffer, coalesced
+     * with other updates to this and other users.
+     * @param lastSeen last seen time, in seconds since the epoch.
+     */
     public void setLastSeen(int lastSeen) {
-        try {
-            database.executeTransaction(s -> {
-                User user = s.find(User.class, getUserId());
-                user.lastSeen = lastSeen;
-            });
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
+        this.lastSeen = lastSeen;
+        LastSeenBuffer.getInstance(database).put(getUserId(), lastSeen);
     }
 
     @Override
@@ -174,6 +176,10 @@ public class User extends TimedRow implements io.manebot.user.User {
     // Override for efficiency
     @Override
     public UserAssociation getUserAssociation(Platform platform, String id) {
+        // Platforms of this database look associations up through the cache; any other is queried by its ID.
+        if (platform instanceof io.manebot.database.model.Platform)
+            return (UserAssociation) ((io.manebot.database.model.Platform) platform).getUserAssocation(id);
+
         return database.execute(s -> {
             return s.createQuery(
                     "SELECT x FROM " + UserAssociation.class.getName() + " x " +
@@ -192,14 +198,16 @@ public class User extends TimedRow implements io.manebot.user.User {
     }
 
     public Collection<io.manebot.user.UserAssociation> getAssociations() {
-        return Collections.unmodifiableCollection(database.execute(s -> {
-            return s.createQuery(
-                    "SELECT x FROM " + UserAssociation.class.getName() + " x " +
-                            "inner join x.user u " +
-                            "where u.userId = :userId",
-                    UserAssociation.class
-            ).setParameter("userId", getUserId()).getResultList();
-        }));
+        return database.getCache().get(UserAssociation.class, new Pair<>("user", getUserId()), () ->
+                Collections.unmodifiableCollection(database.execute(s -> {
+                    return s.createQuery(
+                            "SELECT x FROM " + UserAssociation.class.getName() + " x " +
+                                    "inner join x.user u " +
+                                    "where u.userId = :userId",
+                            UserAssociation.class
+                    ).setParameter("userId", getUserId()).getResultList();
+                }))
+        );
     }
 
     @Override
@@ -310,6 +318,8 @@ public class User extends TimedRow implements io.manebot.user.User {
             throw new RuntimeException(e);
         }
 
+        association.invalidateCache();
+
         return association;
     }
 
@@ -319,14 +329,7 @@ public class User extends TimedRow implements io.manebot.user.User {
                 getUserAssociation(platform, platformUserId);
 
         if (association != null) {
-            try {
-                database.executeTransaction(s -> {
-                    s.remove(association);
-                });
-            } catch (SQLException e) {
-                throw new RuntimeException(e);
-            }
-
+            association.remove();
             return true;
         } else return false;
     }
@@ -463,24 +466,9 @@ public class User extends TimedRow implements io.manebot.user.User {
         // If the user is a system user, all permissions are ignored.
         if (getType() == UserType.SYSTEM) return true;
 
-        // Get existing permission (always shortcuts fallback)
-        GrantedPermission existing = getEntity().getPermission(permission);
-        if (existing != null) return existing.getGrant() == Grant.ALLOW;
-
-        // Look through groups with explicit DENY flattening
-        Collection<Grant> groupGrants = getGroups().stream()
-                .map(group -> {
-                    GrantedPermission grantedPermission = group.getEntity().getPermission(permission);
-                    if (grantedPermission == null) return null;
-                    return grantedPermission.getGrant();
-                })
-                .filter(Objects::nonNull)
-                .distinct()
-                .collect(Collectors.toList());
-
-        // DENY first, then ALLOW
-        if (groupGrants.contains(Grant.DENY)) return false;
-        else if (groupGrants.contains(Grant.ALLOW)) return true;
+        // User grants always shortcut group grants, and group DENY grants shortcut ALLOW grants
+        Grant grant = PermissionCache.getInstance(database).getEffectivePermissions(this).getGrant(permission.getNode());
+        if (grant != null) return grant == Grant.ALLOW;
 
         // Fallback, no explicit permissions were supplied.
         return fallback == Grant.ALLOW;
@@ -1,5 +1,8 @@
 package io.manebot.database.model;
 
+import io.manebot.database.DatabaseCache;
+import io.manebot.tuple.Pair;
+
 import javax.persistence.*;
 import java.sql.SQLException;
 
@@ -64,11 +67,24 @@ public class UserAssociation extends TimedRow implements io.manebot.user.UserAss
     public void remove() {
         try {
             database.executeTransaction(s -> {
-                s.remove(UserAssociation.this);
+                UserAssociation association = s.find(UserAssociation.class, getUserAssociationId());
+                s.remove(association);
             });
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
+
+        invalidateCache();
+    }
+
+    /**
+     * Invalidates the cached association lookups this association is a part of.
+     */
+    void invalidateCache() {
+        DatabaseCache cache = database.getCache();
+        cache.invalidate(UserAssociation.class, new Pair<>("user", user.getUserId()));
+        cache.invalidate(UserAssociation.class, new Pair<>("platform", platform.getPlatformId()));
+        cache.invalidate(UserAssociation.class, new Pair<>(platform.getPlatformId(), id));
     }
 
     public void setUser(User user) {
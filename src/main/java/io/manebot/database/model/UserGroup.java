@@ -1,5 +1,7 @@
 package io.manebot.database.model;
 
+import io.manebot.database.DatabaseCache;
+import io.manebot.tuple.Pair;
 import io.manebot.user.UserGroupMembership;
 
 import javax.persistence.*;
@@ -82,11 +84,25 @@ public class UserGroup extends TimedRow implements UserGroupMembership {
     public void remove() throws SecurityException {
         try {
             database.executeTransaction(s -> {
-                s.remove(UserGroup.this);
+                UserGroup userGroup = s.find(UserGroup.class, getUserGroupId());
+                s.remove(userGroup);
             });
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
+
+        invalidateCache();
+    }
+
+    /**
+     * Invalidates the cached membership lookups and effective permissions this membership is a part of.
+     */
+    void invalidateCache() {
+        DatabaseCache cache = database.getCache();
+        cache.invalidate(UserGroup.class, new Pair<>("user", user.getUserId()));
+        cache.invalidate(UserGroup.class, new Pair<>("group", group.getGroupId()));
+
+        PermissionCache.getInstance(database).invalidateEffectivePermissions(user);
     }
 
     @Override
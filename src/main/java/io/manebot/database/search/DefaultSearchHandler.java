@@ -0,0 +1,1407 @@
+package io.manebot.database.search;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.MapMaker;
+import com.google.common.primitives.Primitives;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.manebot.database.Database;
+import io.manebot.database.search.handler.ParameterizedSearchArgumentHandler;
+import io.manebot.database.search.handler.SearchArgumentHandler;
+import io.manebot.database.search.handler.SearchOrderHandler;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Parameter;
+import javax.persistence.PersistenceException;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.*;
+import javax.persistence.metamodel.Bindable;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.SingularAttribute;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Criteria-based search handler, translating the lexical clauses of a <b>Search</b> into a JPA criteria query using
+ * the argument, command, string and sort bindings it was built with.
+ *
+ * Handlers built with keyset pagination select the sort keys of each result alongside it, and describe the sort keys
+ * of the last result of each page in the page's continuation token.  Following pages are found by seeking past those
+ * keys, rather than by skipping every preceding result.  Tokens are also remembered for the page they lead to, so
+ * that searches stepping through page numbers seek as well, except for searches which may depend on their caller,
+ * whose tokens are only given to the caller.  Results are always ordered by the entity's identifier
+ * last, so that the order, and the position a token describes, is total.  Sorts on keys which may be null, such as
+ * optional attributes, are paged by offset: a seek predicate cannot order null keys as every provider does.
+ *
+ * Queries are compiled once per search shape: the operators and grouping of a search, the handlers and variants of
+ * its arguments, and its sort keys.  Parameterized handlers bind argument values to parameters of the compiled query,
+ * so searches of the same shape only bind new values, and the JPA provider can reuse its query plan and prepared
+ * statement.  Compiled queries are kept per entity manager factory, and used by one session at a time.  Searches
+ * using a handler which is not parameterized, and every search of a handler with <b>always</b> clauses, are compiled
+ * again each time they are executed, as their predicates may depend on state other than their arguments, such as the
+ * current user.
+ *
+ * Streamed searches read their results through a single database cursor, fetching the results a given count at a
+ * time, and detach each result from the cursor's session as it is read.
+ *
+ * Random results are sampled without sorting the results of the search, as described by the handler's
+ * <b>Sampling</b> mode.
+ *
+ * @param <T> search entity type.
+ */
+public class DefaultSearchHandler<T> implements SearchHandler<T> {
+    private static final int TOKEN_VERSION = 1;
+    private static final byte TOKEN_OFFSET = 0x0, TOKEN_SEEK = 0x1;
+
+    /**
+     * Maximum count of continuation tokens remembered for the pages they lead to.
+     */
+    private static final int MAXIMUM_CONTINUATIONS = 1000;
+
+    /**
+     * Maximum count of sorts remembered as seekable or not.
+     */
+    private static final int MAXIMUM_ORDERS = 256;
+
+    /**
+     * Maximum count of search shapes whose compiled query templates are retained, per entity manager factory.
+     */
+    private static final int MAXIMUM_TEMPLATES = 256;
+
+    /**
+     * Maximum count of searches whose identifiers are cached for sampling.
+     */
+    private static final int MAXIMUM_SAMPLED_SEARCHES = 64;
+
+    /**
+     * Maximum count of probes made by key range sampling before it falls back to offset sampling.
+     */
+    private static final int MAXIMUM_PROBES = 3;
+
+    /**
+     * Maximum count of search counts cached.
+     */
+    private static final int MAXIMUM_COUNTS = 1000;
+
+    /**
+     * Default cap total results are counted up to by capped counts.
+     */
+    public static final int DEFAULT_COUNT_CAP = 1000;
+
+    /**
+     * Provider query hints setting the JDBC fetch size; providers ignore hints they do not recognize.
+     */
+    private static final String[] FETCH_SIZE_HINTS = { "org.hibernate.fetchSize", "eclipselink.jdbc.fetch-size" };
+
+    private final Database database;
+    private final Class<T> entityClass;
+    private final Map<String, SearchArgumentHandler> arguments;
+    private final Map<String, SearchArgumentHandler> commands;
+    private final SearchArgumentHandler defaultCommandHandler;
+    private final SearchArgumentHandler stringHandler;
+    private final List<Consumer<Clause<T>>> always;
+    private final Map<String, SearchOrderHandler> sorts;
+    private final Search.Order defaultOrder;
+    private final Pagination pagination;
+    private final CountMode countMode;
+    private final int countCap;
+    private final Sampling sampling;
+
+    private final Map<EntityManagerFactory, Cache<String, Queue<Template<?>>>> templates =
+            new MapMaker().weakKeys().makeMap();
+
+    private final Cache<String, String> continuations = CacheBuilder.newBuilder()
+            .maximumSize(MAXIMUM_CONTINUATIONS)
+            .expireAfterAccess(10, TimeUnit.MINUTES)
+            .build();
+
+    private final Cache<String, Boolean> seekableOrders = CacheBuilder.newBuilder()
+            .maximumSize(MAXIMUM_ORDERS)
+            .build();
+
+    private final Cache<String, Long> counts = CacheBuilder.newBuilder()
+            .maximumSize(MAXIMUM_COUNTS)
+            .expireAfterWrite(1, TimeUnit.MINUTES)
+            .build();
+
+    private final Cache<String, List<Object>> sampledIds = CacheBuilder.newBuilder()
+            .maximumSize(MAXIMUM_SAMPLED_SEARCHES)
+            .expireAfterWrite(1, TimeUnit.MINUTES)
+            .build();
+
+    private DefaultSearchHandler(Builder<T> builder) {
+        this.database = builder.database;
+        this.entityClass = builder.entityClass;
+        this.arguments = new HashMap<>(builder.arguments);
+        this.commands = new HashMap<>(builder.commands);
+        this.defaultCommandHandler = builder.defaultCommandHandler;
+        this.stringHandler = builder.stringHandler;
+        this.always = new ArrayList<>(builder.always);
+        this.sorts = new HashMap<>(builder.sorts);
+        this.defaultOrder = builder.defaultOrder;
+        this.pagination = builder.pagination;
+        this.countMode = builder.countMode;
+        this.countCap = builder.countCap;
+        this.sampling = builder.sampling;
+    }
+
+    /**
+     * Creates a builder for a search handler over a given entity class.
+     * @param database database the entity class is registered to.
+     * @param entityClass entity class.
+     * @param <T> search entity type.
+     * @return Builder instance.
+     */
+    public static <T> Builder<T> builder(Database database, Class<T> entityClass) {
+        return new Builder<>(database, entityClass);
+    }
+
+    @Override
+    public Class<T> getEntityClass() {
+        return entityClass;
+    }
+
+    @Override
+    public Database getDatabase() {
+        return database;
+    }
+
+    @Override
+    public SearchArgumentHandler getArgumentHandler(String name) {
+        return arguments.get(name);
+    }
+
+    @Override
+    public SearchArgumentHandler getCommandHandler(String name) {
+        return commands.getOrDefault(name.toLowerCase(), defaultCommandHandler);
+    }
+
+    @Override
+    public SearchArgumentHandler getStringHandler() {
+        return stringHandler;
+    }
+
+    /**
+     * Gets the pagination mode used by this handler.
+     * @return pagination mode.
+     */
+    public Pagination getPagination() {
+        return pagination;
+    }
+
+    /**
+     * Gets how this handler counts the total results of its searches.
+     * @return count mode.
+     */
+    public CountMode getCountMode() {
+        return countMode;
+    }
+
+    /**
+     * Gets how this handler samples random results.
+     * @return sampling mode.
+     */
+    public Sampling getSampling() {
+        return sampling;
+    }
+
+    @Override
+    public SearchResult<T> search(Search search, int maxResults) throws SQLException, IllegalArgumentException {
+        if (maxResults <= 0) throw new IllegalArgumentException("Invalid page size: " + maxResults);
+
+        // Preparing the search validates every argument before the database is used.
+        Prepared prepared = prepare(search);
+
+        String shape = getShape(search);
+        int page = Math.max(1, search.getPage());
+
+        // Searches which may depend on the caller cannot share continuations between callers.
+        boolean shared = pagination == Pagination.KEYSET && prepared.reusable;
+
+        Continuation continuation = null;
+        if (search.getCursor() != null) {
+            continuation = Continuation.decode(search.getCursor(), shape, maxResults);
+            page = continuation.page;
+        } else if (shared && page > 1) {
+            String token = continuations.getIfPresent(getContinuationKey(shape, maxResults, page));
+            if (token != null) continuation = Continuation.decode(token, shape, maxResults);
+        }
+
+        final int resultPage = page;
+        final Continuation sought = pagination == Pagination.KEYSET && continuation != null
+                && continuation.values != null ? continuation : null;
+
+        try {
+            return database.execute(session -> {
+                List<T> results;
+                List<Object> lastKeys = null;
+                boolean moreResults;
+
+                if (pagination == Pagination.KEYSET) {
+                    Continuation seek = sought != null && isSeekable(session, search, sought.values) ? sought : null;
+                    TypedQuery<Tuple> query = seek != null ?
+                            createQuery(session, prepared, "seek|" + prepared.orderedSignature,
+                                    criteriaBuilder -> compileKeysetQuery(criteriaBuilder, search, true),
+                                    seek.values) :
+                            createQuery(session, prepared, "keyset|" + prepared.orderedSignature,
+                                    criteriaBuilder -> compileKeysetQuery(criteriaBuilder, search, false),
+                                    null);
+
+                    query.setMaxResults(maxResults + 1);
+                    if (seek == null) query.setFirstResult(getFirstResult(resultPage, maxResults));
+
+                    List<Tuple> rows = query.getResultList();
+                    moreResults = rows.size() > maxResults;
+                    if (moreResults) rows = rows.subList(0, maxResults);
+
+                    results = rows.stream().map(row -> row.get(0, entityClass)).collect(Collectors.toList());
+
+                    if (moreResults) {
+                        Tuple last = rows.get(rows.size() - 1);
+                        int keyCount = last.getElements().size() - 1;
+                        lastKeys = new ArrayList<>(keyCount);
+                        for (int i = 0; i < keyCount; i ++) lastKeys.add(last.get(i + 1));
+
+                        // Following pages are found by offset where they cannot be found by seeking.
+                        if (!isSeekable(session, search, lastKeys)) lastKeys = null;
+                    }
+                } else {
+                    results = new ArrayList<>(createSelectQuery(session, prepared)
+                            .setFirstResult(getFirstResult(resultPage, maxResults))
+                            .setMaxResults(maxResults + 1)
+                            .getResultList());
+
+                    moreResults = results.size() > maxResults;
+                    if (moreResults) results = results.subList(0, maxResults);
+                }
+
+                // Results up to and including this page are a lower bound, and exact where none follow.
+                long totalResults = (long) (resultPage - 1) * maxResults + results.size();
+                boolean totalExact = !moreResults && (!results.isEmpty() || resultPage == 1);
+
+                switch (countMode) {
+                    case EXACT:
+                        totalResults = count(session, prepared);
+                        totalExact = true;
+                        break;
+                    case CACHED:
+                        totalResults = countCached(session, prepared);
+                        totalExact = true;
+                        break;
+                    case CAPPED:
+                        if (totalExact) break;
+
+                        long capped = countCapped(session, prepared);
+                        totalExact = capped <= countCap;
+                        totalResults = Math.max(totalResults, Math.min(capped, countCap));
+                        break;
+                }
+
+                String token = null;
+                if (moreResults) {
+                    token = Continuation.encode(shape, maxResults, resultPage + 1,
+                            pagination == Pagination.KEYSET ? lastKeys : null);
+                    if (shared)
+                        continuations.put(getContinuationKey(shape, maxResults, resultPage + 1), token);
+                }
+
+                return new DefaultSearchResult<>(
+                        search,
+                        this,
+                        totalResults,
+                        maxResults,
+                        resultPage,
+                        Collections.unmodifiableList(results),
+                        countMode,
+                        moreResults,
+                        token,
+                        totalExact
+                );
+            });
+        } catch (PersistenceException e) {
+            throw new SQLException("Problem executing search", e);
+        }
+    }
+
+    @Override
+    public SearchResult<T> random(Search search, int maxResults) throws SQLException, IllegalArgumentException {
+        Prepared prepared = prepare(search);
+
+        try {
+            return database.execute(session -> {
+                switch (sampling) {
+                    case KEY_RANGE:
+                        return randomByKeyRange(session, prepared, maxResults);
+                    case RESERVOIR:
+                        return randomByReservoir(session, prepared, maxResults);
+                    case CACHED_IDS:
+                        // Searches which may depend on the caller cannot share identifiers between callers.
+                        if (!prepared.reusable) return randomByReservoir(session, prepared, maxResults);
+                        return randomByCachedIds(session, prepared, maxResults);
+                    default:
+                        return randomByOffset(session, prepared, maxResults, count(session, prepared));
+                }
+            });
+        } catch (PersistenceException e) {
+            throw new SQLException("Problem executing search", e);
+        }
+    }
+
+    @Override
+    public Stream<T> stream(Search search, int fetchSize) throws SQLException, IllegalArgumentException {
+        if (fetchSize <= 0) throw new IllegalArgumentException("Invalid fetch size: " + fetchSize);
+
+        Prepared prepared = prepare(search);
+
+        // The session stays open for the cursor, until the stream is closed.
+        EntityManager session = database.openSession();
+
+        try {
+            TypedQuery<T> query = createSelectQuery(session, prepared);
+            for (String hint : FETCH_SIZE_HINTS) query.setHint(hint, fetchSize);
+
+            return query.getResultStream()
+                    .map(result -> {
+                        session.detach(result);
+                        return result;
+                    })
+                    .onClose(session::close);
+        } catch (PersistenceException e) {
+            session.close();
+            throw new SQLException("Problem executing search", e);
+        } catch (RuntimeException | Error e) {
+            session.close();
+            throw e;
+        }
+    }
+
+    private SearchResult<T> randomByOffset(EntityManager session, Prepared prepared, int maxResults, long count) {
+        Search search = prepared.search;
+        if (count <= 0) return new DefaultSearchResult<>(search, this, 0, maxResults, 1, Collections.emptyList());
+
+        int offset = (int) Math.min(Integer.MAX_VALUE, ThreadLocalRandom.current().nextLong(count));
+        List<T> results = createSelectQuery(session, prepared)
+                .setFirstResult(offset)
+                .setMaxResults(1)
+                .getResultList();
+
+        return new DefaultSearchResult<>(search, this, count, maxResults, 1, Collections.unmodifiableList(results));
+    }
+
+    private SearchResult<T> randomByKeyRange(EntityManager session, Prepared prepared, int maxResults) {
+        Search search = prepared.search;
+        Class<?> idType = getIdType(session);
+        if (idType != Long.class && idType != Integer.class && idType != Short.class)
+            return randomByOffset(session, prepared, maxResults, count(session, prepared));
+
+        Tuple range = createQuery(session, prepared, "range|" + prepared.signature,
+                criteriaBuilder -> compileRangeQuery(criteriaBuilder, search), null).getSingleResult();
+        long count = range.get(2, Long.class);
+        if (count <= 0) return new DefaultSearchResult<>(search, this, 0, maxResults, 1, Collections.emptyList());
+
+        long minimum = ((Number) range.get(0)).longValue(), maximum = ((Number) range.get(1)).longValue();
+
+        // Every probe finds a result unless results are removed concurrently.
+        for (int probe = 0; probe < MAXIMUM_PROBES; probe ++) {
+            long key = maximum - minimum < Long.MAX_VALUE ?
+                    minimum + ThreadLocalRandom.current().nextLong(maximum - minimum + 1) :
+                    ThreadLocalRandom.current().nextLong(minimum, maximum);
+
+            List<T> results = createQuery(session, prepared, "probe|" + prepared.signature,
+                    criteriaBuilder -> compileProbeQuery(criteriaBuilder, search),
+                    Collections.singletonList(toIdentifier(key, idType)))
+                    .setMaxResults(1)
+                    .getResultList();
+
+            if (!results.isEmpty())
+                return new DefaultSearchResult<>(
+                        search, this, count, maxResults, 1, Collections.unmodifiableList(results)
+                );
+        }
+
+        return randomByOffset(session, prepared, maxResults, count);
+    }
+
+    private SearchResult<T> randomByReservoir(EntityManager session, Prepared prepared, int maxResults) {
+        Search search = prepared.search;
+        if (getIdType(session) == null) return randomByOffset(session, prepared, maxResults, count(session, prepared));
+
+        long count = 0;
+        Object chosen = null;
+
+        try (Stream<Object> ids = createIdQuery(session, prepared).getResultStream()) {
+            Iterator<Object> iterator = ids.iterator();
+            while (iterator.hasNext()) {
+                Object id = iterator.next();
+                if (ThreadLocalRandom.current().nextLong(++ count) == 0) chosen = id;
+            }
+        }
+
+        T result = chosen == null ? null : session.find(entityClass, chosen);
+        if (result == null)
+            return new DefaultSearchResult<>(search, this, count, maxResults, 1, Collections.emptyList());
+
+        return new DefaultSearchResult<>(search, this, count, maxResults, 1, Collections.singletonList(result));
+    }
+
+    private SearchResult<T> randomByCachedIds(EntityManager session, Prepared prepared, int maxResults) {
+        Search search = prepared.search;
+        if (getIdType(session) == null) return randomByOffset(session, prepared, maxResults, count(session, prepared));
+
+        String key = getShape(search);
+        List<Object> ids;
+        try {
+            ids = sampledIds.get(key, () -> Collections.unmodifiableList(new ArrayList<>(
+                    createIdQuery(session, prepared).getResultList()
+            )));
+        } catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new RuntimeException(cause);
+        }
+
+        if (ids.isEmpty()) return new DefaultSearchResult<>(search, this, 0, maxResults, 1, Collections.emptyList());
+
+        // Cached identifiers may have been removed since they were cached.
+        for (int probe = 0; probe < MAXIMUM_PROBES; probe ++) {
+            T result = session.find(entityClass, ids.get(ThreadLocalRandom.current().nextInt(ids.size())));
+            if (result != null)
+                return new DefaultSearchResult<>(
+                        search, this, ids.size(), maxResults, 1, Collections.singletonList(result)
+                );
+        }
+
+        sampledIds.invalidate(key);
+        return randomByOffset(session, prepared, maxResults, count(session, prepared));
+    }
+
+    private long count(EntityManager session, Prepared prepared) {
+        return createQuery(session, prepared, "count|" + prepared.signature,
+                criteriaBuilder -> compileCountQuery(criteriaBuilder, prepared.search), null).getSingleResult();
+    }
+
+    private long countCached(EntityManager session, Prepared prepared) {
+        // Searches which may depend on the caller cannot share counts between callers.
+        if (!prepared.reusable) return count(session, prepared);
+
+        // Searches differing only in their page or sort have the same count.
+        String key = prepared.search.withPage(1).withCursor(null).withOrders(Collections.emptyList()).toString();
+
+        try {
+            return counts.get(key, () -> count(session, prepared));
+        } catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * Counts the results of a search up to one past the count cap, by selecting at most as many identifiers, so that
+     * the database stops once the cap is exceeded.  Entities without a single identifier are counted exactly.
+     */
+    private long countCapped(EntityManager session, Prepared prepared) {
+        if (getIdType(session) == null) return count(session, prepared);
+
+        return createIdQuery(session, prepared)
+                .setMaxResults(countCap + 1)
+                .getResultList()
+                .size();
+    }
+
+    private TypedQuery<T> createSelectQuery(EntityManager session, Prepared prepared) {
+        return createQuery(session, prepared, "select|" + prepared.orderedSignature,
+                criteriaBuilder -> compileSelectQuery(criteriaBuilder, prepared.search), null);
+    }
+
+    private TypedQuery<Object> createIdQuery(EntityManager session, Prepared prepared) {
+        return createQuery(session, prepared, "ids|" + prepared.signature,
+                criteriaBuilder -> compileIdQuery(criteriaBuilder, prepared.search), null);
+    }
+
+    private Template<T> compileSelectQuery(CriteriaBuilder criteriaBuilder, Search search) {
+        TemplateBinder binder = new TemplateBinder(criteriaBuilder);
+
+        CriteriaQuery<T> query = criteriaBuilder.createQuery(entityClass);
+        Root<T> root = query.from(entityClass);
+        query.select(root);
+
+        Predicate where = compilePredicate(root, criteriaBuilder, search, binder);
+        if (where != null) query.where(where);
+
+        query.orderBy(getOrders(root, criteriaBuilder, search));
+
+        return new Template<>(query, binder.bindings);
+    }
+
+    private Template<Tuple> compileKeysetQuery(CriteriaBuilder criteriaBuilder, Search search, boolean seek) {
+        TemplateBinder binder = new TemplateBinder(criteriaBuilder);
+
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<T> root = query.from(entityClass);
+        List<Order> orders = getOrders(root, criteriaBuilder, search);
+
+        List<Selection<?>> selections = new ArrayList<>(orders.size() + 1);
+        selections.add(root);
+        for (Order order : orders) selections.add(order.getExpression());
+        query.multiselect(selections);
+
+        Predicate where = compilePredicate(root, criteriaBuilder, search, binder);
+        if (seek) {
+            Predicate seekPredicate = getSeekPredicate(criteriaBuilder, orders, binder);
+            where = where == null ? seekPredicate : criteriaBuilder.and(where, seekPredicate);
+        }
+
+        if (where != null) query.where(where);
+        query.orderBy(orders);
+
+        return new Template<>(query, binder.bindings);
+    }
+
+    /**
+     * Compiles a query selecting the lowest and highest identifiers of a search's results, and their count.
+     */
+    private Template<Tuple> compileRangeQuery(CriteriaBuilder criteriaBuilder, Search search) {
+        TemplateBinder binder = new TemplateBinder(criteriaBuilder);
+
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<T> root = query.from(entityClass);
+        Path<Number> id = getIntegralId(root);
+        query.multiselect(criteriaBuilder.min(id), criteriaBuilder.max(id), criteriaBuilder.count(root));
+
+        Predicate where = compilePredicate(root, criteriaBuilder, search, binder);
+        if (where != null) query.where(where);
+
+        return new Template<>(query, binder.bindings);
+    }
+
+    /**
+     * Compiles a query selecting a search's results at or after a bound identifier, in order of identifier.
+     */
+    private Template<T> compileProbeQuery(CriteriaBuilder criteriaBuilder, Search search) {
+        TemplateBinder binder = new TemplateBinder(criteriaBuilder);
+
+        CriteriaQuery<T> query = criteriaBuilder.createQuery(entityClass);
+        Root<T> root = query.from(entityClass);
+        Path<Number> id = getIntegralId(root);
+        query.select(root);
+
+        @SuppressWarnings("unchecked")
+        Expression<Number> key = (Expression<Number>) binder.bindKey(id, 0);
+        Predicate probe = criteriaBuilder.ge(id, key);
+        Predicate where = compilePredicate(root, criteriaBuilder, search, binder);
+        query.where(where == null ? probe : criteriaBuilder.and(where, probe));
+        query.orderBy(criteriaBuilder.asc(id));
+
+        return new Template<>(query, binder.bindings);
+    }
+
+    /**
+     * Compiles a query selecting the identifiers of a search's results.
+     */
+    @SuppressWarnings("unchecked")
+    private Template<Object> compileIdQuery(CriteriaBuilder criteriaBuilder, Search search) {
+        TemplateBinder binder = new TemplateBinder(criteriaBuilder);
+
+        CriteriaQuery<Object> query = criteriaBuilder.createQuery(Object.class);
+        Root<T> root = query.from(entityClass);
+        query.select((Path<Object>) root.get(getIdAttribute(root)));
+
+        Predicate where = compilePredicate(root, criteriaBuilder, search, binder);
+        if (where != null) query.where(where);
+
+        return new Template<>(query, binder.bindings);
+    }
+
+    private Template<Long> compileCountQuery(CriteriaBuilder criteriaBuilder, Search search) {
+        TemplateBinder binder = new TemplateBinder(criteriaBuilder);
+
+        CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+        Root<T> root = query.from(entityClass);
+        query.select(criteriaBuilder.count(root));
+
+        Predicate where = compilePredicate(root, criteriaBuilder, search, binder);
+        if (where != null) query.where(where);
+
+        return new Template<>(query, binder.bindings);
+    }
+
+    /**
+     * Creates a query for a prepared search, binding the values of its arguments and sort keys to its parameters.
+     *
+     * Searches whose compiled queries may be reused take a template compiled for their shape, compiling one if none
+     * is idle.  Templates are compiled with the criteria builder of the session's entity manager factory, and kept per
+     * factory; each is used to create one query at a time, as criteria queries are not safe to share between threads.
+     * Other searches are compiled again with the session's own criteria builder.
+     */
+    @SuppressWarnings("unchecked")
+    private <Q> TypedQuery<Q> createQuery(EntityManager session, Prepared prepared, String key,
+                                          Function<CriteriaBuilder, Template<Q>> compiler, List<Object> keys) {
+        if (!prepared.reusable)
+            return compiler.apply(session.getCriteriaBuilder()).createQuery(session, prepared.arguments, keys);
+
+        EntityManagerFactory factory = session.getEntityManagerFactory();
+        Queue<Template<?>> idle = getIdleTemplates(factory, key);
+
+        Template<Q> template = (Template<Q>) idle.poll();
+        if (template == null) template = compiler.apply(factory.getCriteriaBuilder());
+
+        try {
+            return template.createQuery(session, prepared.arguments, keys);
+        } finally {
+            idle.offer(template);
+        }
+    }
+
+    private Queue<Template<?>> getIdleTemplates(EntityManagerFactory factory, String key) {
+        Cache<String, Queue<Template<?>>> factoryTemplates = templates.computeIfAbsent(
+                factory,
+                ignored -> CacheBuilder.newBuilder().maximumSize(MAXIMUM_TEMPLATES).build()
+        );
+
+        try {
+            return factoryTemplates.get(key, ConcurrentLinkedQueue::new);
+        } catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * Prepares a search for execution, validating every argument.
+     */
+    private Prepared prepare(Search search) throws IllegalArgumentException {
+        String signature = getSignature(search);
+        List<SearchArgument> arguments = getHandlerArguments(search);
+        boolean reusable = always.isEmpty() && isParameterized(search.getLexicalClause().getActions());
+
+        return new Prepared(search, signature, signature + getOrderSignature(search), arguments, reusable);
+    }
+
+    private boolean isParameterized(List<SearchPredicate> actions) {
+        for (SearchPredicate action : actions) {
+            if (action instanceof Search.PushedLexicalClause) {
+                if (!isParameterized(((Search.PushedLexicalClause) action).getActions())) return false;
+            } else if (!ParameterizedSearchArgumentHandler.isParameterized(getHandler(action))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Compiles the predicate of a search.  Arguments are numbered in the order they appear in the search, which is the
+     * order <b>getHandlerArguments</b> lists them in.
+     */
+    private Predicate compilePredicate(Root<T> root, CriteriaBuilder criteriaBuilder, Search search,
+                                       TemplateBinder binder) {
+        DefaultClause clause = new DefaultClause(null, SearchOperator.UNSPECIFIED, root, criteriaBuilder);
+        compilePredicate(clause, search.getLexicalClause().getActions(), binder);
+        for (Consumer<Clause<T>> consumer : always) consumer.accept(clause);
+        return clause.predicate;
+    }
+
+    private void compilePredicate(DefaultClause clause, List<SearchPredicate> actions, TemplateBinder binder) {
+        for (SearchPredicate action : actions) {
+            if (action instanceof Search.PushedLexicalClause) {
+                Search.PushedLexicalClause pushed = (Search.PushedLexicalClause) action;
+                DefaultClause pushedClause = (DefaultClause) clause.push(pushed.getOperator());
+                compilePredicate(pushedClause, pushed.getActions(), binder);
+                pushedClause.pop();
+            } else {
+                binder.argument ++;
+                clause.addPredicate(
+                        action.getArgument().getOperator(),
+                        ParameterizedSearchArgumentHandler.handle(
+                                getHandler(action),
+                                clause.root,
+                                clause.criteriaBuilder,
+                                getHandlerArgument(action),
+                                binder
+                        )
+                );
+            }
+        }
+    }
+
+    private static List<SearchArgument> getHandlerArguments(Search search) {
+        List<SearchArgument> handlerArguments = new ArrayList<>();
+        getHandlerArguments(search.getLexicalClause().getActions(), handlerArguments);
+        return handlerArguments;
+    }
+
+    private static void getHandlerArguments(List<SearchPredicate> actions, List<SearchArgument> handlerArguments) {
+        for (SearchPredicate action : actions) {
+            if (action instanceof Search.PushedLexicalClause)
+                getHandlerArguments(((Search.PushedLexicalClause) action).getActions(), handlerArguments);
+            else
+                handlerArguments.add(getHandlerArgument(action));
+        }
+    }
+
+    /**
+     * Gets the shape signature of a search's clauses: its operators, grouping, and the handlers and variants of its
+     * arguments.  Searches with the same signature compile to the same query, differing only in bound values.
+     */
+    private String getSignature(Search search) throws IllegalArgumentException {
+        StringBuilder builder = new StringBuilder();
+        appendSignature(builder, search.getLexicalClause().getActions());
+        return builder.toString();
+    }
+
+    private void appendSignature(StringBuilder builder, List<SearchPredicate> actions)
+            throws IllegalArgumentException {
+        for (SearchPredicate action : actions) {
+            if (action instanceof Search.PushedLexicalClause) {
+                Search.PushedLexicalClause pushed = (Search.PushedLexicalClause) action;
+                builder.append(pushed.getOperator().getCharacter()).append('(');
+                appendSignature(builder, pushed.getActions());
+                builder.append(')');
+                continue;
+            }
+
+            builder.append(action.getArgument().getOperator().getCharacter());
+
+            if (action instanceof SearchPredicateArgument) {
+                SearchPredicateArgument argument = (SearchPredicateArgument) action;
+                builder.append(argument.isCommand() ? 'c' : 'a')
+                        .append(argument.getName().length()).append(':').append(argument.getName());
+            } else {
+                builder.append('s');
+            }
+
+            String variant = ParameterizedSearchArgumentHandler.getVariant(
+                    getHandler(action),
+                    getHandlerArgument(action)
+            );
+            builder.append(variant.length()).append(':').append(variant).append(';');
+        }
+    }
+
+    private String getOrderSignature(Search search) {
+        StringBuilder builder = new StringBuilder("|");
+        for (Search.Order order : getSearchOrders(search))
+            builder.append(order.getKey().toLowerCase()).append(':').append(order.getOrder().name()).append(';');
+        return builder.toString();
+    }
+
+    private SearchArgumentHandler getHandler(SearchPredicate action) throws IllegalArgumentException {
+        if (action instanceof SearchPredicateArgument)
+            return ((SearchPredicateArgument) action).getHandler(this);
+        else if (action instanceof SearchPredicateString)
+            return ((SearchPredicateString) action).getHandler(this);
+
+        throw new IllegalArgumentException("Unexpected search predicate: " + action.getClass().getName());
+    }
+
+    private static SearchArgument getHandlerArgument(SearchPredicate action) {
+        if (action instanceof SearchPredicateArgument)
+            return ((SearchPredicateArgument) action).getHandlerArgument();
+
+        return action.getArgument();
+    }
+
+    private Collection<Search.Order> getSearchOrders(Search search) {
+        if (search.getOrders().isEmpty() && defaultOrder != null) return Collections.singletonList(defaultOrder);
+        return search.getOrders();
+    }
+
+    private List<Order> getOrders(Root<T> root, CriteriaBuilder criteriaBuilder, Search search) {
+        Collection<Search.Order> searchOrders = getSearchOrders(search);
+
+        List<Order> orders = new ArrayList<>(searchOrders.size() + 1);
+        for (Search.Order order : searchOrders) {
+            SearchOrderHandler handler = sorts.get(order.getKey().toLowerCase());
+            if (handler == null) throw new IllegalArgumentException("Unexpected sort: \"" + order.getKey() + "\".");
+            orders.add(handler.handle(root, criteriaBuilder, order.getOrder()));
+        }
+
+        SingularAttribute<? super T, ?> idAttribute = getIdAttribute(root);
+        if (idAttribute != null) orders.add(criteriaBuilder.asc(root.get(idAttribute)));
+
+        return orders;
+    }
+
+    private static <T> SingularAttribute<? super T, ?> getIdAttribute(Root<T> root) {
+        if (!root.getModel().hasSingleIdAttribute()) return null;
+
+        for (SingularAttribute<? super T, ?> attribute : root.getModel().getSingularAttributes())
+            if (attribute.isId()) return attribute;
+
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Path<Number> getIntegralId(Root<T> root) {
+        return (Path<Number>) root.get(getIdAttribute(root));
+    }
+
+    /**
+     * Gets the type of the entity's identifier, with primitive types wrapped, or null if it has no single identifier.
+     */
+    private Class<?> getIdType(EntityManager session) {
+        EntityType<T> type = session.getMetamodel().entity(entityClass);
+        if (!type.hasSingleIdAttribute()) return null;
+        return Primitives.wrap(type.getIdType().getJavaType());
+    }
+
+    private static Object toIdentifier(long key, Class<?> type) {
+        if (type == Integer.class) return (int) key;
+        else if (type == Short.class) return (short) key;
+        else return key;
+    }
+
+    /**
+     * Creates a predicate selecting the rows ordered after the bound sort keys: (a &gt; x) or (a = x and b &gt; y)...
+     */
+    @SuppressWarnings("unchecked")
+    private static Predicate getSeekPredicate(CriteriaBuilder criteriaBuilder, List<Order> orders,
+                                              TemplateBinder binder) {
+        List<ParameterExpression<?>> keys = new ArrayList<>(orders.size());
+        for (int i = 0; i < orders.size(); i ++) keys.add(binder.bindKey(orders.get(i).getExpression(), i));
+
+        Predicate[] alternatives = new Predicate[orders.size()];
+
+        for (int i = 0; i < orders.size(); i ++) {
+            Predicate[] terms = new Predicate[i + 1];
+            for (int j = 0; j < i; j ++)
+                terms[j] = criteriaBuilder.equal(orders.get(j).getExpression(), keys.get(j));
+
+            Expression expression = orders.get(i).getExpression();
+            Expression key = keys.get(i);
+            terms[i] = orders.get(i).isAscending() ?
+                    criteriaBuilder.greaterThan(expression, key) :
+                    criteriaBuilder.lessThan(expression, key);
+
+            alternatives[i] = criteriaBuilder.and(terms);
+        }
+
+        return criteriaBuilder.or(alternatives);
+    }
+
+    /**
+     * Finds if the results following the given sort keys can be found by seeking past them.  Rows with null sort keys
+     * are not ordered by the seek predicate, and providers order nulls differently, so sorts on keys which may be null
+     * are not sought past.
+     */
+    private boolean isSeekable(EntityManager session, Search search, List<Object> keys) {
+        if (keys.contains(null)) return false;
+
+        try {
+            return seekableOrders.get(getOrderSignature(search), () -> {
+                CriteriaBuilder criteriaBuilder = session.getCriteriaBuilder();
+                Root<T> root = criteriaBuilder.createTupleQuery().from(entityClass);
+
+                for (Order order : getOrders(root, criteriaBuilder, search))
+                    if (isNullable(order.getExpression())) return false;
+
+                return true;
+            });
+        } catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * Finds if an expression may be null: any expression except a path to an identifier or a required attribute.
+     */
+    private static boolean isNullable(Expression<?> expression) {
+        if (!(expression instanceof Path)) return true;
+
+        Bindable<?> model = ((Path<?>) expression).getModel();
+        if (!(model instanceof SingularAttribute)) return true;
+
+        SingularAttribute<?, ?> attribute = (SingularAttribute<?, ?>) model;
+        return !attribute.isId() && attribute.isOptional();
+    }
+
+    private static int getFirstResult(int page, int maxResults) {
+        return (int) Math.min(Integer.MAX_VALUE, (long) (page - 1) * maxResults);
+    }
+
+    /**
+     * Gets the shape a continuation token describes a position in: the search itself, on any page.
+     */
+    static String getShape(Search search) {
+        return search.withPage(1).withCursor(null).toString();
+    }
+
+    private static String getContinuationKey(String shape, int maxResults, int page) {
+        return maxResults + ":" + page + ":" + shape;
+    }
+
+    /**
+     * Search prepared for execution: the signatures its compiled queries are found by, the arguments their parameters
+     * are bound from, and whether compiled queries may be reused for it.
+     */
+    private final class Prepared {
+        private final Search search;
+        private final String signature;
+        private final String orderedSignature;
+        private final List<SearchArgument> arguments;
+        private final boolean reusable;
+
+        private Prepared(Search search, String signature, String orderedSignature,
+                         List<SearchArgument> arguments, boolean reusable) {
+            this.search = search;
+            this.signature = signature;
+            this.orderedSignature = orderedSignature;
+            this.arguments = arguments;
+            this.reusable = reusable;
+        }
+    }
+
+    /**
+     * Compiled query for a search shape, with the parameters its values are bound to.
+     */
+    private static final class Template<Q> {
+        private final CriteriaQuery<Q> query;
+        private final List<Binding> bindings;
+        private final int keyCount;
+
+        private Template(CriteriaQuery<Q> query, List<Binding> bindings) {
+            this.query = query;
+            this.bindings = Collections.unmodifiableList(new ArrayList<>(bindings));
+            this.keyCount = (int) bindings.stream().filter(binding -> binding.argument < 0).count();
+        }
+
+        /**
+         * Creates a query from this template, binding the values of a search's arguments and sort keys to its
+         * parameters.
+         */
+        @SuppressWarnings("unchecked")
+        private TypedQuery<Q> createQuery(EntityManager session, List<SearchArgument> handlerArguments,
+                                          List<Object> keys) throws IllegalArgumentException {
+            if (keys != null && keys.size() != keyCount)
+                throw new IllegalArgumentException("Continuation token does not match this search");
+
+            TypedQuery<Q> query = session.createQuery(this.query);
+
+            for (Binding binding : bindings) {
+                Object value = binding.argument >= 0 ?
+                        binding.value.apply(handlerArguments.get(binding.argument)) :
+                        keys.get(binding.key);
+
+                query.setParameter((Parameter<Object>) binding.parameter, value);
+            }
+
+            return query;
+        }
+    }
+
+    /**
+     * Parameter of a template, bound either to a value taken from an argument of the search, or to a sort key of a
+     * continuation token.
+     */
+    private static final class Binding {
+        private final ParameterExpression<?> parameter;
+        private final int argument;
+        private final int key;
+        private final Function<SearchArgument, ?> value;
+
+        private Binding(ParameterExpression<?> parameter, int argument, int key, Function<SearchArgument, ?> value) {
+            this.parameter = parameter;
+            this.argument = argument;
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Binds the values of parameterized handlers to new parameters, recording which argument each is taken from.
+     */
+    private static final class TemplateBinder implements ParameterizedSearchArgumentHandler.ParameterBinder {
+        private final CriteriaBuilder criteriaBuilder;
+        private final List<Binding> bindings = new ArrayList<>();
+
+        /**
+         * Index of the argument being compiled.
+         */
+        private int argument = -1;
+
+        private TemplateBinder(CriteriaBuilder criteriaBuilder) {
+            this.criteriaBuilder = criteriaBuilder;
+        }
+
+        @Override
+        public <X> Expression<X> bind(Class<X> type, Function<SearchArgument, ? extends X> value) {
+            if (argument < 0) throw new IllegalStateException("No argument is being compiled");
+
+            ParameterExpression<X> parameter = criteriaBuilder.parameter(Primitives.wrap(type));
+            bindings.add(new Binding(parameter, argument, -1, value));
+            return parameter;
+        }
+
+        private ParameterExpression<?> bindKey(Expression<?> expression, int key) {
+            ParameterExpression<?> parameter = criteriaBuilder.parameter(Primitives.wrap(expression.getJavaType()));
+            bindings.add(new Binding(parameter, -1, key, null));
+            return parameter;
+        }
+    }
+
+    /**
+     * Position in the results of a search, as described by a continuation token.
+     */
+    static final class Continuation {
+        private final int page;
+        private final List<Object> values;
+
+        private Continuation(int page, List<Object> values) {
+            this.page = page;
+            this.values = values;
+        }
+
+        /**
+         * Encodes a continuation token.  Tokens fall back to describing the page number alone when there are no sort
+         * keys, or when they cannot be encoded.
+         */
+        static String encode(String shape, int maxResults, int page, List<Object> values) {
+            if (values != null) {
+                try {
+                    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                    DataOutputStream out = new DataOutputStream(buffer);
+                    writeHeader(out, TOKEN_SEEK, shape, maxResults, page);
+                    out.writeByte(values.size());
+
+                    boolean encoded = values.size() <= Byte.MAX_VALUE;
+                    for (int i = 0; encoded && i < values.size(); i ++) encoded = writeValue(out, values.get(i));
+
+                    if (encoded) return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.toByteArray());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            try {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                writeHeader(new DataOutputStream(buffer), TOKEN_OFFSET, shape, maxResults, page);
+                return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.toByteArray());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        static Continuation decode(String token, String shape, int maxResults) throws IllegalArgumentException {
+            try {
+                byte[] bytes = Base64.getUrlDecoder().decode(token);
+                DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+                if (in.readByte() != TOKEN_VERSION) throw new IllegalArgumentException("Invalid continuation token");
+
+                byte mode = in.readByte();
+                if (in.readInt() != shape.hashCode() || in.readInt() != maxResults)
+                    throw new IllegalArgumentException("Continuation token does not match this search");
+
+                int page = in.readInt();
+                if (page < 1) throw new IllegalArgumentException("Invalid continuation token");
+
+                Continuation continuation;
+                switch (mode) {
+                    case TOKEN_OFFSET:
+                        continuation = new Continuation(page, null);
+                        break;
+                    case TOKEN_SEEK:
+                        int count = in.readByte();
+                        if (count < 0) throw new IllegalArgumentException("Invalid continuation token");
+
+                        List<Object> values = new ArrayList<>(count);
+                        for (int i = 0; i < count; i ++) values.add(readValue(in));
+                        continuation = new Continuation(page, values);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Invalid continuation token");
+                }
+
+                if (in.available() > 0) throw new IllegalArgumentException("Invalid continuation token");
+                return continuation;
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Invalid continuation token", e);
+            }
+        }
+
+        int getPage() {
+            return page;
+        }
+
+        /**
+         * Gets the sort keys of the last result preceding the position.
+         * @return sort keys, or null if the token describes the page number alone.
+         */
+        List<Object> getValues() {
+            return values;
+        }
+
+        private static void writeHeader(DataOutputStream out, byte mode, String shape, int maxResults, int page)
+                throws IOException {
+            out.writeByte(TOKEN_VERSION);
+            out.writeByte(mode);
+            out.writeInt(shape.hashCode());
+            out.writeInt(maxResults);
+            out.writeInt(page);
+        }
+
+        private static boolean writeValue(DataOutputStream out, Object value) throws IOException {
+            if (value instanceof Integer) {
+                out.writeByte('I');
+                out.writeInt((Integer) value);
+            } else if (value instanceof Long) {
+                out.writeByte('J');
+                out.writeLong((Long) value);
+            } else if (value instanceof Short) {
+                out.writeByte('S');
+                out.writeShort((Short) value);
+            } else if (value instanceof Byte) {
+                out.writeByte('B');
+                out.writeByte((Byte) value);
+            } else if (value instanceof Double) {
+                out.writeByte('D');
+                out.writeDouble((Double) value);
+            } else if (value instanceof Float) {
+                out.writeByte('F');
+                out.writeFloat((Float) value);
+            } else if (value instanceof Boolean) {
+                out.writeByte('Z');
+                out.writeBoolean((Boolean) value);
+            } else if (value instanceof Character) {
+                out.writeByte('C');
+                out.writeChar((Character) value);
+            } else if (value instanceof String) {
+                byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+                out.writeByte('T');
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            } else if (value instanceof Timestamp) {
+                out.writeByte('P');
+                out.writeLong(((Timestamp) value).getTime());
+                out.writeInt(((Timestamp) value).getNanos());
+            } else if (value != null && value.getClass() == Date.class) {
+                out.writeByte('W');
+                out.writeLong(((Date) value).getTime());
+            } else {
+                return false;
+            }
+
+            return true;
+        }
+
+        private static Object readValue(DataInputStream in) throws IOException {
+            switch (in.readByte()) {
+                case 'I':
+                    return in.readInt();
+                case 'J':
+                    return in.readLong();
+                case 'S':
+                    return in.readShort();
+                case 'B':
+                    return in.readByte();
+                case 'D':
+                    return in.readDouble();
+                case 'F':
+                    return in.readFloat();
+                case 'Z':
+                    return in.readBoolean();
+                case 'C':
+                    return in.readChar();
+                case 'T':
+                    int length = in.readInt();
+                    if (length < 0 || length > in.available())
+                        throw new IllegalArgumentException("Invalid continuation token");
+                    byte[] bytes = new byte[length];
+                    in.readFully(bytes);
+                    return new String(bytes, StandardCharsets.UTF_8);
+                case 'P':
+                    Timestamp timestamp = new Timestamp(in.readLong());
+                    timestamp.setNanos(in.readInt());
+                    return timestamp;
+                case 'W':
+                    return new Date(in.readLong());
+                default:
+                    throw new IllegalArgumentException("Invalid continuation token");
+            }
+        }
+    }
+
+    /**
+     * Clause folding predicates into a single predicate from left to right: included predicates are OR'd, merged
+     * predicates are AND'd, and excluded predicates are AND NOT'd with the predicates preceding them.
+     */
+    private class DefaultClause implements Clause<T> {
+        private final DefaultClause parent;
+        private final SearchOperator operator;
+        private final Root root;
+        private final CriteriaBuilder criteriaBuilder;
+        private Predicate predicate;
+
+        private DefaultClause(DefaultClause parent, SearchOperator operator,
+                              Root root, CriteriaBuilder criteriaBuilder) {
+            this.parent = parent;
+            this.operator = operator;
+            this.root = root;
+            this.criteriaBuilder = criteriaBuilder;
+        }
+
+        @Override
+        public SearchHandler<T> getSearchHandler() {
+            return DefaultSearchHandler.this;
+        }
+
+        @Override
+        public Root getRoot() {
+            return root;
+        }
+
+        @Override
+        public CriteriaBuilder getCriteriaBuilder() {
+            return criteriaBuilder;
+        }
+
+        @Override
+        public void addPredicate(SearchOperator operator, Predicate predicate) {
+            if (this.predicate == null) {
+                this.predicate = operator == SearchOperator.EXCLUDE ? criteriaBuilder.not(predicate) : predicate;
+                return;
+            }
+
+            switch (operator) {
+                case INCLUDE:
+                    this.predicate = criteriaBuilder.or(this.predicate, predicate);
+                    break;
+                case EXCLUDE:
+                    this.predicate = criteriaBuilder.and(this.predicate, criteriaBuilder.not(predicate));
+                    break;
+                default:
+                    this.predicate = criteriaBuilder.and(this.predicate, predicate);
+                    break;
+            }
+        }
+
+        @Override
+        public Clause<T> push(SearchOperator operator) {
+            return new DefaultClause(this, operator, root, criteriaBuilder);
+        }
+
+        @Override
+        public Clause<T> pop() throws IllegalArgumentException {
+            if (parent == null) throw new IllegalArgumentException("Cannot pop root clause");
+            if (predicate != null) parent.addPredicate(operator, predicate);
+            return parent;
+        }
+    }
+
+    public static class Builder<T> implements SearchHandler.Builder<T> {
+        private final Database database;
+        private final Class<T> entityClass;
+        private final Map<String, SearchArgumentHandler> arguments = new HashMap<>();
+        private final Map<String, SearchArgumentHandler> commands = new HashMap<>();
+        private final List<Consumer<Clause<T>>> always = new ArrayList<>();
+        private final Map<String, SearchOrderHandler> sorts = new HashMap<>();
+        private SearchArgumentHandler defaultCommandHandler;
+        private SearchArgumentHandler stringHandler;
+        private Search.Order defaultOrder;
+        private Pagination pagination = Pagination.OFFSET;
+        private CountMode countMode = CountMode.EXACT;
+        private int countCap = DEFAULT_COUNT_CAP;
+        private Sampling sampling = Sampling.OFFSET;
+
+        private Builder(Database database, Class<T> entityClass) {
+            this.database = database;
+            this.entityClass = entityClass;
+        }
+
+        @Override
+        public Builder<T> argument(String name, SearchArgumentHandler handler) {
+            arguments.put(name, handler);
+            return this;
+        }
+
+        @Override
+        public Builder<T> command(String name, SearchArgumentHandler handler) {
+            commands.put(name.toLowerCase(), handler);
+            return this;
+        }
+
+        @Override
+        public Builder<T> command(SearchArgumentHandler handler) {
+            this.defaultCommandHandler = handler;
+            return this;
+        }
+
+        @Override
+        public Builder<T> string(SearchArgumentHandler handler) {
+            this.stringHandler = handler;
+            return this;
+        }
+
+        @Override
+        public Builder<T> always(Consumer<Clause<T>> executionConsumer) {
+            always.add(executionConsumer);
+            return this;
+        }
+
+        @Override
+        public Builder<T> sort(String key, SearchOrderHandler handler) {
+            sorts.put(key.toLowerCase(), handler);
+            return this;
+        }
+
+        @Override
+        public Builder<T> defaultSort(String key, SortOrder order) {
+            this.defaultOrder = new Search.DefaultOrder(key, order);
+            return this;
+        }
+
+        @Override
+        public Builder<T> pagination(Pagination pagination) {
+            this.pagination = Objects.requireNonNull(pagination);
+            return this;
+        }
+
+        @Override
+        public Builder<T> count(CountMode countMode) {
+            this.countMode = Objects.requireNonNull(countMode);
+            return this;
+        }
+
+        @Override
+        public Builder<T> countCap(int cap) {
+            if (cap < 0) throw new IllegalArgumentException("Invalid count cap: " + cap);
+            this.countCap = cap;
+            return this;
+        }
+
+        @Override
+        public Builder<T> sampling(Sampling sampling) {
+            this.sampling = Objects.requireNonNull(sampling);
+            return this;
+        }
+
+        @Override
+        public DefaultSearchHandler<T> build() throws IllegalArgumentException {
+            if (defaultOrder != null && !sorts.containsKey(defaultOrder.getKey().toLowerCase()))
+                throw new IllegalArgumentException("Unknown default sort: \"" + defaultOrder.getKey() + "\".");
+
+            return new DefaultSearchHandler<>(this);
+        }
+    }
+}
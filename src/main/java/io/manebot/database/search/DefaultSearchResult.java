@@ -8,20 +8,45 @@ public class DefaultSearchResult<T> implements SearchResult<T> {
     private final int pageSize;
     private final long totalResults, page;
     private final List<T> results;
+    private final SearchHandler.CountMode countMode;
+    private final boolean moreResults;
+    private final String continuationToken;
+    private final boolean totalExact;
 
     public DefaultSearchResult(Search search, SearchHandler<T> handler,
                                long totalResults, int pageSize, long page, List<T> results) {
+        this(search, handler, totalResults, pageSize, page, results,
+                SearchHandler.CountMode.EXACT,
+                page * pageSize < totalResults,
+                null);
+    }
+
+    public DefaultSearchResult(Search search, SearchHandler<T> handler,
+                               long totalResults, int pageSize, long page, List<T> results,
+                               SearchHandler.CountMode countMode, boolean moreResults, String continuationToken) {
+        this(search, handler, totalResults, pageSize, page, results, countMode, moreResults, continuationToken,
+                countMode != SearchHandler.CountMode.NONE || !moreResults);
+    }
+
+    public DefaultSearchResult(Search search, SearchHandler<T> handler,
+                               long totalResults, int pageSize, long page, List<T> results,
+                               SearchHandler.CountMode countMode, boolean moreResults, String continuationToken,
+                               boolean totalExact) {
         this.search = search;
         this.handler = handler;
         this.totalResults = totalResults;
         this.pageSize = pageSize;
         this.page = page;
         this.results = results;
+        this.countMode = countMode;
+        this.moreResults = moreResults;
+        this.continuationToken = continuationToken;
+        this.totalExact = totalExact;
     }
 
     @Override
     public Search getQuery() {
-        return getQuery();
+        return search;
     }
 
     @Override
@@ -34,6 +59,26 @@ public class DefaultSearchResult<T> implements SearchResult<T> {
         return totalResults;
     }
 
+    @Override
+    public SearchHandler.CountMode getCountMode() {
+        return countMode;
+    }
+
+    @Override
+    public boolean hasMoreResults() {
+        return moreResults;
+    }
+
+    @Override
+    public boolean isTotalExact() {
+        return totalExact;
+    }
+
+    @Override
+    public String getContinuationToken() {
+        return continuationToken;
+    }
+
     @Override
     public int getPageSize() {
         return pageSize;
@@ -1,5 +1,8 @@
 package io.manebot.database.search;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 import java.util.*;
 
 /**
@@ -8,22 +11,37 @@ import java.util.*;
  *
  * The structures represented by the <b>Search</b> class are transformed into database-friendly clauses by a
  * SearchHandler, using its SearchArgumentHandler bindings, which are defined by implementors of the API.
+ *
+ * Searches are immutable once built: their clauses cannot be modified, so parsed searches are shared between callers
+ * parsing the same query string.
  */
 public final class Search {
     public static final Search EMPTY = new Search(
             Collections.emptyList(),
-            new PushedLexicalClause(null, SearchOperator.UNSPECIFIED),
-            1
+            new PushedLexicalClause(null, SearchOperator.UNSPECIFIED).freeze(),
+            1,
+            null
     );
 
+    /**
+     * Maximum count of parsed searches retained for reuse by <b>parse</b>.
+     */
+    private static final int MAXIMUM_CACHED_SEARCHES = 1024;
+
+    private static final Cache<String, Search> searches = CacheBuilder.newBuilder()
+            .maximumSize(MAXIMUM_CACHED_SEARCHES)
+            .build();
+
     private final Collection<Order> orders;
     private final LexicalClause rootLexicalClause;
-    private int page = 1;
+    private final int page;
+    private final String cursor;
 
-    private Search(Collection<Order> orders, LexicalClause rootLexicalClause, int page) {
+    private Search(Collection<Order> orders, LexicalClause rootLexicalClause, int page, String cursor) {
         this.orders = orders;
         this.rootLexicalClause = rootLexicalClause;
         this.page = page;
+        this.cursor = cursor;
     }
 
     /**
@@ -44,11 +62,11 @@ public final class Search {
     }
 
     public Search withPage(int page) {
-        return new Search(orders, rootLexicalClause, page);
+        return new Search(orders, rootLexicalClause, page, cursor);
     }
 
     public Search withOrders(Collection<Order> orders) {
-        return new Search(Collections.unmodifiableCollection(orders), rootLexicalClause, page);
+        return new Search(Collections.unmodifiableCollection(orders), rootLexicalClause, page, cursor);
     }
 
     public Search withOrders(Order... orders) {
@@ -59,6 +77,83 @@ public final class Search {
         return page;
     }
 
+    /**
+     * Creates a copy of this search which continues from the position described by a continuation token, as found on
+     * <b>SearchResult.getContinuationToken()</b>.  Searches with a cursor ignore their page number when executed by a
+     * handler which supports keyset pagination.
+     * @param cursor continuation token, or null to search from the first page.
+     * @return Search instance.
+     */
+    public Search withCursor(String cursor) {
+        return new Search(orders, rootLexicalClause, page, cursor);
+    }
+
+    /**
+     * Gets the continuation token this search continues from.
+     * @return continuation token, or null if the search does not continue from a previous result.
+     */
+    public String getCursor() {
+        return cursor;
+    }
+
+    /**
+     * Renders this search in a canonical query form, suitable as a key for caching its results.  Equivalent
+     * searches render identically regardless of the whitespace used in their original query.
+     * @return canonical query string.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        appendActions(builder, rootLexicalClause);
+
+        for (Order order : orders) {
+            if (builder.length() > 0) builder.append(' ');
+            builder.append("sort:").append(order.getKey()).append(':').append(order.getOrder().getKeys()[0]);
+        }
+
+        if (page != 1) {
+            if (builder.length() > 0) builder.append(' ');
+            builder.append("page:").append(page);
+        }
+
+        return builder.toString();
+    }
+
+    private static void appendActions(StringBuilder builder, LexicalClause clause) {
+        boolean first = true;
+        for (SearchPredicate action : clause.getActions()) {
+            if (!first) builder.append(' ');
+            first = false;
+
+            if (action instanceof PushedLexicalClause) {
+                PushedLexicalClause pushed = (PushedLexicalClause) action;
+                if (pushed.getOperator().canSpecify()) builder.append(pushed.getOperator().getCharacter());
+
+                // The root clause of a parsed search is implied, and is not rendered as a group.
+                boolean group = !(clause instanceof Builder);
+                if (group) builder.append(Lexer.OPEN_CLAUSE_CHARACTER);
+                appendActions(builder, pushed);
+                if (group) builder.append(Lexer.CLOSE_CLAUSE_CHARACTER);
+            } else {
+                SearchArgument argument = action.getArgument();
+                if (argument.getOperator().canSpecify()) builder.append(argument.getOperator().getCharacter());
+
+                if (action instanceof SearchPredicateString) {
+                    builder.append('"');
+                    String value = argument.getValue();
+                    for (int i = 0; i < value.length(); i ++) {
+                        char c = value.charAt(i);
+                        if (c == '"' || c == '\\') builder.append('\\');
+                        builder.append(c);
+                    }
+                    builder.append('"');
+                } else {
+                    builder.append(argument.getValue());
+                }
+            }
+        }
+    }
+
     public interface Order {
         String getKey();
         SortOrder getOrder();
@@ -118,8 +213,8 @@ public final class Search {
         boolean canPop();
     }
 
-    protected static class PushedLexicalClause extends SearchPredicate implements LexicalClause {
-        private final List<SearchPredicate> actions = new LinkedList<>();
+    public static class PushedLexicalClause extends SearchPredicate implements LexicalClause {
+        private List<SearchPredicate> actions = new ArrayList<>(4);
         private final LexicalClause parent;
         private final SearchOperator operator;
 
@@ -140,7 +235,7 @@ public final class Search {
         }
 
         public LexicalClause push(SearchOperator operator) {
-            return push(new PushedLexicalClause(parent, operator));
+            return push(new PushedLexicalClause(this, operator));
         }
 
         @Override
@@ -171,7 +266,19 @@ public final class Search {
         }
 
         SearchPredicate getLastAction() {
-            return getActions().stream().reduce((first, second) -> second).orElse(null);
+            return actions.isEmpty() ? null : actions.get(actions.size() - 1);
+        }
+
+        /**
+         * Makes this clause, and all clauses within it, immutable.
+         * @return this clause.
+         */
+        PushedLexicalClause freeze() {
+            for (SearchPredicate action : actions)
+                if (action instanceof PushedLexicalClause) ((PushedLexicalClause) action).freeze();
+
+            actions = actions.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(actions);
+            return this;
         }
     }
 
@@ -183,9 +290,13 @@ public final class Search {
             super(null, SearchOperator.UNSPECIFIED);
         }
 
+        /**
+         * Builds the search around this root clause.  The clause tree can no longer be modified once it is built.
+         * @return Search instance.
+         */
         public Search build() {
-            // Simply return a new Search object around the root lexical clause (this)
-            return new Search(orders, this, page);
+            freeze();
+            return new Search(Collections.unmodifiableList(new ArrayList<>(orders)), this, page, null);
         }
 
         @Override
@@ -222,203 +333,322 @@ public final class Search {
         }
     }
 
-    protected interface LexicalParser {
-        /**
-         * Attempts to complete the parser, such as when a query string has ended.
-         */
-        void complete() throws IllegalArgumentException;
+    /**
+     * Single-pass lexer over a character sequence.  Tokens are read in place by their offsets, so only the values of
+     * arguments and strings are copied out of the query.
+     *
+     * The <i>page:</i>, <i>p:</i> and <i>sort:</i> directives are recognized as their tokens are read.  They are
+     * applied only when they end the innermost last clause of the query, which is not known until the query has ended;
+     * anywhere else, they remain ordinary arguments.
+     */
+    private static final class Lexer {
+        static final char STRING_CHARACTER = '"';
+        static final char ESCAPE_CHARACTER = '\\';
+        static final char OPEN_CLAUSE_CHARACTER = '(';
+        static final char CLOSE_CLAUSE_CHARACTER = ')';
+
+        private static final String PAGE_DIRECTIVE = "page:", SHORT_PAGE_DIRECTIVE = "p:";
+        private static final String SORT_DIRECTIVE = "sort:";
+
+        private final CharSequence query;
+        private final int end;
+        private int position;
 
         /**
-         * Interprets a single character.
-         * @param c Character to interpret.
-         * @return true if further parsing is needed, false otherwise.
-         * @throws IllegalArgumentException if there was a problem interpreting the given character.
+         * Directive tokens read so far, by the predicate they were read as.  Created when the first is read.
          */
-        boolean interpret(char c) throws IllegalArgumentException;
-    }
+        private Map<SearchPredicate, Directive> directives;
 
-    protected static abstract class AbstractParser implements LexicalParser {
-        private final SearchOperator operator;
-        private final LexicalClause clause;
-
-        protected AbstractParser(SearchOperator operator, LexicalClause clause) {
-            this.operator = operator;
-            this.clause = clause;
+        private Lexer(CharSequence query, int start, int end) {
+            this.query = query;
+            this.position = start;
+            this.end = end;
         }
 
-        protected SearchOperator getOperator() {
-            return operator;
-        }
+        private Search lex() throws IllegalArgumentException {
+            Builder builder = new Builder();
 
-        protected LexicalClause getClause() {
-            return clause;
-        }
-    }
+            PushedLexicalClause rootClause = new PushedLexicalClause(builder, SearchOperator.UNSPECIFIED);
+            builder.addPredicate(rootClause);
 
-    protected static class StringParser extends AbstractParser {
-        static final char ASSOCIATED_CHARACTER = '"';
-        private static final char escapeCharacter = '\\';
+            Frame root = new Frame(null, rootClause, false);
+            Frame frame = root;
 
-        private final StringBuilder builder = new StringBuilder();
-        private boolean escape = false;
+            while (position < end) {
+                char c = query.charAt(position);
 
-        protected StringParser(SearchOperator operator, LexicalClause clause) {
-            super(operator, clause);
-        }
+                if (Character.isWhitespace(c)) {
+                    position ++;
+                    continue;
+                }
 
-        @Override
-        public void complete() {
-            throw new IllegalArgumentException("Unexpected end of string");
+                switch (c) {
+                    case STRING_CHARACTER:
+                        position ++;
+                        readString(frame);
+                        frame.completed();
+                        break;
+                    case '~':
+                    case '+':
+                    case '-':
+                        // Operators may only follow another token in the same clause.
+                        if (frame.handled <= 0) throw new IllegalArgumentException("Unexpected token: " + c);
+                        frame.nextOperator = c == '~' ? SearchOperator.INCLUDE :
+                                c == '+' ? SearchOperator.MERGE : SearchOperator.EXCLUDE;
+                        position ++;
+                        break;
+                    case OPEN_CLAUSE_CHARACTER:
+                        PushedLexicalClause clause = new PushedLexicalClause(frame.clause, frame.nextOperator);
+                        frame.clause.addPredicate(clause);
+                        frame = new Frame(frame, clause, true);
+                        position ++;
+                        break;
+                    case CLOSE_CLAUSE_CHARACTER:
+                        if (!frame.requireClosingCharacter)
+                            throw new IllegalArgumentException("Unexpected end of clause");
+                        frame = frame.parent;
+                        frame.completed();
+                        position ++;
+                        break;
+                    default:
+                        readArgument(frame);
+                        frame.completed();
+                        break;
+                }
+            }
+
+            if (frame != root) throw new IllegalArgumentException("Unexpected end of clause");
+
+            if (directives != null) {
+                // Directives are only applied at the end of the innermost last clause.
+                PushedLexicalClause clause = rootClause;
+                while (clause.getLastAction() instanceof PushedLexicalClause)
+                    clause = (PushedLexicalClause) clause.getLastAction();
+
+                applyDirectives(builder, clause);
+            }
+
+            return builder.build();
         }
 
-        @Override
-        public boolean interpret(char c) throws IllegalArgumentException {
-            if (!escape && c == ASSOCIATED_CHARACTER) {
-                getClause().addPredicate(new SearchPredicateString(new SearchArgument(
-                        getOperator(),
-                        builder.toString()
-                )));
-
-                return false; // done
+        /**
+         * Reads a quoted string, following its opening character.
+         */
+        private void readString(Frame frame) throws IllegalArgumentException {
+            int start = position;
+
+            // Strings without escape characters are copied out of the query directly.
+            for (int i = start; i < end; i ++) {
+                char c = query.charAt(i);
+                if (c == STRING_CHARACTER) {
+                    addString(frame, query.subSequence(start, i).toString());
+                    position = i + 1;
+                    return;
+                } else if (c == ESCAPE_CHARACTER) {
+                    break;
+                }
             }
 
-            if (c == escapeCharacter) {
-                if (escape) {
-                    builder.append(c);
+            StringBuilder builder = new StringBuilder();
+            boolean escape = false;
+
+            for (int i = start; i < end; i ++) {
+                char c = query.charAt(i);
+
+                if (!escape && c == STRING_CHARACTER) {
+                    addString(frame, builder.toString());
+                    position = i + 1;
+                    return;
+                }
+
+                if (c == ESCAPE_CHARACTER) {
+                    if (escape) builder.append(c);
+                    else escape = true;
                 } else {
-                    escape = true;
+                    builder.append(c);
+                    escape = false;
                 }
-            } else {
-                builder.append(c);
-                escape = false;
             }
 
-            return true; // need more
+            throw new IllegalArgumentException("Unexpected end of string");
         }
-    }
-
-    protected static class CommandParser extends AbstractParser {
-        private final StringBuilder builder = new StringBuilder();
 
-        protected CommandParser(SearchOperator operator, LexicalClause clause) {
-            super(operator, clause);
+        private void addString(Frame frame, String value) {
+            frame.clause.addPredicate(new SearchPredicateString(new SearchArgument(frame.nextOperator, value)));
         }
 
-        @Override
-        public void complete() {
-            // Don't argue.
-            getClause().addPredicate(new SearchPredicateArgument(
-                    new SearchArgument(getOperator(), builder.toString())
+        /**
+         * Reads an argument or command, ending at whitespace, the end of a clause, or the end of the query.
+         */
+        private void readArgument(Frame frame) {
+            int start = position;
+            int i = start;
+            while (i < end) {
+                char c = query.charAt(i);
+                if (Character.isWhitespace(c) || c == CLOSE_CLAUSE_CHARACTER) break;
+                i ++;
+            }
+
+            SearchPredicate predicate = new SearchPredicateArgument(new SearchArgument(
+                    frame.nextOperator,
+                    query.subSequence(start, i).toString()
             ));
-        }
+            frame.clause.addPredicate(predicate);
+
+            DirectiveType type = null;
+            int valueStart = -1;
+            if (startsWith(start, i, PAGE_DIRECTIVE)) {
+                type = DirectiveType.PAGE;
+                valueStart = start + PAGE_DIRECTIVE.length();
+            } else if (startsWith(start, i, SHORT_PAGE_DIRECTIVE)) {
+                type = DirectiveType.PAGE;
+                valueStart = start + SHORT_PAGE_DIRECTIVE.length();
+            } else if (startsWith(start, i, SORT_DIRECTIVE)) {
+                type = DirectiveType.SORT;
+                valueStart = start + SORT_DIRECTIVE.length();
+            }
 
-        @Override
-        public boolean interpret(char c) throws IllegalArgumentException {
-            if (Character.isWhitespace(c)) {
-                complete();
-                return false;
-            } else {
-                builder.append(c);
-                return true;
+            if (type != null) {
+                if (directives == null) directives = new IdentityHashMap<>();
+                directives.put(predicate, new Directive(type, valueStart, i));
             }
+
+            position = i;
         }
-    }
 
-    /**
-     * Introspective self-parsing clause parser
-     */
-    protected static class ClauseParser extends AbstractParser {
-        static final char ASSOCIATED_CHARACTER = '(';
-        private static final char closingCharacter = ')';
-        private final boolean requireClosingToken;
+        private boolean startsWith(int start, int end, String prefix) {
+            if (end - start < prefix.length()) return false;
+            for (int i = 0; i < prefix.length(); i ++)
+                if (query.charAt(start + i) != prefix.charAt(i)) return false;
+            return true;
+        }
 
         /**
-         * Current lexical parser instance.  When null, the <b>ClauseParser</b> seeks for the next character which
-         * indicates the type of parser that should be constructed.
+         * Applies the directives ending a clause to the search, removing them from the clause.  Directives must not
+         * have an operator, and must not be followed by anything other than directives.
          */
-        private LexicalParser parser = null;
+        private void applyDirectives(Builder builder, PushedLexicalClause clause) throws IllegalArgumentException {
+            List<SearchPredicate> actions = clause.getActions();
+            List<Order> orders = null;
+            boolean hasPage = false, hasOther = false;
 
-        /**
-         * Operator to apply to the next <b>LexicalParser</b> instantiated.
-         */
-        private SearchOperator nextOperator = SearchOperator.UNSPECIFIED; // otherwise will throw exception
+            for (int index = actions.size() - 1; index >= 0; index --) {
+                SearchPredicate predicate = actions.get(index);
+                Directive directive = directives.get(predicate);
 
-        /**
-         * Count of handled parsers.  Used to know if we should allow a search operator token or not.
-         */
-        private int handled = 0;
+                if (directive == null) {
+                    hasOther = true;
+                    continue;
+                }
 
-        protected ClauseParser(SearchOperator operator, LexicalClause clause, boolean requireClosingToken) {
-            super(SearchOperator.UNSPECIFIED, clause.push(operator));
+                SearchOperator operator = predicate.getArgument().getOperator();
+                String text = predicate.getArgument().getValue();
 
-            this.requireClosingToken = requireClosingToken;
-        }
+                switch (directive.type) {
+                    case PAGE:
+                        if (operator != SearchOperator.UNSPECIFIED) {
+                            throw new IllegalArgumentException("Search page number has unexpected operator: " +
+                                    operator.getCharacter());
+                        } else if (hasPage) {
+                            throw new IllegalArgumentException("Search has multiple page numbers");
+                        } else if (hasOther) {
+                            throw new IllegalArgumentException("Unexpected page number: \"" + text + "\"");
+                        }
+
+                        builder.page(Integer.parseInt(
+                                query.subSequence(directive.valueStart, directive.valueEnd).toString()
+                        ));
+                        hasPage = true;
+                        break;
+                    case SORT:
+                        if (operator != SearchOperator.UNSPECIFIED) {
+                            throw new IllegalArgumentException("Search sort has unexpected operator: " +
+                                    operator.getCharacter());
+                        } else if (hasOther) {
+                            throw new IllegalArgumentException("Unexpected sort: \"" + text + "\"");
+                        }
+
+                        if (orders == null) orders = new ArrayList<>(1);
+                        orders.add(directive.toOrder(query));
+                        break;
+                }
 
-        private void completeIntl() {
-            // Attempt to end the current parser.
-            if (parser != null) parser.complete();
+                actions.remove(index);
+            }
 
-            // Pop current clause
-            getClause().pop();
+            if (orders != null) {
+                // Directives were read in reverse
+                for (int i = orders.size() - 1; i >= 0; i --) builder.order(orders.get(i));
+            }
         }
 
-        @Override
-        public void complete() {
-            if (requireClosingToken) throw new IllegalArgumentException("Unexpected end of clause");
-
-            completeIntl();
+        private enum DirectiveType {
+            PAGE,
+            SORT
         }
 
-        @Override
-        public boolean interpret(char c) throws IllegalArgumentException {
-            boolean parseExternally = parser == null || (parser instanceof CommandParser && c == closingCharacter);
-            if (parseExternally) {
-                // Skip whitespaces
-                if (Character.isWhitespace(c)) return true; // continue parsing
+        private static final class Directive {
+            private final DirectiveType type;
+            private final int valueStart, valueEnd;
 
-                switch (c) {
-                    case StringParser.ASSOCIATED_CHARACTER: // Open string parser
-                        parser = new StringParser(nextOperator, getClause());
-                        nextOperator = SearchOperator.getDefault();
-                        break;
-                    case '~':
-                        if (handled <= 0)
-                            throw new IllegalArgumentException("Unexpected token: " + c);
-                        nextOperator = SearchOperator.INCLUDE;
-                        break;
-                    case '+':
-                        if (handled <= 0)
-                            throw new IllegalArgumentException("Unexpected token: " + c);
-                        nextOperator = SearchOperator.MERGE;
-                        break;
-                    case '-':
-                        if (handled <= 0)
-                            throw new IllegalArgumentException("Unexpected token: " + c);
-                        nextOperator = SearchOperator.EXCLUDE;
-                        break;
-                    case ASSOCIATED_CHARACTER: // Open new clause parser
-                        parser = new ClauseParser(nextOperator, getClause(), true);
-                        break;
-                    case closingCharacter: // Close current clause parser
-                        if (!requireClosingToken) throw new IllegalArgumentException("Unexpected end of clause");
-                        completeIntl();
-                        return false;
-                    default:
-                        parser = new CommandParser(nextOperator, getClause());
-                        parser.interpret(c); // must be done, or we lose this character.
+            private Directive(DirectiveType type, int valueStart, int valueEnd) {
+                this.type = type;
+                this.valueStart = valueStart;
+                this.valueEnd = valueEnd;
+            }
+
+            /**
+             * Reads a sort directive's value, in the form <i>key[:order]</i>.
+             */
+            private Order toOrder(CharSequence query) throws IllegalArgumentException {
+                int separator = valueEnd;
+                for (int i = valueStart; i < valueEnd; i ++) {
+                    if (query.charAt(i) == ':') {
+                        separator = i;
                         break;
+                    }
                 }
 
-                return true; // continue
-            } else {
-                boolean completed = !parser.interpret(c);
-                if (completed) {
-                    parser = null;
-                    nextOperator = SearchOperator.getDefault();
-                    handled ++;
-                }
+                String key = query.subSequence(valueStart, separator).toString().trim();
+                if (separator == valueEnd) return new DefaultOrder(key, SortOrder.DEFAULT);
+
+                String orderString = query.subSequence(separator + 1, valueEnd).toString().trim();
+                for (SortOrder order : SortOrder.values())
+                    for (String orderKey : order.getKeys())
+                        if (orderKey.equalsIgnoreCase(orderString)) return new DefaultOrder(key, order);
 
-                return true; // continue
+                throw new IllegalArgumentException("Invalid search order key \"" + orderString + "\"");
+            }
+        }
+
+        /**
+         * Clause being read, and the state of the tokens read within it.
+         */
+        private static final class Frame {
+            private final Frame parent;
+            private final PushedLexicalClause clause;
+            private final boolean requireClosingCharacter;
+
+            /**
+             * Operator applied to the next token read.  The first token of a clause has no operator; tokens after it
+             * are included unless an operator is given.
+             */
+            private SearchOperator nextOperator = SearchOperator.UNSPECIFIED;
+
+            /**
+             * Count of tokens read within this clause.  Used to know if we should allow a search operator token or not.
+             */
+            private int handled = 0;
+
+            private Frame(Frame parent, PushedLexicalClause clause, boolean requireClosingCharacter) {
+                this.parent = parent;
+                this.clause = clause;
+                this.requireClosingCharacter = requireClosingCharacter;
+            }
+
+            private void completed() {
+                nextOperator = SearchOperator.getDefault();
+                handled ++;
             }
         }
     }
@@ -426,100 +656,36 @@ public final class Search {
     /**
      * Lexically parses a <i>queryString</i> and forms a machine-readable clause structure from the input.
      *
-     * Most of the processing logical processing itself occurs in private class <b>ClauseParser</b>, as the
-     * string itself is a clause.
+     * Parsed searches are immutable, and recently parsed query strings return the same Search instance without being
+     * parsed again.
      *
      * @param queryString query string to parse.
      * @return Search object, encapsulating the Clause structure.
      * @throws IllegalArgumentException if there was a problem interpreting the given query string.
      */
     public static Search parse(String queryString) throws IllegalArgumentException {
-        Search.Builder builder = new Search.Builder();
-        LexicalParser parser = new ClauseParser(SearchOperator.UNSPECIFIED, builder, false);
-
-        // Iterate over all characters in the query string.
-        for (char c : queryString.toCharArray())
-            if (!parser.interpret(c)) throw new IllegalArgumentException("Unexpected end of query");
-
-        // Attempt completion
-        parser.complete();
-
-        // Bit of a hack... search for "page" argument at the very end of the parser and "sort" as well.
-        PushedLexicalClause thisClause = builder;
-        while (true) {
-            SearchPredicate nextClause = thisClause.getLastAction();
-            if ((nextClause instanceof PushedLexicalClause))
-                thisClause = (PushedLexicalClause) nextClause;
-            else
-                break;
-        }
-
-        ListIterator<SearchPredicate> iterator = thisClause.getActions().listIterator(thisClause.getActions().size());
-        List<Order> orders = new ArrayList<>();
-
-        boolean hasPage = false, hasSort = false, hasOther = false;
+        Search search = searches.getIfPresent(queryString);
 
-        while (iterator.hasPrevious()) {
-            SearchPredicate predicate = iterator.previous();
-
-            if (predicate instanceof SearchPredicateArgument) {
-                String text = predicate.getArgument().getValue();
-                if (text.startsWith("page:") || text.startsWith("p:")) {
-                    if (predicate.getArgument().getOperator() != SearchOperator.UNSPECIFIED) {
-                        throw new IllegalArgumentException("Search page number has unexpected operator: " +
-                                predicate.getArgument().getOperator().getCharacter());
-                    } else if (hasPage) {
-                        throw new IllegalArgumentException("Search has multiple page numbers");
-                    } else if (hasOther) {
-                        throw new IllegalArgumentException("Unexpected page number: \"" + text + "\"");
-                    }
-
-                    String pageNumberString = text.split(":", 2)[1];
-                    builder.page(Integer.parseInt(pageNumberString));
-                    iterator.remove();
-
-                    hasPage = true;
-                } else if (text.startsWith("sort:")) {
-                    if (predicate.getArgument().getOperator() != SearchOperator.UNSPECIFIED) {
-                        throw new IllegalArgumentException("Search sort has unexpected operator: " +
-                                predicate.getArgument().getOperator().getCharacter());
-                    } else if (hasOther) {
-                        throw new IllegalArgumentException("Unexpected sort: \"" + text + "\"");
-                    }
-
-                    String[] parts = text.split("\\:", 3);
-
-                    String key = parts[1].trim();
-                    String orderString = parts.length >= 3 ? parts[2].trim() : null;
-                    SortOrder order;
-
-                    if (orderString != null) {
-                        order = Arrays.stream(SortOrder.values())
-                                .filter(element -> Arrays.stream(element.getKeys())
-                                        .anyMatch(string -> string.equalsIgnoreCase(orderString)))
-                                .findFirst().orElseThrow(() ->
-                                        new IllegalArgumentException("Invalid search order key \"" + key + "\""));
-                    } else {
-                        order = SortOrder.DEFAULT;
-                    }
-
-                    orders.add(new DefaultOrder(key, order));
-                    iterator.remove();
-
-                    hasSort = true;
-                } else {
-                    hasOther = true;
-                }
-            } else {
-                hasOther = true;
-            }
+        if (search == null) {
+            search = parse(queryString, 0, queryString.length());
+            searches.put(queryString, search);
         }
 
-        // We traversed in reverse
-        Collections.reverse(orders);
-        orders.forEach(builder::order);
+        return search;
+    }
 
-        // Build Search object
-        return builder.build();
+    /**
+     * Lexically parses a range of a character sequence and forms a machine-readable clause structure from the input.
+     * The sequence is read in place, and the parsed search is not retained for reuse.
+     *
+     * @param query character sequence to parse.
+     * @param start start index of the query, inclusive.
+     * @param end end index of the query, exclusive.
+     * @return Search object, encapsulating the Clause structure.
+     * @throws IllegalArgumentException if there was a problem interpreting the given query.
+     */
+    public static Search parse(CharSequence query, int start, int end) throws IllegalArgumentException {
+        if (start < 0 || end > query.length() || start > end) throw new IndexOutOfBoundsException();
+        return new Lexer(query, start, end).lex();
     }
-}
\ No newline at end of file
+}
@@ -10,10 +10,11 @@ import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * SearchHandlers are used to handle <b>Search</b> queries, which are in turn constructed by command arguments passed
@@ -40,6 +41,11 @@ import java.util.function.Function;
  */
 public interface SearchHandler<T> {
 
+    /**
+     * Default count of results fetched at a time by streamed searches.
+     */
+    int DEFAULT_FETCH_SIZE = 100;
+
     /**
      * Gets the entity class associated with this search handler.
      * @return entity class.
@@ -92,6 +98,73 @@ public interface SearchHandler<T> {
      */
     SearchResult<T> random(Search search, int maxResults) throws SQLException, IllegalArgumentException;
 
+    /**
+     * Streams every result of a search, in order, from its first page.  Results are fetched as the stream is
+     * consumed, so that only the results fetched at a time are held in memory.  The stream must be closed.
+     * @param search Search object to parse, containing predicates to filter down the specified entity list.
+     * @return Stream of results, which must be closed.
+     * @throws SQLException if there was a SQL exception executing a completed or incomplete search.
+     * @throws IllegalArgumentException if the arguments provided by the <i>search</i> argument were invalid.
+     */
+    default Stream<T> stream(Search search) throws SQLException, IllegalArgumentException {
+        return stream(search, DEFAULT_FETCH_SIZE);
+    }
+
+    /**
+     * Streams every result of a search, in order, from its first page.  Results are fetched as the stream is
+     * consumed, so that only the results fetched at a time are held in memory.  The stream must be closed.
+     *
+     * By default, results are fetched by searching one page at a time, with the fetch size as the page size.
+     * Exceptions searching for pages after the first are thrown from the stream as runtime exceptions.
+     *
+     * @param search Search object to parse, containing predicates to filter down the specified entity list.
+     * @param fetchSize count of results fetched at a time.
+     * @return Stream of results, which must be closed.
+     * @throws SQLException if there was a SQL exception executing a completed or incomplete search.
+     * @throws IllegalArgumentException if the arguments provided by the <i>search</i> argument were invalid.
+     */
+    default Stream<T> stream(Search search, int fetchSize) throws SQLException, IllegalArgumentException {
+        if (fetchSize <= 0) throw new IllegalArgumentException("Invalid fetch size: " + fetchSize);
+
+        SearchResult<T> first = search(search.withPage(1).withCursor(null), fetchSize);
+
+        Iterator<T> iterator = new Iterator<T>() {
+            private SearchResult<T> result = first;
+            private Iterator<T> results = first.getResults().iterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!results.hasNext()) {
+                    if (result.getResults().isEmpty() || !result.hasMoreResults()) return false;
+
+                    Search next = search.withPage((int) result.getPage() + 1)
+                            .withCursor(result.getContinuationToken());
+
+                    try {
+                        result = search(next, fetchSize);
+                    } catch (SQLException e) {
+                        throw new RuntimeException(e);
+                    }
+
+                    results = result.getResults().iterator();
+                }
+
+                return true;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return results.next();
+            }
+        };
+
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL),
+                false
+        );
+    }
+
     /**
      * Builds SearchHandlers.
      * @param <T> search entity type.
@@ -130,7 +203,9 @@ public interface SearchHandler<T> {
         Builder<T> string(SearchArgumentHandler handler);
 
         /**
-         * Executes the provided execution as a filter on every search execution.
+         * Executes the provided execution as a filter on every search execution.  The consumer is called each time a
+         * search is executed, so it may depend on state such as the current user; handlers with such filters do not
+         * reuse the queries they compile, or cache identifiers and counts between searches.
          * @param executionConsumer Search execution consumer.
          * @return Builder instance.
          */
@@ -172,6 +247,49 @@ public interface SearchHandler<T> {
          */
         Builder<T> defaultSort(String key, SortOrder order);
 
+        /**
+         * Sets the pagination mode used by searches.
+         * @param pagination pagination mode.
+         * @return Builder instance.
+         * @throws UnsupportedOperationException if the handler implementation does not support the mode.
+         */
+        default Builder<T> pagination(Pagination pagination) {
+            if (pagination == Pagination.OFFSET) return this;
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * Sets how searches count their total results.
+         * @param countMode count mode.
+         * @return Builder instance.
+         * @throws UnsupportedOperationException if the handler implementation does not support the mode.
+         */
+        default Builder<T> count(CountMode countMode) {
+            if (countMode == CountMode.EXACT) return this;
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * Sets the cap total results are counted up to, by searches with the <b>CAPPED</b> count mode.
+         * @param cap count cap.
+         * @return Builder instance.
+         * @throws UnsupportedOperationException if the handler implementation does not support capped counts.
+         */
+        default Builder<T> countCap(int cap) {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * Sets how random results are sampled.
+         * @param sampling sampling mode.
+         * @return Builder instance.
+         * @throws UnsupportedOperationException if the handler implementation does not support the mode.
+         */
+        default Builder<T> sampling(Sampling sampling) {
+            if (sampling == Sampling.OFFSET) return this;
+            throw new UnsupportedOperationException();
+        }
+
         /**
          * Sets the specific order key as the default ascending order handler.
          * @param key key to designate as the default order.
@@ -190,6 +308,105 @@ public interface SearchHandler<T> {
 
     }
 
+    /**
+     * Describes where a search handler evaluates searches.
+     */
+    enum Strategy {
+        /**
+         * Searches are translated into queries, and executed by the database.
+         */
+        DATABASE,
+
+        /**
+         * Searches are evaluated against a snapshot of the entity set held in memory, kept up to date as entities
+         * are saved.  Suited to small entity sets which are searched often.
+         */
+        MEMORY
+    }
+
+    /**
+     * Describes how a search handler moves between pages of results.
+     */
+    enum Pagination {
+        /**
+         * Pages are found by skipping the results of all preceding pages.  Deeper pages take longer to find.
+         */
+        OFFSET,
+
+        /**
+         * Pages are found by seeking past the sort keys of the last result of the preceding page, described by the
+         * result's continuation token.  Every page takes the same time to find.  Searches without a continuation token,
+         * and searches sorted by keys which may be null, fall back to offset pagination.
+         */
+        KEYSET
+    }
+
+    /**
+     * Describes how a search handler counts the total results of a search.
+     */
+    enum CountMode {
+        /**
+         * Total results are counted exactly, with a count query per search.
+         */
+        EXACT,
+
+        /**
+         * Total results are not counted.  Results report the count of results up to and including their page, and
+         * whether more results follow.
+         */
+        NONE,
+
+        /**
+         * Total results are counted up to a cap, stopping once the count exceeds it.  Results with more total results
+         * than the cap report the cap, or the count of results up to and including their page, as a lower bound.
+         */
+        CAPPED,
+
+        /**
+         * Total results are counted exactly, and the count is reused by searches differing only in their page or
+         * sort for up to a minute.  Counts may be out of date by as long.  Searches with <i>always</i> clauses, or
+         * with handlers which are not parameterized, may depend on their caller, and are counted exactly every time.
+         */
+        CACHED
+    }
+
+    /**
+     * Describes how a search handler samples a random result of a search.  None of these sort the results of the
+     * search; costs are given for a search matching <i>n</i> rows.
+     */
+    enum Sampling {
+        /**
+         * The results are counted, and a random offset into them is selected.  Uniform.  Costs a count of the <i>n</i>
+         * rows, and a scan past up to <i>n</i> rows to reach the offset.
+         */
+        OFFSET,
+
+        /**
+         * The lowest and highest identifiers of the results are found, and the first result at or after a random
+         * identifier between them is selected, probing again should none be found.  Costs one aggregate over the
+         * <i>n</i> rows, and one index seek per probe.  Results are chosen in proportion to the gap in identifiers
+         * preceding them, so this is only uniform over densely numbered identifiers.  Falls back to offset sampling
+         * for entities without a single integral identifier.
+         */
+        KEY_RANGE,
+
+        /**
+         * The identifiers of the results are streamed, and one is kept by reservoir sampling, before its entity is
+         * loaded.  Uniform.  Costs a single pass over the <i>n</i> identifiers, in constant memory.
+         */
+        RESERVOIR,
+
+        /**
+         * The identifiers of the results are cached for each distinct search, and entities are loaded by a random
+         * identifier from the cache.  Uniform over the cached identifiers.  Costs a pass over the <i>n</i>
+         * identifiers, and memory for them, once per search per minute; repeated searches cost a single lookup by
+         * identifier.  Results may be up to a minute out of date, and may no longer match the search.  Searches with
+         * <i>always</i> clauses, or with handlers which are not parameterized, may depend on their caller, and are
+         * sampled by reservoir instead.
+         */
+        CACHED_IDS
+    }
+
     /**
      * Represents a WHERE clause.
      * @param <T> search entity type.
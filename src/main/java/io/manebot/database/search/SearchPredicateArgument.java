@@ -6,45 +6,77 @@ import io.manebot.database.search.handler.SearchArgumentHandler;
  * Describes a lexically-parsed search argument, which is used to build a JPA query clause around an argument definition.
  */
 public class SearchPredicateArgument extends SearchPredicate {
+    private final boolean command;
+    private final String name;
+    private final SearchArgument handlerArgument;
+
     public SearchPredicateArgument(SearchArgument argument) {
         super(argument);
-    }
 
-    @Override
-    public void handle(SearchHandler.Clause clause) throws IllegalArgumentException {
-        SearchArgument argument = getArgument();
         if (argument.getValue().contains(":")) {
             String[] args = argument.getValue().split("\\:", 2);
-            String name = args[0];
+            this.command = false;
+            this.name = args[0];
+            this.handlerArgument = new SearchArgument(argument.getOperator(), args[1]);
+        } else {
+            this.command = true;
+            this.name = argument.getValue().toLowerCase();
+            this.handlerArgument = new SearchArgument(argument.getOperator(), name);
+        }
+    }
 
-            SearchArgumentHandler handler = clause.getSearchHandler().getArgumentHandler(name);
-            if (handler == null) throw new IllegalArgumentException("Unexpected argument: \"" + name + "\".");
+    /**
+     * Finds if this predicate is a command, rather than a <i>name:value</i> argument.
+     * @return true if this predicate is a command, false otherwise.
+     */
+    public boolean isCommand() {
+        return command;
+    }
 
-            clause.addPredicate(
-                    getArgument().getOperator(),
-                    handler.handle(
-                            clause.getRoot(),
-                            clause.getCriteriaBuilder(),
-                            new SearchArgument(
-                                    argument.getOperator(),
-                                    args[1]
-                            ))
-            );
+    /**
+     * Gets the name of the argument or command this predicate describes.
+     * @return argument name, or lowercase command name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the argument passed to this predicate's handler: the value of a <i>name:value</i> argument, or the name of
+     * a command.
+     * @return handler argument.
+     */
+    public SearchArgument getHandlerArgument() {
+        return handlerArgument;
+    }
+
+    /**
+     * Gets the handler bound to this predicate's argument or command on a search handler.
+     * @param searchHandler search handler.
+     * @return bound handler.
+     * @throws IllegalArgumentException if no handler is bound.
+     */
+    public SearchArgumentHandler getHandler(SearchHandler<?> searchHandler) throws IllegalArgumentException {
+        if (command) {
+            SearchArgumentHandler handler = searchHandler.getCommandHandler(name);
+            if (handler == null) throw new IllegalArgumentException("Unexpected command: \"" + name + "\".");
+            return handler;
         } else {
-            String commandName = argument.getValue().toLowerCase();
-
-            SearchArgumentHandler handler = clause.getSearchHandler().getCommandHandler(commandName);
-            if (handler == null) throw new IllegalArgumentException("Unexpected command: \"" + commandName + "\".");
-
-            clause.addPredicate(
-                    getArgument().getOperator(),
-                    handler.handle(
-                            clause.getRoot(),
-                            clause.getCriteriaBuilder(),
-                            new SearchArgument(
-                                    argument.getOperator(), commandName
-                            ))
-            );
+            SearchArgumentHandler handler = searchHandler.getArgumentHandler(name);
+            if (handler == null) throw new IllegalArgumentException("Unexpected argument: \"" + name + "\".");
+            return handler;
         }
     }
+
+    @Override
+    public void handle(SearchHandler.Clause clause) throws IllegalArgumentException {
+        clause.addPredicate(
+                getArgument().getOperator(),
+                getHandler(clause.getSearchHandler()).handle(
+                        clause.getRoot(),
+                        clause.getCriteriaBuilder(),
+                        handlerArgument
+                )
+        );
+    }
 }
@@ -11,14 +11,23 @@ public class SearchPredicateString extends SearchPredicate {
         super(argument);
     }
 
-    @Override
-    public void handle(SearchHandler.Clause clause) throws IllegalArgumentException {
-        SearchArgumentHandler handler = clause.getSearchHandler().getStringHandler();
+    /**
+     * Gets the string handler of a search handler.
+     * @param searchHandler search handler.
+     * @return string handler.
+     * @throws IllegalArgumentException if the search handler does not handle strings.
+     */
+    public SearchArgumentHandler getHandler(SearchHandler<?> searchHandler) throws IllegalArgumentException {
+        SearchArgumentHandler handler = searchHandler.getStringHandler();
         if (handler == null) throw new IllegalArgumentException("This search does not handle string arguments.");
+        return handler;
+    }
 
+    @Override
+    public void handle(SearchHandler.Clause clause) throws IllegalArgumentException {
         clause.addPredicate(
                 getArgument().getOperator(),
-                handler.handle(clause.getRoot(), clause.getCriteriaBuilder(), getArgument())
+                getHandler(clause.getSearchHandler()).handle(clause.getRoot(), clause.getCriteriaBuilder(), getArgument())
         );
     }
 }
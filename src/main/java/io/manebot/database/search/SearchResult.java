@@ -23,6 +23,40 @@ public interface SearchResult<T> {
      */
     long getTotalResults();
 
+    /**
+     * Gets how the total results of this result were counted.
+     * @return count mode.
+     */
+    default SearchHandler.CountMode getCountMode() {
+        return SearchHandler.CountMode.EXACT;
+    }
+
+    /**
+     * Finds if the total result count is exact.  Otherwise, it is a lower bound: there are at least as many results,
+     * and possibly more.
+     * @return true if the total result count is exact, false if it is a lower bound.
+     */
+    default boolean isTotalExact() {
+        return getCountMode() != SearchHandler.CountMode.NONE || !hasMoreResults();
+    }
+
+    /**
+     * Finds if more results follow the page this search result expresses.
+     * @return true if there are further results, false otherwise.
+     */
+    default boolean hasMoreResults() {
+        return getPage() < getTotalPages();
+    }
+
+    /**
+     * Gets an opaque continuation token which can be supplied to <b>Search.withCursor</b> to find the page following
+     * this result.
+     * @return continuation token, or null if there are no further results or the handler does not support them.
+     */
+    default String getContinuationToken() {
+        return null;
+    }
+
     /**
      * Gets the maximum size of the page offered by this search result.
      *
@@ -43,7 +77,7 @@ public interface SearchResult<T> {
      * @return page count.
      */
     default long getTotalPages() {
-        return (long) Math.floor((double)getTotalResults() / (double)getPageSize());
+        return (long) Math.ceil((double)getTotalResults() / (double)getPageSize());
     }
 
     /**
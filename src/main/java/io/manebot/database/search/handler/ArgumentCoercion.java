@@ -0,0 +1,60 @@
+package io.manebot.database.search.handler;
+
+import com.google.common.primitives.Primitives;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Coerces values parsed from search arguments to the types of the paths they are compared with, so that they can be
+ * bound as parameters of those types.
+ */
+final class ArgumentCoercion {
+    private ArgumentCoercion() {
+    }
+
+    /**
+     * Coerces a value to a given type.
+     * @param value value to coerce; strings are parsed, and numbers are converted.
+     * @param type type to coerce to.
+     * @param <X> type to coerce to.
+     * @return coerced value.
+     * @throws IllegalArgumentException if the value cannot be coerced to the type.
+     */
+    @SuppressWarnings("unchecked")
+    static <X> X coerce(Object value, Class<X> type) throws IllegalArgumentException {
+        Class<X> wrapped = Primitives.wrap(type);
+        if (value == null || wrapped.isInstance(value)) return (X) value;
+
+        if (value instanceof Number && Number.class.isAssignableFrom(wrapped))
+            return parse(value.toString(), wrapped);
+        else if (value instanceof String)
+            return parse((String) value, wrapped);
+
+        throw new IllegalArgumentException("Unexpected value: \"" + value + "\".");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <X> X parse(String value, Class<X> type) throws IllegalArgumentException {
+        // NumberFormatException is itself an IllegalArgumentException, and propagates its message.
+        if (type == Integer.class) return (X) Integer.valueOf(value);
+        else if (type == Long.class) return (X) Long.valueOf(value);
+        else if (type == Short.class) return (X) Short.valueOf(value);
+        else if (type == Byte.class) return (X) Byte.valueOf(value);
+        else if (type == Double.class) return (X) Double.valueOf(value);
+        else if (type == Float.class) return (X) Float.valueOf(value);
+        else if (type == BigDecimal.class) return (X) new BigDecimal(value);
+        else if (type == BigInteger.class) return (X) new BigInteger(value);
+        else if (type == Boolean.class) {
+            if (value.equalsIgnoreCase("true")) return (X) Boolean.TRUE;
+            else if (value.equalsIgnoreCase("false")) return (X) Boolean.FALSE;
+        } else if (type == Character.class && value.length() == 1) {
+            return (X) Character.valueOf(value.charAt(0));
+        } else if (type.isEnum()) {
+            for (X constant : type.getEnumConstants())
+                if (((Enum<?>) constant).name().equalsIgnoreCase(value)) return constant;
+        }
+
+        throw new IllegalArgumentException("Unexpected value: \"" + value + "\".");
+    }
+}
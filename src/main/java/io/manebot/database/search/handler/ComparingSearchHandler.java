@@ -7,7 +7,8 @@ import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 
-public class ComparingSearchHandler implements SearchArgumentHandler {
+public class ComparingSearchHandler
+        implements ParameterizedSearchArgumentHandler, EvaluableSearchArgumentHandler {
     private final SearchOperator operator;
     private final SearchArgumentHandler a, b;
 
@@ -17,11 +18,63 @@ public class ComparingSearchHandler implements SearchArgumentHandler {
         this.b = b;
     }
 
+    @Override
+    public String getVariant(SearchArgument value) throws IllegalArgumentException {
+        return ParameterizedSearchArgumentHandler.getVariant(a, value) + "," +
+                ParameterizedSearchArgumentHandler.getVariant(b, value);
+    }
+
     @Override
     public Predicate handle(Root root, CriteriaBuilder criteriaBuilder, SearchArgument value) {
-        Predicate first = a.handle(root, criteriaBuilder, value);
-        Predicate second = b.handle(root, criteriaBuilder, value);
+        return combine(criteriaBuilder, a.handle(root, criteriaBuilder, value), b.handle(root, criteriaBuilder, value));
+    }
+
+    @Override
+    public Predicate handle(Root root, CriteriaBuilder criteriaBuilder, SearchArgument value,
+                            ParameterBinder binder) {
+        return combine(
+                criteriaBuilder,
+                ParameterizedSearchArgumentHandler.handle(a, root, criteriaBuilder, value, binder),
+                ParameterizedSearchArgumentHandler.handle(b, root, criteriaBuilder, value, binder)
+        );
+    }
+
+    @Override
+    public boolean isParameterized() {
+        return ParameterizedSearchArgumentHandler.isParameterized(a)
+                && ParameterizedSearchArgumentHandler.isParameterized(b);
+    }
+
+    @Override
+    public boolean isEvaluable() {
+        return EvaluableSearchArgumentHandler.isEvaluable(a) && EvaluableSearchArgumentHandler.isEvaluable(b);
+    }
+
+    @Override
+    public Evaluation evaluate(Class<?> entityClass, SearchArgument value) {
+        if (!isEvaluable()) throw new UnsupportedOperationException();
+
+        Evaluation first = ((EvaluableSearchArgumentHandler) a).evaluate(entityClass, value);
+        Evaluation second = ((EvaluableSearchArgumentHandler) b).evaluate(entityClass, value);
+
+        switch (operator) {
+            case MERGE:
+                return first.and(second);
+            case INCLUDE:
+                return first.or(second);
+            case EXCLUDE:
+                return first.and(second.not());
+            default:
+                throw new IllegalArgumentException("Illegal compound predicate operator: " + operator);
+        }
+    }
+
+    @Override
+    public SearchArgumentHandler not() {
+        return new NegatedSearchArgumentHandler(this);
+    }
 
+    private Predicate combine(CriteriaBuilder criteriaBuilder, Predicate first, Predicate second) {
         Predicate result;
 
         switch (operator) {
@@ -0,0 +1,65 @@
+package io.manebot.database.search.handler;
+
+import io.manebot.database.search.SearchArgument;
+
+/**
+ * Expresses a search argument handler which can also be evaluated against entities in memory.  Evaluating a handler
+ * must match the same entities as the JPA predicate it builds for the same argument, and be unknown where the
+ * predicate is, so that negating either matches the same entities.
+ */
+public interface EvaluableSearchArgumentHandler extends SearchArgumentHandler {
+
+    /**
+     * Finds if this handler can be evaluated in memory.  Handlers built on path functions, rather than property
+     * names, cannot be.
+     * @return true if this handler can be evaluated, false otherwise.
+     */
+    default boolean isEvaluable() {
+        return true;
+    }
+
+    /**
+     * Creates a test matching the entities this handler selects for an argument.
+     * @param entityClass entity class being searched.
+     * @param value argument the test is created for.
+     * @return test of entities of the entity class.
+     * @throws IllegalArgumentException if the argument is invalid.
+     */
+    Evaluation evaluate(Class<?> entityClass, SearchArgument value) throws IllegalArgumentException;
+
+    /**
+     * Gets the property this handler compares for equality with a value taken from its argument, if the comparison
+     * is all it does.  Entities are then looked up by the value of the property, rather than tested one by one.
+     * @return property name, or null if this handler does not only compare a property for equality.
+     */
+    default String getEqualityProperty() {
+        return null;
+    }
+
+    /**
+     * Gets the value this handler compares its equality property with.
+     * @param entityClass entity class being searched.
+     * @param value argument.
+     * @return value, which may be null.
+     * @throws IllegalArgumentException if the argument is invalid.
+     * @throws UnsupportedOperationException if this handler has no equality property.
+     */
+    default Object getEqualityValue(Class<?> entityClass, SearchArgument value) throws IllegalArgumentException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    default SearchArgumentHandler not() {
+        return new NegatedSearchArgumentHandler(this);
+    }
+
+    /**
+     * Finds if any handler can be evaluated in memory.
+     * @param handler handler.
+     * @return true if the handler can be evaluated, false otherwise.
+     */
+    static boolean isEvaluable(SearchArgumentHandler handler) {
+        return handler instanceof EvaluableSearchArgumentHandler
+                && ((EvaluableSearchArgumentHandler) handler).isEvaluable();
+    }
+}
@@ -0,0 +1,86 @@
+package io.manebot.database.search.handler;
+
+import java.util.function.Predicate;
+
+/**
+ * Test of an entity in memory, in the three-valued logic a database evaluates predicates in: comparisons with null
+ * are neither true nor false, but unknown.  Unknown remains unknown when negated, and entities are matched only where
+ * a test is true, so negating a test never matches the entities whose comparisons were unknown.
+ */
+@FunctionalInterface
+public interface Evaluation {
+
+    /**
+     * Tests an entity.
+     * @param entity entity to test.
+     * @return result of the test.
+     */
+    Truth evaluate(Object entity);
+
+    /**
+     * Finds if an entity is matched by this test.
+     * @param entity entity to test.
+     * @return true if the test is true for the entity, false if it is false or unknown.
+     */
+    default boolean test(Object entity) {
+        return evaluate(entity) == Truth.TRUE;
+    }
+
+    default Evaluation not() {
+        return entity -> evaluate(entity).not();
+    }
+
+    default Evaluation and(Evaluation other) {
+        return entity -> {
+            Truth first = evaluate(entity);
+            return first == Truth.FALSE ? first : first.and(other.evaluate(entity));
+        };
+    }
+
+    default Evaluation or(Evaluation other) {
+        return entity -> {
+            Truth first = evaluate(entity);
+            return first == Truth.TRUE ? first : first.or(other.evaluate(entity));
+        };
+    }
+
+    /**
+     * Creates a test which is never unknown.
+     * @param predicate predicate the test is true for.
+     * @return Evaluation instance.
+     */
+    static Evaluation of(Predicate<Object> predicate) {
+        return entity -> Truth.of(predicate.test(entity));
+    }
+
+    enum Truth {
+        TRUE,
+        FALSE,
+        UNKNOWN;
+
+        public static Truth of(boolean value) {
+            return value ? TRUE : FALSE;
+        }
+
+        public Truth not() {
+            switch (this) {
+                case TRUE:
+                    return FALSE;
+                case FALSE:
+                    return TRUE;
+                default:
+                    return UNKNOWN;
+            }
+        }
+
+        public Truth and(Truth other) {
+            if (this == FALSE || other == FALSE) return FALSE;
+            return this == UNKNOWN || other == UNKNOWN ? UNKNOWN : TRUE;
+        }
+
+        public Truth or(Truth other) {
+            if (this == TRUE || other == TRUE) return TRUE;
+            return this == UNKNOWN || other == UNKNOWN ? UNKNOWN : FALSE;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package io.manebot.database.search.handler;
+
+import io.manebot.database.search.SearchArgument;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+/**
+ * Negation of another handler, which remains parameterized and evaluable where the handler it negates is.
+ */
+final class NegatedSearchArgumentHandler
+        implements ParameterizedSearchArgumentHandler, EvaluableSearchArgumentHandler {
+    private final SearchArgumentHandler handler;
+
+    NegatedSearchArgumentHandler(SearchArgumentHandler handler) {
+        this.handler = handler;
+    }
+
+    @Override
+    public Predicate handle(Root root, CriteriaBuilder criteriaBuilder, SearchArgument value) {
+        return handler.handle(root, criteriaBuilder, value).not();
+    }
+
+    @Override
+    public Predicate handle(Root root, CriteriaBuilder criteriaBuilder, SearchArgument value,
+                            ParameterBinder binder) {
+        return ParameterizedSearchArgumentHandler.handle(handler, root, criteriaBuilder, value, binder).not();
+    }
+
+    @Override
+    public String getVariant(SearchArgument value) throws IllegalArgumentException {
+        return ParameterizedSearchArgumentHandler.getVariant(handler, value);
+    }
+
+    @Override
+    public boolean isParameterized() {
+        return ParameterizedSearchArgumentHandler.isParameterized(handler);
+    }
+
+    @Override
+    public boolean isEvaluable() {
+        return EvaluableSearchArgumentHandler.isEvaluable(handler);
+    }
+
+    @Override
+    public Evaluation evaluate(Class<?> entityClass, SearchArgument value) {
+        if (!isEvaluable()) throw new UnsupportedOperationException();
+        return ((EvaluableSearchArgumentHandler) handler).evaluate(entityClass, value).not();
+    }
+
+    @Override
+    public SearchArgumentHandler not() {
+        return handler;
+    }
+}
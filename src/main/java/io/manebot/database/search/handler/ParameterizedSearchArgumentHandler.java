@@ -0,0 +1,140 @@
+package io.manebot.database.search.handler;
+
+import io.manebot.database.search.SearchArgument;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.function.Function;
+
+/**
+ * Expresses a search argument handler whose predicates take the values of their arguments as parameters, rather than
+ * as literals.  A predicate built by a parameterized handler can be compiled once into a query template, and reused
+ * for any argument with the same variant by binding the argument's values to the template's parameters.
+ *
+ * Handlers which are not parameterized are still supported, but their predicates are built again for every search,
+ * as they may depend on state other than their arguments.
+ */
+public interface ParameterizedSearchArgumentHandler extends SearchArgumentHandler {
+
+    /**
+     * Builds a predicate for an argument, binding the values taken from the argument through a parameter binder.
+     * Predicates must depend on the argument only through the values bound, and the argument's variant.
+     * @param root query root.
+     * @param criteriaBuilder criteria builder.
+     * @param value argument the predicate is built for.
+     * @param binder parameter binder.
+     * @return predicate.
+     * @throws IllegalArgumentException if the argument is invalid.
+     */
+    Predicate handle(Root root, CriteriaBuilder criteriaBuilder, SearchArgument value, ParameterBinder binder)
+            throws IllegalArgumentException;
+
+    /**
+     * Gets the variant of the predicate built for an argument.  Arguments with the same variant must build the same
+     * predicate, differing only in the values bound to its parameters.
+     * @param value argument.
+     * @return variant of the predicate built for the argument.
+     * @throws IllegalArgumentException if the argument is invalid.
+     */
+    default String getVariant(SearchArgument value) throws IllegalArgumentException {
+        return "";
+    }
+
+    /**
+     * Finds if the predicates this handler builds depend on their arguments only through bound values and variants.
+     * Handlers delegating to other handlers are only parameterized where those handlers are.
+     * @return true if this handler is parameterized, false otherwise.
+     */
+    default boolean isParameterized() {
+        return true;
+    }
+
+    @Override
+    default Predicate handle(Root root, CriteriaBuilder criteriaBuilder, SearchArgument value) {
+        return handle(root, criteriaBuilder, value, ParameterBinder.literal(criteriaBuilder, value));
+    }
+
+    @Override
+    default SearchArgumentHandler not() {
+        return new NegatedSearchArgumentHandler(this);
+    }
+
+    /**
+     * Finds if any handler is parameterized.
+     * @param handler handler.
+     * @return true if the handler is parameterized, false otherwise.
+     */
+    static boolean isParameterized(SearchArgumentHandler handler) {
+        return handler instanceof ParameterizedSearchArgumentHandler
+                && ((ParameterizedSearchArgumentHandler) handler).isParameterized();
+    }
+
+    /**
+     * Gets the variant of the predicate any handler builds for an argument.  Handlers which are not parameterized
+     * vary with the value of the argument itself.
+     * @param handler handler.
+     * @param value argument.
+     * @return variant.
+     * @throws IllegalArgumentException if the argument is invalid.
+     */
+    static String getVariant(SearchArgumentHandler handler, SearchArgument value) throws IllegalArgumentException {
+        if (handler instanceof ParameterizedSearchArgumentHandler)
+            return "?" + ((ParameterizedSearchArgumentHandler) handler).getVariant(value);
+
+        // Literal values are length-prefixed, so that they cannot be confused with anything following them.
+        return "=" + value.getValue().length() + ":" + value.getValue();
+    }
+
+    /**
+     * Builds the predicate any handler builds for an argument, binding its values through a parameter binder where
+     * the handler is parameterized.
+     * @param handler handler.
+     * @param root query root.
+     * @param criteriaBuilder criteria builder.
+     * @param value argument the predicate is built for.
+     * @param binder parameter binder.
+     * @return predicate.
+     * @throws IllegalArgumentException if the argument is invalid.
+     */
+    static Predicate handle(SearchArgumentHandler handler, Root root, CriteriaBuilder criteriaBuilder,
+                            SearchArgument value, ParameterBinder binder) throws IllegalArgumentException {
+        if (handler instanceof ParameterizedSearchArgumentHandler)
+            return ((ParameterizedSearchArgumentHandler) handler).handle(root, criteriaBuilder, value, binder);
+
+        return handler.handle(root, criteriaBuilder, value);
+    }
+
+    /**
+     * Binds values taken from search arguments to the expressions of a predicate.
+     */
+    interface ParameterBinder {
+
+        /**
+         * Binds a value taken from the argument a predicate is built for.
+         * @param type type of the value.
+         * @param value function taking the value from an argument; it may be applied to other arguments of the same
+         *              variant, and should throw IllegalArgumentException if an argument is invalid.
+         * @param <X> value type.
+         * @return expression holding the value.
+         */
+        <X> Expression<X> bind(Class<X> type, Function<SearchArgument, ? extends X> value);
+
+        /**
+         * Creates a binder which binds the values of an argument as literals.
+         * @param criteriaBuilder criteria builder.
+         * @param argument argument to take values from.
+         * @return ParameterBinder instance.
+         */
+        static ParameterBinder literal(CriteriaBuilder criteriaBuilder, SearchArgument argument) {
+            return new ParameterBinder() {
+                @Override
+                public <X> Expression<X> bind(Class<X> type, Function<SearchArgument, ? extends X> value) {
+                    X literal = value.apply(argument);
+                    return literal == null ? criteriaBuilder.nullLiteral(type) : criteriaBuilder.literal(literal);
+                }
+            };
+        }
+    }
+}
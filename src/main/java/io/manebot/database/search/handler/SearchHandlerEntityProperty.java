@@ -1,6 +1,7 @@
 package io.manebot.database.search.handler;
 
 import io.manebot.database.search.SearchArgument;
+import io.manebot.database.search.memory.PropertyAccessor;
 
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.Path;
@@ -10,19 +11,69 @@ import java.util.function.Function;
 
 public abstract class SearchHandlerEntityProperty implements SearchArgumentHandler {
     private final Function<Root, Path> pathFinder; // Path of Exile is a pretty good game
+    private final String property;
 
     public SearchHandlerEntityProperty(Function<Root, Path> pathFinder) {
         this.pathFinder = pathFinder;
+        this.property = null;
     }
 
     public SearchHandlerEntityProperty(String property) {
         this.pathFinder = (root) -> root.get(property);
+        this.property = property;
+    }
+
+    /**
+     * Gets the name of the property this handler was built for.
+     * @return property name, or null if this handler was built with a path function.
+     */
+    protected String getProperty() {
+        return property;
+    }
+
+    /**
+     * Finds if this handler can be evaluated in memory, which requires it to have been built for a property name.
+     * Subclasses implementing <b>EvaluableSearchArgumentHandler</b> inherit this.
+     * @return true if this handler was built for a property name, false otherwise.
+     */
+    public boolean isEvaluable() {
+        return property != null;
+    }
+
+    /**
+     * Gets the accessor of this handler's property on an entity class.
+     * @param entityClass entity class.
+     * @return PropertyAccessor instance.
+     * @throws UnsupportedOperationException if this handler was built with a path function.
+     */
+    protected PropertyAccessor getAccessor(Class<?> entityClass) {
+        if (property == null) throw new UnsupportedOperationException();
+        return PropertyAccessor.of(entityClass, property);
     }
 
     protected abstract Predicate handle(Path path, CriteriaBuilder criteriaBuilder, SearchArgument value);
 
+    /**
+     * Builds a predicate for an argument, binding its values through a parameter binder.  Subclasses implementing
+     * <b>ParameterizedSearchArgumentHandler</b> override this; by default, the argument's values are literals.
+     */
+    protected Predicate handle(Path path, CriteriaBuilder criteriaBuilder, SearchArgument value,
+                               ParameterizedSearchArgumentHandler.ParameterBinder binder) {
+        return handle(path, criteriaBuilder, value);
+    }
+
     @Override
     public Predicate handle(Root root, CriteriaBuilder criteriaBuilder, SearchArgument value) {
         return handle(pathFinder.apply(root), criteriaBuilder, value);
     }
+
+    public Predicate handle(Root root, CriteriaBuilder criteriaBuilder, SearchArgument value,
+                            ParameterizedSearchArgumentHandler.ParameterBinder binder) {
+        return handle(pathFinder.apply(root), criteriaBuilder, value, binder);
+    }
+
+    @Override
+    public SearchArgumentHandler not() {
+        return new NegatedSearchArgumentHandler(this);
+    }
 }
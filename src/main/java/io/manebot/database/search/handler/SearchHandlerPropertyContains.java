@@ -3,6 +3,8 @@ package io.manebot.database.search.handler;
 import io.manebot.database.expressions.ExtendedExpressions;
 import io.manebot.database.expressions.MatchMode;
 import io.manebot.database.search.SearchArgument;
+import io.manebot.database.search.memory.Collation;
+import io.manebot.database.search.memory.PropertyAccessor;
 
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.Path;
@@ -10,7 +12,8 @@ import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 import java.util.function.Function;
 
-public class SearchHandlerPropertyContains extends SearchHandlerEntityProperty {
+public class SearchHandlerPropertyContains extends SearchHandlerEntityProperty
+        implements ParameterizedSearchArgumentHandler, EvaluableSearchArgumentHandler {
     public SearchHandlerPropertyContains(Function<Root, Path> pathFinder) {
         super(pathFinder);
     }
@@ -29,4 +32,28 @@ public class SearchHandlerPropertyContains extends SearchHandlerEntityProperty {
                 MatchMode.ANYWHERE
         );
     }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    protected Predicate handle(Path path, CriteriaBuilder criteriaBuilder, SearchArgument value,
+                               ParameterBinder binder) {
+        return ExtendedExpressions.escapedLike(
+                criteriaBuilder,
+                path,
+                binder.bind(String.class, argument ->
+                        ExtendedExpressions.toLikePattern(argument.getValue(), MatchMode.ANYWHERE))
+        );
+    }
+
+    @Override
+    public Evaluation evaluate(Class<?> entityClass, SearchArgument value) {
+        PropertyAccessor accessor = getAccessor(entityClass);
+        String term = value.getValue();
+
+        return entity -> {
+            Object actual = accessor.get(entity);
+            if (actual == null) return Evaluation.Truth.UNKNOWN;
+            return Evaluation.Truth.of(Collation.contains(actual.toString(), term));
+        };
+    }
 }
@@ -1,6 +1,9 @@
 package io.manebot.database.search.handler;
 
+import com.google.common.primitives.Primitives;
 import io.manebot.database.search.SearchArgument;
+import io.manebot.database.search.memory.Collation;
+import io.manebot.database.search.memory.PropertyAccessor;
 
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.Path;
@@ -8,7 +11,8 @@ import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 import java.util.function.Function;
 
-public class SearchHandlerPropertyEquals extends SearchHandlerEntityProperty {
+public class SearchHandlerPropertyEquals extends SearchHandlerEntityProperty
+        implements ParameterizedSearchArgumentHandler, EvaluableSearchArgumentHandler {
     private final Function<String, ?> parser;
 
     public SearchHandlerPropertyEquals(Function<Root, Path> pathFinder) {
@@ -35,4 +39,37 @@ public class SearchHandlerPropertyEquals extends SearchHandlerEntityProperty {
     protected Predicate handle(Path path, CriteriaBuilder criteriaBuilder, SearchArgument value) {
         return criteriaBuilder.equal(path, parser.apply(value.getValue()));
     }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    protected Predicate handle(Path path, CriteriaBuilder criteriaBuilder, SearchArgument value,
+                               ParameterBinder binder) {
+        Class<Object> type = path.getJavaType() == null ? Object.class : Primitives.wrap(path.getJavaType());
+        return criteriaBuilder.equal(path, binder.bind(
+                type,
+                argument -> ArgumentCoercion.coerce(parser.apply(argument.getValue()), type)
+        ));
+    }
+
+    @Override
+    public Evaluation evaluate(Class<?> entityClass, SearchArgument value) {
+        PropertyAccessor accessor = getAccessor(entityClass);
+        Object expected = getEqualityValue(entityClass, value);
+
+        return entity -> {
+            Object actual = accessor.get(entity);
+            if (actual == null || expected == null) return Evaluation.Truth.UNKNOWN;
+            return Evaluation.Truth.of(Collation.equals(actual, expected));
+        };
+    }
+
+    @Override
+    public String getEqualityProperty() {
+        return getProperty();
+    }
+
+    @Override
+    public Object getEqualityValue(Class<?> entityClass, SearchArgument value) throws IllegalArgumentException {
+        return ArgumentCoercion.coerce(parser.apply(value.getValue()), getAccessor(entityClass).getType());
+    }
 }
@@ -5,7 +5,8 @@ import io.manebot.database.search.SearchArgument;
 import javax.persistence.criteria.*;
 import java.util.function.Function;
 
-public class SearchHandlerPropertyIn extends SearchHandlerEntityProperty {
+public class SearchHandlerPropertyIn extends SearchHandlerEntityProperty
+        implements ParameterizedSearchArgumentHandler {
     private final Class<?> joiningType;
     private final SearchArgumentHandler handler;
     private final Function<Root, Path> subPathFinder;
@@ -32,6 +33,16 @@ public class SearchHandlerPropertyIn extends SearchHandlerEntityProperty {
         this.handler = handler;
     }
 
+    @Override
+    public String getVariant(SearchArgument value) throws IllegalArgumentException {
+        return ParameterizedSearchArgumentHandler.getVariant(handler, value);
+    }
+
+    @Override
+    public boolean isParameterized() {
+        return ParameterizedSearchArgumentHandler.isParameterized(handler);
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     protected Predicate handle(Path path, CriteriaBuilder criteriaBuilder, SearchArgument value) {
@@ -41,4 +52,17 @@ public class SearchHandlerPropertyIn extends SearchHandlerEntityProperty {
                         .select(subPathFinder.apply(root))
                         .where(handler.handle(root, criteriaBuilder, value)));
     }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    protected Predicate handle(Path path, CriteriaBuilder criteriaBuilder, SearchArgument value,
+                               ParameterBinder binder) {
+        Subquery criteriaQuery = criteriaBuilder.createQuery(joiningType).subquery(joiningType);
+        Root root = criteriaQuery.from(joiningType);
+        return path.in(criteriaQuery
+                        .select(subPathFinder.apply(root))
+                        .where(ParameterizedSearchArgumentHandler.handle(
+                                handler, root, criteriaBuilder, value, binder
+                        )));
+    }
 }
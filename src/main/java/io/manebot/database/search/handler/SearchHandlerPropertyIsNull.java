@@ -1,6 +1,7 @@
 package io.manebot.database.search.handler;
 
 import io.manebot.database.search.SearchArgument;
+import io.manebot.database.search.memory.PropertyAccessor;
 
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.Path;
@@ -8,7 +9,8 @@ import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 import java.util.function.Function;
 
-public class SearchHandlerPropertyIsNull extends SearchHandlerEntityProperty {
+public class SearchHandlerPropertyIsNull extends SearchHandlerEntityProperty
+        implements ParameterizedSearchArgumentHandler, EvaluableSearchArgumentHandler {
 
     public SearchHandlerPropertyIsNull(Function<Root, Path> pathFinder) {
         super(pathFinder);
@@ -22,4 +24,16 @@ public class SearchHandlerPropertyIsNull extends SearchHandlerEntityProperty {
     protected Predicate handle(Path path, CriteriaBuilder criteriaBuilder, SearchArgument value) {
         return criteriaBuilder.isNull(path);
     }
+
+    @Override
+    protected Predicate handle(Path path, CriteriaBuilder criteriaBuilder, SearchArgument value,
+                               ParameterBinder binder) {
+        return criteriaBuilder.isNull(path);
+    }
+
+    @Override
+    public Evaluation evaluate(Class<?> entityClass, SearchArgument value) {
+        PropertyAccessor accessor = getAccessor(entityClass);
+        return Evaluation.of(entity -> accessor.get(entity) == null);
+    }
 }
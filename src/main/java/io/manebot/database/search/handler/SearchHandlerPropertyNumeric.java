@@ -1,14 +1,18 @@
 package io.manebot.database.search.handler;
 
+import com.google.common.primitives.Primitives;
 import io.manebot.database.search.SearchArgument;
+import io.manebot.database.search.memory.PropertyAccessor;
 
 import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
 import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 import java.util.function.Function;
 
-public class SearchHandlerPropertyNumeric extends SearchHandlerEntityProperty {
+public class SearchHandlerPropertyNumeric extends SearchHandlerEntityProperty
+        implements ParameterizedSearchArgumentHandler, EvaluableSearchArgumentHandler {
     public SearchHandlerPropertyNumeric(Function<Root, Path> pathFinder) {
         super(pathFinder);
     }
@@ -17,26 +21,78 @@ public class SearchHandlerPropertyNumeric extends SearchHandlerEntityProperty {
         super(property);
     }
 
-    @SuppressWarnings("unchecked")
+    @Override
+    public String getVariant(SearchArgument value) throws IllegalArgumentException {
+        return Character.toString(getComparison(value));
+    }
+
     @Override
     protected Predicate handle(Path path, CriteriaBuilder criteriaBuilder, SearchArgument value) {
-        if (value.getValue().length() <= 0) throw new IllegalArgumentException("Numeric expression not provided.");
-        char c = value.getValue().charAt(0);
+        return handle(path, criteriaBuilder, value, ParameterBinder.literal(criteriaBuilder, value));
+    }
 
-        try {
-            if (c == '>') {
-                return criteriaBuilder.greaterThan(path, value.getValue().substring(1));
-            } else if (c == '<') {
-                return criteriaBuilder.lessThan(path, value.getValue().substring(1));
-            } else if (c == '=') {
-                return criteriaBuilder.equal(path, value.getValue().substring(1));
-            } else if (c == '!') {
-                return criteriaBuilder.equal(path, value.getValue().substring(1));
-            } else {
-                return criteriaBuilder.equal(path, value.getValue());
-            }
-        } catch (NumberFormatException ex) {
-            throw new IllegalArgumentException(ex.getMessage()); // unboxing is necessary to propagate message
+    @SuppressWarnings("unchecked")
+    @Override
+    protected Predicate handle(Path path, CriteriaBuilder criteriaBuilder, SearchArgument value,
+                               ParameterBinder binder) {
+        char comparison = getComparison(value);
+        Class<Comparable> type = path.getJavaType() == null ?
+                Comparable.class : (Class<Comparable>) Primitives.wrap(path.getJavaType());
+
+        Expression<Comparable> operand = binder.bind(type, argument -> {
+            String operandString = getComparison(argument) == '\0' ?
+                    argument.getValue() : argument.getValue().substring(1);
+            return ArgumentCoercion.coerce(operandString, type);
+        });
+
+        switch (comparison) {
+            case '>':
+                return criteriaBuilder.greaterThan(path, operand);
+            case '<':
+                return criteriaBuilder.lessThan(path, operand);
+            case '!':
+                return criteriaBuilder.notEqual(path, operand);
+            default:
+                return criteriaBuilder.equal(path, operand);
         }
     }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public Evaluation evaluate(Class<?> entityClass, SearchArgument value) {
+        char comparison = getComparison(value);
+        PropertyAccessor accessor = getAccessor(entityClass);
+        Comparable operand = (Comparable) ArgumentCoercion.coerce(
+                comparison == '\0' ? value.getValue() : value.getValue().substring(1),
+                accessor.getType()
+        );
+
+        return entity -> {
+            Comparable actual = (Comparable) accessor.get(entity);
+            if (actual == null || operand == null) return Evaluation.Truth.UNKNOWN;
+
+            int compared = actual.compareTo(operand);
+            switch (comparison) {
+                case '>':
+                    return Evaluation.Truth.of(compared > 0);
+                case '<':
+                    return Evaluation.Truth.of(compared < 0);
+                case '!':
+                    return Evaluation.Truth.of(compared != 0);
+                default:
+                    return Evaluation.Truth.of(compared == 0);
+            }
+        };
+    }
+
+    /**
+     * Gets the comparison an argument makes: one of '&gt;', '&lt;', '=' or '!', or zero if it makes none, which is an
+     * equality comparison.
+     */
+    private static char getComparison(SearchArgument value) throws IllegalArgumentException {
+        if (value.getValue().length() <= 0) throw new IllegalArgumentException("Numeric expression not provided.");
+
+        char c = value.getValue().charAt(0);
+        return c == '>' || c == '<' || c == '=' || c == '!' ? c : '\0';
+    }
 }
@@ -0,0 +1,117 @@
+package io.manebot.database.search.handler;
+
+import com.google.common.collect.MapMaker;
+import io.manebot.database.expressions.ExtendedExpressions;
+import io.manebot.database.expressions.MatchMode;
+import io.manebot.database.search.SearchArgument;
+import io.manebot.database.search.index.TextIndex;
+
+import javax.persistence.criteria.*;
+import javax.persistence.metamodel.SingularAttribute;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Contains-search over a text property, narrowed by a <b>TextIndex</b>.  Matches the same entities as
+ * <b>SearchHandlerPropertyContains</b> on the indexed property: the index narrows the search to the identifiers of
+ * its candidates, which are then verified with the same escaped <i>LIKE</i> comparison.  Terms the index cannot
+ * narrow, or which have too many candidates, are searched with the comparison alone.
+ *
+ * The candidates of each search argument are found once, when its variant is chosen, and the same candidates are
+ * bound to the search; the index may change in the meantime, and the bound set must be the one the variant was chosen
+ * by.
+ */
+public class SearchHandlerTextIndex implements ParameterizedSearchArgumentHandler {
+    /**
+     * Default maximum count of candidates bound to a search before it is no longer narrowed.
+     */
+    public static final int DEFAULT_MAXIMUM_CANDIDATES = 1000;
+
+    private static final String VARIANT_LIKE = "like", VARIANT_NONE = "none", VARIANT_IN = "in";
+
+    private final TextIndex<?> index;
+    private final Function<Root, Path> pathFinder;
+    private final int maximumCandidates;
+
+    private final Map<SearchArgument, Optional<Collection<?>>> candidates = new MapMaker().weakKeys().makeMap();
+
+    public SearchHandlerTextIndex(TextIndex<?> index) {
+        this(index, DEFAULT_MAXIMUM_CANDIDATES);
+    }
+
+    public SearchHandlerTextIndex(TextIndex<?> index, int maximumCandidates) {
+        this.index = index;
+        this.pathFinder = (root) -> root.get(index.getProperty());
+        this.maximumCandidates = maximumCandidates;
+    }
+
+    @Override
+    public String getVariant(SearchArgument value) {
+        Collection<?> candidates = getCandidates(value);
+        if (candidates == null || candidates.size() > maximumCandidates) return VARIANT_LIKE;
+        else if (candidates.isEmpty()) return VARIANT_NONE;
+        else return VARIANT_IN;
+    }
+
+    @Override
+    public Predicate handle(Root root, CriteriaBuilder criteriaBuilder, SearchArgument value) {
+        return handle(root, criteriaBuilder, value, ParameterBinder.literal(criteriaBuilder, value), true);
+    }
+
+    @Override
+    public Predicate handle(Root root, CriteriaBuilder criteriaBuilder, SearchArgument value, ParameterBinder binder) {
+        return handle(root, criteriaBuilder, value, binder, false);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Predicate handle(Root root, CriteriaBuilder criteriaBuilder, SearchArgument value, ParameterBinder binder,
+                             boolean literal) {
+        String variant = getVariant(value);
+        if (variant.equals(VARIANT_NONE)) return criteriaBuilder.disjunction();
+
+        Predicate like = ExtendedExpressions.escapedLike(
+                criteriaBuilder,
+                pathFinder.apply(root),
+                binder.bind(String.class, argument ->
+                        ExtendedExpressions.toLikePattern(argument.getValue(), MatchMode.ANYWHERE))
+        );
+
+        if (variant.equals(VARIANT_LIKE)) return like;
+
+        Path<?> id = root.get(getIdAttribute(root));
+        Predicate in;
+
+        if (!literal) {
+            // Each search binding this variant chose it by its own candidates, which are bounded and not empty.
+            in = id.in(binder.bind(Collection.class, argument -> {
+                Collection<?> candidates = getCandidates(argument);
+                if (candidates == null || candidates.isEmpty() || candidates.size() > maximumCandidates)
+                    throw new IllegalStateException("Candidates do not match search variant: " + argument.getValue());
+
+                return candidates;
+            }));
+        } else {
+            in = id.in(getCandidates(value).toArray());
+        }
+
+        return criteriaBuilder.and(in, like);
+    }
+
+    /**
+     * Gets the candidates of a search argument, finding them in the index the first time they are requested.
+     * @param value search argument.
+     * @return candidates, or null if the index cannot narrow the argument.
+     */
+    private Collection<?> getCandidates(SearchArgument value) {
+        return candidates.computeIfAbsent(value, key -> Optional.ofNullable(index.find(key.getValue()))).orElse(null);
+    }
+
+    private static SingularAttribute getIdAttribute(Root<?> root) {
+        for (SingularAttribute attribute : root.getModel().getSingularAttributes())
+            if (attribute.isId()) return attribute;
+
+        throw new IllegalArgumentException("Entity has no single identifier: " + root.getJavaType().getName());
+    }
+}
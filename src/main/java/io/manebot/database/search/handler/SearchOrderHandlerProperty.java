@@ -5,13 +5,24 @@ import java.util.function.Function;
 
 public class SearchOrderHandlerProperty extends AbstractSearchOrderHandler {
     private final Function<Root, Path> pathFinder; // Path of Exile is a pretty good game
+    private final String property;
 
     public SearchOrderHandlerProperty(Function<Root, Path> pathFinder) {
         this.pathFinder = pathFinder;
+        this.property = null;
     }
 
     public SearchOrderHandlerProperty(String property) {
         this.pathFinder = (root) -> root.get(property);
+        this.property = property;
+    }
+
+    /**
+     * Gets the name of the property this handler orders by.
+     * @return property name, or null if this handler was built with a path function.
+     */
+    public String getProperty() {
+        return property;
     }
 
     @Override
@@ -0,0 +1,274 @@
+package io.manebot.database.search.index;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.manebot.database.Database;
+import io.manebot.database.EntityChangeListener;
+import io.manebot.database.model.EntityChangeDispatcher;
+
+import javax.persistence.metamodel.EntityType;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Inverted trigram index over a text property of an entity class.  Each entity is indexed under every sequence of
+ * three characters in its lowercase property value; the candidates for a term are the entities indexed under all of
+ * the term's trigrams.  Terms shorter than three characters cannot be narrowed.
+ *
+ * The index is loaded from the database in the background when it is first searched, and kept up to date as entities
+ * are saved.  Entries are only ever added, so that changes which are later rolled back, or which replace a value, leave
+ * the index a superset of the database.  Once enough entries are stale, the index is rebuilt in the background from the
+ * database.  Searches never wait for a load: until the index is loaded, no term can be narrowed, and while it is
+ * rebuilt, searches continue with the stale index.
+ *
+ * @param <T> entity type.
+ */
+public final class NGramTextIndex<T> implements TextIndex<T>, EntityChangeListener<T>, AutoCloseable {
+    private static final int GRAM_LENGTH = 3;
+
+    /**
+     * Minimum count of stale entries before the index is rebuilt.  Beyond this, the index is rebuilt once a quarter of
+     * its entities are stale.
+     */
+    private static final long MINIMUM_REBUILD_STALE = 1024L;
+
+    /**
+     * Maximum count of recent lookups retained.
+     */
+    private static final int MAXIMUM_LOOKUPS = 256;
+
+    private static final ExecutorService loader = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "NGramTextIndex");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Database database;
+    private final Class<T> entityClass;
+    private final String property;
+    private final Function<T, ?> idFunction;
+    private final Function<T, String> textFunction;
+
+    private final Object loadLock = new Object();
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+    private final AtomicLong invalidations = new AtomicLong();
+    private volatile State state;
+    private final Set<State> loading = ConcurrentHashMap.newKeySet();
+
+    private final Cache<String, Lookup> lookups = CacheBuilder.newBuilder().maximumSize(MAXIMUM_LOOKUPS).build();
+
+    /**
+     * Creates an index, and registers it for changes to the entity class.
+     * @param database database the entity class is registered to.
+     * @param entityClass entity class.
+     * @param property name of the indexed property.
+     * @param idFunction function getting the identifier of an entity.
+     * @param textFunction function getting the value of the indexed property of an entity.
+     */
+    public NGramTextIndex(Database database,
+                          Class<T> entityClass,
+                          String property,
+                          Function<T, ?> idFunction,
+                          Function<T, String> textFunction) {
+        this.database = database;
+        this.entityClass = entityClass;
+        this.property = property;
+        this.idFunction = idFunction;
+        this.textFunction = textFunction;
+
+        EntityChangeDispatcher.register(entityClass, this);
+    }
+
+    @Override
+    public Class<T> getEntityClass() {
+        return entityClass;
+    }
+
+    @Override
+    public String getProperty() {
+        return property;
+    }
+
+    @Override
+    public Collection<?> find(String term) {
+        String normalized = normalize(term);
+        if (normalized.length() < GRAM_LENGTH) return null;
+
+        State state = getState();
+        if (state == null) return null;
+
+        long generation = state.generation.get();
+
+        Lookup lookup = lookups.getIfPresent(normalized);
+        if (lookup != null && lookup.state == state && lookup.generation == generation) return lookup.candidates;
+
+        List<Set<Object>> postings = new ArrayList<>(normalized.length() - GRAM_LENGTH + 1);
+        for (int i = 0; i + GRAM_LENGTH <= normalized.length(); i ++) {
+            Set<Object> posting = state.postings.get(gram(normalized, i));
+            if (posting == null) return Collections.emptySet();
+            postings.add(posting);
+        }
+
+        // Intersect from the smallest posting, so that the fewest identifiers are visited.
+        postings.sort(Comparator.comparingInt(Set::size));
+        Set<Object> candidates = new HashSet<>();
+        for (Object id : postings.get(0)) {
+            boolean found = true;
+            for (int i = 1; found && i < postings.size(); i ++) found = postings.get(i).contains(id);
+            if (found) candidates.add(id);
+        }
+
+        Collection<?> result = Collections.unmodifiableSet(candidates);
+        lookups.put(normalized, new Lookup(state, generation, result));
+        return result;
+    }
+
+    /**
+     * Discards the index, so that it is loaded again from the database when it is next searched.  This must be called
+     * after bulk updates to the indexed property, which are not reported to the index.  Loads which began before the
+     * index was discarded are discarded when they finish.
+     */
+    public void invalidate() {
+        synchronized (loadLock) {
+            invalidations.incrementAndGet();
+            state = null;
+        }
+    }
+
+    /**
+     * Unregisters the index from changes to its entity class.
+     */
+    @Override
+    public void close() {
+        EntityChangeDispatcher.unregister(entityClass, this);
+    }
+
+    @Override
+    public void onSaved(T entity) {
+        Object id = idFunction.apply(entity);
+        String text = textFunction.apply(entity);
+
+        State state = this.state;
+        if (state != null) state.add(id, text);
+
+        // Loads in progress may have read the database before this entity was saved.
+        for (State loadingState : loading) loadingState.add(id, text);
+    }
+
+    @Override
+    public void onRemoved(T entity) {
+        // Removed entities remain candidates until the index is rebuilt; they are no longer found in the database.
+        State state = this.state;
+        if (state != null) state.stale.incrementAndGet();
+    }
+
+    /**
+     * Gets the current index, starting a load in the background if it is not loaded or has too many stale entries.
+     * @return current index, or null if it is not yet loaded.
+     */
+    private State getState() {
+        State state = this.state;
+
+        boolean expired = state == null
+                || state.stale.get() > Math.max(MINIMUM_REBUILD_STALE, state.texts.size() / 4);
+
+        if (expired && rebuilding.compareAndSet(false, true)) {
+            long invalidation = invalidations.get();
+
+            try {
+                loader.execute(() -> {
+                    try {
+                        State rebuilt = load();
+                        synchronized (loadLock) {
+                            if (this.state == state && invalidations.get() == invalidation) this.state = rebuilt;
+                        }
+                    } catch (RuntimeException e) {
+                        Logger.getGlobal().log(Level.WARNING, "Problem loading text index", e);
+                    } finally {
+                        rebuilding.set(false);
+                    }
+                });
+            } catch (RuntimeException e) {
+                rebuilding.set(false);
+                throw e;
+            }
+        }
+
+        return state;
+    }
+
+    /**
+     * Loads a new index from the database.  Entities saved while it loads are added to it, as well as to any other
+     * index being loaded at the same time.
+     */
+    private State load() {
+        State loaded = new State();
+        loading.add(loaded);
+
+        try {
+            List<Object[]> rows = database.execute(session -> {
+                EntityType<T> type = session.getMetamodel().entity(entityClass);
+                String idProperty = type.getId(type.getIdType().getJavaType()).getName();
+
+                return session.createQuery(
+                        "SELECT x." + idProperty + ", x." + property + " FROM " + entityClass.getName() + " x",
+                        Object[].class
+                ).getResultList();
+            });
+
+            for (Object[] row : rows) loaded.add(row[0], (String) row[1]);
+            return loaded;
+        } finally {
+            loading.remove(loaded);
+        }
+    }
+
+    private static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    private static long gram(String text, int offset) {
+        return ((long) text.charAt(offset) << 32) | ((long) text.charAt(offset + 1) << 16) | text.charAt(offset + 2);
+    }
+
+    private static final class State {
+        private final ConcurrentMap<Long, Set<Object>> postings = new ConcurrentHashMap<>();
+        private final ConcurrentMap<Object, String> texts = new ConcurrentHashMap<>();
+        private final AtomicLong generation = new AtomicLong();
+        private final AtomicLong stale = new AtomicLong();
+
+        private void add(Object id, String text) {
+            if (id == null) return;
+
+            String normalized = text == null ? "" : normalize(text);
+            String previous = texts.put(id, normalized);
+            if (normalized.equals(previous)) return; // Updates to other properties
+            else if (previous != null) stale.incrementAndGet();
+
+            for (int i = 0; i + GRAM_LENGTH <= normalized.length(); i ++)
+                postings.computeIfAbsent(gram(normalized, i), key -> ConcurrentHashMap.newKeySet()).add(id);
+
+            generation.incrementAndGet();
+        }
+    }
+
+    private static final class Lookup {
+        private final State state;
+        private final long generation;
+        private final Collection<?> candidates;
+
+        private Lookup(State state, long generation, Collection<?> candidates) {
+            this.state = state;
+            this.generation = generation;
+            this.candidates = candidates;
+        }
+    }
+}
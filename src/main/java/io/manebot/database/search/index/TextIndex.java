@@ -0,0 +1,32 @@
+package io.manebot.database.search.index;
+
+import java.util.Collection;
+
+/**
+ * Index over a text property of an entity class, narrowing the entities whose property may contain a term to a set of
+ * candidate identifiers.  Candidates are a superset of the entities which do contain the term; callers verify them.
+ *
+ * @param <T> entity type.
+ */
+public interface TextIndex<T> {
+
+    /**
+     * Gets the entity class indexed.
+     * @return entity class.
+     */
+    Class<T> getEntityClass();
+
+    /**
+     * Gets the name of the indexed property.
+     * @return property name.
+     */
+    String getProperty();
+
+    /**
+     * Finds the identifiers of the entities whose property may contain a term, ignoring case.
+     * @param term term to find.
+     * @return immutable collection of candidate identifiers, or null if the index cannot narrow the term.
+     */
+    Collection<?> find(String term);
+
+}
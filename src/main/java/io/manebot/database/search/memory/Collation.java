@@ -0,0 +1,45 @@
+package io.manebot.database.search.memory;
+
+import java.util.Locale;
+
+/**
+ * Compares property values in memory as the case-insensitive collations databases use by default compare them: strings
+ * are equal, and contain one another, regardless of case.  Every in-memory comparison of strings, and every index of
+ * them, uses this collation, so that each matches the same entities.
+ */
+public final class Collation {
+    private Collation() { }
+
+    /**
+     * Gets the key a value is compared by: strings folded to lower case, or any other value as it is.
+     * @param value value, which may be null.
+     * @return key, or null if the value is null.
+     */
+    public static Object getKey(Object value) {
+        return value instanceof String ? fold((String) value) : value;
+    }
+
+    /**
+     * Finds if two values are equal.
+     * @param a value, which must not be null.
+     * @param b value, which must not be null.
+     * @return true if the values are equal, false otherwise.
+     */
+    public static boolean equals(Object a, Object b) {
+        return getKey(a).equals(getKey(b));
+    }
+
+    /**
+     * Finds if a string contains another.
+     * @param value string to search.
+     * @param term string to search for.
+     * @return true if the string contains the term, false otherwise.
+     */
+    public static boolean contains(String value, String term) {
+        return fold(value).contains(fold(term));
+    }
+
+    private static String fold(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,316 @@
+package io.manebot.database.search.memory;
+
+import com.google.common.collect.MapMaker;
+import io.manebot.database.Database;
+import io.manebot.database.EntityChangeListener;
+import io.manebot.database.model.EntityChangeDispatcher;
+
+import javax.persistence.PersistenceException;
+import javax.persistence.metamodel.EntityType;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Snapshot of every entity of an entity class, held in memory for <b>MemorySearchHandler</b>.  Snapshots are shared
+ * by all in-memory search handlers of an entity class on a database.
+ *
+ * A snapshot is loaded from the database when it is first searched, and kept up to date as entities are saved and
+ * removed.  Changes are reported before their transactions commit, so a change which is later rolled back remains in
+ * the snapshot until it is next loaded; snapshots are reloaded once they are older than their refresh interval, and
+ * may be refreshed explicitly after bulk updates, which are not reported.
+ *
+ * Properties compared for equality are indexed by value on first use, and the indexes are kept up to date with the
+ * snapshot.  Values are indexed by their <b>Collation</b> key, and null values are not indexed, as they equal
+ * nothing.
+ *
+ * @param <T> entity type.
+ */
+public final class EntitySnapshot<T> implements EntityChangeListener<T>, AutoCloseable {
+    private static final Map<Database, Map<Class<?>, EntitySnapshot<?>>> snapshots =
+            new MapMaker().weakKeys().makeMap();
+
+    /**
+     * Default interval after which a snapshot is reloaded from the database.
+     */
+    public static final long DEFAULT_REFRESH_INTERVAL = TimeUnit.MINUTES.toMillis(5);
+
+    private final Database database;
+    private final Class<T> entityClass;
+
+    private final Object loadLock = new Object();
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+    private volatile State<T> state;
+    private final Set<State<T>> loading = ConcurrentHashMap.newKeySet();
+    private volatile long refreshInterval = DEFAULT_REFRESH_INTERVAL;
+
+    private EntitySnapshot(Database database, Class<T> entityClass) {
+        this.database = database;
+        this.entityClass = entityClass;
+    }
+
+    /**
+     * Gets the snapshot of an entity class on a database, registering it for changes to the entity class when it is
+     * first requested.
+     * @param database database the entity class is registered to.
+     * @param entityClass entity class.
+     * @param <T> entity type.
+     * @return EntitySnapshot instance.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> EntitySnapshot<T> of(Database database, Class<T> entityClass) {
+        Map<Class<?>, EntitySnapshot<?>> databaseSnapshots =
+                snapshots.computeIfAbsent(database, key -> new ConcurrentHashMap<>());
+
+        return (EntitySnapshot<T>) databaseSnapshots.computeIfAbsent(entityClass, key -> {
+            EntitySnapshot<T> snapshot = new EntitySnapshot<>(database, entityClass);
+            EntityChangeDispatcher.register(entityClass, snapshot);
+            return snapshot;
+        });
+    }
+
+    /**
+     * Gets the entity class held by this snapshot.
+     * @return entity class.
+     */
+    public Class<T> getEntityClass() {
+        return entityClass;
+    }
+
+    /**
+     * Sets the interval after which this snapshot is reloaded from the database.
+     * @param interval interval, or zero to only reload when refreshed explicitly.
+     * @param unit unit of the interval.
+     */
+    public void setRefreshInterval(long interval, TimeUnit unit) {
+        this.refreshInterval = unit.toMillis(interval);
+    }
+
+    /**
+     * Discards this snapshot, so that it is loaded from the database when it is next searched.  This must be called
+     * after bulk updates to the entity class, which are not reported to the snapshot.
+     */
+    public void refresh() {
+        synchronized (loadLock) {
+            state = null;
+        }
+    }
+
+    /**
+     * Unregisters this snapshot from changes to its entity class, and discards it.
+     */
+    @Override
+    public void close() {
+        EntityChangeDispatcher.unregister(entityClass, this);
+
+        Map<Class<?>, EntitySnapshot<?>> databaseSnapshots = snapshots.get(database);
+        if (databaseSnapshots != null) databaseSnapshots.remove(entityClass, this);
+
+        refresh();
+    }
+
+    @Override
+    public void onSaved(T entity) {
+        State<T> state = this.state;
+        if (state != null) state.save(entity, false);
+
+        // Loads in progress may have read the database before this entity was saved.
+        for (State<T> loadingState : loading) loadingState.save(entity, true);
+    }
+
+    @Override
+    public void onRemoved(T entity) {
+        State<T> state = this.state;
+        if (state != null) state.delete(entity, false);
+
+        for (State<T> loadingState : loading) loadingState.delete(entity, true);
+    }
+
+    /**
+     * Gets the current state of this snapshot, loading it if it is not loaded, or reloading it if it is older than
+     * the refresh interval.  Searches on other threads continue with the current state while it is reloaded.
+     */
+    State<T> getState() throws SQLException {
+        State<T> state = this.state;
+
+        if (state == null) {
+            synchronized (loadLock) {
+                state = this.state;
+                if (state == null) this.state = state = load();
+            }
+        } else if (refreshInterval > 0 && System.currentTimeMillis() - state.loaded > refreshInterval
+                && refreshing.compareAndSet(false, true)) {
+            try {
+                State<T> reloaded = load();
+                synchronized (loadLock) {
+                    if (this.state == state) this.state = state = reloaded;
+                }
+            } finally {
+                refreshing.set(false);
+            }
+        }
+
+        return state;
+    }
+
+    /**
+     * Loads a new state from the database.  Entities changed while it loads are changed in it, as well as in any other
+     * state being loaded at the same time, such as a reload overlapping a load after <b>refresh</b>.
+     */
+    private State<T> load() throws SQLException {
+        try {
+            return database.execute(session -> {
+                EntityType<T> type = session.getMetamodel().entity(entityClass);
+                PropertyAccessor idAccessor = PropertyAccessor.of(
+                        entityClass,
+                        type.getId(type.getIdType().getJavaType()).getName()
+                );
+
+                State<T> loaded = new State<>(idAccessor);
+                loading.add(loaded);
+
+                try {
+                    List<T> entities = session.createQuery(
+                            "SELECT x FROM " + entityClass.getName() + " x",
+                            entityClass
+                    ).getResultList();
+
+                    // Entities changed while the query ran are already up to date, and are not overwritten.
+                    for (T entity : entities) loaded.load(entity);
+                    return loaded.loaded();
+                } finally {
+                    loading.remove(loaded);
+                }
+            });
+        } catch (PersistenceException e) {
+            throw new SQLException("Problem loading snapshot of " + entityClass.getName(), e);
+        }
+    }
+
+    /**
+     * Loaded entities of a snapshot, by identifier, and the equality indexes built on them.  Changes are made while
+     * holding the state's monitor; reads are not synchronized.
+     */
+    static final class State<T> {
+        private final PropertyAccessor idAccessor;
+        private final ConcurrentMap<Object, T> entities = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, EqualityIndex> indexes = new ConcurrentHashMap<>();
+        private Set<Object> changed = new HashSet<>();
+        private long loaded;
+
+        private State(PropertyAccessor idAccessor) {
+            this.idAccessor = idAccessor;
+        }
+
+        PropertyAccessor getIdAccessor() {
+            return idAccessor;
+        }
+
+        Collection<T> getEntities() {
+            return entities.values();
+        }
+
+        T get(Object id) {
+            return entities.get(id);
+        }
+
+        /**
+         * Finds the identifiers of the entities whose property equals a value under the in-memory collation, indexing
+         * the property if it is not yet indexed.  No entity's property equals null.
+         */
+        Set<Object> find(PropertyAccessor accessor, Object value) {
+            EqualityIndex index = indexes.get(accessor.getProperty());
+
+            if (index == null) {
+                synchronized (this) {
+                    index = indexes.get(accessor.getProperty());
+                    if (index == null) {
+                        index = new EqualityIndex(accessor);
+                        for (Map.Entry<Object, T> entry : entities.entrySet())
+                            index.put(entry.getKey(), entry.getValue());
+
+                        indexes.put(accessor.getProperty(), index);
+                    }
+                }
+            }
+
+            return index.get(value);
+        }
+
+        private synchronized void load(T entity) {
+            Object id = idAccessor.get(entity);
+            if (!changed.contains(id)) put(id, entity);
+        }
+
+        private synchronized State<T> loaded() {
+            changed = null;
+            loaded = System.currentTimeMillis();
+            return this;
+        }
+
+        private synchronized void save(T entity, boolean building) {
+            Object id = idAccessor.get(entity);
+            if (id == null) return;
+            if (building && changed != null) changed.add(id);
+            put(id, entity);
+        }
+
+        private void put(Object id, T entity) {
+            entities.put(id, entity);
+            for (EqualityIndex index : indexes.values()) index.put(id, entity);
+        }
+
+        private synchronized void delete(T entity, boolean building) {
+            Object id = idAccessor.get(entity);
+            if (id == null) return;
+            if (building && changed != null) changed.add(id);
+
+            entities.remove(id);
+            for (EqualityIndex index : indexes.values()) index.remove(id);
+        }
+    }
+
+    /**
+     * Index of entity identifiers by the value of a property.
+     */
+    private static final class EqualityIndex {
+        private final PropertyAccessor accessor;
+        private final ConcurrentMap<Object, Set<Object>> ids = new ConcurrentHashMap<>();
+        private final Map<Object, Object> keys = new HashMap<>();
+
+        private EqualityIndex(PropertyAccessor accessor) {
+            this.accessor = accessor;
+        }
+
+        private Set<Object> get(Object value) {
+            if (value == null) return Collections.emptySet();
+
+            Set<Object> found = ids.get(Collation.getKey(value));
+            return found == null ? Collections.emptySet() : Collections.unmodifiableSet(found);
+        }
+
+        private void put(Object id, Object entity) {
+            remove(id);
+
+            Object key = Collation.getKey(accessor.get(entity));
+            if (key == null) return;
+
+            keys.put(id, key);
+            ids.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+
+        private void remove(Object id) {
+            Object key = keys.remove(id);
+            if (key == null) return;
+
+            Set<Object> found = ids.get(key);
+            if (found == null) return;
+
+            found.remove(id);
+            if (found.isEmpty()) ids.remove(key, found);
+        }
+    }
+}
@@ -0,0 +1,444 @@
+package io.manebot.database.search.memory;
+
+import io.manebot.database.Database;
+import io.manebot.database.search.*;
+import io.manebot.database.search.handler.EvaluableSearchArgumentHandler;
+import io.manebot.database.search.handler.Evaluation;
+import io.manebot.database.search.handler.SearchArgumentHandler;
+import io.manebot.database.search.handler.SearchOrderHandler;
+import io.manebot.database.search.handler.SearchOrderHandlerProperty;
+
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Search handler evaluating the lexical clauses of a <b>Search</b> against an <b>EntitySnapshot</b> held in memory,
+ * rather than querying the database.  Suited to small entity sets which are searched often.
+ *
+ * Clauses are folded as the database would fold them: included predicates are OR'd, merged predicates are AND'd, and
+ * excluded predicates are AND NOT'd with the predicates preceding them.  Arguments whose handlers only compare a
+ * property for equality are looked up in an index of the property, and narrow the entities the rest of the search
+ * is tested against.  Results are sorted with nulls first in ascending order, and always by identifier last.
+ *
+ * Every handler and sort must be evaluable in memory: argument handlers must implement
+ * <b>EvaluableSearchArgumentHandler</b>, and sorts must be property sorts.  Builders with handlers which are not, or
+ * with <i>always</i> clauses, build the database's own search handler instead.
+ *
+ * Evaluation follows the database's semantics where it can.  Strings are equal, and contain one another, regardless
+ * of case, as they do under the case-insensitive collations databases use by default; see <b>Collation</b>.
+ * Comparisons with null properties are unknown, as they are in the database, and remain unknown when negated or
+ * excluded: entities whose properties are null match neither a comparison nor its negation.  Results are the entity
+ * instances held by the snapshot, shared between searches.  Every search is counted exactly, and paged by offset.
+ *
+ * @param <T> search entity type.
+ */
+public class MemorySearchHandler<T> implements SearchHandler<T> {
+    private final Database database;
+    private final Class<T> entityClass;
+    private final EntitySnapshot<T> snapshot;
+    private final Map<String, SearchArgumentHandler> arguments;
+    private final Map<String, SearchArgumentHandler> commands;
+    private final SearchArgumentHandler defaultCommandHandler;
+    private final SearchArgumentHandler stringHandler;
+    private final Map<String, PropertyAccessor> sorts;
+    private final Search.Order defaultOrder;
+
+    private MemorySearchHandler(Builder<T> builder) {
+        this.database = builder.database;
+        this.entityClass = builder.entityClass;
+        this.snapshot = EntitySnapshot.of(database, entityClass);
+        this.arguments = new HashMap<>(builder.arguments);
+        this.commands = new HashMap<>(builder.commands);
+        this.defaultCommandHandler = builder.defaultCommandHandler;
+        this.stringHandler = builder.stringHandler;
+        this.defaultOrder = builder.defaultOrder;
+
+        this.sorts = new HashMap<>();
+        for (Map.Entry<String, SearchOrderHandler> sort : builder.sorts.entrySet()) {
+            String property = ((SearchOrderHandlerProperty) sort.getValue()).getProperty();
+            sorts.put(sort.getKey(), PropertyAccessor.of(entityClass, property));
+        }
+    }
+
+    /**
+     * Creates a builder for a search handler over a given entity class.
+     * @param database database the entity class is registered to.
+     * @param entityClass entity class.
+     * @param <T> search entity type.
+     * @return Builder instance.
+     */
+    public static <T> Builder<T> builder(Database database, Class<T> entityClass) {
+        return new Builder<>(database, entityClass);
+    }
+
+    @Override
+    public Class<T> getEntityClass() {
+        return entityClass;
+    }
+
+    @Override
+    public Database getDatabase() {
+        return database;
+    }
+
+    @Override
+    public SearchArgumentHandler getArgumentHandler(String name) {
+        return arguments.get(name);
+    }
+
+    @Override
+    public SearchArgumentHandler getCommandHandler(String name) {
+        return commands.getOrDefault(name.toLowerCase(), defaultCommandHandler);
+    }
+
+    @Override
+    public SearchArgumentHandler getStringHandler() {
+        return stringHandler;
+    }
+
+    /**
+     * Gets the snapshot this handler searches.
+     * @return EntitySnapshot instance.
+     */
+    public EntitySnapshot<T> getSnapshot() {
+        return snapshot;
+    }
+
+    @Override
+    public SearchResult<T> search(Search search, int maxResults) throws SQLException, IllegalArgumentException {
+        if (maxResults <= 0) throw new IllegalArgumentException("Invalid page size: " + maxResults);
+
+        // Compiling the search validates every argument before the snapshot is loaded.
+        Plan<T> plan = compile(search.getLexicalClause().getActions());
+        Comparator<T> comparator = getComparator(search);
+
+        EntitySnapshot.State<T> state = snapshot.getState();
+        List<T> results = find(state, plan);
+        results.sort(comparator.thenComparing(getIdComparator(state)));
+
+        int page = Math.max(1, search.getPage());
+        int from = (int) Math.min(results.size(), (long) (page - 1) * maxResults);
+        int to = Math.min(results.size(), from + maxResults);
+
+        return new DefaultSearchResult<>(
+                search, this, results.size(), maxResults, page,
+                Collections.unmodifiableList(new ArrayList<>(results.subList(from, to)))
+        );
+    }
+
+    @Override
+    public SearchResult<T> random(Search search, int maxResults) throws SQLException, IllegalArgumentException {
+        Plan<T> plan = compile(search.getLexicalClause().getActions());
+        List<T> results = find(snapshot.getState(), plan);
+
+        if (results.isEmpty())
+            return new DefaultSearchResult<>(search, this, 0, maxResults, 1, Collections.emptyList());
+
+        T result = results.get(ThreadLocalRandom.current().nextInt(results.size()));
+        return new DefaultSearchResult<>(
+                search, this, results.size(), maxResults, 1, Collections.singletonList(result)
+        );
+    }
+
+    private List<T> find(EntitySnapshot.State<T> state, Plan<T> plan) {
+        List<T> results = new ArrayList<>();
+
+        if (plan == null) {
+            results.addAll(state.getEntities());
+        } else if (plan.candidates == null) {
+            for (T entity : state.getEntities())
+                if (plan.test.test(entity)) results.add(entity);
+        } else {
+            for (Object id : plan.candidates.apply(state)) {
+                T entity = state.get(id);
+                if (entity != null && plan.test.test(entity)) results.add(entity);
+            }
+        }
+
+        return results;
+    }
+
+    private Plan<T> compile(List<SearchPredicate> actions) throws IllegalArgumentException {
+        Plan<T> plan = null;
+
+        for (SearchPredicate action : actions) {
+            SearchOperator operator;
+            Plan<T> next;
+
+            if (action instanceof Search.PushedLexicalClause) {
+                Search.PushedLexicalClause clause = (Search.PushedLexicalClause) action;
+                operator = clause.getOperator();
+                next = compile(clause.getActions());
+                if (next == null) continue;
+            } else {
+                operator = action.getArgument().getOperator();
+                next = compilePredicate(action);
+            }
+
+            plan = plan == null ? (operator == SearchOperator.EXCLUDE ? next.not() : next) : plan.fold(operator, next);
+        }
+
+        return plan;
+    }
+
+    private Plan<T> compilePredicate(SearchPredicate action) throws IllegalArgumentException {
+        EvaluableSearchArgumentHandler handler;
+        SearchArgument argument;
+
+        if (action instanceof SearchPredicateArgument) {
+            handler = (EvaluableSearchArgumentHandler) ((SearchPredicateArgument) action).getHandler(this);
+            argument = ((SearchPredicateArgument) action).getHandlerArgument();
+        } else if (action instanceof SearchPredicateString) {
+            handler = (EvaluableSearchArgumentHandler) ((SearchPredicateString) action).getHandler(this);
+            argument = action.getArgument();
+        } else {
+            throw new IllegalArgumentException("Unexpected search predicate: " + action.getClass().getName());
+        }
+
+        Evaluation test = handler.evaluate(entityClass, argument);
+
+        String property = handler.getEqualityProperty();
+        if (property == null) return new Plan<>(test, null);
+
+        PropertyAccessor accessor = PropertyAccessor.of(entityClass, property);
+        Object value = handler.getEqualityValue(entityClass, argument);
+        return new Plan<>(test, state -> state.find(accessor, value));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Comparator<T> getComparator(Search search) throws IllegalArgumentException {
+        Collection<Search.Order> orders = search.getOrders().isEmpty() && defaultOrder != null ?
+                Collections.singletonList(defaultOrder) : search.getOrders();
+
+        Comparator<T> comparator = (a, b) -> 0;
+
+        for (Search.Order order : orders) {
+            PropertyAccessor accessor = sorts.get(order.getKey().toLowerCase());
+            if (accessor == null) throw new IllegalArgumentException("Unexpected sort: \"" + order.getKey() + "\".");
+
+            Comparator<T> next = Comparator.comparing(
+                    entity -> (Comparable) accessor.get(entity),
+                    Comparator.nullsFirst(Comparator.naturalOrder())
+            );
+
+            comparator = comparator.thenComparing(order.getOrder() == SortOrder.DESCENDING ? next.reversed() : next);
+        }
+
+        return comparator;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Comparator<T> getIdComparator(EntitySnapshot.State<T> state) {
+        PropertyAccessor idAccessor = state.getIdAccessor();
+        if (!Comparable.class.isAssignableFrom(idAccessor.getType())) return (a, b) -> 0;
+
+        return Comparator.comparing(
+                entity -> (Comparable) idAccessor.get(entity),
+                Comparator.nullsFirst(Comparator.naturalOrder())
+        );
+    }
+
+    /**
+     * Compiled predicate of a search or clause: a test of entities, and where it can be narrowed, a lookup of the
+     * identifiers of every entity which may pass the test.
+     */
+    private static final class Plan<T> {
+        private final Evaluation test;
+        private final Function<EntitySnapshot.State<T>, Set<Object>> candidates;
+
+        private Plan(Evaluation test, Function<EntitySnapshot.State<T>, Set<Object>> candidates) {
+            this.test = test;
+            this.candidates = candidates;
+        }
+
+        private Plan<T> not() {
+            return new Plan<>(test.not(), null);
+        }
+
+        private Plan<T> fold(SearchOperator operator, Plan<T> next) {
+            switch (operator) {
+                case INCLUDE:
+                    return new Plan<>(test.or(next.test), candidates == null || next.candidates == null ? null :
+                            state -> {
+                                Set<Object> union = new HashSet<>(candidates.apply(state));
+                                union.addAll(next.candidates.apply(state));
+                                return union;
+                            });
+                case EXCLUDE:
+                    return new Plan<>(test.and(next.test.not()), candidates);
+                default:
+                    if (candidates == null || next.candidates == null)
+                        return new Plan<>(test.and(next.test), candidates == null ? next.candidates : candidates);
+
+                    // Both sides are tested regardless; the smaller set of candidates is the cheaper to visit.
+                    return new Plan<>(test.and(next.test), state -> {
+                        Set<Object> first = candidates.apply(state), second = next.candidates.apply(state);
+                        return first.size() <= second.size() ? first : second;
+                    });
+            }
+        }
+    }
+
+    /**
+     * Builds in-memory search handlers.  Where any handler, sort or clause cannot be evaluated in memory, the builder
+     * builds the database's own search handler with the same bindings instead.
+     * @param <T> search entity type.
+     */
+    public static class Builder<T> implements SearchHandler.Builder<T> {
+        private final Database database;
+        private final Class<T> entityClass;
+        private final Map<String, SearchArgumentHandler> arguments = new HashMap<>();
+        private final Map<String, SearchArgumentHandler> commands = new HashMap<>();
+        private final List<Consumer<Clause<T>>> always = new ArrayList<>();
+        private final Map<String, SearchOrderHandler> sorts = new HashMap<>();
+        private SearchArgumentHandler defaultCommandHandler;
+        private SearchArgumentHandler stringHandler;
+        private Search.Order defaultOrder;
+        private Pagination pagination = Pagination.OFFSET;
+        private CountMode countMode = CountMode.EXACT;
+        private Integer countCap;
+        private Sampling sampling = Sampling.OFFSET;
+
+        private Builder(Database database, Class<T> entityClass) {
+            this.database = database;
+            this.entityClass = entityClass;
+        }
+
+        @Override
+        public Builder<T> argument(String name, SearchArgumentHandler handler) {
+            arguments.put(name, handler);
+            return this;
+        }
+
+        @Override
+        public Builder<T> command(String name, SearchArgumentHandler handler) {
+            commands.put(name.toLowerCase(), handler);
+            return this;
+        }
+
+        @Override
+        public Builder<T> command(SearchArgumentHandler handler) {
+            this.defaultCommandHandler = handler;
+            return this;
+        }
+
+        @Override
+        public Builder<T> string(SearchArgumentHandler handler) {
+            this.stringHandler = handler;
+            return this;
+        }
+
+        @Override
+        public Builder<T> always(Consumer<Clause<T>> executionConsumer) {
+            always.add(executionConsumer);
+            return this;
+        }
+
+        @Override
+        public Builder<T> sort(String key, SearchOrderHandler handler) {
+            sorts.put(key.toLowerCase(), handler);
+            return this;
+        }
+
+        @Override
+        public Builder<T> defaultSort(String key, SortOrder order) {
+            this.defaultOrder = new Search.DefaultOrder(key, order);
+            return this;
+        }
+
+        /**
+         * Sets the pagination mode used by searches, should this builder build the database's search handler.
+         * In-memory searches are paged by offset.
+         * @param pagination pagination mode.
+         * @return Builder instance.
+         */
+        @Override
+        public Builder<T> pagination(Pagination pagination) {
+            this.pagination = Objects.requireNonNull(pagination);
+            return this;
+        }
+
+        /**
+         * Sets how searches count their total results, should this builder build the database's search handler.
+         * In-memory searches are counted exactly.
+         * @param countMode count mode.
+         * @return Builder instance.
+         */
+        @Override
+        public Builder<T> count(CountMode countMode) {
+            this.countMode = Objects.requireNonNull(countMode);
+            return this;
+        }
+
+        /**
+         * Sets the cap total results are counted up to, should this builder build the database's search handler.
+         * @param cap count cap.
+         * @return Builder instance.
+         */
+        @Override
+        public Builder<T> countCap(int cap) {
+            if (cap < 0) throw new IllegalArgumentException("Invalid count cap: " + cap);
+            this.countCap = cap;
+            return this;
+        }
+
+        /**
+         * Sets how random results are sampled, should this builder build the database's search handler.  In-memory
+         * searches sample uniformly from their results.
+         * @param sampling sampling mode.
+         * @return Builder instance.
+         */
+        @Override
+        public Builder<T> sampling(Sampling sampling) {
+            this.sampling = Objects.requireNonNull(sampling);
+            return this;
+        }
+
+        /**
+         * Finds if every handler, sort and clause bound to this builder can be evaluated in memory.
+         * @return true if an in-memory search handler can be built, false otherwise.
+         */
+        public boolean isEvaluable() {
+            if (!always.isEmpty()) return false;
+
+            List<SearchArgumentHandler> handlers = new ArrayList<>(arguments.values());
+            handlers.addAll(commands.values());
+            if (defaultCommandHandler != null) handlers.add(defaultCommandHandler);
+            if (stringHandler != null) handlers.add(stringHandler);
+
+            for (SearchArgumentHandler handler : handlers)
+                if (!EvaluableSearchArgumentHandler.isEvaluable(handler)) return false;
+
+            for (SearchOrderHandler sort : sorts.values())
+                if (!(sort instanceof SearchOrderHandlerProperty)
+                        || ((SearchOrderHandlerProperty) sort).getProperty() == null) return false;
+
+            return true;
+        }
+
+        @Override
+        public SearchHandler<T> build() throws IllegalArgumentException {
+            if (defaultOrder != null && !sorts.containsKey(defaultOrder.getKey().toLowerCase()))
+                throw new IllegalArgumentException("Unknown default sort: \"" + defaultOrder.getKey() + "\".");
+
+            if (isEvaluable()) return new MemorySearchHandler<>(this);
+
+            SearchHandler.Builder<T> builder = database.createSearchHandler(entityClass);
+            arguments.forEach(builder::argument);
+            commands.forEach(builder::command);
+            if (defaultCommandHandler != null) builder.command(defaultCommandHandler);
+            if (stringHandler != null) builder.string(stringHandler);
+            always.forEach(builder::always);
+            sorts.forEach(builder::sort);
+            if (defaultOrder != null) builder.defaultSort(defaultOrder.getKey(), defaultOrder.getOrder());
+            if (pagination != Pagination.OFFSET) builder.pagination(pagination);
+            if (countMode != CountMode.EXACT) builder.count(countMode);
+            if (countCap != null) builder.countCap(countCap);
+            if (sampling != Sampling.OFFSET) builder.sampling(sampling);
+            return builder.build();
+        }
+    }
+}
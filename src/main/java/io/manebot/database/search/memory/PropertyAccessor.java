@@ -0,0 +1,145 @@
+package io.manebot.database.search.memory;
+
+import com.google.common.collect.MapMaker;
+import com.google.common.primitives.Primitives;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads a property of entities by reflection.  Properties are read from the field of the same name, as JPA reads
+ * them, or from a getter where there is no such field.  Nested properties are separated by periods, as they are in
+ * JPQL paths.
+ */
+public final class PropertyAccessor {
+    private static final Map<Class<?>, Map<String, PropertyAccessor>> accessors = new MapMaker().weakKeys().makeMap();
+
+    private final String property;
+    private final Class<?> type;
+    private final MethodHandle getter;
+    private final PropertyAccessor next;
+
+    private PropertyAccessor(String property, Class<?> type, MethodHandle getter, PropertyAccessor next) {
+        this.property = property;
+        this.type = type;
+        this.getter = getter;
+        this.next = next;
+    }
+
+    /**
+     * Gets the accessor of a property of an entity class.
+     * @param entityClass entity class.
+     * @param property property name, or period-separated path of property names.
+     * @return PropertyAccessor instance.
+     * @throws IllegalArgumentException if the entity class has no such property.
+     */
+    public static PropertyAccessor of(Class<?> entityClass, String property) throws IllegalArgumentException {
+        Map<String, PropertyAccessor> classAccessors =
+                accessors.computeIfAbsent(entityClass, key -> new ConcurrentHashMap<>());
+
+        PropertyAccessor accessor = classAccessors.get(property);
+        if (accessor == null) {
+            accessor = create(entityClass, property);
+            classAccessors.putIfAbsent(property, accessor);
+        }
+
+        return accessor;
+    }
+
+    private static PropertyAccessor create(Class<?> entityClass, String property) throws IllegalArgumentException {
+        int separator = property.indexOf('.');
+        String name = separator < 0 ? property : property.substring(0, separator);
+
+        MethodHandle getter;
+        Class<?> type;
+
+        try {
+            Field field = findField(entityClass, name);
+            if (field != null) {
+                field.setAccessible(true);
+                getter = MethodHandles.lookup().unreflectGetter(field);
+                type = field.getType();
+            } else {
+                Method method = findGetter(entityClass, name);
+                if (method == null)
+                    throw new IllegalArgumentException(
+                            "Unknown property of " + entityClass.getName() + ": \"" + name + "\"."
+                    );
+
+                method.setAccessible(true);
+                getter = MethodHandles.lookup().unreflect(method);
+                type = method.getReturnType();
+            }
+        } catch (IllegalAccessException | RuntimeException e) {
+            if (e instanceof IllegalArgumentException) throw (IllegalArgumentException) e;
+            throw new IllegalArgumentException("Cannot access property \"" + name + "\"", e);
+        }
+
+        getter = getter.asType(getter.type().changeParameterType(0, Object.class).changeReturnType(Object.class));
+        PropertyAccessor next = separator < 0 ? null : of(type, property.substring(separator + 1));
+        return new PropertyAccessor(property, type, getter, next);
+    }
+
+    private static Field findField(Class<?> c, String name) {
+        for (; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields())
+                if (field.getName().equals(name) && !Modifier.isStatic(field.getModifiers())) return field;
+        }
+
+        return null;
+    }
+
+    private static Method findGetter(Class<?> c, String name) {
+        String suffix = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+
+        for (; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Method method : c.getDeclaredMethods()) {
+                if (method.getParameterCount() != 0 || Modifier.isStatic(method.getModifiers())) continue;
+                if (method.getName().equals("get" + suffix) || method.getName().equals("is" + suffix)) return method;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Gets the name of the property read by this accessor.
+     * @return property name.
+     */
+    public String getProperty() {
+        return property;
+    }
+
+    /**
+     * Gets the type of the property read by this accessor, with primitive types wrapped.
+     * @return property type.
+     */
+    public Class<?> getType() {
+        return next != null ? next.getType() : Primitives.wrap(type);
+    }
+
+    /**
+     * Reads the property of an entity.
+     * @param entity entity.
+     * @return property value, or null if the entity, or any property on the path to the property, is null.
+     */
+    public Object get(Object entity) {
+        if (entity == null) return null;
+
+        Object value;
+        try {
+            value = getter.invokeExact(entity);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Problem reading property \"" + property + "\"", e);
+        }
+
+        return next != null ? next.get(value) : value;
+    }
+}
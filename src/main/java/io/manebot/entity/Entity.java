@@ -6,6 +6,7 @@ import io.manebot.security.GrantedPermission;
 import io.manebot.security.Permission;
 
 import java.util.Collection;
+import java.util.function.Consumer;
 
 public interface Entity {
 
@@ -28,6 +29,15 @@ public interface Entity {
      */
     Property getProperty(String id);
 
+    /**
+     * Edits several properties of this entity at once.  Changes made through the batch are applied together when
+     * <b>editor</b> returns, in a single transaction where supported.
+     * @param editor editor function, setting or unsetting properties obtained from the batch.
+     */
+    default void editProperties(Consumer<Property.Batch> editor) {
+        editor.accept(this::getProperty);
+    }
+
     /**
      * Gets a specific pre-existing grant for this entity.
      * @param node permission node to check for.
@@ -0,0 +1,207 @@
+package io.manebot.event;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Buffers events for an <b>EventBatch</b> method, and executes it with each batch through a method handle bound to
+ * its listener when it is registered.
+ */
+final class BatchEventExecutor implements EventExecutor {
+    private static final MethodType HANDLER_TYPE = MethodType.methodType(void.class, List.class);
+
+    private static final ScheduledExecutorService windows = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "EventBatch-window");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final EventListener listener;
+    private final Class<? extends Event> eventClass;
+    private final EventBatch batch;
+    private final MethodHandle handle;
+    private final Supplier<Executor> pool;
+    private final Consumer<EventExecutionException> failureHandler;
+
+    private final Object bufferLock = new Object();
+    private Map<Object, Event> buffer = new LinkedHashMap<>();
+    private ScheduledFuture<?> window;
+    private boolean running = false;
+
+    private BatchEventExecutor(EventListener listener,
+                               Class<? extends Event> eventClass,
+                               EventBatch batch,
+                               MethodHandle handle,
+                               Supplier<Executor> pool,
+                               Consumer<EventExecutionException> failureHandler) {
+        this.listener = listener;
+        this.eventClass = eventClass;
+        this.batch = batch;
+        this.handle = handle;
+        this.pool = pool;
+        this.failureHandler = failureHandler;
+    }
+
+    /**
+     * Binds a batch handler method to its listener.
+     * @param listener listener declaring the method.
+     * @param method batch handler method, accepting a single list of events.
+     * @param batch batch annotation of the method.
+     * @param pool supplier of the pool to execute batches on.
+     * @param failureHandler handler of failures executing batches.
+     * @return bound executor.
+     * @throws IllegalArgumentException if the method does not accept a single list of events, or cannot be accessed.
+     */
+    @SuppressWarnings("unchecked")
+    static BatchEventExecutor bind(EventListener listener, Method method, EventBatch batch,
+                                   Supplier<Executor> pool, Consumer<EventExecutionException> failureHandler) {
+        String name = method.getDeclaringClass().getName() + "." + method.getName();
+
+        if (batch.window() < 0L) throw new IllegalArgumentException("window cannot be < 0");
+        if (batch.maximumSize() <= 0) throw new IllegalArgumentException("maximumSize cannot be <= 0");
+
+        Class<?> eventClass = method.getParameterCount() == 1 && method.getParameterTypes()[0] == List.class ?
+                getElementClass(method.getGenericParameterTypes()[0]) : null;
+
+        if (eventClass == null || !Event.class.isAssignableFrom(eventClass))
+            throw new IllegalArgumentException(
+                    "event batch handler " + name + " must accept a single List of " + Event.class.getName()
+            );
+
+        MethodHandle handle;
+        try {
+            method.setAccessible(true);
+            handle = MethodHandles.lookup().unreflect(method).bindTo(listener).asType(HANDLER_TYPE);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw new IllegalArgumentException("problem binding event batch handler " + name, e);
+        }
+
+        return new BatchEventExecutor(
+                listener,
+                (Class<? extends Event>) eventClass,
+                batch,
+                handle,
+                pool,
+                failureHandler
+        );
+    }
+
+    private static Class<?> getElementClass(Type listType) {
+        if (!(listType instanceof ParameterizedType)) return null;
+
+        Type elementType = ((ParameterizedType) listType).getActualTypeArguments()[0];
+        if (elementType instanceof WildcardType) elementType = ((WildcardType) elementType).getUpperBounds()[0];
+        if (elementType instanceof TypeVariable) elementType = ((TypeVariable<?>) elementType).getBounds()[0];
+        if (elementType instanceof ParameterizedType) elementType = ((ParameterizedType) elementType).getRawType();
+
+        return elementType instanceof Class ? (Class<?>) elementType : null;
+    }
+
+    /**
+     * Gets the event class this executor buffers, including its subclasses.
+     * @return event class.
+     */
+    Class<? extends Event> getEventClass() {
+        return eventClass;
+    }
+
+    /**
+     * Buffers an event for the next batch.
+     * @param event Event to buffer.
+     */
+    @Override
+    public void fire(Event event) {
+        Object key = event instanceof BatchableEvent ? ((BatchableEvent) event).getCoalescingKey() : null;
+
+        synchronized (bufferLock) {
+            // Coalesced events take the position of the last event buffered for their key.
+            if (key == null) buffer.put(new Object(), event);
+            else {
+                buffer.remove(key);
+                buffer.put(key, event);
+            }
+
+            if (running) return;
+
+            if (buffer.size() >= batch.maximumSize() || batch.window() <= 0L) {
+                if (window != null) {
+                    window.cancel(false);
+                    window = null;
+                }
+
+                start();
+            } else if (window == null) {
+                window = windows.schedule(this::onWindow, batch.window(), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void onWindow() {
+        synchronized (bufferLock) {
+            window = null;
+            if (running || buffer.isEmpty()) return;
+            start();
+        }
+    }
+
+    /**
+     * Starts executing batches on the pool; must be called while holding the buffer lock.
+     */
+    private void start() {
+        running = true;
+
+        try {
+            pool.get().execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            running = false;
+            int dropped = buffer.size();
+            buffer = new LinkedHashMap<>();
+
+            failureHandler.accept(new EventExecutionException(
+                    "batch of " + dropped + " event(s) for " + listener.getClass().getName() +
+                    " could not be scheduled",
+                    e
+            ));
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            List<Event> events;
+
+            synchronized (bufferLock) {
+                if (buffer.isEmpty()) {
+                    running = false;
+                    return;
+                }
+
+                events = Collections.unmodifiableList(new ArrayList<>(buffer.values()));
+                buffer = new LinkedHashMap<>();
+            }
+
+            try {
+                handle.invokeExact(events);
+            } catch (EventExecutionException e) {
+                failureHandler.accept(e);
+            } catch (Throwable e) {
+                failureHandler.accept(new EventExecutionException(e));
+            }
+        }
+    }
+
+    @Override
+    public EventListener getListener() {
+        return listener;
+    }
+
+    @Override
+    public EventPriority getPriority() {
+        return batch.priority();
+    }
+}
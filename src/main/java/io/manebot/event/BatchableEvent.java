@@ -0,0 +1,15 @@
+package io.manebot.event;
+
+/**
+ * Event which may be coalesced with other events in the batches of <b>EventBatch</b> handlers.
+ */
+public interface BatchableEvent {
+
+    /**
+     * Gets the key this event coalesces on.  A batch holds only the last event buffered for each key, such as the last
+     * state of a chat.
+     * @return coalescing key, or null if this event is never coalesced.
+     */
+    Object getCoalescingKey();
+
+}
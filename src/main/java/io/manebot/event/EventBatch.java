@@ -0,0 +1,40 @@
+package io.manebot.event;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a listener method accepting a single <b>List</b> of events as a batch handler.  Events accepted by the list's
+ * element type are buffered, and the handler receives them together once the batch window has passed since the first
+ * of them was buffered, or once the batch is full.
+ *
+ * Events implementing <b>BatchableEvent</b> with equal coalescing keys replace each other in a batch, so that only
+ * the last of them is received, in the position it was buffered in.  Batches are received in order, one at a time,
+ * on a pool thread; events are only buffered once every synchronous handler has run, and not if a CheckedEvent was
+ * canceled.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface EventBatch {
+
+    /**
+     * The batch handler's priority, ordering it among other batch handlers buffering the same event.
+     * @return Priority.
+     */
+    EventPriority priority() default EventPriority.NORMAL;
+
+    /**
+     * Time to buffer events for, after the first event of a batch.
+     * @return batch window, in milliseconds.
+     */
+    long window() default 100L;
+
+    /**
+     * Count of events after which a batch is received without waiting for its window.
+     * @return maximum batch size.
+     */
+    int maximumSize() default 1000;
+
+}
@@ -20,4 +20,20 @@ public interface EventExecutor {
      */
     EventPriority getPriority();
 
+    /**
+     * Finds if this executor runs asynchronously, after the synchronous executors of an event.
+     * @return true if this executor is asynchronous, false otherwise.
+     */
+    default boolean isAsync() {
+        return false;
+    }
+
+    /**
+     * Gets the time this executor may run for when it runs asynchronously.
+     * @return timeout, in milliseconds, or 0 for no timeout.
+     */
+    default long getTimeout() {
+        return 0L;
+    }
+
 }
\ No newline at end of file
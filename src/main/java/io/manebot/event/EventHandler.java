@@ -15,4 +15,18 @@ public @interface EventHandler {
      */
     EventPriority priority() default EventPriority.NORMAL;
 
+    /**
+     * Whether the handler runs on a shared pool rather than on the thread firing the event.  Asynchronous handlers run
+     * after every synchronous handler has run, regardless of their priority, and are not run if a CheckedEvent was
+     * canceled by a synchronous handler; they cannot cancel the event themselves.
+     * @return true if the handler runs asynchronously, false otherwise.
+     */
+    boolean async() default false;
+
+    /**
+     * Time an asynchronous handler may run for before it is interrupted and reported as failed.
+     * @return timeout, in milliseconds, or 0 for no timeout.
+     */
+    long timeout() default 0L;
+
 }
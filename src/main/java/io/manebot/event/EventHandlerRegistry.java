@@ -0,0 +1,422 @@
+package io.manebot.event;
+
+import com.google.common.collect.MapMaker;
+import io.manebot.virtual.Virtual;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Registry of the <b>EventHandler</b> methods of listeners, for <b>EventManager</b> and <b>EventDispatcher</b>
+ * implementations.
+ *
+ * Handler methods are bound to method handles when their listener is registered.  The executors for each event class
+ * are resolved the first time an event of that class is dispatched: every executor whose handler accepts the class or
+ * one of its supertypes, ordered by priority, then by registration.  Resolved executors are kept in an array per
+ * event class, which is discarded and resolved again whenever a listener is registered or unregistered, so
+ * dispatching an event only iterates its class's array.
+ *
+ * Synchronous executors run on the thread firing the event, in order.  Asynchronous executors then each run as their
+ * own task on a bounded pool, unless a synchronous executor canceled the event; an asynchronous executor which fails,
+ * times out, or cannot be scheduled does not affect the others.
+ *
+ * Every invocation is recorded in the registry's <b>EventMetrics</b>.
+ *
+ * <b>EventBatch</b> methods of listeners are bound the same way.  Once an event has passed the synchronous executors
+ * without being canceled, it is buffered by each batch executor of its class, which receives its buffered events
+ * together on the pool, coalescing them by their <b>BatchableEvent</b> keys.
+ */
+public final class EventHandlerRegistry {
+    private static final EventExecutor[] NO_EXECUTORS = new EventExecutor[0];
+    private static final EventMetrics.ExecutorMetrics[] NO_METRICS = new EventMetrics.ExecutorMetrics[0];
+    private static final Stages NO_STAGES =
+            new Stages(NO_EXECUTORS, NO_EXECUTORS, NO_METRICS, NO_EXECUTORS, NO_METRICS, NO_EXECUTORS);
+
+    /**
+     * Count of asynchronous executions which may wait for the shared pool.
+     */
+    private static final int MAXIMUM_QUEUED = 1024;
+
+    private static final Comparator<EventExecutor> PRIORITY_ORDER =
+            Comparator.comparingInt((EventExecutor executor) -> executor.getPriority().getOrderId())
+                    .reversed();
+
+    private static final ScheduledExecutorService timeouts = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "EventHandlerRegistry-timeout");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final class SharedPool {
+        private static final ExecutorService instance = createPool();
+
+        private static ExecutorService createPool() {
+            int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+            AtomicInteger count = new AtomicInteger();
+
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                    threads, threads,
+                    60L, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(MAXIMUM_QUEUED),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "EventHandlerRegistry-" + count.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+            );
+
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+
+    private final Object registrationLock = new Object();
+    private final Map<EventListener, List<MethodHandleEventExecutor>> listeners = new LinkedHashMap<>();
+    private final Map<EventListener, List<BatchEventExecutor>> batches = new HashMap<>();
+    private volatile Map<Class<?>, Stages> executors = new MapMaker().weakKeys().makeMap();
+
+    private final ExecutorService asyncExecutor;
+    private final EventMetrics metrics;
+    private volatile Consumer<EventExecutionException> asyncFailureHandler = EventHandlerRegistry::logFailure;
+
+    /**
+     * Creates a registry running asynchronous executors on a pool shared by every registry created this way.
+     */
+    public EventHandlerRegistry() {
+        this(null, new EventMetrics());
+    }
+
+    /**
+     * Creates a registry running asynchronous executors on a given pool.
+     * @param asyncExecutor pool to run asynchronous executors on, or null to use the shared pool.
+     */
+    public EventHandlerRegistry(ExecutorService asyncExecutor) {
+        this(asyncExecutor, new EventMetrics());
+    }
+
+    /**
+     * Creates a registry running asynchronous executors on a given pool, and recording invocations in given metrics.
+     * @param asyncExecutor pool to run asynchronous executors on, or null to use the shared pool.
+     * @param metrics metrics to record invocations in.
+     */
+    public EventHandlerRegistry(ExecutorService asyncExecutor, EventMetrics metrics) {
+        this.asyncExecutor = asyncExecutor;
+        this.metrics = Objects.requireNonNull(metrics);
+    }
+
+    /**
+     * Gets the metrics invocations are recorded in.
+     * @return EventMetrics instance.
+     */
+    public EventMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Sets the handler of failures of asynchronous executors run by <b>execute</b>, and of batch executors.  By
+     * default, failures are logged.
+     * @param asyncFailureHandler failure handler.
+     */
+    public void setAsyncFailureHandler(Consumer<EventExecutionException> asyncFailureHandler) {
+        this.asyncFailureHandler = Objects.requireNonNull(asyncFailureHandler);
+    }
+
+    /**
+     * Registers the event handler methods of a listener.
+     * @param listener listener to register.
+     * @throws IllegalArgumentException if the listener is already registered, or has an invalid handler method.
+     */
+    public void registerListener(EventListener listener) {
+        List<MethodHandleEventExecutor> handlers = new ArrayList<>();
+        List<BatchEventExecutor> batchHandlers = new ArrayList<>(0);
+
+        for (Method method : listener.getClass().getMethods()) {
+            EventHandler handler = method.getAnnotation(EventHandler.class);
+            if (handler != null) handlers.add(MethodHandleEventExecutor.bind(listener, method, handler));
+
+            EventBatch batch = method.getAnnotation(EventBatch.class);
+            if (batch != null) batchHandlers.add(BatchEventExecutor.bind(
+                    listener, method, batch,
+                    this::getAsyncExecutor,
+                    failure -> asyncFailureHandler.accept(failure)
+            ));
+        }
+
+        synchronized (registrationLock) {
+            if (listeners.containsKey(listener))
+                throw new IllegalArgumentException("listener already registered");
+
+            listeners.put(listener, Collections.unmodifiableList(handlers));
+            if (!batchHandlers.isEmpty()) batches.put(listener, Collections.unmodifiableList(batchHandlers));
+            executors = new MapMaker().weakKeys().makeMap();
+        }
+    }
+
+    /**
+     * Unregisters the event handler methods of a listener.
+     * @param listener listener to unregister.
+     * @return true if the listener was registered, false otherwise.
+     */
+    public boolean unregisterListener(EventListener listener) {
+        synchronized (registrationLock) {
+            if (listeners.remove(listener) == null) return false;
+            batches.remove(listener);
+            executors = new MapMaker().weakKeys().makeMap();
+            metrics.remove(listener);
+            return true;
+        }
+    }
+
+    /**
+     * Gets the registered listeners.
+     * @return immutable collection of listeners, in registration order.
+     */
+    public Collection<EventListener> getListeners() {
+        synchronized (registrationLock) {
+            return Collections.unmodifiableList(new ArrayList<>(listeners.keySet()));
+        }
+    }
+
+    /**
+     * Gets the executors of an event class.
+     * @param eventClass event class.
+     * @return immutable list of executors, in priority order, followed by batch executors in priority order.
+     */
+    public List<EventExecutor> getExecutors(Class<? extends Event> eventClass) {
+        return Collections.unmodifiableList(Arrays.asList(resolve(eventClass).all));
+    }
+
+    /**
+     * Executes an event on each of its class's synchronous executors, in order, then schedules its asynchronous
+     * executors and buffers it for its batch executors.  Failures of asynchronous executors are passed to the
+     * asynchronous failure handler.
+     * @param event event to execute.
+     * @param <T> event type.
+     * @return event.
+     * @throws EventExecutionException if a synchronous executor failed; later executors are not executed.
+     */
+    public <T extends Event> T execute(T event) throws EventExecutionException {
+        Stages stages = resolve(event.getClass());
+
+        for (int i = 0; i < stages.sync.length; i ++) stages.syncMetrics[i].fire(stages.sync[i], event);
+        if ((stages.async.length > 0 || stages.batch.length > 0) && !isCanceled(event)) {
+            for (int i = 0; i < stages.async.length; i ++)
+                fireAsync(stages.async[i], stages.asyncMetrics[i], event).whenComplete(this::onAsyncComplete);
+            for (EventExecutor batch : stages.batch) batch.fire(event);
+        }
+
+        return event;
+    }
+
+    /**
+     * Executes an event on each of its class's synchronous executors, in order, then schedules its asynchronous
+     * executors and buffers it for its batch executors.
+     * @param event event to execute.
+     * @param <T> event type.
+     * @return future completed with the event once every asynchronous executor has run, without waiting for batches,
+     *         or exceptionally with an EventExecutionException if any failed; further failures are suppressed by it.
+     * @throws EventExecutionException if a synchronous executor failed; later executors are not executed.
+     */
+    public <T extends Event> CompletableFuture<T> executeAsync(T event) throws EventExecutionException {
+        Stages stages = resolve(event.getClass());
+
+        for (int i = 0; i < stages.sync.length; i ++) stages.syncMetrics[i].fire(stages.sync[i], event);
+        if (isCanceled(event)) return CompletableFuture.completedFuture(event);
+
+        for (EventExecutor batch : stages.batch) batch.fire(event);
+        if (stages.async.length <= 0) return CompletableFuture.completedFuture(event);
+
+        List<EventExecutionException> failures = Collections.synchronizedList(new ArrayList<>());
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[stages.async.length];
+        for (int i = 0; i < futures.length; i ++)
+            futures[i] = fireAsync(stages.async[i], stages.asyncMetrics[i], event).whenComplete((result, failure) -> {
+                if (failure != null) failures.add((EventExecutionException) failure);
+            });
+
+        CompletableFuture<T> completed = new CompletableFuture<>();
+        CompletableFuture.allOf(futures).whenComplete((result, ignored) -> {
+            if (failures.isEmpty()) {
+                completed.complete(event);
+            } else {
+                EventExecutionException failure = failures.get(0);
+                for (int i = 1; i < failures.size(); i ++) failure.addSuppressed(failures.get(i));
+                completed.completeExceptionally(failure);
+            }
+        });
+
+        return completed;
+    }
+
+    private CompletableFuture<Void> fireAsync(EventExecutor executor,
+                                              EventMetrics.ExecutorMetrics executorMetrics,
+                                              Event event) {
+        AsyncExecution execution = new AsyncExecution(executor, executorMetrics, event);
+
+        try {
+            execution.task = getAsyncExecutor().submit(execution);
+        } catch (RejectedExecutionException e) {
+            executorMetrics.fail();
+            execution.completeExceptionally(new EventExecutionException(
+                    "event handler of " + executor.getListener().getClass().getName() + " could not be scheduled",
+                    e
+            ));
+        }
+
+        return execution;
+    }
+
+    private ExecutorService getAsyncExecutor() {
+        return asyncExecutor == null ? SharedPool.instance : asyncExecutor;
+    }
+
+    private void onAsyncComplete(Void result, Throwable failure) {
+        if (failure != null) asyncFailureHandler.accept((EventExecutionException) failure);
+    }
+
+    private static boolean isCanceled(Event event) {
+        return event instanceof CheckedEvent && ((CheckedEvent) event).isCanceled();
+    }
+
+    private static void logFailure(EventExecutionException failure) {
+        Virtual virtual = Virtual.getInstance();
+        Logger logger = virtual == null ? Logger.getGlobal() : virtual.getLogger();
+        logger.log(Level.WARNING, "Problem executing asynchronous event handler", failure);
+    }
+
+    private Stages resolve(Class<? extends Event> eventClass) {
+        Stages resolved = executors.get(eventClass);
+        if (resolved != null) return resolved;
+
+        synchronized (registrationLock) {
+            List<MethodHandleEventExecutor> matching = new ArrayList<>();
+            for (List<MethodHandleEventExecutor> handlers : listeners.values())
+                for (MethodHandleEventExecutor handler : handlers)
+                    if (handler.getEventClass().isAssignableFrom(eventClass)) matching.add(handler);
+
+            List<BatchEventExecutor> matchingBatches = new ArrayList<>(0);
+            for (List<BatchEventExecutor> batchHandlers : batches.values())
+                for (BatchEventExecutor batchHandler : batchHandlers)
+                    if (batchHandler.getEventClass().isAssignableFrom(eventClass)) matchingBatches.add(batchHandler);
+
+            // Sorting is stable, so executors of equal priority keep their registration order.
+            matching.sort(PRIORITY_ORDER);
+            matchingBatches.sort(PRIORITY_ORDER);
+
+            if (matching.isEmpty() && matchingBatches.isEmpty()) {
+                resolved = NO_STAGES;
+            } else {
+                List<EventExecutor> sync = new ArrayList<>(matching.size());
+                List<EventMetrics.ExecutorMetrics> syncMetrics = new ArrayList<>(matching.size());
+                List<EventExecutor> async = new ArrayList<>(0);
+                List<EventMetrics.ExecutorMetrics> asyncMetrics = new ArrayList<>(0);
+
+                for (EventExecutor executor : matching) {
+                    (executor.isAsync() ? async : sync).add(executor);
+                    (executor.isAsync() ? asyncMetrics : syncMetrics).add(metrics.get(eventClass, executor));
+                }
+
+                List<EventExecutor> all = new ArrayList<>(matching.size() + matchingBatches.size());
+                all.addAll(matching);
+                all.addAll(matchingBatches);
+
+                resolved = new Stages(
+                        all.toArray(NO_EXECUTORS),
+                        sync.toArray(NO_EXECUTORS),
+                        syncMetrics.toArray(NO_METRICS),
+                        async.toArray(NO_EXECUTORS),
+                        asyncMetrics.toArray(NO_METRICS),
+                        matchingBatches.toArray(NO_EXECUTORS)
+                );
+            }
+
+            executors.put(eventClass, resolved);
+        }
+
+        return resolved;
+    }
+
+    /**
+     * Executors of an event class: all of them, in priority order, and split into those run on the firing thread,
+     * those run asynchronously, and those buffering the event for a batch.
+     */
+    private static final class Stages {
+        private final EventExecutor[] all;
+        private final EventExecutor[] sync;
+        private final EventMetrics.ExecutorMetrics[] syncMetrics;
+        private final EventExecutor[] async;
+        private final EventMetrics.ExecutorMetrics[] asyncMetrics;
+        private final EventExecutor[] batch;
+
+        private Stages(EventExecutor[] all,
+                       EventExecutor[] sync, EventMetrics.ExecutorMetrics[] syncMetrics,
+                       EventExecutor[] async, EventMetrics.ExecutorMetrics[] asyncMetrics,
+                       EventExecutor[] batch) {
+            this.all = all;
+            this.sync = sync;
+            this.syncMetrics = syncMetrics;
+            this.async = async;
+            this.asyncMetrics = asyncMetrics;
+            this.batch = batch;
+        }
+    }
+
+    /**
+     * Asynchronous execution of an event on one executor; completed when the executor has run, failed, or timed out.
+     * The executor's timeout runs from when it starts, not while it waits for a thread.
+     */
+    private static final class AsyncExecution extends CompletableFuture<Void> implements Runnable {
+        private final EventExecutor executor;
+        private final EventMetrics.ExecutorMetrics executorMetrics;
+        private final Event event;
+        private volatile Future<?> task;
+
+        // Claimed by whichever of the timeout and the executor's failure is recorded first; an interrupted executor
+        // usually fails after it has timed out.
+        private final AtomicBoolean failed = new AtomicBoolean(false);
+
+        private AsyncExecution(EventExecutor executor, EventMetrics.ExecutorMetrics executorMetrics, Event event) {
+            this.executor = executor;
+            this.executorMetrics = executorMetrics;
+            this.event = event;
+        }
+
+        @Override
+        public void run() {
+            if (isDone()) return;
+
+            if (executor.getTimeout() > 0L) {
+                ScheduledFuture<?> timeout =
+                        timeouts.schedule(this::timeout, executor.getTimeout(), TimeUnit.MILLISECONDS);
+                whenComplete((result, failure) -> timeout.cancel(false));
+            }
+
+            try {
+                executorMetrics.fire(executor, event, () -> failed.compareAndSet(false, true));
+                complete(null);
+            } catch (EventExecutionException e) {
+                completeExceptionally(e);
+            } catch (Throwable e) {
+                completeExceptionally(new EventExecutionException(e));
+            }
+        }
+
+        private void timeout() {
+            if (!completeExceptionally(new EventExecutionException(
+                    "event handler of " + executor.getListener().getClass().getName() + " timed out after " +
+                            executor.getTimeout() + "ms",
+                    new TimeoutException()
+            ))) return;
+
+            if (failed.compareAndSet(false, true)) executorMetrics.fail();
+
+            Future<?> task = this.task;
+            if (task != null) task.cancel(true);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package io.manebot.event;
 
+import java.util.List;
+
 public interface EventManager {
 
     /**
@@ -14,4 +16,15 @@ public interface EventManager {
      */
     void unregisterListener(EventListener listener);
 
+    /**
+     * Gets the executors events of a class are dispatched to: those whose handlers accept the class or one of its
+     * supertypes.
+     * @param eventClass event class.
+     * @return immutable list of executors, in the order they are executed.
+     * @see EventHandlerRegistry
+     */
+    default List<EventExecutor> getExecutors(Class<? extends Event> eventClass) {
+        throw new UnsupportedOperationException();
+    }
+
 }
@@ -0,0 +1,231 @@
+package io.manebot.event;
+
+import io.manebot.virtual.Profiler;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Metrics of the executors events are dispatched to, per event class, listener, and priority.
+ *
+ * Each combination counts its invocations, failures, and the CheckedEvents it canceled, and records its latency in a
+ * profiler beneath this metrics' own profiler: one child per event class, and beneath it one per listener and
+ * priority.  Invocations are timed as often as the profiler's sample interval allows, so recording an untimed
+ * invocation costs a few striped counter increments.  Passing a process's profiler to the constructor makes event
+ * latency part of that process's profile.
+ */
+public final class EventMetrics {
+    private final Profiler profiler;
+    private final ConcurrentMap<Key, ExecutorMetrics> metrics = new ConcurrentHashMap<>();
+
+    /**
+     * Creates metrics recorded in their own profiler.
+     */
+    public EventMetrics() {
+        this.profiler = new Profiler("events", null);
+    }
+
+    /**
+     * Creates metrics recorded beneath a given profiler, such as <b>VirtualProcess.getProfiler()</b>.
+     * @param parent profiler to record metrics beneath.
+     */
+    public EventMetrics(Profiler parent) {
+        this.profiler = parent.getOrCreateChild("events");
+    }
+
+    /**
+     * Gets the profiler these metrics record latency in.
+     * @return Profiler instance.
+     */
+    public Profiler getProfiler() {
+        return profiler;
+    }
+
+    /**
+     * Gets the metrics of every executor which has been resolved for an event.
+     * @return immutable collection of metrics.
+     */
+    public Collection<ExecutorMetrics> getMetrics() {
+        return Collections.unmodifiableList(new ArrayList<>(metrics.values()));
+    }
+
+    /**
+     * Gets the metrics of the executors resolved for an event class.
+     * @param eventClass event class.
+     * @return immutable list of metrics.
+     */
+    public List<ExecutorMetrics> getMetrics(Class<? extends Event> eventClass) {
+        List<ExecutorMetrics> found = new ArrayList<>();
+        for (ExecutorMetrics executorMetrics : metrics.values())
+            if (executorMetrics.getEventClass() == eventClass) found.add(executorMetrics);
+
+        return Collections.unmodifiableList(found);
+    }
+
+    /**
+     * Gets the metrics of the executors of a listener.
+     * @param listener listener.
+     * @return immutable list of metrics.
+     */
+    public List<ExecutorMetrics> getMetrics(EventListener listener) {
+        List<ExecutorMetrics> found = new ArrayList<>();
+        for (ExecutorMetrics executorMetrics : metrics.values())
+            if (executorMetrics.getListener() == listener) found.add(executorMetrics);
+
+        return Collections.unmodifiableList(found);
+    }
+
+    /**
+     * Discards the metrics of a listener.
+     * @param listener listener to discard metrics of.
+     */
+    public void remove(EventListener listener) {
+        metrics.values().removeIf(executorMetrics -> executorMetrics.getListener() == listener);
+    }
+
+    /**
+     * Gets the metrics of an executor for an event class, creating them if they do not yet exist.
+     * @param eventClass event class.
+     * @param executor executor.
+     * @return ExecutorMetrics instance.
+     */
+    public ExecutorMetrics get(Class<? extends Event> eventClass, EventExecutor executor) {
+        return metrics.computeIfAbsent(
+                new Key(eventClass, executor.getListener(), executor.getPriority()),
+                key -> new ExecutorMetrics(key, profiler.getOrCreateChild(eventClass.getName()).getOrCreateChild(
+                        executor.getListener().getClass().getName() + "#" +
+                                Integer.toHexString(System.identityHashCode(executor.getListener())) +
+                                "@" + executor.getPriority().name()
+                ))
+        );
+    }
+
+    /**
+     * Metrics of the executors of a listener, at a priority, for an event class.
+     */
+    public static final class ExecutorMetrics {
+        private final Key key;
+        private final Profiler profiler;
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder cancellations = new LongAdder();
+
+        private ExecutorMetrics(Key key, Profiler profiler) {
+            this.key = key;
+            this.profiler = profiler;
+        }
+
+        public Class<? extends Event> getEventClass() {
+            return key.eventClass;
+        }
+
+        public EventListener getListener() {
+            return key.listener;
+        }
+
+        public EventPriority getPriority() {
+            return key.priority;
+        }
+
+        /**
+         * Gets the profiler recording the latency of these executors.
+         * @return Profiler instance.
+         */
+        public Profiler getProfiler() {
+            return profiler;
+        }
+
+        public long getInvocations() {
+            return profiler.getExecutions();
+        }
+
+        /**
+         * Gets the count of invocations which failed, including asynchronous invocations which timed out or could not
+         * be scheduled.
+         * @return failure count.
+         */
+        public long getFailures() {
+            return failures.sum();
+        }
+
+        /**
+         * Gets the count of CheckedEvents these executors canceled.
+         * @return cancellation count.
+         */
+        public long getCancellations() {
+            return cancellations.sum();
+        }
+
+        /**
+         * Fires an event on an executor, recording the invocation.
+         * @param executor executor to fire.
+         * @param event event to fire.
+         * @throws EventExecutionException if the executor failed.
+         */
+        void fire(EventExecutor executor, Event event) throws EventExecutionException {
+            fire(executor, event, () -> true);
+        }
+
+        /**
+         * Fires an event on an executor, recording the invocation, and its failure only if it was not already recorded.
+         * @param executor executor to fire.
+         * @param event event to fire.
+         * @param claimFailure claims the failure of the invocation, returning false if it was already recorded.
+         * @throws EventExecutionException if the executor failed.
+         */
+        void fire(EventExecutor executor, Event event, BooleanSupplier claimFailure) throws EventExecutionException {
+            CheckedEvent checkedEvent = event instanceof CheckedEvent ? (CheckedEvent) event : null;
+            boolean canceled = checkedEvent != null && checkedEvent.isCanceled();
+
+            boolean timed = Profiler.sample();
+            long startTime = timed ? System.nanoTime() : 0L;
+
+            try {
+                executor.fire(event);
+            } catch (RuntimeException | Error e) {
+                if (claimFailure.getAsBoolean()) failures.increment();
+                throw e;
+            } finally {
+                if (timed) profiler.record(System.nanoTime() - startTime);
+                else profiler.count();
+
+                if (checkedEvent != null && !canceled && checkedEvent.isCanceled()) cancellations.increment();
+            }
+        }
+
+        /**
+         * Records a failure which occurred outside of <b>fire</b>.
+         */
+        void fail() {
+            failures.increment();
+        }
+    }
+
+    private static final class Key {
+        private final Class<? extends Event> eventClass;
+        private final EventListener listener;
+        private final EventPriority priority;
+
+        private Key(Class<? extends Event> eventClass, EventListener listener, EventPriority priority) {
+            this.eventClass = eventClass;
+            this.listener = listener;
+            this.priority = priority;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+
+            Key key = (Key) o;
+            return eventClass == key.eventClass && listener == key.listener && priority == key.priority;
+        }
+
+        @Override
+        public int hashCode() {
+            return (31 * (31 * eventClass.hashCode() + System.identityHashCode(listener))) + priority.hashCode();
+        }
+    }
+}
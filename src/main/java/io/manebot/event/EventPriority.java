@@ -27,9 +27,17 @@ public enum EventPriority {
      */
     HIGHEST(4);
 
-    private int orderId;
+    private final int orderId;
     EventPriority(int orderId) {
         this.orderId = orderId;
     }
 
+    /**
+     * Gets the order of this priority; executors with higher order IDs are executed first.
+     * @return order ID.
+     */
+    public int getOrderId() {
+        return orderId;
+    }
+
 }
@@ -0,0 +1,109 @@
+package io.manebot.event;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+/**
+ * Executes an <b>EventHandler</b> method through a method handle bound to its listener when it is registered.
+ */
+final class MethodHandleEventExecutor implements EventExecutor {
+    private static final MethodType HANDLER_TYPE = MethodType.methodType(void.class, Event.class);
+
+    private final EventListener listener;
+    private final Class<? extends Event> eventClass;
+    private final EventPriority priority;
+    private final boolean async;
+    private final long timeout;
+    private final MethodHandle handle;
+
+    private MethodHandleEventExecutor(EventListener listener,
+                                      Class<? extends Event> eventClass,
+                                      EventHandler handler,
+                                      MethodHandle handle) {
+        if (handler.timeout() < 0L) throw new IllegalArgumentException("timeout cannot be < 0");
+
+        this.listener = listener;
+        this.eventClass = eventClass;
+        this.priority = handler.priority();
+        this.async = handler.async();
+        this.timeout = handler.timeout();
+        this.handle = handle;
+    }
+
+    /**
+     * Binds an event handler method to its listener.
+     * @param listener listener declaring the method.
+     * @param method handler method, accepting a single event parameter.
+     * @param handler handler annotation of the method.
+     * @return bound executor.
+     * @throws IllegalArgumentException if the method does not accept a single event parameter, or cannot be accessed.
+     */
+    @SuppressWarnings("unchecked")
+    static MethodHandleEventExecutor bind(EventListener listener, Method method, EventHandler handler) {
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        if (parameterTypes.length != 1 || !Event.class.isAssignableFrom(parameterTypes[0]))
+            throw new IllegalArgumentException(
+                    "event handler " + method.getDeclaringClass().getName() + "." + method.getName() +
+                    " must accept a single " + Event.class.getName() + " parameter"
+            );
+
+        MethodHandle handle;
+        try {
+            method.setAccessible(true);
+            handle = MethodHandles.lookup().unreflect(method).bindTo(listener).asType(HANDLER_TYPE);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw new IllegalArgumentException(
+                    "problem binding event handler " + method.getDeclaringClass().getName() + "." + method.getName(),
+                    e
+            );
+        }
+
+        return new MethodHandleEventExecutor(
+                listener,
+                (Class<? extends Event>) parameterTypes[0],
+                handler,
+                handle
+        );
+    }
+
+    /**
+     * Gets the event class this executor handles, including its subclasses.
+     * @return event class.
+     */
+    Class<? extends Event> getEventClass() {
+        return eventClass;
+    }
+
+    @Override
+    public void fire(Event event) throws EventExecutionException {
+        try {
+            handle.invokeExact(event);
+        } catch (EventExecutionException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new EventExecutionException(e);
+        }
+    }
+
+    @Override
+    public EventListener getListener() {
+        return listener;
+    }
+
+    @Override
+    public EventPriority getPriority() {
+        return priority;
+    }
+
+    @Override
+    public boolean isAsync() {
+        return async;
+    }
+
+    @Override
+    public long getTimeout() {
+        return timeout;
+    }
+}
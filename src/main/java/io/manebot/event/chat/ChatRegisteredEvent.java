@@ -1,9 +1,21 @@
 package io.manebot.event.chat;
 
 import io.manebot.chat.Chat;
+import io.manebot.event.BatchableEvent;
 
-public class ChatRegisteredEvent extends ChatEvent {
+import java.util.Arrays;
+
+public class ChatRegisteredEvent extends ChatEvent implements BatchableEvent {
     public ChatRegisteredEvent(Object sender, Chat chat) {
         super(sender, chat);
     }
+
+    /**
+     * Coalesces on the chat, so that a batch holds only the last registration or unregistration of each chat.
+     * @return platform and id of the chat.
+     */
+    @Override
+    public Object getCoalescingKey() {
+        return Arrays.asList(getChat().getPlatform(), getChat().getId());
+    }
 }
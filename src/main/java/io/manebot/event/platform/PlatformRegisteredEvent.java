@@ -1,9 +1,19 @@
 package io.manebot.event.platform;
 
+import io.manebot.event.BatchableEvent;
 import io.manebot.platform.Platform;
 
-public class PlatformRegisteredEvent extends PlatformEvent {
+public class PlatformRegisteredEvent extends PlatformEvent implements BatchableEvent {
     public PlatformRegisteredEvent(Object sender, Platform platform) {
         super(sender, platform);
     }
+
+    /**
+     * Coalesces on the platform, so that a batch holds only the last registration or unregistration of each platform.
+     * @return platform.
+     */
+    @Override
+    public Object getCoalescingKey() {
+        return getPlatform();
+    }
 }
@@ -6,8 +6,7 @@ import io.manebot.user.User;
 import io.manebot.user.UserAssociation;
 import io.manebot.user.UserGroup;
 
-import java.util.Collection;
-import java.util.Collections;
+import java.util.*;
 import java.util.stream.Collectors;
 
 /**
@@ -85,6 +84,22 @@ public interface Platform {
         return getUserAssocation(user.getId());
     }
 
+    /**
+     * Gets the associations for several platform-specific user IDs at once, such as all members of a chat.
+     *
+     * @param ids Platform-specific user IDs to search for.
+     * @return immutable collection of the user associations found on this platform, in the order of <b>ids</b>.
+     */
+    default Collection<UserAssociation> getUserAssociations(Collection<String> ids) {
+        Map<String, UserAssociation> associations = new HashMap<>();
+        for (UserAssociation association : getUserAssociations())
+            associations.put(association.getPlatformId(), association);
+
+        return Collections.unmodifiableCollection(
+                ids.stream().map(associations::get).filter(Objects::nonNull).collect(Collectors.toList())
+        );
+    }
+
     /**
      * Gets a set of user associations for the specified user.
      *
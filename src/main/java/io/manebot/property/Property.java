@@ -78,4 +78,17 @@ public interface Property {
         return this;
     }
 
+    /**
+     * A batch of property changes, applied together once the batch completes.
+     */
+    interface Batch {
+        /**
+         * Gets a property within this batch.  Values set on the property are staged in the batch, and reading the
+         * property reflects any staged value.
+         * @param id property identifier.
+         * @return Property instance.
+         */
+        Property getProperty(String id);
+    }
+
 }
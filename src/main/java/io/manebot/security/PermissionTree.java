@@ -0,0 +1,238 @@
+package io.manebot.security;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Permission trees hold the explicit permission grants of a single entity, and resolve the most specific grant for a
+ * given permission node in memory.
+ *
+ * Nodes are split into components by '.' (i.e. <i>system.user.ban</i>).  A wildcard grant, such as <i>system.*</i>
+ * or <i>*</i>, applies to every node beneath it, while an exact grant always takes precedence over any wildcard.
+ * Component matching is case-insensitive.
+ *
+ * Resolving a node is lock-free and does not allocate.  Modifications are serialized, and replace the child arrays
+ * they touch rather than modifying them, so readers always see a consistent branch.
+ *
+ * @param <T> granted permission type stored in this tree.
+ */
+public final class PermissionTree<T extends GrantedPermission> {
+    private static final String WILDCARD = "*";
+    private static final String WILDCARD_SUFFIX = "." + WILDCARD;
+
+    private final Node<T> root = new Node<>(null);
+    private final Object writeLock = new Object();
+
+    private volatile int size = 0;
+
+    /**
+     * Resolves the most specific grant for a permission node.
+     * @param node permission node to resolve.
+     * @return most specific granted permission applying to the node, or null if no grant applies.
+     */
+    public T resolve(String node) {
+        if (node.length() <= 0) return null;
+
+        Node<T> current = root;
+        T best = root.wildcard;
+        int start = 0;
+
+        while (true) {
+            int end = node.indexOf('.', start);
+            boolean last = end < 0;
+            if (last) end = node.length();
+
+            Node<T> child = current.find(node, start, end);
+            if (child == null) return best;
+
+            if (last) {
+                T exact = child.exact;
+                return exact != null ? exact : best;
+            }
+
+            T wildcard = child.wildcard;
+            if (wildcard != null) best = wildcard;
+
+            current = child;
+            start = end + 1;
+        }
+    }
+
+    /**
+     * Gets the grant explicitly defined for a permission node, without resolving any wildcards that would apply to it.
+     * @param node permission node, including any wildcard suffix (i.e. <i>system.*</i>).
+     * @return granted permission if one is defined for the node exactly, null otherwise.
+     */
+    public T get(String node) {
+        if (node.length() <= 0) return null;
+
+        Node<T> parent = walk(node);
+        if (parent == null) return null;
+
+        return isWildcard(node) ? parent.wildcard : parent.exact;
+    }
+
+    /**
+     * Defines a grant for a permission node, replacing any grant previously defined for that exact node.
+     * @param node permission node, including any wildcard suffix (i.e. <i>system.*</i>).
+     * @param permission granted permission to store.
+     * @return previously defined grant for the node, or null if none was defined.
+     */
+    public T put(String node, T permission) {
+        if (node.length() <= 0) throw new IllegalArgumentException("node cannot be empty");
+        if (permission == null) throw new NullPointerException("permission");
+
+        synchronized (writeLock) {
+            T previous;
+            if (node.equals(WILDCARD)) {
+                previous = root.wildcard;
+                root.wildcard = permission;
+            } else if (node.endsWith(WILDCARD_SUFFIX)) {
+                Node<T> parent = create(node, node.length() - WILDCARD_SUFFIX.length());
+                previous = parent.wildcard;
+                parent.wildcard = permission;
+            } else {
+                Node<T> parent = create(node, node.length());
+                previous = parent.exact;
+                parent.exact = permission;
+            }
+
+            if (previous == null) size++;
+            return previous;
+        }
+    }
+
+    /**
+     * Removes the grant defined for a permission node.
+     * @param node permission node, including any wildcard suffix (i.e. <i>system.*</i>).
+     * @return removed granted permission, or null if none was defined.
+     */
+    public T remove(String node) {
+        if (node.length() <= 0) return null;
+
+        synchronized (writeLock) {
+            Node<T> parent = walk(node);
+            if (parent == null) return null;
+
+            T previous;
+            if (isWildcard(node)) {
+                previous = parent.wildcard;
+                parent.wildcard = null;
+            } else {
+                previous = parent.exact;
+                parent.exact = null;
+            }
+
+            if (previous != null) size--;
+            return previous;
+        }
+    }
+
+    /**
+     * Gets the count of grants defined in this tree.
+     * @return grant count.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets all grants defined in this tree.
+     * @return immutable collection of granted permissions.
+     */
+    public Collection<T> getAll() {
+        List<T> permissions = new ArrayList<>(size);
+        collect(root, permissions);
+        return Collections.unmodifiableList(permissions);
+    }
+
+    private static <T> void collect(Node<T> node, List<T> permissions) {
+        if (node.wildcard != null) permissions.add(node.wildcard);
+        if (node.exact != null) permissions.add(node.exact);
+        for (Node<T> child : node.children) collect(child, permissions);
+    }
+
+    private static boolean isWildcard(String node) {
+        return node.equals(WILDCARD) || node.endsWith(WILDCARD_SUFFIX);
+    }
+
+    /**
+     * Finds the node holding the grant for a permission node, without creating any nodes.
+     */
+    private Node<T> walk(String node) {
+        if (node.equals(WILDCARD)) return root;
+
+        int length = node.endsWith(WILDCARD_SUFFIX) ? node.length() - WILDCARD_SUFFIX.length() : node.length();
+        Node<T> current = root;
+        int start = 0;
+
+        while (current != null && start <= length) {
+            int end = node.indexOf('.', start);
+            if (end < 0 || end > length) end = length;
+            current = current.find(node, start, end);
+            start = end + 1;
+        }
+
+        return current;
+    }
+
+    /**
+     * Finds or creates the node for the first <b>length</b> characters of a permission node.  Must be called while
+     * holding the write lock.
+     */
+    private Node<T> create(String node, int length) {
+        Node<T> current = root;
+        int start = 0;
+
+        while (start <= length) {
+            int end = node.indexOf('.', start);
+            if (end < 0 || end > length) end = length;
+
+            Node<T> child = current.find(node, start, end);
+            if (child == null) {
+                child = new Node<>(node.substring(start, end));
+                current.add(child);
+            }
+
+            current = child;
+            start = end + 1;
+        }
+
+        return current;
+    }
+
+    private static final class Node<T> {
+        private final String component;
+
+        @SuppressWarnings("unchecked")
+        private volatile Node<T>[] children = (Node<T>[]) new Node[0];
+
+        private volatile T exact;
+        private volatile T wildcard;
+
+        private Node(String component) {
+            this.component = component;
+        }
+
+        private Node<T> find(String node, int start, int end) {
+            int length = end - start;
+            for (Node<T> child : children) {
+                String component = child.component;
+                if (component.length() == length && component.regionMatches(true, 0, node, start, length))
+                    return child;
+            }
+
+            return null;
+        }
+
+        private void add(Node<T> child) {
+            Node<T>[] children = this.children;
+            Node<T>[] newChildren = Arrays.copyOf(children, children.length + 1);
+            newChildren[children.length] = child;
+            this.children = newChildren;
+        }
+    }
+}
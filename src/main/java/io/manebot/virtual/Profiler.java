@@ -2,32 +2,89 @@ package io.manebot.virtual;
 
 import com.google.common.collect.MapMaker;
 
-import java.util.Collection;
-import java.util.LinkedHashMap;
-import java.util.LinkedList;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hierarchical profiler of named regions.
+ *
+ * Regions are entered with <b>region</b> and left by closing the profiler it returns.  Each thread keeps its own stack
+ * of entered regions, so entering and leaving a region takes no locks and allocates nothing; a region may be entered
+ * by any number of threads at once, and its statistics are kept in striped counters which are merged when read.
+ *
+ * Each execution is timed with a probability of one in the <b>sample interval</b>, chosen at random so that regions
+ * entered in a pattern, such as nested regions, are each sampled at the same rate; timed executions are recorded in a
+ * latency histogram, from which percentiles are read, and total times are estimated from them.  The default interval
+ * of 1 times every execution.
+ */
 public final class Profiler implements AutoCloseable {
-    private static final ConcurrentMap<Thread, Profiler> profilers = new MapMaker().weakKeys().makeMap();
+    private static final Map<Thread, Frames> threads = new MapMaker().weakKeys().makeMap();
+    private static final ThreadLocal<Frames> frames = ThreadLocal.withInitial(() -> {
+        Frames frames = new Frames();
+        threads.put(Thread.currentThread(), frames);
+        return frames;
+    });
+
+    private static volatile int sampleInterval = 1;
 
+    /**
+     * Gets the profiler of the region a thread is in.
+     * @param thread thread to find the region of.
+     * @return Profiler instance, or null if the thread has not entered a region.
+     */
     public static final Profiler get(Thread thread) {
-        return profilers.get(thread);
+        Frames frames = threads.get(thread);
+        return frames == null ? null : frames.current();
     }
 
+    /**
+     * Enters a region on the current thread, as a child of the region it is in.
+     * @param name name of the region.
+     * @return Profiler instance of the region, which must be closed to leave it.
+     */
     public static final Profiler region(String name) {
-        Profiler profiler = profilers.get(Thread.currentThread());
+        Frames frames = Profiler.frames.get();
+        Profiler profiler = frames.current();
 
         if (profiler == null)
-            profiler = new Profiler(name, null);
+            profiler = frames.root = new Profiler(name, null);
         else
             profiler = profiler.getOrCreateChild(name);
 
-        profiler.begin();
+        frames.push(profiler);
 
         return profiler;
     }
 
+    /**
+     * Sets the count of executions of which one is timed, on average.
+     * @param interval sample interval; 1 to time every execution.
+     */
+    public static void setSampleInterval(int interval) {
+        if (interval <= 0) throw new IllegalArgumentException("interval cannot be <= 0");
+        sampleInterval = interval;
+    }
+
+    public static int getSampleInterval() {
+        return sampleInterval;
+    }
+
+    /**
+     * Chooses whether to time an execution, for executions timed outside of <b>region</b>.
+     * @return true if the execution should be timed and passed to <b>record</b>, false if it should be passed to
+     *         <b>count</b>.
+     */
+    public static boolean sample() {
+        int interval = sampleInterval;
+        return interval <= 1 || ThreadLocalRandom.current().nextInt(interval) == 0;
+    }
+
     private final String name;
     private final Profiler parent;
     private final Object accessLock;
@@ -35,29 +92,30 @@ public final class Profiler implements AutoCloseable {
     /**
      * Time created, in nanoseconds
      */
-    private long creationTime;
+    private final long creationTime;
 
     /**
-     * True if the profiler is running, false otherwise.
+     * Total execution cycles.
      */
-    private boolean running = false;
+    private final LongAdder executions = new LongAdder();
 
     /**
-     * Time the profiler was last started.
+     * Timed execution cycles, and their total time.
      */
-    private long startTime = creationTime;
+    private final LongAdder sampledExecutions = new LongAdder();
+    private final LongAdder sampledTime = new LongAdder();
 
     /**
-     * Total time the profiler has profiled.
+     * Count of timed executions in progress, and the sum of their start times.
      */
-    private long totalTime = 0L;
+    private final LongAdder activeExecutions = new LongAdder();
+    private final LongAdder activeStartTime = new LongAdder();
 
-    /**
-     * Total execution cycles.
-     */
-    private long executions = 0L;
+    private final LongAccumulator maximumTime = new LongAccumulator(Math::max, 0L);
+    private final Histogram histogram = new Histogram();
 
-    private Map<String, Profiler> children = new LinkedHashMap<>();
+    private final ConcurrentMap<String, Profiler> children = new ConcurrentHashMap<>();
+    private final List<Profiler> childOrder = new CopyOnWriteArrayList<>();
 
     public Profiler(String name, Profiler parent) {
         this.name = name;
@@ -76,45 +134,64 @@ public final class Profiler implements AutoCloseable {
         return name;
     }
 
+    /**
+     * Finds if any thread is in this region, in a timed execution.
+     */
     public boolean isRunning() {
-        return running;
+        return activeExecutions.sum() > 0L;
     }
 
     public Profiler getParent() {
         return parent;
     }
 
-    private Profiler begin() {
-        if (!running) {
-            synchronized (accessLock) {
-                profilers.put(Thread.currentThread(), this);
-                running = true;
-                executions++;
-                startTime = System.nanoTime();
-            }
-        }
+    /**
+     * Records a timed execution of this region.
+     * @param startTime time the execution began.
+     * @param endTime time the execution ended.
+     */
+    private void record(long startTime, long endTime) {
+        activeExecutions.decrement();
+        activeStartTime.add(-startTime);
 
-        return this;
+        recordTime(endTime - startTime);
     }
 
-    private Profiler end() {
-        if (running) {
-            synchronized (accessLock) {
-                totalTime += System.nanoTime() - startTime;
-                if (this.parent != null) profilers.put(Thread.currentThread(), this.parent);
-                else profilers.put(Thread.currentThread(), this);
-                running = false;
-            }
-        }
+    private void recordTime(long elapsed) {
+        sampledExecutions.increment();
+        sampledTime.add(elapsed);
+        maximumTime.accumulate(elapsed);
+        histogram.record(elapsed);
+    }
 
-        return this;
+    /**
+     * Records an execution of this region timed by the caller, rather than entered with <b>region</b>.
+     * @param nanoseconds time the execution took, in nanoseconds.
+     */
+    public void record(long nanoseconds) {
+        executions.increment();
+        recordTime(nanoseconds);
+    }
+
+    /**
+     * Records an execution of this region which was not timed.
+     */
+    public void count() {
+        executions.increment();
     }
 
     /**
      * Gets the total count of executions this profiler is processng.
      */
     public long getExecutions() {
-        return executions;
+        return executions.sum();
+    }
+
+    /**
+     * Gets the count of executions which were timed.
+     */
+    public long getSampledExecutions() {
+        return sampledExecutions.sum();
     }
 
     public long getTotalActiveNanoseconds() {
@@ -122,10 +199,21 @@ public final class Profiler implements AutoCloseable {
     }
 
     /**
-     * Gets the profiler's total active nanoseconds.  This includes child time.
+     * Gets the profiler's total active nanoseconds.  This includes child time.  When executions are sampled, this is
+     * estimated from the timed executions.
      */
     public long getTotalActiveNanoseconds(long since) {
-        return totalTime + (isRunning() ? (since - startTime) : 0L);
+        long active = activeExecutions.sum();
+        long running = active > 0L ? Math.max(0L, active * since - activeStartTime.sum()) : 0L;
+
+        long sampled = sampledExecutions.sum();
+        long completed = sampledTime.sum();
+        long executions = getExecutions() - active;
+
+        if (sampled > 0L && executions > sampled)
+            completed = (long) ((double) completed * ((double) executions / (double) sampled));
+
+        return completed + running;
     }
 
     /**
@@ -139,11 +227,9 @@ public final class Profiler implements AutoCloseable {
      * Gets the profiler's child active nanoseconds.  This excludes own time.
      */
     public long getChildActiveNanoseconds(long since) {
-        return children
-                .values()
-                .stream()
-                .mapToLong(x -> x.getTotalActiveNanoseconds(since))
-                .sum();
+        long total = 0L;
+        for (Profiler child : childOrder) total += child.getTotalActiveNanoseconds(since);
+        return total;
     }
 
     /**
@@ -300,9 +386,26 @@ public final class Profiler implements AutoCloseable {
     public double getExecutionsPerNanosecond(long since) {
         long lifetime = getLifetimeNanoseconds(since);
         if (lifetime <= 0) return 0D;
-        return (double)executions / (double)lifetime;
+        return (double)getExecutions() / (double)lifetime;
+    }
+
+    /**
+     * Gets a percentile of the time, in nanoseconds, of timed executions, including child time.  Percentiles are
+     * accurate to within 1/8th of their value.
+     * @param percentile percentile, between 0 and 1; 0.5 for the median.
+     * @return upper bound of the percentile, in nanoseconds, or 0 if no executions have been timed.
+     */
+    public long getPercentileNanoseconds(double percentile) {
+        if (percentile < 0D || percentile > 1D) throw new IllegalArgumentException("percentile");
+        return Math.min(histogram.percentile(percentile), getMaximumNanoseconds());
     }
 
+    /**
+     * Gets the longest time, in nanoseconds, of any timed execution, including child time.
+     */
+    public long getMaximumNanoseconds() {
+        return maximumTime.get();
+    }
 
     /**
      * Gets a child by name.
@@ -310,7 +413,14 @@ public final class Profiler implements AutoCloseable {
      * @return Profiler child instance.
      */
     public Profiler getOrCreateChild(String name) {
-        return children.computeIfAbsent(name, name1 -> new Profiler(name1, this));
+        Profiler child = children.get(name);
+        if (child != null) return child;
+
+        return children.computeIfAbsent(name, key -> {
+            Profiler created = new Profiler(key, this);
+            childOrder.add(created);
+            return created;
+        });
     }
 
     public Profiler getChild(String name) {
@@ -318,19 +428,138 @@ public final class Profiler implements AutoCloseable {
     }
 
     public Map<String, Profiler> get() {
-        return new LinkedHashMap<>(children);
+        Map<String, Profiler> children = new LinkedHashMap<>();
+        for (Profiler child : childOrder) children.put(child.getName(), child);
+        return children;
     }
 
+    /**
+     * Leaves this region on the current thread, along with any regions entered within it which were not left.
+     */
     @Override
     public void close() {
-        end();
+        frames.get().pop(this);
     }
 
     public Collection<Profiler> getChildren() {
-        return new LinkedList<>(children.values());
+        return new ArrayList<>(childOrder);
     }
 
     public Object getLock() {
         return accessLock;
     }
+
+    /**
+     * Regions a thread is in, and when each was entered; entries are reused as regions are left and entered.
+     */
+    private static final class Frames {
+        private Profiler[] profilers = new Profiler[16];
+        private long[] startTimes = new long[16];
+        private int depth = 0;
+        private volatile Profiler current;
+        private Profiler root;
+
+        private Profiler current() {
+            Profiler current = this.current;
+            return current == null ? root : current;
+        }
+
+        private void push(Profiler profiler) {
+            if (depth == profilers.length) {
+                profilers = Arrays.copyOf(profilers, depth * 2);
+                startTimes = Arrays.copyOf(startTimes, depth * 2);
+            }
+
+            profiler.executions.increment();
+
+            long startTime = -1L;
+            if (sample()) {
+                startTime = System.nanoTime();
+                profiler.activeExecutions.increment();
+                profiler.activeStartTime.add(startTime);
+            }
+
+            profilers[depth] = profiler;
+            startTimes[depth] = startTime;
+            depth ++;
+
+            current = profiler;
+        }
+
+        private void pop(Profiler profiler) {
+            int index = depth - 1;
+            while (index >= 0 && profilers[index] != profiler) index --;
+            if (index < 0) return; // Not entered on this thread.
+
+            long endTime = System.nanoTime();
+            while (depth > index) {
+                depth --;
+                if (startTimes[depth] >= 0L) profilers[depth].record(startTimes[depth], endTime);
+                profilers[depth] = null;
+            }
+
+            current = depth > 0 ? profilers[depth - 1] : profiler.parent;
+        }
+    }
+
+    /**
+     * Log-linear histogram of execution times: 8 buckets per power of two, each counted in a striped counter created
+     * when it is first used.
+     */
+    private static final class Histogram {
+        private static final int SUB_BUCKET_BITS = 3;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+        private final AtomicReferenceArray<LongAdder> buckets = new AtomicReferenceArray<>(64 * SUB_BUCKETS);
+
+        private void record(long value) {
+            int index = index(Math.max(0L, value));
+
+            LongAdder bucket = buckets.get(index);
+            if (bucket == null) {
+                buckets.compareAndSet(index, null, new LongAdder());
+                bucket = buckets.get(index);
+            }
+
+            bucket.increment();
+        }
+
+        private long percentile(double percentile) {
+            long[] counts = new long[buckets.length()];
+            long total = 0L;
+
+            for (int i = 0; i < counts.length; i ++) {
+                LongAdder bucket = buckets.get(i);
+                if (bucket != null) total += counts[i] = bucket.sum();
+            }
+
+            if (total <= 0L) return 0L;
+
+            long rank = Math.max(1L, (long) Math.ceil(percentile * total));
+            long seen = 0L;
+            for (int i = 0; i < counts.length; i ++) {
+                seen += counts[i];
+                if (seen >= rank) return upperBound(i);
+            }
+
+            return upperBound(counts.length - 1);
+        }
+
+        private static int index(long value) {
+            if (value < SUB_BUCKETS) return (int) value;
+
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+            return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+        }
+
+        private static long upperBound(int index) {
+            if (index < SUB_BUCKETS) return index;
+
+            int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+            long subBucket = index % SUB_BUCKETS;
+            long lowerBound = (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+            return lowerBound + (1L << (exponent - SUB_BUCKET_BITS)) - 1L;
+        }
+    }
 }
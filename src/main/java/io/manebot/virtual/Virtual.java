@@ -3,9 +3,18 @@ package io.manebot.virtual;
 import io.manebot.user.User;
 
 import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ThreadFactory;
 import java.util.logging.Logger;
 
+/**
+ * Virtual system of processes, each running on its own thread.
+ *
+ * Implementations should <b>bind</b> each process to its thread when the process is started, and <b>unbind</b> it when
+ * the process ends, so that a thread's process, which is looked up on every permission check, is found in constant
+ * time.  Until any process is bound, processes are found by searching <b>getProcesses()</b>.
+ */
 public abstract class Virtual implements ThreadFactory {
     private static final Object instanceLock = new Object();
     private static Virtual instance;
@@ -19,6 +28,9 @@ public abstract class Virtual implements ThreadFactory {
         }
     }
 
+    private final ConcurrentMap<Long, VirtualProcess> threadProcesses = new ConcurrentHashMap<>();
+    private volatile boolean binding = false;
+
     public Logger getLogger() {
         VirtualProcess process = currentProcess();
         if (process == null)
@@ -57,9 +69,40 @@ public abstract class Virtual implements ThreadFactory {
      * @return VirtualProcess instance if found, null otherwise.
      */
     public VirtualProcess getProcess(Thread thread) {
-        long id = thread.getId();
+        return getProcess(thread.getId());
+    }
+
+    /**
+     * Gets the process associated with a given thread id.
+     *
+     * @param threadId id of the thread to look for.
+     * @return VirtualProcess instance if found, null otherwise.
+     */
+    public VirtualProcess getProcess(long threadId) {
+        if (binding) return threadProcesses.get(threadId);
+
+        return getProcesses().stream().filter(x -> x.getId() == threadId).findFirst().orElse(null);
+    }
 
-        return getProcesses().stream().filter(x -> x.getId() == id).findFirst().orElse(null);
+    /**
+     * Binds a process to the thread it runs on, replacing any process previously bound to that thread.  Once any
+     * process is bound, only bound processes are found by <b>getProcess</b>.
+     *
+     * @param process process to bind, whose id is the id of its thread.
+     */
+    protected void bind(VirtualProcess process) {
+        threadProcesses.put(process.getId(), process);
+        binding = true;
+    }
+
+    /**
+     * Unbinds a process from the thread it ran on, if it is still bound to it.
+     *
+     * @param process process to unbind.
+     * @return true if the process was unbound, false if it was not bound.
+     */
+    protected boolean unbind(VirtualProcess process) {
+        return threadProcesses.remove(process.getId(), process);
     }
 
     public abstract User currentUser();
@@ -1,5 +1,6 @@
 package io.manebot.command;
 
+import io.manebot.command.exception.CommandRateLimitException;
 import io.manebot.command.executor.CommandExecutor;
 import io.manebot.command.executor.chained.AnnotatedCommandExecutor;
 import io.manebot.command.executor.chained.argument.CommandArgumentLabel;
@@ -7,6 +8,11 @@ import io.manebot.command.executor.chained.argument.CommandArgumentString;
 import junit.framework.TestCase;
 import org.junit.Test;
 
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
 
 public class AnnotatedCommandExecutorTest {
     @Test
@@ -28,4 +34,43 @@ public class AnnotatedCommandExecutorTest {
         executor.execute(null, "test", new String[]{});
         executor.execute(null, "test", new String[]{"test", "test 2"});
     }
+
+    @Test
+    public void testExecute_Static() throws Exception {
+        StaticCommandExecutor.executed = null;
+        new StaticCommandExecutor().execute(null, "test", new String[]{"static"});
+        assertEquals("static", StaticCommandExecutor.executed);
+    }
+
+    @Test
+    public void testExecute_RateLimitSharedByAliases() throws Exception {
+        CommandExecutor executor = new AnnotatedCommandExecutor() {
+            @Command(rateLimit = @RateLimit(
+                    permits = 1,
+                    period = 1,
+                    unit = TimeUnit.HOURS,
+                    scope = CommandRateLimiter.Scope.GLOBAL
+            ))
+            public void test(CommandSender sender) {
+            }
+        };
+
+        executor.execute(null, "test", new String[]{});
+
+        try {
+            executor.execute(null, "alias", new String[]{});
+            fail("Expected alias to share the limit");
+        } catch (CommandRateLimitException expected) {
+        }
+    }
+
+    public static class StaticCommandExecutor extends AnnotatedCommandExecutor {
+        private static volatile String executed;
+
+        @Command
+        public static void test(CommandSender sender,
+                                @CommandArgumentString.Argument(label = "value") String value) {
+            executed = value;
+        }
+    }
 }
@@ -0,0 +1,69 @@
+package io.manebot.command;
+
+import io.manebot.command.executor.CommandExecutor;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class CommandManagerTest {
+
+    @Test
+    public void testResolveExecutor() {
+        TestCommandManager manager = new TestCommandManager();
+        CommandExecutor plugin = (sender, label, args) -> { };
+        CommandExecutor playlist = (sender, label, args) -> { };
+
+        manager.registerExecutor("plugin", plugin);
+        manager.registerExecutor("playlist", playlist).alias("pls");
+
+        assertSame(plugin, manager.resolveExecutor("plu"));
+        assertSame(playlist, manager.resolveExecutor("PLAY"));
+        assertNull(manager.resolveExecutor("pl"));
+        assertNull(manager.resolveExecutor("x"));
+    }
+
+    @Test
+    public void testResolveExecutor_Unregistered() {
+        TestCommandManager manager = new TestCommandManager();
+        CommandExecutor plugin = (sender, label, args) -> { };
+
+        manager.registerExecutor("plugin", plugin);
+        manager.registerExecutor("playlist", (sender, label, args) -> { });
+        assertNull(manager.resolveExecutor("pl"));
+
+        // Unregistered labels no longer make prefixes ambiguous.
+        manager.unregisterExecutor("playlist");
+        assertSame(plugin, manager.resolveExecutor("pl"));
+        assertNull(manager.resolveExecutor("pla"));
+        assertEquals(Collections.singletonList("plugin"), manager.getCompletions("p"));
+    }
+
+    private static class TestCommandManager extends CommandManager {
+        private final Map<String, Registration> registrations = new LinkedHashMap<>();
+
+        @Override
+        public Registration registerExecutor(String label, CommandExecutor executor) {
+            Registration registration = new Registration(executor, label);
+            registrations.put(label.toLowerCase(), registration);
+            return registration;
+        }
+
+        @Override
+        public void unregisterExecutor(String label) {
+            registrations.remove(label.toLowerCase());
+        }
+
+        @Override
+        public CommandExecutor getExecutor(String label) {
+            Registration registration = registrations.get(label.toLowerCase());
+            return registration == null ? null : registration.getExecutor();
+        }
+
+        @Override
+        public Collection<Registration> getRegistrations() {
+            return Collections.unmodifiableCollection(registrations.values());
+        }
+    }
+}
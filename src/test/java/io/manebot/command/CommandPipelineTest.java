@@ -0,0 +1,119 @@
+package io.manebot.command;
+
+import io.manebot.command.exception.CommandExecutionException;
+import io.manebot.user.User;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.*;
+
+public class CommandPipelineTest {
+
+    @Test
+    public void testSubmit_Ordered() throws Exception {
+        List<CommandMessage> executed = Collections.synchronizedList(new ArrayList<>());
+        CommandShell shell = new TestShell(executed::add);
+
+        try (CommandPipeline pipeline = new CommandPipeline(Executors.defaultThreadFactory(), 4, 16)) {
+            List<CommandMessage> messages = new ArrayList<>();
+            List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+
+            for (int i = 0; i < 16; i ++) {
+                CommandMessage message = new CommandMessage(null, null);
+                messages.add(message);
+                futures.add(pipeline.submit(shell, message));
+            }
+
+            for (CompletableFuture<Boolean> future : futures) assertTrue(future.get(10, TimeUnit.SECONDS));
+            assertEquals("Unexpected execution order", messages, executed);
+        }
+    }
+
+    @Test
+    public void testSubmit_Rejected() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CommandShell shell = new TestShell(message -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        try (CommandPipeline pipeline = new CommandPipeline(Executors.defaultThreadFactory(), 1, 1)) {
+            CompletableFuture<Boolean> running = pipeline.submit(shell, new CommandMessage(null, null));
+            CompletableFuture<Boolean> waiting = pipeline.submit(shell, new CommandMessage(null, null));
+            CompletableFuture<Boolean> rejected = pipeline.submit(shell, new CommandMessage(null, null));
+
+            try {
+                rejected.get(10, TimeUnit.SECONDS);
+                fail("Expected command to be rejected");
+            } catch (ExecutionException e) {
+                assertTrue("Unexpected rejection", e.getCause() instanceof CommandExecutionException);
+            }
+
+            release.countDown();
+            assertTrue(running.get(10, TimeUnit.SECONDS));
+            assertTrue(waiting.get(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testCancel_Interrupts() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        CommandShell shell = new TestShell(message -> {
+            started.countDown();
+            try {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+        });
+
+        try (CommandPipeline pipeline = new CommandPipeline(Executors.defaultThreadFactory(), 1, 1)) {
+            CompletableFuture<Boolean> future = pipeline.submit(shell, new CommandMessage(null, null));
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+
+            future.cancel(true);
+            assertTrue("Command was not interrupted", interrupted.await(10, TimeUnit.SECONDS));
+        }
+    }
+
+    private static final class TestShell implements CommandShell {
+        private final Consumer<CommandMessage> action;
+
+        private TestShell(Consumer<CommandMessage> action) {
+            this.action = action;
+        }
+
+        @Override
+        public User getUser() {
+            return null;
+        }
+
+        @Override
+        public void execute(CommandMessage message) {
+            action.accept(message);
+        }
+
+        @Override
+        public Future<Boolean> executeAsync(CommandMessage message) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void ensureOpen() {
+        }
+    }
+}
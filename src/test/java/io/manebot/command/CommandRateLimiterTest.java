@@ -0,0 +1,46 @@
+package io.manebot.command;
+
+import io.manebot.command.exception.CommandRateLimitException;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class CommandRateLimiterTest {
+
+    @Test
+    public void testTryAcquire_Burst() {
+        CommandRateLimiter limiter = new CommandRateLimiter(3, 1, TimeUnit.HOURS, CommandRateLimiter.Scope.GLOBAL);
+
+        for (int i = 0; i < 3; i ++)
+            assertEquals("Unexpected rejection", 0L, limiter.tryAcquire(null, "test"));
+
+        assertTrue("Expected rejection", limiter.tryAcquire(null, "test") > 0L);
+        assertEquals("Unexpected rejection of other label", 0L, limiter.tryAcquire(null, "other"));
+
+        assertEquals("Unexpected accepted count", 4L, limiter.getAccepted());
+        assertEquals("Unexpected rejected count", 1L, limiter.getRejected());
+    }
+
+    @Test
+    public void testTryAcquire_Refill() throws InterruptedException {
+        CommandRateLimiter limiter = new CommandRateLimiter(
+                1, 50, TimeUnit.MILLISECONDS, 1, CommandRateLimiter.Scope.GLOBAL
+        );
+
+        assertEquals("Unexpected rejection", 0L, limiter.tryAcquire(null, "test"));
+        assertTrue("Expected rejection", limiter.tryAcquire(null, "test") > 0L);
+
+        Thread.sleep(100L);
+        assertEquals("Unexpected rejection after refill", 0L, limiter.tryAcquire(null, "test"));
+    }
+
+    @Test(expected = CommandRateLimitException.class)
+    public void testAcquire_Rejected() throws CommandRateLimitException {
+        CommandRateLimiter limiter = new CommandRateLimiter(1, 1, TimeUnit.HOURS, CommandRateLimiter.Scope.GLOBAL);
+
+        limiter.acquire(null, "test");
+        limiter.acquire(null, "test");
+    }
+}
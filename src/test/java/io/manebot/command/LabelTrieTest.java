@@ -0,0 +1,76 @@
+package io.manebot.command;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class LabelTrieTest {
+
+    @Test
+    public void testGet_IgnoresCase() {
+        LabelTrie<Integer> trie = new LabelTrie<>();
+        trie.put("plugin", 1);
+
+        assertEquals(Integer.valueOf(1), trie.get("PlUgIn"));
+        assertNull(trie.get("plug"));
+        assertNull(trie.get("plugins"));
+    }
+
+    @Test
+    public void testResolve_UniquePrefix() {
+        LabelTrie<Integer> trie = new LabelTrie<>();
+        trie.put("plugin", 1);
+        trie.put("ping", 2);
+        trie.put("permission", 3);
+
+        assertEquals(Integer.valueOf(1), trie.resolve("pl"));
+        assertEquals("plugin", trie.resolveLabel("PL"));
+        assertEquals(Integer.valueOf(3), trie.resolve("pe"));
+        assertNull("Ambiguous prefix resolved", trie.resolve("p"));
+        assertNull("Unknown prefix resolved", trie.resolve("x"));
+    }
+
+    @Test
+    public void testResolve_ExactOverPrefix() {
+        LabelTrie<Integer> trie = new LabelTrie<>();
+        trie.put("user", 1);
+        trie.put("users", 2);
+
+        assertEquals(Integer.valueOf(1), trie.resolve("user"));
+        assertEquals(Integer.valueOf(2), trie.resolve("users"));
+        assertNull(trie.resolve("use"));
+    }
+
+    @Test
+    public void testComplete_Ordered() {
+        LabelTrie<Integer> trie = new LabelTrie<>();
+        trie.put("plugin", 1);
+        trie.put("ping", 2);
+        trie.put("Platform", 3);
+        trie.put("help", 4);
+
+        assertEquals(Arrays.asList("Platform", "plugin"), trie.complete("pl"));
+        assertEquals(Arrays.asList("ping", "Platform", "plugin"), trie.complete("P"));
+        assertEquals(Collections.emptyList(), trie.complete("x"));
+        assertEquals(4, trie.complete("").size());
+    }
+
+    @Test
+    public void testRemove_Prunes() {
+        LabelTrie<Integer> trie = new LabelTrie<>();
+        trie.put("plugin", 1);
+        trie.put("ping", 2);
+
+        assertEquals(Integer.valueOf(1), trie.remove("PLUGIN"));
+        assertNull(trie.remove("plugin"));
+        assertEquals(1, trie.size());
+        assertEquals(Integer.valueOf(2), trie.resolve("p"));
+        assertNull(trie.remove("ping", 3));
+        assertEquals(Integer.valueOf(2), trie.remove("ping", 2));
+        assertTrue(trie.isEmpty());
+        assertEquals(Collections.emptyList(), trie.complete(""));
+    }
+}
@@ -0,0 +1,42 @@
+package io.manebot.command.executor.chained;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ChainStateTest {
+
+    @Test
+    public void testClone_Independent() {
+        ChainState state = new ChainState(null, Arrays.asList("a", "b", "c"), Collections.singletonList("parsed"));
+        ChainState clone = state.clone().extend(2, "x", "y");
+
+        assertEquals("Unexpected original arguments", Arrays.asList("a", "b", "c"), state.getArguments());
+        assertEquals("Unexpected original parsed arguments",
+                Collections.singletonList("parsed"), state.getParsedArguments());
+
+        assertEquals("Unexpected clone arguments", Collections.singletonList("c"), clone.getArguments());
+        assertEquals("Unexpected clone parsed arguments",
+                Arrays.asList("parsed", "x", "y"), clone.getParsedArguments());
+
+        ChainState sibling = state.clone().extend(1, "z");
+        assertEquals("Unexpected sibling parsed arguments", Arrays.asList("parsed", "z"), sibling.getParsedArguments());
+        assertEquals("Unexpected clone parsed arguments",
+                Arrays.asList("parsed", "x", "y"), clone.getParsedArguments());
+    }
+
+    @Test
+    public void testExtend_Overrun() {
+        ChainState state = new ChainState(null, Collections.singletonList("a"), new ArrayList<>());
+        state.extend(5);
+
+        assertEquals("Unexpected remaining argument count", 0, state.size());
+        assertNull("Unexpected next argument", state.next());
+    }
+
+}
@@ -0,0 +1,73 @@
+package io.manebot.command.response;
+
+import io.manebot.chat.ChatMessage;
+import org.junit.Test;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class CommandListResponseTest {
+
+    @Test
+    public void testDescribe_Exact() {
+        CommandListResponse<Integer> response = new TestBuilder().totalElements(13).page(3).build();
+        assertTrue(response.isTotalExact());
+        assertEquals("3", response.describeTotalPages());
+        assertEquals("13", response.describeTotalElements());
+
+        response = new TestBuilder().totalElements(0).build();
+        assertEquals("0", response.describeTotalPages());
+        assertEquals("0", response.describeTotalElements());
+    }
+
+    @Test
+    public void testDescribe_Capped() {
+        CommandListResponse<Integer> response = new TestBuilder().totalElements(1000, false).page(2).build();
+        assertFalse(response.isTotalExact());
+        assertEquals("167+", response.describeTotalPages());
+        assertEquals("1000+", response.describeTotalElements());
+
+        // Lower bounds never describe fewer pages than the page being viewed.
+        response = new TestBuilder().totalElements(12, false).page(5).build();
+        assertEquals("5+", response.describeTotalPages());
+        assertEquals("12+", response.describeTotalElements());
+    }
+
+    @Test
+    public void testDescribe_Unknown() {
+        CommandListResponse<Integer> response = new TestBuilder().totalElements(0, false).page(4).build();
+        assertEquals("4+", response.describeTotalPages());
+        assertEquals("many", response.describeTotalElements());
+    }
+
+    @Test
+    public void testStream() {
+        TestBuilder builder = new TestBuilder();
+        builder.page(2).stream(IntStream.rangeClosed(1, 20).boxed());
+
+        CommandListResponse.ListAccessor<Integer> accessor = builder.build().getAccessor();
+        assertEquals(6, accessor.size());
+        assertEquals(7, (int) accessor.get(0));
+        assertEquals(12, (int) accessor.get(5));
+    }
+
+    private static class TestBuilder extends CommandListResponse.Builder<Integer> {
+        private TestBuilder() {
+            virtual(Collections.emptyList());
+        }
+
+        @Override
+        public CommandListResponse<Integer> build() {
+            return new CommandListResponse<Integer>(null, getTotalElements(), isTotalExact(), getPage(),
+                    getElementsPerPage(), createListAccessor(), getResponder()) {
+                @Override
+                public Collection<ChatMessage> send() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package io.manebot.database;
+
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class DatabaseCacheTest {
+
+    private static DatabaseCache createCache() {
+        return DatabaseCache.builder().policy(String.class, new DatabaseCache.Policy()).build();
+    }
+
+    @Test
+    public void testGet_Hit() {
+        DatabaseCache cache = createCache();
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("value", cache.get(String.class, "key", () -> { loads.incrementAndGet(); return "value"; }));
+        assertEquals("value", cache.get(String.class, "key", () -> { loads.incrementAndGet(); return "other"; }));
+
+        assertEquals(1, loads.get());
+        assertEquals(1L, cache.getStatistics(String.class).getHits());
+        assertEquals(1L, cache.getStatistics(String.class).getMisses());
+    }
+
+    @Test
+    public void testGet_Uncached() {
+        DatabaseCache cache = createCache();
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(Integer.class, "key", loads::incrementAndGet);
+        cache.get(Integer.class, "key", loads::incrementAndGet);
+        DatabaseCache.DISABLED.get(String.class, "key", loads::incrementAndGet);
+
+        assertEquals(3, loads.get());
+        assertFalse(DatabaseCache.DISABLED.isEnabled());
+    }
+
+    @Test
+    public void testGet_Negative() {
+        DatabaseCache cache = createCache();
+        AtomicInteger loads = new AtomicInteger();
+
+        assertNull(cache.get(String.class, "key", () -> { loads.incrementAndGet(); return null; }));
+        assertNull(cache.get(String.class, "key", () -> { loads.incrementAndGet(); return "value"; }));
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testInvalidate() {
+        DatabaseCache cache = createCache();
+
+        cache.get(String.class, "key", () -> "before");
+        cache.invalidate(String.class, "key");
+        assertEquals("after", cache.get(String.class, "key", () -> "after"));
+
+        cache.invalidateAll(String.class);
+        assertEquals(0L, cache.getStatistics(String.class).getSize());
+    }
+
+    @Test
+    public void testInvalidate_DuringLoad() {
+        DatabaseCache cache = createCache();
+
+        // A write commits and invalidates the key while the value it replaced is being loaded.
+        assertEquals("stale", cache.get(String.class, "key", () -> {
+            cache.invalidate(String.class, "key");
+            return "stale";
+        }));
+
+        assertEquals("fresh", cache.get(String.class, "key", () -> "fresh"));
+    }
+
+    @Test
+    public void testGetAll() {
+        DatabaseCache cache = createCache();
+        cache.get(String.class, "a", () -> "cached");
+
+        List<Collection<String>> loaded = new ArrayList<>();
+        Map<String, String> values = cache.getAll(String.class, Arrays.asList("a", "b", "c"), keys -> {
+            loaded.add(new ArrayList<>(keys));
+            cache.invalidate(String.class, "c");
+            return Collections.singletonMap("c", "stale");
+        });
+
+        assertEquals(Arrays.asList("a", "c"), new ArrayList<>(values.keySet()));
+        assertEquals("cached", values.get("a"));
+        assertEquals(Collections.singletonList(Arrays.asList("b", "c")), loaded);
+
+        // "b" was cached as absent; "c" was discarded, as it was invalidated while it loaded.
+        assertNull(cache.get(String.class, "b", () -> "b"));
+        assertEquals("fresh", cache.get(String.class, "c", () -> "fresh"));
+    }
+}
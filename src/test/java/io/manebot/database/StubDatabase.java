@@ -0,0 +1,150 @@
+package io.manebot.database;
+
+import io.manebot.database.search.DefaultSearchHandler;
+import io.manebot.database.search.SearchHandler;
+
+import javax.persistence.EntityManager;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Database whose session accepts every call, returning empty results, for testing code which builds queries without
+ * depending on their results.  The answers of its session's methods may be set.
+ */
+public class StubDatabase implements Database {
+    private final Collection<Class<?>> entities;
+    private final Map<String, Supplier<?>> answers = getAnswers();
+    private final EntityManager session = stub(EntityManager.class, answers);
+
+    public StubDatabase(Class<?>... entities) {
+        this.entities = Collections.unmodifiableList(Arrays.asList(entities));
+    }
+
+    /**
+     * Creates a stub of an interface.  Methods returning interfaces return stubs, which are the same for every call
+     * without arguments; methods returning collections or streams return empty ones, and <b>getSingleResult</b>
+     * returns 0.
+     * @param type interface to stub.
+     * @param <T> interface type.
+     * @return stub.
+     */
+    public static <T> T stub(Class<T> type) {
+        return stub(type, getAnswers());
+    }
+
+    /**
+     * Sets the rows returned by list queries of this database's session.
+     * @param results supplier of rows, called for every query.
+     */
+    public void setResults(Supplier<List<?>> results) {
+        answer("getResultList", results);
+    }
+
+    /**
+     * Sets the answer of every method with a name, on this database's session and any stub reached from it.  Names
+     * may be qualified by the simple name of the interface stubbed, such as <b>Tuple.get</b>.
+     * @param method method name.
+     * @param answer supplier of the value returned, called for every call.
+     */
+    public void answer(String method, Supplier<?> answer) {
+        answers.put(method, answer);
+    }
+
+    /**
+     * Creates a stub of an interface, answering as this database's session does.
+     * @param type interface to stub.
+     * @param <T> interface type.
+     * @return stub.
+     */
+    public <T> T createStub(Class<T> type) {
+        return stub(type, answers);
+    }
+
+    private static Map<String, Supplier<?>> getAnswers() {
+        Map<String, Supplier<?>> answers = new ConcurrentHashMap<>();
+        answers.put("getSingleResult", () -> 0L);
+        return answers;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, Map<String, Supplier<?>> answers) {
+        Map<Method, Object> properties = new ConcurrentHashMap<>();
+
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "stub " + type.getName();
+            }
+
+            Supplier<?> answer = answers.get(type.getSimpleName() + "." + method.getName());
+            if (answer == null) answer = answers.get(method.getName());
+            if (answer != null) return answer.get();
+
+            Class<?> returnType = method.getReturnType();
+            if (returnType == void.class) return null;
+            if (returnType.isPrimitive()) return Array.get(Array.newInstance(returnType, 1), 0);
+            if (returnType.isAssignableFrom(List.class)) return Collections.emptyList();
+            if (returnType.isAssignableFrom(Set.class)) return Collections.emptySet();
+            if (returnType == Stream.class) return Stream.empty();
+            if (!returnType.isInterface()) return null;
+
+            if (args == null || args.length == 0)
+                return properties.computeIfAbsent(method, key -> stub(returnType, answers));
+
+            return stub(returnType, answers);
+        });
+    }
+
+    @Override
+    public ClassLoader getClassLoader() {
+        return getClass().getClassLoader();
+    }
+
+    @Override
+    public DatabaseManager getDatabaseManager() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String getName() {
+        return "stub";
+    }
+
+    @Override
+    public Collection<Class<?>> getEntities() {
+        return entities;
+    }
+
+    @Override
+    public Collection<Database> getDependentDatabases() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return false;
+    }
+
+    @Override
+    public EntityManager openSession() {
+        return session;
+    }
+
+    @Override
+    public <T> SearchHandler.Builder<T> createSearchHandler(Class<T> entityClass) {
+        return DefaultSearchHandler.builder(this, entityClass);
+    }
+
+    @Override
+    public void close() {
+    }
+}
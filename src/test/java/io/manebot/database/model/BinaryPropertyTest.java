@@ -0,0 +1,88 @@
+package io.manebot.database.model;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Date;
+
+import static org.junit.Assert.*;
+
+public class BinaryPropertyTest {
+
+    @Test
+    public void testStrings() throws Exception {
+        MemoryProperty property = new MemoryProperty();
+        assertNull(property.getString());
+
+        property.set("h\u00e9llo");
+        assertEquals(0x1, property.value[0]);
+        assertEquals("h\u00e9llo", property.getString());
+
+        // Values written as UTF-16 before the format marker remain readable
+        property.write("h\u00e9llo".getBytes("UTF-16"));
+        assertEquals("h\u00e9llo", property.getString());
+
+        property.write(new byte[0]);
+        assertEquals("", property.getString());
+    }
+
+    @Test
+    public void testPrimitives() {
+        MemoryProperty property = new MemoryProperty();
+
+        property.set(-2);
+        assertEquals(-2, property.getInteger());
+        property.set(Long.MIN_VALUE + 1);
+        assertEquals(Long.MIN_VALUE + 1, property.getLong());
+        property.set((short) -300);
+        assertEquals((short) -300, property.getShort());
+        property.set(1.5D);
+        assertEquals(1.5D, property.getDouble(), 0D);
+        property.set(-0.25F);
+        assertEquals(-0.25F, property.getFloat(), 0F);
+        property.set('\u20ac');
+        assertEquals('\u20ac', property.getChar());
+        property.set(true);
+        assertTrue(property.getBoolean());
+
+        Date date = new Date(1_900_000_000_000L);
+        property.set(date);
+        assertEquals(date, property.getDate());
+    }
+
+    private static class MemoryProperty extends BinaryProperty {
+        private byte[] value;
+
+        @Override
+        public int size() {
+            return value == null ? -1 : value.length;
+        }
+
+        @Override
+        public int write(byte[] bytes, int offs, int len) {
+            value = Arrays.copyOfRange(bytes, offs, offs + len);
+            return len;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offs, int len) {
+            System.arraycopy(value, 0, bytes, offs, len);
+            return len;
+        }
+
+        @Override
+        public String getName() {
+            return "test";
+        }
+
+        @Override
+        public void unset() {
+            value = null;
+        }
+
+        @Override
+        public boolean isNull() {
+            return value == null;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package io.manebot.database.search;
+
+import org.junit.Test;
+
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ContinuationTest {
+    private static final String SHAPE = DefaultSearchHandler.getShape(search("name:test", SortOrder.ASCENDING));
+
+    @Test
+    public void testRoundTrip_Seek() {
+        Timestamp timestamp = new Timestamp(1234567890123L);
+        timestamp.setNanos(123456789);
+
+        List<Object> values = Arrays.asList(
+                1, 2L, (short) 3, (byte) 4, 5D, 6F, true, 'c', "text \u00E9", timestamp, new Date(42L)
+        );
+
+        String token = DefaultSearchHandler.Continuation.encode(SHAPE, 25, 3, values);
+        DefaultSearchHandler.Continuation continuation = DefaultSearchHandler.Continuation.decode(token, SHAPE, 25);
+
+        assertEquals(3, continuation.getPage());
+        assertEquals(values, continuation.getValues());
+    }
+
+    @Test
+    public void testRoundTrip_Offset() {
+        String token = DefaultSearchHandler.Continuation.encode(SHAPE, 25, 2, null);
+        DefaultSearchHandler.Continuation continuation = DefaultSearchHandler.Continuation.decode(token, SHAPE, 25);
+
+        assertEquals(2, continuation.getPage());
+        assertNull(continuation.getValues());
+    }
+
+    @Test
+    public void testEncode_Unencodable() {
+        // Values which cannot be encoded fall back to describing the page number alone.
+        String token = DefaultSearchHandler.Continuation.encode(SHAPE, 25, 2, Arrays.asList(1, new Object()));
+        assertNull(DefaultSearchHandler.Continuation.decode(token, SHAPE, 25).getValues());
+    }
+
+    @Test
+    public void testDecode_OtherSearch() {
+        String token = DefaultSearchHandler.Continuation.encode(SHAPE, 25, 2, Arrays.asList(1L));
+
+        assertRejected(token, DefaultSearchHandler.getShape(search("name:other", SortOrder.ASCENDING)), 25);
+        assertRejected(token, DefaultSearchHandler.getShape(search("name:test", SortOrder.DESCENDING)), 25);
+        assertRejected(token, SHAPE, 50);
+    }
+
+    @Test
+    public void testDecode_OtherPage() {
+        // Tokens describe the search on any page.
+        String shape = DefaultSearchHandler.getShape(search("name:test", SortOrder.ASCENDING).withPage(4));
+        assertEquals(SHAPE, shape);
+    }
+
+    @Test
+    public void testDecode_Tampered() {
+        byte[] token = Base64.getUrlDecoder().decode(
+                DefaultSearchHandler.Continuation.encode(SHAPE, 25, 2, Arrays.asList("text", 1L))
+        );
+
+        // Version, mode, page, value count, value types, and string length.
+        for (int index : new int[] { 0, 1, 10, 14, 15, 16, 17, 24 }) {
+            byte[] tampered = token.clone();
+            tampered[index] = (byte) 0xFF;
+            assertRejected(Base64.getUrlEncoder().withoutPadding().encodeToString(tampered), SHAPE, 25);
+        }
+
+        assertRejected("not a token!", SHAPE, 25);
+        assertRejected(Base64.getUrlEncoder().encodeToString(new byte[] { 1, 1, 0, 0, 0, 0, 0, 0, 0, 0 }), SHAPE, 25);
+    }
+
+    @Test
+    public void testDecode_Truncated() {
+        byte[] token = Base64.getUrlDecoder().decode(
+                DefaultSearchHandler.Continuation.encode(SHAPE, 25, 2, Arrays.asList("text", 1L))
+        );
+
+        for (int length = 0; length < token.length; length ++)
+            assertRejected(Base64.getUrlEncoder().encodeToString(Arrays.copyOf(token, length)), SHAPE, 25);
+
+        byte[] extended = Arrays.copyOf(token, token.length + 1);
+        assertRejected(Base64.getUrlEncoder().encodeToString(extended), SHAPE, 25);
+    }
+
+    private static Search search(String query, SortOrder order) {
+        return Search.parse(query).withOrders(new Search.DefaultOrder("name", order));
+    }
+
+    private static void assertRejected(String token, String shape, int maxResults) {
+        try {
+            DefaultSearchHandler.Continuation.decode(token, shape, maxResults);
+            fail("Expected token to be rejected: " + token);
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+}
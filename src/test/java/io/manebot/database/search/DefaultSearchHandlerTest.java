@@ -0,0 +1,235 @@
+package io.manebot.database.search;
+
+import io.manebot.database.StubDatabase;
+import io.manebot.database.search.handler.ParameterizedSearchArgumentHandler;
+import org.junit.Test;
+
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.metamodel.SingularAttribute;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class DefaultSearchHandlerTest {
+
+    @Test
+    public void testSearch_ReusesParameterizedQueries() throws Exception {
+        AtomicInteger compiled = new AtomicInteger();
+        SearchHandler<Object> handler = DefaultSearchHandler.builder(new StubDatabase(Object.class), Object.class)
+                .argument("name", new CountingHandler(compiled))
+                .build();
+
+        handler.search(Search.parse("name:first"), 10);
+        handler.search(Search.parse("name:second"), 10);
+
+        // Once for the results, and once for their count.
+        assertEquals(2, compiled.get());
+    }
+
+    @Test
+    public void testSearch_CompilesLiteralQueries() throws Exception {
+        AtomicInteger compiled = new AtomicInteger();
+        SearchHandler<Object> handler = DefaultSearchHandler.builder(new StubDatabase(Object.class), Object.class)
+                .argument("name", new CountingHandler(compiled).not().not())
+                .argument("literal", (root, criteriaBuilder, value) -> {
+                    compiled.incrementAndGet();
+                    return criteriaBuilder.conjunction();
+                })
+                .build();
+
+        handler.search(Search.parse("literal:value"), 10);
+        handler.search(Search.parse("literal:value"), 10);
+        assertEquals(4, compiled.get());
+
+        // Negations of parameterized handlers remain parameterized.
+        handler.search(Search.parse("name:first"), 10);
+        handler.search(Search.parse("name:second"), 10);
+        assertEquals(6, compiled.get());
+    }
+
+    @Test
+    public void testSearch_Always() throws Exception {
+        AtomicInteger compiled = new AtomicInteger(), executions = new AtomicInteger();
+        SearchHandler<Object> handler = DefaultSearchHandler.builder(new StubDatabase(Object.class), Object.class)
+                .argument("name", new CountingHandler(compiled))
+                .always(clause -> {
+                    executions.incrementAndGet();
+                    clause.addPredicate(SearchOperator.MERGE, clause.getCriteriaBuilder().conjunction());
+                })
+                .build();
+
+        handler.search(Search.parse("name:first"), 10);
+        handler.search(Search.parse("name:first"), 10);
+        handler.stream(Search.parse("name:first"), 10).close();
+
+        // The filter runs on every search, for the results and for their count.
+        assertEquals(5, executions.get());
+        assertEquals(5, compiled.get());
+    }
+
+    @Test
+    public void testSearch_CachedCounts() throws Exception {
+        AtomicInteger compiled = new AtomicInteger(), executions = new AtomicInteger();
+        StubDatabase database = new StubDatabase(Object.class);
+        SearchHandler<Object> cached = database.createSearchHandler(Object.class)
+                .argument("name", new CountingHandler(compiled))
+                .count(SearchHandler.CountMode.CACHED)
+                .build();
+        SearchHandler<Object> filtered = database.createSearchHandler(Object.class)
+                .argument("name", new CountingHandler(new AtomicInteger()))
+                .always(clause -> executions.incrementAndGet())
+                .count(SearchHandler.CountMode.CACHED)
+                .build();
+
+        cached.search(Search.parse("name:first"), 10);
+        cached.search(Search.parse("name:first"), 10);
+        assertEquals(2, compiled.get());
+
+        // Counts of filtered searches may differ between callers, and are not cached.
+        filtered.search(Search.parse("name:first"), 10);
+        filtered.search(Search.parse("name:first"), 10);
+        assertEquals(4, executions.get());
+    }
+
+    @Test
+    public void testRandom_CachedIds() throws Exception {
+        AtomicInteger compiled = new AtomicInteger(), executions = new AtomicInteger();
+        StubDatabase database = new StubDatabase(Object.class);
+        database.answer("hasSingleIdAttribute", () -> true);
+        database.answer("getJavaType", () -> Long.class);
+        database.answer("find", Object::new);
+        database.setResults(() -> Arrays.asList(1L, 2L));
+
+        SearchHandler<Object> cached = database.createSearchHandler(Object.class)
+                .argument("name", new CountingHandler(compiled))
+                .sampling(SearchHandler.Sampling.CACHED_IDS)
+                .build();
+        SearchHandler<Object> filtered = database.createSearchHandler(Object.class)
+                .argument("name", new CountingHandler(new AtomicInteger()))
+                .always(clause -> executions.incrementAndGet())
+                .sampling(SearchHandler.Sampling.CACHED_IDS)
+                .build();
+
+        assertEquals(2, cached.random(Search.parse("name:first"), 1).getTotalResults());
+        assertEquals(2, cached.random(Search.parse("name:first"), 1).getTotalResults());
+        assertEquals(1, compiled.get());
+
+        // Identifiers of filtered searches may differ between callers, and are not cached.
+        filtered.random(Search.parse("name:first"), 1);
+        filtered.random(Search.parse("name:first"), 1);
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    public void testSearch_KeysetPageNumbers() throws Exception {
+        AtomicInteger offsets = new AtomicInteger();
+        AtomicReference<String> caller = new AtomicReference<>();
+        StubDatabase database = createKeysetDatabase(offsets);
+
+        SearchHandler<Object> shared = database.createSearchHandler(Object.class)
+                .argument("name", new CountingHandler(new AtomicInteger()))
+                .sort("name", "name")
+                .defaultSort("name", SortOrder.ASCENDING)
+                .pagination(SearchHandler.Pagination.KEYSET)
+                .build();
+        SearchHandler<Object> filtered = database.createSearchHandler(Object.class)
+                .argument("name", new CountingHandler(new AtomicInteger()))
+                .sort("name", "name")
+                .defaultSort("name", SortOrder.ASCENDING)
+                .always(clause -> clause.addPredicate(SearchOperator.MERGE, clause.getCriteriaBuilder().equal(
+                        clause.getRoot().get("owner"), caller.get()
+                )))
+                .pagination(SearchHandler.Pagination.KEYSET)
+                .build();
+
+        // Page numbers seek past the last result of the page before them, once it has been found.
+        shared.search(Search.parse("name:first"), 10);
+        shared.search(Search.parse("name:first").withPage(2), 10);
+        assertEquals(1, offsets.get());
+
+        // Results of filtered searches may differ between callers, so each caller skips to their page.
+        caller.set("alice");
+        filtered.search(Search.parse("name:first"), 10);
+        caller.set("bob");
+        filtered.search(Search.parse("name:first").withPage(2), 10);
+        assertEquals(3, offsets.get());
+    }
+
+    @Test
+    public void testSearch_KeysetNullableKeys() throws Exception {
+        AtomicInteger offsets = new AtomicInteger();
+        StubDatabase database = createKeysetDatabase(offsets);
+        SearchHandler<Object> handler = database.createSearchHandler(Object.class)
+                .argument("name", new CountingHandler(new AtomicInteger()))
+                .sort("name", "name")
+                .defaultSort("name", SortOrder.ASCENDING)
+                .pagination(SearchHandler.Pagination.KEYSET)
+                .build();
+
+        String token = handler.search(Search.parse("name:first"), 10).getContinuationToken();
+        assertNotNull(DefaultSearchHandler.Continuation.decode(token, DefaultSearchHandler.getShape(
+                Search.parse("name:first")), 10).getValues());
+
+        // Null keys cannot be sought past.
+        database.answer("Tuple.get", () -> null);
+        token = handler.search(Search.parse("name:first"), 10).getContinuationToken();
+        assertNull(DefaultSearchHandler.Continuation.decode(token, DefaultSearchHandler.getShape(
+                Search.parse("name:first")), 10).getValues());
+
+        // Nor can keys which may be null, as rows with null keys would be skipped.
+        database.answer("Tuple.get", () -> "key");
+        database.answer("SingularAttribute.isOptional", () -> true);
+        SearchHandler<Object> optional = database.createSearchHandler(Object.class)
+                .argument("name", new CountingHandler(new AtomicInteger()))
+                .sort("name", "name")
+                .defaultSort("name", SortOrder.ASCENDING)
+                .pagination(SearchHandler.Pagination.KEYSET)
+                .build();
+
+        offsets.set(0);
+        token = optional.search(Search.parse("name:first"), 10).getContinuationToken();
+        optional.search(Search.parse("name:first").withCursor(token), 10);
+        assertEquals(2, offsets.get());
+    }
+
+    /**
+     * Creates a database whose list queries find a page of results and more, counting the queries which skip results
+     * by offset.
+     */
+    private static StubDatabase createKeysetDatabase(AtomicInteger offsets) {
+        StubDatabase database = new StubDatabase(Object.class);
+        database.answer("Tuple.get", () -> "key");
+        database.answer("Tuple.getElements", () -> Arrays.asList(null, null));
+        database.answer("getJavaType", () -> String.class);
+        database.answer("Order.getExpression", () -> database.createStub(Path.class));
+        database.answer("Path.getModel", () -> database.createStub(SingularAttribute.class));
+        database.answer("TypedQuery.setFirstResult", () -> {
+            offsets.incrementAndGet();
+            return null;
+        });
+        database.setResults(() -> Collections.nCopies(11, database.createStub(Tuple.class)));
+        return database;
+    }
+
+    private static class CountingHandler implements ParameterizedSearchArgumentHandler {
+        private final AtomicInteger compiled;
+
+        private CountingHandler(AtomicInteger compiled) {
+            this.compiled = compiled;
+        }
+
+        @Override
+        public Predicate handle(Root root, CriteriaBuilder criteriaBuilder, SearchArgument value,
+                                ParameterBinder binder) {
+            compiled.incrementAndGet();
+            return criteriaBuilder.equal(root.get("name"), binder.bind(String.class, SearchArgument::getValue));
+        }
+    }
+}
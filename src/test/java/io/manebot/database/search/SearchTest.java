@@ -9,6 +9,7 @@ import java.util.stream.Collectors;
 
 import static junit.framework.TestCase.assertEquals;
 import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertSame;
 
 public class SearchTest {
     private static final String sortFormat = "sort:%s:%s";
@@ -374,4 +375,74 @@ public class SearchTest {
         assertEquals("Unexpected predicate operator", predicate4.getArgument().getOperator(), SearchOperator.INCLUDE);
         assertEquals("Unexpected predicate value", predicate4.getArgument().getValue(), value3);
     }
+
+    @Test
+    public void testToString_Canonical() {
+        Search search = Search.parse("first  -(\"second \\\"value\\\"\"   +third)")
+                .withOrders(new Search.DefaultOrder("name", SortOrder.DESCENDING))
+                .withPage(3);
+
+        assertEquals("Unexpected canonical query",
+                "first -(\"second \\\"value\\\"\" +third) sort:name:d page:3", search.toString());
+        assertEquals("Unexpected canonical query without page",
+                "first -(\"second \\\"value\\\"\" +third) sort:name:d", search.withPage(1).toString());
+        assertEquals("Equivalent queries have different canonical forms",
+                Search.parse("first -(\"second \\\"value\\\"\" +third)").toString(),
+                Search.parse(" first -( \"second \\\"value\\\"\"  +third ) ").toString());
+    }
+
+    @Test
+    public void testWithCursor() {
+        Search search = Search.parse("page:2");
+        assertNull("Unexpected cursor on parsed search", search.getCursor());
+
+        Search continued = search.withCursor("token");
+        assertEquals("Unexpected cursor", "token", continued.getCursor());
+        assertEquals("Cursor was not preserved across pages", "token", continued.withPage(3).getCursor());
+        assertEquals("Unexpected page", 2, continued.getPage());
+    }
+
+    @Test
+    public void testParse_Cached() {
+        String query = "cachedArgument -(\"cached string\")";
+        assertSame("Parsed search was not reused", Search.parse(query), Search.parse(query));
+        assertEquals("Uncached parse differs from cached parse",
+                Search.parse(query).toString(), Search.parse(" " + query + " ", 1, query.length() + 1).toString());
+    }
+
+    @Test
+    public void testParse_Immutable() {
+        Search search = Search.parse("immutableArgument");
+        Search.PushedLexicalClause rootClause = (Search.PushedLexicalClause) search.getLexicalClause().getActions().get(0);
+
+        try {
+            rootClause.addPredicate(new SearchPredicateArgument(
+                    new SearchArgument(SearchOperator.INCLUDE, "otherArgument")
+            ));
+            throw new AssertionError("Parsed search clause was modified");
+        } catch (UnsupportedOperationException expected) {
+            // Expected
+        }
+
+        try {
+            search.getLexicalClause().getActions().clear();
+            throw new AssertionError("Parsed search was modified");
+        } catch (UnsupportedOperationException expected) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testParse_Directive_Nested() {
+        Search search = Search.parse("first (page:2)");
+        assertEquals("Unexpected search page", 2, search.getPage());
+
+        search = Search.parse("(page:2) last");
+        assertEquals("Unexpected search page", 1, search.getPage());
+
+        Search.PushedLexicalClause rootClause = (Search.PushedLexicalClause) search.getLexicalClause().getActions().get(0);
+        Search.PushedLexicalClause group = (Search.PushedLexicalClause) rootClause.getActions().get(0);
+        assertEquals("Directive outside of the last clause was not kept as an argument",
+                "page:2", group.getActions().get(0).getArgument().getValue());
+    }
 }
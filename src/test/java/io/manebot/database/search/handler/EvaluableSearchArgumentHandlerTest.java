@@ -0,0 +1,128 @@
+package io.manebot.database.search.handler;
+
+import io.manebot.database.search.SearchArgument;
+import io.manebot.database.search.SearchOperator;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class EvaluableSearchArgumentHandlerTest {
+
+    @Test
+    public void testEquals() {
+        EvaluableSearchArgumentHandler handler = new SearchHandlerPropertyEquals("count");
+        assertEquals("count", handler.getEqualityProperty());
+        assertEquals(3, handler.getEqualityValue(Row.class, argument("3")));
+
+        Evaluation test = handler.evaluate(Row.class, argument("3"));
+        assertTrue(test.test(new Row("a", 3, null)));
+        assertFalse(test.test(new Row("a", 4, null)));
+
+        try {
+            handler.evaluate(Row.class, argument("three"));
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void testNumeric() {
+        EvaluableSearchArgumentHandler handler = new SearchHandlerPropertyNumeric("count");
+        assertTrue(handler.evaluate(Row.class, argument(">2")).test(new Row("a", 3, null)));
+        assertFalse(handler.evaluate(Row.class, argument("<3")).test(new Row("a", 3, null)));
+        assertTrue(handler.evaluate(Row.class, argument("!2")).test(new Row("a", 3, null)));
+        assertTrue(handler.evaluate(Row.class, argument("3")).test(new Row("a", 3, null)));
+        assertNull(handler.getEqualityProperty());
+    }
+
+    @Test
+    public void testContainsAndIsNull() {
+        Row row = new Row("h\u00e9llo world", 1, null);
+        assertTrue(new SearchHandlerPropertyContains("name").evaluate(Row.class, argument("o w")).test(row));
+        assertFalse(new SearchHandlerPropertyContains("name").evaluate(Row.class, argument("%")).test(row));
+        assertTrue(new SearchHandlerPropertyIsNull("note").evaluate(Row.class, argument("")).test(row));
+    }
+
+    @Test
+    public void testContains_IgnoresCase() {
+        SearchHandlerPropertyContains handler = new SearchHandlerPropertyContains("name");
+        assertTrue(handler.evaluate(Row.class, argument("WORLD")).test(new Row("Hello World", 1, null)));
+        assertTrue(handler.evaluate(Row.class, argument("h\u00c9llo")).test(new Row("H\u00e9LLO", 1, null)));
+        assertFalse(handler.evaluate(Row.class, argument("worlds")).test(new Row("Hello World", 1, null)));
+    }
+
+    @Test
+    public void testNegatedAndComparing() {
+        SearchArgumentHandler negated = new SearchHandlerPropertyEquals("name").not();
+        assertTrue(EvaluableSearchArgumentHandler.isEvaluable(negated));
+        assertFalse(((EvaluableSearchArgumentHandler) negated).evaluate(Row.class, argument("a"))
+                .test(new Row("a", 1, null)));
+
+        ComparingSearchHandler comparing = new ComparingSearchHandler(
+                new SearchHandlerPropertyContains("name"),
+                new SearchHandlerPropertyContains("note"),
+                SearchOperator.INCLUDE
+        );
+        assertTrue(comparing.evaluate(Row.class, argument("x")).test(new Row("a", 1, "x")));
+        assertFalse(comparing.evaluate(Row.class, argument("x")).test(new Row("a", 1, null)));
+
+        assertFalse(EvaluableSearchArgumentHandler.isEvaluable(new SearchHandlerPropertyEquals(root -> null)));
+        assertFalse(EvaluableSearchArgumentHandler.isEvaluable((root, criteriaBuilder, value) -> null));
+    }
+
+    @Test
+    public void testNullsUnknown() {
+        Row row = new Row("a", null, null);
+        Evaluation.Truth u = Evaluation.Truth.UNKNOWN;
+
+        // As in the database, comparisons with null are unknown, and so are their negations.
+        assertEquals(u, evaluate(new SearchHandlerPropertyEquals("note"), "x", row));
+        assertEquals(u, evaluate(new SearchHandlerPropertyEquals("note").not(), "x", row));
+        assertEquals(u, evaluate(new SearchHandlerPropertyContains("note").not(), "x", row));
+        assertEquals(u, evaluate(new SearchHandlerPropertyNumeric("count").not(), ">5", row));
+
+        // Excluding an unknown comparison leaves the result unknown, unless the other side is false.
+        ComparingSearchHandler excluding = new ComparingSearchHandler(
+                new SearchHandlerPropertyEquals("name"),
+                new SearchHandlerPropertyEquals("note"),
+                SearchOperator.EXCLUDE
+        );
+        assertEquals(u, evaluate(excluding, "a", row));
+        assertEquals(Evaluation.Truth.FALSE, evaluate(excluding, "b", row));
+        assertFalse(excluding.evaluate(Row.class, argument("a")).test(row));
+
+        // Null tests are never unknown.
+        assertEquals(Evaluation.Truth.FALSE, evaluate(new SearchHandlerPropertyIsNull("note").not(), "", row));
+        assertEquals(Evaluation.Truth.TRUE, evaluate(new SearchHandlerPropertyIsNull("name").not(), "", row));
+    }
+
+    @Test
+    public void testTruth() {
+        Evaluation.Truth t = Evaluation.Truth.TRUE, f = Evaluation.Truth.FALSE, u = Evaluation.Truth.UNKNOWN;
+        assertEquals(u, u.not());
+        assertEquals(f, u.and(f));
+        assertEquals(u, u.and(t));
+        assertEquals(t, u.or(t));
+        assertEquals(u, u.or(f));
+    }
+
+    private static Evaluation.Truth evaluate(SearchArgumentHandler handler, String value, Row row) {
+        return ((EvaluableSearchArgumentHandler) handler).evaluate(Row.class, argument(value)).evaluate(row);
+    }
+
+    private static SearchArgument argument(String value) {
+        return new SearchArgument(SearchOperator.UNSPECIFIED, value);
+    }
+
+    private static class Row {
+        private final String name;
+        private final Integer count;
+        private final String note;
+
+        private Row(String name, Integer count, String note) {
+            this.name = name;
+            this.count = count;
+            this.note = note;
+        }
+    }
+}
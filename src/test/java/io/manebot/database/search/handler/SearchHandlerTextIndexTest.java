@@ -0,0 +1,97 @@
+package io.manebot.database.search.handler;
+
+import io.manebot.database.StubDatabase;
+import io.manebot.database.search.SearchArgument;
+import io.manebot.database.search.SearchOperator;
+import io.manebot.database.search.index.TextIndex;
+import org.junit.Test;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Root;
+import javax.persistence.metamodel.SingularAttribute;
+import java.util.*;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+
+public class SearchHandlerTextIndexTest {
+
+    @Test
+    public void testVariant() {
+        StubTextIndex index = new StubTextIndex();
+        SearchHandlerTextIndex handler = new SearchHandlerTextIndex(index, 2);
+
+        index.candidates = null;
+        assertEquals("like", handler.getVariant(argument("a")));
+
+        index.candidates = Collections.emptySet();
+        assertEquals("none", handler.getVariant(argument("b")));
+
+        index.candidates = Arrays.asList(1, 2);
+        assertEquals("in", handler.getVariant(argument("c")));
+
+        index.candidates = Arrays.asList(1, 2, 3);
+        assertEquals("like", handler.getVariant(argument("d")));
+    }
+
+    @Test
+    public void testBind_CandidatesOfVariant() {
+        StubDatabase database = new StubDatabase();
+        SingularAttribute<?, ?> id = database.createStub(SingularAttribute.class);
+        database.answer("isId", () -> true);
+        database.answer("getSingularAttributes", () -> Collections.singleton(id));
+
+        StubTextIndex index = new StubTextIndex();
+        SearchHandlerTextIndex handler = new SearchHandlerTextIndex(index, 2);
+
+        SearchArgument argument = argument("term");
+        index.candidates = Arrays.asList(1, 2);
+        assertEquals("in", handler.getVariant(argument));
+
+        // The index changes, and would now have too many candidates, before the search is bound.
+        index.candidates = Arrays.asList(1, 2, 3);
+
+        List<Object> bound = new ArrayList<>();
+        handler.handle(
+                database.createStub(Root.class),
+                database.createStub(CriteriaBuilder.class),
+                argument,
+                new ParameterizedSearchArgumentHandler.ParameterBinder() {
+                    @Override
+                    public <X> Expression<X> bind(Class<X> type, Function<SearchArgument, ? extends X> value) {
+                        bound.add(value.apply(argument));
+                        return null;
+                    }
+                }
+        );
+
+        assertEquals(Arrays.asList("%term%", Arrays.asList(1, 2)), bound);
+        assertEquals(1, index.finds);
+    }
+
+    private static SearchArgument argument(String value) {
+        return new SearchArgument(SearchOperator.UNSPECIFIED, value);
+    }
+
+    private static class StubTextIndex implements TextIndex<Object> {
+        private Collection<?> candidates;
+        private int finds;
+
+        @Override
+        public Class<Object> getEntityClass() {
+            return Object.class;
+        }
+
+        @Override
+        public String getProperty() {
+            return "text";
+        }
+
+        @Override
+        public Collection<?> find(String term) {
+            finds ++;
+            return candidates;
+        }
+    }
+}
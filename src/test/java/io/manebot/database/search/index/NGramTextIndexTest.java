@@ -0,0 +1,123 @@
+package io.manebot.database.search.index;
+
+import io.manebot.database.StubDatabase;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class NGramTextIndexTest {
+
+    private static NGramTextIndex<Item> createIndex(StubDatabase database) {
+        return new NGramTextIndex<>(database, Item.class, "text", item -> item.id, item -> item.text);
+    }
+
+    private static List<?> rows(Object... values) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < values.length; i += 2) rows.add(new Object[] { values[i], values[i + 1] });
+        return rows;
+    }
+
+    /**
+     * Finds a term once the index is loaded in the background.
+     */
+    private static Collection<?> await(NGramTextIndex<?> index, String term) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000L;
+        Collection<?> candidates;
+        while ((candidates = index.find(term)) == null && System.currentTimeMillis() < deadline) Thread.sleep(10L);
+        return candidates;
+    }
+
+    @Test
+    public void testFind() throws InterruptedException {
+        StubDatabase database = new StubDatabase(Item.class);
+        database.setResults(() -> rows(1, "Hello World", 2, "yellow", 3, "hi", 4, null));
+
+        try (NGramTextIndex<Item> index = createIndex(database)) {
+            assertEquals(new HashSet<>(Arrays.asList(1, 2)), await(index, "ello"));
+            assertEquals(Collections.singleton(1), index.find("WORLD"));
+            assertEquals(Collections.singleton(1), index.find("o w"));
+            assertTrue(index.find("elm").isEmpty());
+            assertTrue(index.find("lowe").isEmpty());
+
+            // Terms shorter than a gram cannot be narrowed.
+            assertNull(index.find("hi"));
+        }
+    }
+
+    @Test
+    public void testFind_Saved() throws InterruptedException {
+        StubDatabase database = new StubDatabase(Item.class);
+        database.setResults(() -> rows(1, "yellow"));
+
+        try (NGramTextIndex<Item> index = createIndex(database)) {
+            assertEquals(Collections.singleton(1), await(index, "llow"));
+
+            index.onSaved(new Item(2, "mellow"));
+            assertEquals(new HashSet<>(Arrays.asList(1, 2)), index.find("llow"));
+
+            // Replaced values remain candidates until the index is rebuilt.
+            index.onSaved(new Item(2, "melody"));
+            assertEquals(new HashSet<>(Arrays.asList(1, 2)), index.find("llow"));
+            assertEquals(Collections.singleton(2), index.find("melo"));
+        }
+    }
+
+    @Test
+    public void testFind_SavedWhileLoading() throws InterruptedException {
+        StubDatabase database = new StubDatabase(Item.class);
+
+        try (NGramTextIndex<Item> index = createIndex(database)) {
+            database.setResults(() -> {
+                // The database was read before this entity was saved.
+                index.onSaved(new Item(2, "mellow"));
+                return rows(1, "yellow");
+            });
+
+            assertEquals(new HashSet<>(Arrays.asList(1, 2)), await(index, "llow"));
+
+            // Invalidated indexes are loaded again.
+            database.setResults(() -> rows(3, "fellow"));
+            index.invalidate();
+            assertEquals(Collections.singleton(3), await(index, "llow"));
+        }
+    }
+
+    @Test
+    public void testFind_Loading() throws InterruptedException {
+        StubDatabase database = new StubDatabase(Item.class);
+        CountDownLatch read = new CountDownLatch(1);
+
+        database.setResults(() -> {
+            try {
+                assertTrue(read.await(10L, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+
+            return rows(1, "yellow");
+        });
+
+        try (NGramTextIndex<Item> index = createIndex(database)) {
+            // Searches do not wait for the index to load, and cannot be narrowed until it has.
+            assertNull(index.find("llow"));
+            assertNull(index.find("llow"));
+
+            read.countDown();
+            assertEquals(Collections.singleton(1), await(index, "llow"));
+        }
+    }
+
+    private static class Item {
+        private final Object id;
+        private final String text;
+
+        private Item(Object id, String text) {
+            this.id = id;
+            this.text = text;
+        }
+    }
+}
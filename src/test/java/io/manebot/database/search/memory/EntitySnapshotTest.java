@@ -0,0 +1,70 @@
+package io.manebot.database.search.memory;
+
+import io.manebot.database.StubDatabase;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class EntitySnapshotTest {
+
+    @Test
+    public void testGetState_SavedWhileLoading() throws Exception {
+        StubDatabase database = new StubDatabase(Row.class);
+        database.answer("SingularAttribute.getName", () -> "id");
+
+        try (EntitySnapshot<Row> snapshot = EntitySnapshot.of(database, Row.class)) {
+            database.setResults(() -> {
+                // The database was read before these entities were saved.
+                snapshot.onSaved(new Row(2, "saved"));
+                return Collections.singletonList(new Row(1, "loaded"));
+            });
+
+            EntitySnapshot.State<Row> state = snapshot.getState();
+            assertEquals("loaded", state.get(1).name);
+            assertEquals("saved", state.get(2).name);
+            assertEquals(Collections.singleton(2), state.find(PropertyAccessor.of(Row.class, "name"), "SAVED"));
+
+            snapshot.onRemoved(state.get(1));
+            assertNull(state.get(1));
+        }
+    }
+
+    @Test
+    public void testGetState_OverlappingLoads() throws Exception {
+        StubDatabase database = new StubDatabase(Row.class);
+        database.answer("SingularAttribute.getName", () -> "id");
+        AtomicInteger loads = new AtomicInteger();
+
+        try (EntitySnapshot<Row> snapshot = EntitySnapshot.of(database, Row.class)) {
+            database.setResults(() -> {
+                if (loads.incrementAndGet() == 1) {
+                    // Another load finishes while this one is in progress, and a save follows it.
+                    try {
+                        snapshot.getState();
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+
+                    snapshot.onSaved(new Row(2, "saved"));
+                }
+
+                return Collections.singletonList(new Row(1, "loaded"));
+            });
+
+            assertEquals("saved", snapshot.getState().get(2).name);
+        }
+    }
+
+    private static class Row {
+        private final Integer id;
+        private final String name;
+
+        private Row(Integer id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package io.manebot.database.search.memory;
+
+import io.manebot.database.StubDatabase;
+import io.manebot.database.search.Search;
+import io.manebot.database.search.SearchHandler;
+import io.manebot.database.search.handler.SearchHandlerPropertyContains;
+import io.manebot.database.search.handler.SearchHandlerPropertyEquals;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class MemorySearchHandlerTest {
+
+    private static SearchHandler<Row> createHandler(Row... rows) {
+        StubDatabase database = new StubDatabase(Row.class);
+        database.answer("SingularAttribute.getName", () -> "id");
+        database.setResults(() -> Arrays.asList(rows));
+
+        SearchHandler<Row> handler = MemorySearchHandler.builder(database, Row.class)
+                .argument("name", new SearchHandlerPropertyEquals("name"))
+                .argument("note", new SearchHandlerPropertyEquals("note"))
+                .command(new SearchHandlerPropertyContains("name"))
+                .build();
+
+        assertTrue(handler instanceof MemorySearchHandler);
+        return handler;
+    }
+
+    private static Set<Integer> find(SearchHandler<Row> handler, String search) throws Exception {
+        return handler.search(Search.parse(search), 10).getResults().stream()
+                .map(row -> row.id)
+                .collect(Collectors.toSet());
+    }
+
+    @Test
+    public void testSearch_Collation() throws Exception {
+        SearchHandler<Row> handler = createHandler(
+                new Row(1, "Foo", null),
+                new Row(2, "foo", "x"),
+                new Row(3, "bar", "x")
+        );
+
+        // Indexed equality and containment both ignore case, as the database's default collation does.
+        assertEquals(new HashSet<>(Arrays.asList(1, 2)), find(handler, "name:FOO"));
+        assertEquals(new HashSet<>(Arrays.asList(1, 2)), find(handler, "OO"));
+        assertEquals(Collections.singleton(3), find(handler, "name:Bar"));
+    }
+
+    @Test
+    public void testSearch_Nulls() throws Exception {
+        SearchHandler<Row> handler = createHandler(
+                new Row(1, "foo", null),
+                new Row(2, "foo", "x"),
+                new Row(3, "foo", "y")
+        );
+
+        // Null properties equal nothing, and are not matched by excluding a value either.
+        assertEquals(Collections.singleton(3), find(handler, "name:foo -note:x"));
+        assertEquals(new HashSet<>(Arrays.asList(2, 3)), find(handler, "name:foo -note:z"));
+    }
+
+    private static class Row {
+        private final Integer id;
+        private final String name;
+        private final String note;
+
+        private Row(Integer id, String name, String note) {
+            this.id = id;
+            this.name = name;
+            this.note = note;
+        }
+    }
+}
@@ -0,0 +1,355 @@
+package io.manebot.event;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.*;
+
+public class EventHandlerRegistryTest {
+
+    @Test
+    public void testExecute_PriorityOrder() {
+        List<String> fired = new ArrayList<>();
+        EventHandlerRegistry registry = new EventHandlerRegistry();
+
+        registry.registerListener(new EventListener() {
+            @EventHandler(priority = EventPriority.LOWEST)
+            public void onLowest(TestEvent event) {
+                fired.add("lowest");
+            }
+
+            @EventHandler(priority = EventPriority.HIGHEST)
+            public void onHighest(Event event) {
+                fired.add("highest");
+            }
+        });
+
+        registry.registerListener(new EventListener() {
+            @EventHandler
+            public void onNormal(TestEvent event) {
+                fired.add("normal");
+            }
+
+            @EventHandler
+            public void onOther(OtherEvent event) {
+                fired.add("other");
+            }
+        });
+
+        registry.execute(new TestEvent());
+        assertEquals(Arrays.asList("highest", "normal", "lowest"), fired);
+        assertEquals(3, registry.getExecutors(TestEvent.class).size());
+    }
+
+    @Test
+    public void testUnregister() {
+        List<String> fired = new ArrayList<>();
+        EventHandlerRegistry registry = new EventHandlerRegistry();
+
+        EventListener listener = new EventListener() {
+            @EventHandler
+            public void onEvent(TestEvent event) {
+                fired.add("fired");
+            }
+        };
+
+        registry.registerListener(listener);
+        registry.execute(new TestEvent());
+        assertTrue(registry.unregisterListener(listener));
+        registry.execute(new TestEvent());
+
+        assertEquals(1, fired.size());
+        assertTrue(registry.getExecutors(TestEvent.class).isEmpty());
+    }
+
+    @Test
+    public void testExecute_Exception() {
+        EventHandlerRegistry registry = new EventHandlerRegistry();
+        IllegalStateException cause = new IllegalStateException();
+
+        registry.registerListener(new EventListener() {
+            @EventHandler
+            public void onEvent(TestEvent event) {
+                throw cause;
+            }
+        });
+
+        try {
+            registry.execute(new TestEvent());
+            fail("Expected exception");
+        } catch (EventExecutionException e) {
+            assertSame(cause, e.getCause());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRegister_InvalidHandler() {
+        new EventHandlerRegistry().registerListener(new EventListener() {
+            @EventHandler
+            public void onEvent(String value) {
+            }
+        });
+    }
+
+    @Test
+    public void testExecuteAsync_AfterSynchronous() throws Exception {
+        List<String> fired = Collections.synchronizedList(new ArrayList<>());
+        EventHandlerRegistry registry = new EventHandlerRegistry();
+
+        registry.registerListener(new EventListener() {
+            @EventHandler(priority = EventPriority.HIGHEST, async = true)
+            public void onAsync(TestEvent event) {
+                fired.add("async");
+            }
+
+            @EventHandler(priority = EventPriority.LOWEST)
+            public void onSync(TestEvent event) {
+                fired.add("sync");
+            }
+        });
+
+        TestEvent event = new TestEvent();
+        assertSame(event, registry.executeAsync(event).get(10, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("sync", "async"), fired);
+    }
+
+    @Test
+    public void testExecuteAsync_Canceled() throws Exception {
+        List<String> fired = Collections.synchronizedList(new ArrayList<>());
+        EventHandlerRegistry registry = new EventHandlerRegistry();
+
+        registry.registerListener(new EventListener() {
+            @EventHandler
+            public void onSync(TestCheckedEvent event) {
+                event.setCanceled(true);
+            }
+
+            @EventHandler(async = true)
+            public void onAsync(TestCheckedEvent event) {
+                fired.add("async");
+            }
+        });
+
+        registry.executeAsync(new TestCheckedEvent()).get(10, TimeUnit.SECONDS);
+        assertTrue(fired.isEmpty());
+    }
+
+    @Test
+    public void testExecuteAsync_Timeout() throws Exception {
+        EventHandlerRegistry registry = new EventHandlerRegistry();
+
+        registry.registerListener(new EventListener() {
+            @EventHandler(async = true, timeout = 50L)
+            public void onAsync(TestEvent event) throws InterruptedException {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+            }
+
+            @EventHandler(async = true)
+            public void onOther(TestEvent event) {
+            }
+        });
+
+        CompletableFuture<TestEvent> future = registry.executeAsync(new TestEvent());
+
+        try {
+            future.get(10, TimeUnit.SECONDS);
+            fail("Expected timeout");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof EventExecutionException);
+            assertTrue(e.getCause().getCause() instanceof TimeoutException);
+        }
+    }
+
+    @Test
+    public void testExecuteAsync_TimeoutWhileQueued() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            EventHandlerRegistry registry = new EventHandlerRegistry(executor);
+
+            registry.registerListener(new EventListener() {
+                @EventHandler(async = true, priority = EventPriority.HIGH)
+                public void onFirst(TestEvent event) throws InterruptedException {
+                    Thread.sleep(200L);
+                }
+
+                // Waits for the first handler's thread longer than its timeout, but runs within it.
+                @EventHandler(async = true, timeout = 100L)
+                public void onSecond(TestEvent event) {
+                }
+            });
+
+            registry.executeAsync(new TestEvent()).get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testMetrics_Timeout() throws Exception {
+        EventHandlerRegistry registry = new EventHandlerRegistry();
+
+        registry.registerListener(new EventListener() {
+            // Fails when it is interrupted by its timeout.
+            @EventHandler(async = true, timeout = 50L)
+            public void onAsync(TestEvent event) throws InterruptedException {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+            }
+        });
+
+        try {
+            registry.executeAsync(new TestEvent()).get(10, TimeUnit.SECONDS);
+            fail("Expected timeout");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause().getCause() instanceof TimeoutException);
+        }
+
+        EventMetrics.ExecutorMetrics metrics = registry.getMetrics().getMetrics(TestEvent.class).get(0);
+        long deadline = System.currentTimeMillis() + 10_000L;
+        while (metrics.getInvocations() == 0L && System.currentTimeMillis() < deadline) Thread.sleep(10L);
+
+        assertEquals(1L, metrics.getInvocations());
+        assertEquals(1L, metrics.getFailures());
+    }
+
+    @Test
+    public void testMetrics() {
+        EventHandlerRegistry registry = new EventHandlerRegistry();
+        EventListener listener = new EventListener() {
+            @EventHandler(priority = EventPriority.HIGH)
+            public void onEvent(TestCheckedEvent event) {
+                if (event.isCanceled()) throw new IllegalStateException();
+                event.setCanceled(true);
+            }
+        };
+
+        registry.registerListener(listener);
+        registry.execute(new TestCheckedEvent());
+        registry.execute(new TestCheckedEvent());
+
+        TestCheckedEvent canceled = new TestCheckedEvent();
+        canceled.setCanceled(true);
+        try {
+            registry.execute(canceled);
+            fail("Expected exception");
+        } catch (EventExecutionException e) {
+            // Expected
+        }
+
+        List<EventMetrics.ExecutorMetrics> metrics = registry.getMetrics().getMetrics(TestCheckedEvent.class);
+        assertEquals(1, metrics.size());
+
+        EventMetrics.ExecutorMetrics executorMetrics = metrics.get(0);
+        assertSame(listener, executorMetrics.getListener());
+        assertEquals(EventPriority.HIGH, executorMetrics.getPriority());
+        assertEquals(3L, executorMetrics.getInvocations());
+        assertEquals(2L, executorMetrics.getCancellations());
+        assertEquals(1L, executorMetrics.getFailures());
+        assertTrue(executorMetrics.getProfiler().getPercentileNanoseconds(0.99D) >= 0L);
+
+        registry.unregisterListener(listener);
+        assertTrue(registry.getMetrics().getMetrics(listener).isEmpty());
+    }
+
+    @Test
+    public void testBatch_Coalescing() throws Exception {
+        EventHandlerRegistry registry = new EventHandlerRegistry();
+        CompletableFuture<List<KeyedEvent>> received = new CompletableFuture<>();
+
+        registry.registerListener(new EventListener() {
+            @EventBatch(window = 10000L, maximumSize = 3)
+            public void onBatch(List<KeyedEvent> events) {
+                received.complete(events);
+            }
+        });
+
+        registry.execute(new KeyedEvent("a", 1));
+        registry.execute(new KeyedEvent(null, 2));
+        registry.execute(new KeyedEvent("a", 3));
+        assertFalse(received.isDone());
+        registry.execute(new KeyedEvent("b", 4));
+
+        List<KeyedEvent> events = received.get(10, TimeUnit.SECONDS);
+        assertEquals(3, events.size());
+        assertEquals(2, events.get(0).value);
+        assertEquals(3, events.get(1).value);
+        assertEquals(4, events.get(2).value);
+    }
+
+    @Test
+    public void testBatch_Window() throws Exception {
+        EventHandlerRegistry registry = new EventHandlerRegistry();
+        CompletableFuture<List<? extends Event>> received = new CompletableFuture<>();
+
+        registry.registerListener(new EventListener() {
+            @EventBatch(window = 50L)
+            public void onBatch(List<? extends TestCheckedEvent> events) {
+                received.complete(events);
+            }
+        });
+
+        TestCheckedEvent canceled = new TestCheckedEvent();
+        canceled.setCanceled(true);
+        TestCheckedEvent event = new TestCheckedEvent();
+
+        registry.execute(canceled);
+        registry.execute(event);
+
+        assertEquals(Collections.singletonList(event), received.get(10, TimeUnit.SECONDS));
+        assertEquals(1, registry.getExecutors(TestCheckedEvent.class).size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRegister_InvalidBatchHandler() {
+        new EventHandlerRegistry().registerListener(new EventListener() {
+            @EventBatch
+            public void onBatch(List<String> events) {
+            }
+        });
+    }
+
+    private static class TestCheckedEvent extends CheckedEvent {
+        private TestCheckedEvent() {
+            super(null);
+        }
+    }
+
+    private static class TestEvent extends Event {
+        private TestEvent() {
+            super(null);
+        }
+    }
+
+    private static class OtherEvent extends Event {
+        private OtherEvent() {
+            super(null);
+        }
+    }
+
+    private static class KeyedEvent extends Event implements BatchableEvent {
+        private final Object key;
+        private final int value;
+
+        private KeyedEvent(Object key, int value) {
+            super(null);
+
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public Object getCoalescingKey() {
+            return key;
+        }
+    }
+}
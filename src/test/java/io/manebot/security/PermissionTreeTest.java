@@ -0,0 +1,99 @@
+package io.manebot.security;
+
+import io.manebot.entity.Entity;
+import io.manebot.user.User;
+import org.junit.Test;
+
+import java.util.Date;
+
+import static org.junit.Assert.*;
+
+public class PermissionTreeTest {
+
+    @Test
+    public void testResolve() {
+        PermissionTree<TestPermission> tree = new PermissionTree<>();
+        TestPermission all = new TestPermission(Grant.DENY);
+        TestPermission system = new TestPermission(Grant.ALLOW);
+        TestPermission ban = new TestPermission(Grant.DENY);
+
+        assertNull(tree.resolve("system.user.ban"));
+
+        tree.put("*", all);
+        assertSame(all, tree.resolve("system.user.ban"));
+        assertSame(all, tree.resolve("system"));
+
+        tree.put("system.*", system);
+        assertSame(system, tree.resolve("system.user.ban"));
+        assertSame(system, tree.resolve("system.user"));
+        assertSame(all, tree.resolve("system"));
+        assertSame(all, tree.resolve("other.user"));
+
+        tree.put("system.user.ban", ban);
+        assertSame(ban, tree.resolve("system.user.ban"));
+        assertSame(ban, tree.resolve("SYSTEM.User.BAN"));
+        assertSame(system, tree.resolve("system.user.ban.other"));
+        assertSame(system, tree.resolve("system.user.unban"));
+
+        assertEquals(3, tree.size());
+    }
+
+    @Test
+    public void testExactAccess() {
+        PermissionTree<TestPermission> tree = new PermissionTree<>();
+        TestPermission wildcard = new TestPermission(Grant.ALLOW);
+        TestPermission exact = new TestPermission(Grant.DENY);
+
+        tree.put("system.*", wildcard);
+        assertSame(wildcard, tree.get("system.*"));
+        assertNull(tree.get("system"));
+        assertNull(tree.get("system.user"));
+
+        tree.put("system", exact);
+        assertSame(exact, tree.get("system"));
+        assertEquals(2, tree.getAll().size());
+
+        assertSame(wildcard, tree.remove("system.*"));
+        assertNull(tree.remove("system.*"));
+        assertSame(exact, tree.resolve("system"));
+        assertNull(tree.resolve("system.user"));
+        assertEquals(1, tree.size());
+    }
+
+    private static class TestPermission implements GrantedPermission {
+        private final Grant grant;
+
+        private TestPermission(Grant grant) {
+            this.grant = grant;
+        }
+
+        @Override
+        public Entity getEntity() {
+            return null;
+        }
+
+        @Override
+        public Permission getPermission() {
+            return null;
+        }
+
+        @Override
+        public Grant getGrant() {
+            return grant;
+        }
+
+        @Override
+        public User getGranter() {
+            return null;
+        }
+
+        @Override
+        public Date getDate() {
+            return null;
+        }
+
+        @Override
+        public void remove() throws SecurityException {
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package io.manebot.virtual;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ProfilerTest {
+
+    @Test
+    public void testRegion_Nested() {
+        Profiler root;
+        try (Profiler outer = Profiler.region("outer")) {
+            root = outer;
+            assertSame(outer, Profiler.get(Thread.currentThread()));
+
+            try (Profiler inner = Profiler.region("inner")) {
+                assertSame(outer, inner.getParent());
+                assertSame(inner, Profiler.get(Thread.currentThread()));
+            }
+
+            assertSame(outer, Profiler.get(Thread.currentThread()));
+        }
+
+        assertFalse(root.isRunning());
+        assertEquals(1L, root.getExecutions());
+        assertEquals(1L, root.getChild("inner").getExecutions());
+        assertTrue(root.getTotalActiveNanoseconds() >= root.getChild("inner").getTotalActiveNanoseconds());
+    }
+
+    @Test
+    public void testRegion_NestedSampled() {
+        Profiler root;
+        Profiler.setSampleInterval(2);
+
+        try {
+            try (Profiler outer = Profiler.region("sampled")) {
+                root = outer;
+
+                for (int i = 0; i < 1000; i ++) {
+                    try (Profiler middle = Profiler.region("middle")) {
+                        try (Profiler inner = Profiler.region("inner")) {
+                            assertSame(middle, inner.getParent());
+                        }
+                    }
+                }
+            }
+        } finally {
+            Profiler.setSampleInterval(1);
+        }
+
+        // Nested regions are each timed about once in every interval, regardless of their depth.
+        Profiler middle = root.getChild("middle"), inner = middle.getChild("inner");
+        assertEquals(1000L, middle.getExecutions());
+        assertEquals(1000L, inner.getExecutions());
+        assertTrue(middle.getSampledExecutions() > 350L && middle.getSampledExecutions() < 650L);
+        assertTrue(inner.getSampledExecutions() > 350L && inner.getSampledExecutions() < 650L);
+    }
+
+    @Test
+    public void testRegion_Concurrent() throws InterruptedException {
+        Profiler shared = new Profiler("shared", null);
+        List<Thread> threads = new ArrayList<>();
+
+        for (int i = 0; i < 8; i ++) {
+            Thread thread = new Thread(() -> {
+                for (int j = 0; j < 1000; j ++) {
+                    Profiler child = shared.getOrCreateChild("child " + (j % 10));
+                    child.getOrCreateChild("grandchild");
+                }
+            });
+
+            threads.add(thread);
+            thread.start();
+        }
+
+        for (Thread thread : threads) thread.join();
+
+        assertEquals(10, shared.getChildren().size());
+        for (Profiler child : shared.getChildren()) assertEquals(1, child.getChildren().size());
+    }
+
+    @Test
+    public void testPercentile() throws InterruptedException {
+        Profiler profiler = null;
+
+        try (Profiler root = Profiler.region("percentile")) {
+            for (int i = 0; i < 10; i ++) {
+                try (Profiler region = Profiler.region("sleep")) {
+                    profiler = region;
+                    Thread.sleep(1L);
+                }
+            }
+        }
+
+        assertEquals(10L, profiler.getSampledExecutions());
+        assertTrue(profiler.getPercentileNanoseconds(0.5D) >= 1_000_000L * 7 / 8);
+        assertTrue(profiler.getPercentileNanoseconds(0.99D) <= profiler.getMaximumNanoseconds());
+        assertTrue(profiler.getPercentileNanoseconds(0.5D) <= profiler.getPercentileNanoseconds(0.99D));
+    }
+}
@@ -0,0 +1,85 @@
+package io.manebot.virtual;
+
+import io.manebot.user.User;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class VirtualTest {
+
+    @Test
+    public void testGetProcess_Unbound() {
+        TestVirtual virtual = new TestVirtual();
+        VirtualProcess process = createProcess(Thread.currentThread().getId());
+        virtual.processes.add(process);
+
+        assertSame(process, virtual.currentProcess());
+        assertNull(virtual.getProcess(-1L));
+    }
+
+    @Test
+    public void testGetProcess_Bound() {
+        TestVirtual virtual = new TestVirtual();
+        VirtualProcess process = createProcess(Thread.currentThread().getId());
+        VirtualProcess other = createProcess(Thread.currentThread().getId() + 1L);
+
+        virtual.bind(process);
+        virtual.bind(other);
+        assertSame(process, virtual.currentProcess());
+        assertSame(other, virtual.getProcess(other.getId()));
+
+        // Only the bound process is unbound from its thread.
+        assertFalse(virtual.unbind(createProcess(process.getId())));
+        assertTrue(virtual.unbind(process));
+        assertNull(virtual.currentProcess());
+        assertSame(other, virtual.getProcess(other.getId()));
+    }
+
+    private static VirtualProcess createProcess(long id) {
+        return (VirtualProcess) Proxy.newProxyInstance(
+                VirtualProcess.class.getClassLoader(),
+                new Class<?>[] { VirtualProcess.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getId":
+                            return id;
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                }
+        );
+    }
+
+    private static class TestVirtual extends Virtual {
+        private final List<VirtualProcess> processes = new ArrayList<>();
+
+        @Override
+        public Collection<VirtualProcess> getProcesses() {
+            return processes;
+        }
+
+        @Override
+        public VirtualProcess create(Runnable runnable) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public User currentUser() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}